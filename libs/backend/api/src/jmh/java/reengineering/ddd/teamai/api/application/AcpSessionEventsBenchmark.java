@@ -0,0 +1,173 @@
+package reengineering.ddd.teamai.api.application;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reengineering.ddd.teamai.api.acp.AcpEventEnvelope;
+import reengineering.ddd.teamai.api.acp.AcpEventIdGenerator;
+import reengineering.ddd.teamai.model.AcpSessionEvent;
+import reengineering.ddd.teamai.model.AcpSessionEventStore;
+import reengineering.ddd.teamai.model.AgentRuntime;
+
+/**
+ * Load test of one ACP session holding {@code eventsPerSession} events with the default retained
+ * window of 2000. The replay benchmarks resume a stream from the start, from the middle and on a
+ * node that restarted after the events were persisted, so most events come from the store. {@link
+ * #appendToSubscribers} appends one event to a session with {@code subscribers} open streams.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AcpSessionEventsBenchmark {
+
+  private static final String SESSION_ID = "load";
+  private static final int RETAINED_EVENTS = 2000;
+
+  @Param({"10000"})
+  private int eventsPerSession;
+
+  private AcpRuntimeBridgeService running;
+  private AcpRuntimeBridgeService restarted;
+  private String middleEventId;
+
+  @Setup
+  public void setup() {
+    InMemoryAcpSessionEventStore store = new InMemoryAcpSessionEventStore();
+    running = bridge(store);
+    running.startSession("project-1", SESSION_ID, "user-1", "load");
+    for (int index = 1; index < eventsPerSession; index++) {
+      running.appendStatus(SESSION_ID, Map.of("index", index));
+    }
+    List<AcpEventEnvelope> events = running.findEventsSince(SESSION_ID, null);
+    middleEventId = events.get(events.size() / 2).eventId();
+
+    restarted = bridge(store);
+    restarted.startSession("project-1", SESSION_ID, "user-1", "load");
+  }
+
+  @Benchmark
+  public List<AcpEventEnvelope> replayFromStart() {
+    return running.findEventsSince(SESSION_ID, null);
+  }
+
+  @Benchmark
+  public List<AcpEventEnvelope> replayFromMiddle() {
+    return running.findEventsSince(SESSION_ID, middleEventId);
+  }
+
+  @Benchmark
+  public List<AcpEventEnvelope> replayAfterRestart() {
+    return restarted.findEventsSince(SESSION_ID, null);
+  }
+
+  @Benchmark
+  public void subscribeFromStart(Blackhole blackhole) {
+    running.subscribe(SESSION_ID, null, blackhole::consume).close();
+  }
+
+  @Benchmark
+  public long appendToSubscribers(FanOut fanOut) {
+    fanOut.service.appendStatus(SESSION_ID, Map.of("state", "RUNNING"));
+    return fanOut.delivered.sum();
+  }
+
+  /** A session with {@code subscribers} open streams whose events are not persisted. */
+  @State(Scope.Benchmark)
+  public static class FanOut {
+    @Param({"1", "16", "64"})
+    private int subscribers;
+
+    private AcpRuntimeBridgeService service;
+    private final LongAdder delivered = new LongAdder();
+
+    @Setup
+    public void setup() {
+      service = bridge(discardingStore());
+      service.startSession("project-1", SESSION_ID, "user-1", "load");
+      for (int subscriber = 0; subscriber < subscribers; subscriber++) {
+        service.subscribe(SESSION_ID, null, envelope -> delivered.increment());
+      }
+    }
+  }
+
+  private static AcpRuntimeBridgeService bridge(AcpSessionEventStore store) {
+    return new AcpRuntimeBridgeService(
+        new AgentRuntimeGateway(new IdleRuntime()),
+        new AcpEventIdGenerator(),
+        store,
+        AcpRuntimeTelemetry.noop(),
+        RETAINED_EVENTS,
+        60_000,
+        System::currentTimeMillis);
+  }
+
+  private static AcpSessionEventStore discardingStore() {
+    return new AcpSessionEventStore() {
+      private final AtomicLong sequence = new AtomicLong();
+
+      @Override
+      public long nextSequence(String projectId, String sessionId) {
+        return sequence.incrementAndGet();
+      }
+
+      @Override
+      public void append(String projectId, AcpSessionEvent event) {}
+
+      @Override
+      public List<AcpSessionEvent> findBySession(
+          String projectId, String sessionId, String afterEventId, int limit) {
+        return List.of();
+      }
+
+      @Override
+      public long lastSequence(String projectId, String sessionId) {
+        return 0;
+      }
+
+      @Override
+      public Optional<String> findProjectId(String sessionId) {
+        return Optional.empty();
+      }
+
+      @Override
+      public void flush(String projectId, String sessionId) {}
+    };
+  }
+
+  private static final class IdleRuntime implements AgentRuntime {
+    @Override
+    public SessionHandle start(StartRequest request) {
+      return new SessionHandle(
+          "runtime-" + request.orchestrationId(),
+          request.orchestrationId(),
+          request.agentId(),
+          Instant.now());
+    }
+
+    @Override
+    public SendResult send(SessionHandle session, SendRequest request) {
+      return new SendResult("", Instant.now());
+    }
+
+    @Override
+    public void stop(SessionHandle session) {}
+
+    @Override
+    public Health health() {
+      return null;
+    }
+  }
+}
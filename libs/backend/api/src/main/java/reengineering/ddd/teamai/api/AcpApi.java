@@ -24,16 +24,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 import reengineering.ddd.archtype.Ref;
-import reengineering.ddd.teamai.api.acp.AcpEventEnvelope;
 import reengineering.ddd.teamai.api.acp.AcpProtocolError;
-import reengineering.ddd.teamai.api.acp.AcpSseEventWriter;
 import reengineering.ddd.teamai.api.application.AcpRuntimeBridgeService;
 import reengineering.ddd.teamai.api.config.TraceIdFilter;
 import reengineering.ddd.teamai.description.AcpSessionDescription;
@@ -54,13 +50,10 @@ public class AcpApi {
   private static final String METHOD_SESSION_PROMPT = "session/prompt";
   private static final String METHOD_SESSION_CANCEL = "session/cancel";
   private static final String METHOD_SESSION_LOAD = "session/load";
-  private static final long STREAM_POLL_INTERVAL_MILLIS = 1000;
-  private static final int STREAM_HEARTBEAT_TICKS = 10;
   private static final Duration IDEMPOTENCY_TTL = Duration.ofSeconds(30);
-  private static final ExecutorService STREAM_EXECUTOR = Executors.newCachedThreadPool();
 
   @Inject Projects projects;
-  @Inject AcpSseEventWriter sseEventWriter;
+  @Inject AcpEventStreams eventStreams;
   @Inject AcpRuntimeBridgeService runtimeBridgeService;
   @Inject AcpGatewayAdminApi gatewayAdminApi;
   private final Map<String, IdempotencyEntry> idempotencyCache = new ConcurrentHashMap<>();
@@ -118,7 +111,7 @@ public class AcpApi {
     }
     String resolvedSessionId = normalizedSessionId(sessionId);
     String resumeCursor = resolveResumeCursor(sinceEventId, lastEventId);
-    STREAM_EXECUTOR.submit(() -> streamLoop(resolvedSessionId, resumeCursor, once, sink, sse));
+    eventStreams.open(resolvedSessionId, resumeCursor, once, sink, sse, traceId());
   }
 
   @Path("gateway")
@@ -126,84 +119,6 @@ public class AcpApi {
     return gatewayAdminApi;
   }
 
-  private void streamLoop(
-      String sessionId, String resumeCursor, boolean once, SseEventSink sink, Sse sse) {
-    String traceId = traceId();
-    String cursor = resumeCursor;
-    int ticks = 0;
-    try {
-      AcpEventEnvelope connectedEnvelope =
-          sseEventWriter.envelope(
-              sessionId,
-              AcpEventEnvelope.TYPE_STATUS,
-              streamStatusPayload("CONNECTED", cursor, traceId),
-              null);
-      sendEnvelope(sink, sse, connectedEnvelope);
-
-      cursor = replayPendingEvents(sessionId, cursor, sink, sse);
-      if (once) {
-        return;
-      }
-
-      while (!sink.isClosed()) {
-        Thread.sleep(STREAM_POLL_INTERVAL_MILLIS);
-        ticks++;
-
-        cursor = replayPendingEvents(sessionId, cursor, sink, sse);
-
-        if (ticks % STREAM_HEARTBEAT_TICKS == 0) {
-          AcpEventEnvelope heartbeat =
-              sseEventWriter.envelope(
-                  sessionId,
-                  AcpEventEnvelope.TYPE_STATUS,
-                  streamStatusPayload("HEARTBEAT", cursor, traceId),
-                  null);
-          sendEnvelope(sink, sse, heartbeat);
-        }
-      }
-    } catch (InterruptedException error) {
-      Thread.currentThread().interrupt();
-      sendStreamError(sink, sse, sessionId, "STREAM_INTERRUPTED", "SSE stream interrupted");
-    } catch (RuntimeException error) {
-      sendStreamError(sink, sse, sessionId, "STREAM_FAILURE", message(error));
-    } finally {
-      if (!sink.isClosed()) {
-        sink.close();
-      }
-    }
-  }
-
-  private String replayPendingEvents(String sessionId, String cursor, SseEventSink sink, Sse sse) {
-    String latestCursor = cursor;
-    List<AcpEventEnvelope> pendingEvents = runtimeBridgeService.findEventsSince(sessionId, cursor);
-    for (AcpEventEnvelope event : pendingEvents) {
-      sendEnvelope(sink, sse, event);
-      latestCursor = event.eventId();
-    }
-    return latestCursor;
-  }
-
-  private void sendEnvelope(SseEventSink sink, Sse sse, AcpEventEnvelope envelope) {
-    if (sink.isClosed()) {
-      return;
-    }
-    sseEventWriter.send(sink, sse, envelope);
-  }
-
-  private void sendStreamError(
-      SseEventSink sink, Sse sse, String sessionId, String code, String errorMessage) {
-    if (sink.isClosed()) {
-      return;
-    }
-    AcpEventEnvelope envelope =
-        sseEventWriter.envelope(
-            sessionId,
-            AcpEventEnvelope.TYPE_ERROR,
-            Map.of("state", "FAILED", "transport", "sse", "traceId", traceId()),
-            new AcpEventEnvelope.EventError(code, errorMessage, true, 1000));
-    sendEnvelope(sink, sse, envelope);
-  }
-
   private void validateRequestEnvelope(JsonRpcRequest request) {
     if (request.jsonrpc() == null || !JSON_RPC_VERSION.equals(request.jsonrpc().trim())) {
       throw new RpcException(AcpProtocolError.INVALID_REQUEST, "jsonrpc must be '2.0'");
@@ -350,7 +265,7 @@ public class AcpApi {
     AcpSession current = requireSession(project, sessionId);
     authorizeProjectMember(project, id(current.getDescription().actor()), securityContext);
     project.updateAcpSessionStatus(sessionId, AcpSessionDescription.Status.CANCELLED, now, reason);
-    runtimeBridgeService.cancelSession(sessionId, reason);
+    runtimeBridgeService.cancelSession(projectId, sessionId, reason);
     AcpSession updated = requireSession(project, sessionId);
     return Map.of("session", sessionPayload(updated), "cancelled", true);
   }
@@ -458,18 +373,6 @@ public class AcpApi {
     return trimmed.isEmpty() ? null : trimmed;
   }
 
-  private Map<String, Object> streamStatusPayload(
-      String state, String latestEventId, String traceId) {
-    Map<String, Object> payload = new LinkedHashMap<>();
-    payload.put("state", state);
-    payload.put("transport", "sse");
-    payload.put("traceId", traceId);
-    if (latestEventId != null) {
-      payload.put("latestEventId", latestEventId);
-    }
-    return payload;
-  }
-
   private void authorizeProjectMember(
       Project project, String actorUserId, SecurityContext securityContext) {
     if (actorUserId == null || actorUserId.isBlank()) {
@@ -0,0 +1,381 @@
+package reengineering.ddd.teamai.api;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reengineering.ddd.teamai.api.acp.AcpEventEnvelope;
+import reengineering.ddd.teamai.api.acp.AcpSseEventWriter;
+import reengineering.ddd.teamai.api.application.AcpRuntimeBridgeService;
+
+/**
+ * Pushes ACP session events to SSE connections as they are appended.
+ *
+ * <p>Each connection subscribes to its session and queues the pushed events; a small shared sender
+ * pool drains the queues, so an idle connection holds no thread. A connection whose queue reaches
+ * {@code max-pending-events} gets a retryable {@code STREAM_OVERFLOW} error after the queued
+ * events and is closed, and the client resumes from its last event id. Heartbeats for all
+ * connections come from one scheduler.
+ *
+ * <p>Sessions that ran on another node or before a restart have no local subscribers to push to;
+ * their connections read the event store on the same scheduler every {@code store-poll-interval-ms}
+ * instead.
+ */
+@Component
+public class AcpEventStreams implements DisposableBean {
+  private static final Logger log = LoggerFactory.getLogger(AcpEventStreams.class);
+  private static final int STORE_PAGE_SIZE = 200;
+
+  private final AcpSseEventWriter sseEventWriter;
+  private final AcpRuntimeBridgeService runtimeBridgeService;
+  private final int maxPendingEvents;
+  private final ExecutorService senders;
+  private final ScheduledExecutorService heartbeats;
+  private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+  @Inject
+  public AcpEventStreams(
+      AcpSseEventWriter sseEventWriter,
+      AcpRuntimeBridgeService runtimeBridgeService,
+      @Value("${team-ai.acp.stream.heartbeat-interval-ms:10000}") long heartbeatIntervalMillis,
+      @Value("${team-ai.acp.stream.store-poll-interval-ms:1000}") long storePollIntervalMillis,
+      @Value("${team-ai.acp.stream.max-pending-events:1024}") int maxPendingEvents,
+      @Value("${team-ai.acp.stream.sender-threads:4}") int senderThreads) {
+    this.sseEventWriter = sseEventWriter;
+    this.runtimeBridgeService = runtimeBridgeService;
+    this.maxPendingEvents = maxPendingEvents;
+    this.senders = Executors.newFixedThreadPool(senderThreads, daemonThreads("acp-sse-sender"));
+    this.heartbeats =
+        Executors.newSingleThreadScheduledExecutor(daemonThreads("acp-sse-heartbeat"));
+    heartbeats.scheduleAtFixedRate(
+        this::sendHeartbeats,
+        heartbeatIntervalMillis,
+        heartbeatIntervalMillis,
+        TimeUnit.MILLISECONDS);
+    heartbeats.scheduleAtFixedRate(
+        this::pollStore, storePollIntervalMillis, storePollIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Streams the events of a session after {@code resumeCursor}. With {@code once} the pending
+   * events are sent and the stream is closed; otherwise it stays open until the client leaves.
+   *
+   * @throws WebApplicationException with 404 if the session is neither running on this node nor
+   *     known to the event store
+   */
+  public void open(
+      String sessionId,
+      String resumeCursor,
+      boolean once,
+      SseEventSink sink,
+      Sse sse,
+      String traceId) {
+    String projectId =
+        runtimeBridgeService
+            .findSessionProject(sessionId)
+            .orElseThrow(() -> new WebApplicationException(Response.Status.NOT_FOUND));
+    Connection connection = new Connection(sessionId, resumeCursor, sink, sse, traceId);
+    connection.enqueueStatus("CONNECTED");
+    if (!runtimeBridgeService.isLocalSession(sessionId)) {
+      connection.storeProjectId = projectId;
+      connection.readStore();
+      if (once) {
+        connection.finish(null);
+      } else {
+        connections.add(connection);
+      }
+      return;
+    }
+    if (once) {
+      runtimeBridgeService.findEventsSince(sessionId, resumeCursor).forEach(connection::enqueue);
+      connection.finish(null);
+      return;
+    }
+    connections.add(connection);
+    try {
+      connection.subscription =
+          runtimeBridgeService.subscribe(sessionId, resumeCursor, connection::enqueue);
+    } catch (IllegalStateException error) {
+      // the session expired after the check above
+      connection.finish(connection.error("SESSION_NOT_FOUND", error.getMessage()));
+      return;
+    }
+    if (connection.closed.get()) {
+      connection.subscription.close();
+    }
+  }
+
+  int openConnections() {
+    return connections.size();
+  }
+
+  @Override
+  public void destroy() {
+    heartbeats.shutdownNow();
+    connections.forEach(Connection::close);
+    senders.shutdownNow();
+  }
+
+  private void sendHeartbeats() {
+    for (Connection connection : connections) {
+      if (connection.sink.isClosed()) {
+        connection.close();
+      } else {
+        connection.enqueueStatus("HEARTBEAT");
+      }
+    }
+  }
+
+  private void pollStore() {
+    for (Connection connection : connections) {
+      if (connection.storeProjectId != null) {
+        connection.schedulePoll();
+      }
+    }
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private record Outbound(AcpEventEnvelope envelope, boolean sessionEvent) {}
+
+  private final class Connection {
+    private final String sessionId;
+    private final SseEventSink sink;
+    private final Sse sse;
+    private final String traceId;
+    private final Queue<Outbound> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile String cursor;
+    private volatile String storeCursor;
+    private volatile String storeProjectId;
+    private volatile boolean finishing;
+    private volatile AcpEventEnvelope finalEvent;
+    private volatile AcpRuntimeBridgeService.Subscription subscription;
+
+    private Connection(
+        String sessionId, String cursor, SseEventSink sink, Sse sse, String traceId) {
+      this.sessionId = sessionId;
+      this.cursor = cursor;
+      this.storeCursor = cursor;
+      this.sink = sink;
+      this.sse = sse;
+      this.traceId = traceId;
+    }
+
+    void enqueue(AcpEventEnvelope envelope) {
+      offer(new Outbound(envelope, true));
+    }
+
+    void enqueueStatus(String state) {
+      offer(
+          new Outbound(
+              sseEventWriter.envelope(
+                  sessionId, AcpEventEnvelope.TYPE_STATUS, statusPayload(state), null),
+              false));
+    }
+
+    /** Stops accepting events, sends the queued ones and {@code lastEvent}, then closes. */
+    void finish(AcpEventEnvelope lastEvent) {
+      if (finishing) {
+        return;
+      }
+      finalEvent = lastEvent;
+      finishing = true;
+      scheduleDrain();
+    }
+
+    /** Queues the events the store holds after the last one read from it. */
+    void readStore() {
+      try {
+        List<AcpEventEnvelope> page;
+        do {
+          page =
+              runtimeBridgeService.findHistory(
+                  storeProjectId, sessionId, storeCursor, STORE_PAGE_SIZE);
+          for (AcpEventEnvelope envelope : page) {
+            enqueue(envelope);
+            storeCursor = envelope.eventId();
+          }
+        } while (page.size() >= STORE_PAGE_SIZE && !finishing && !closed.get());
+      } catch (RuntimeException error) {
+        log.warn(
+            "event=acp_sse_store_poll_failed traceId={} sessionId={} message={}",
+            traceId,
+            sessionId,
+            error.getMessage());
+        finish(error("STREAM_FAILURE", error.getMessage()));
+      }
+    }
+
+    void schedulePoll() {
+      if (closed.get() || finishing || !polling.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        senders.execute(
+            () -> {
+              try {
+                readStore();
+              } finally {
+                polling.set(false);
+              }
+            });
+      } catch (RejectedExecutionException error) {
+        polling.set(false);
+        close();
+      }
+    }
+
+    void close() {
+      if (!closed.compareAndSet(false, true)) {
+        return;
+      }
+      connections.remove(this);
+      if (subscription != null) {
+        subscription.close();
+      }
+      pending.clear();
+      try {
+        if (!sink.isClosed()) {
+          sink.close();
+        }
+      } catch (RuntimeException error) {
+        log.debug("event=acp_sse_close_failed sessionId={}", sessionId, error);
+      }
+    }
+
+    private void offer(Outbound outbound) {
+      if (finishing || closed.get()) {
+        return;
+      }
+      if (pendingCount.incrementAndGet() > maxPendingEvents) {
+        pendingCount.decrementAndGet();
+        log.warn(
+            "event=acp_sse_overflow traceId={} sessionId={} pending={}",
+            traceId,
+            sessionId,
+            maxPendingEvents);
+        finish(
+            error("STREAM_OVERFLOW", "SSE client is too slow, resume from the last event id"));
+        return;
+      }
+      pending.add(outbound);
+      scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+      if (closed.get() || !draining.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        senders.execute(this::drain);
+      } catch (RejectedExecutionException error) {
+        draining.set(false);
+        close();
+      }
+    }
+
+    private void drain() {
+      try {
+        Outbound outbound;
+        while (!closed.get() && (outbound = pending.poll()) != null) {
+          pendingCount.decrementAndGet();
+          send(outbound.envelope(), outbound.sessionEvent());
+          if (outbound.sessionEvent()) {
+            cursor = outbound.envelope().eventId();
+          }
+        }
+        if (finishing && pending.isEmpty()) {
+          if (finalEvent != null) {
+            send(finalEvent, false);
+          }
+          close();
+        }
+      } catch (RuntimeException error) {
+        log.warn(
+            "event=acp_sse_send_failed traceId={} sessionId={} message={}",
+            traceId,
+            sessionId,
+            error.getMessage());
+        sendQuietly(error("STREAM_FAILURE", error.getMessage()));
+        close();
+      } finally {
+        draining.set(false);
+      }
+      if (!closed.get() && (finishing || !pending.isEmpty())) {
+        scheduleDrain();
+      }
+    }
+
+    private void send(AcpEventEnvelope envelope, boolean sessionEvent) {
+      if (sink.isClosed()) {
+        close();
+        return;
+      }
+      if (sessionEvent) {
+        sseEventWriter.send(sink, sse, envelope);
+      } else {
+        sseEventWriter.sendNotice(sink, sse, envelope);
+      }
+    }
+
+    private void sendQuietly(AcpEventEnvelope envelope) {
+      try {
+        send(envelope, false);
+      } catch (RuntimeException ignored) {
+        // the sink is already broken
+      }
+    }
+
+    private AcpEventEnvelope error(String code, String message) {
+      return sseEventWriter.envelope(
+          sessionId,
+          AcpEventEnvelope.TYPE_ERROR,
+          Map.of("state", "FAILED", "transport", "sse", "traceId", traceId),
+          new AcpEventEnvelope.EventError(
+              code, message == null ? "SSE stream failed" : message, true, 1000));
+    }
+
+    private Map<String, Object> statusPayload(String state) {
+      Map<String, Object> payload = new LinkedHashMap<>();
+      payload.put("state", state);
+      payload.put("transport", "sse");
+      payload.put("traceId", traceId);
+      if (cursor != null) {
+        payload.put("latestEventId", cursor);
+      }
+      return payload;
+    }
+  }
+}
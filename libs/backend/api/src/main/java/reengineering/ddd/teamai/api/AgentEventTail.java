@@ -0,0 +1,110 @@
+package reengineering.ddd.teamai.api;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import reengineering.ddd.teamai.model.AgentEvent;
+
+/**
+ * Read position of one agent event stream.
+ *
+ * <p>Event ids are taken when a transaction inserts the event, not when it commits, so an event
+ * can become visible after events with higher ids were already streamed. Reading strictly after
+ * the highest id sent would skip it. Each poll therefore reads after the floor, which trails the
+ * high-water mark by {@code commitGraceMillis}, and skips the ids it already sent. At most {@code
+ * capacity} recent ids are remembered; older ones move the floor up early.
+ */
+final class AgentEventTail {
+  /** Appended order of two event ids: ids are sequence numbers, so a longer id is a later one. */
+  static final Comparator<String> APPEND_ORDER =
+      Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+  private final long commitGraceMillis;
+  private final int capacity;
+  private final LongSupplier clock;
+  private final Deque<Sent> recent = new ArrayDeque<>();
+  private final Set<String> recentIds = new HashSet<>();
+  private String floor;
+  private String highWaterMark;
+
+  AgentEventTail(String cursor, long commitGraceMillis, int capacity, LongSupplier clock) {
+    this.floor = cursor;
+    this.highWaterMark = cursor;
+    this.commitGraceMillis = commitGraceMillis;
+    this.capacity = Math.max(1, capacity);
+    this.clock = clock;
+  }
+
+  /**
+   * Reads the events after the floor in batches of {@code batchSize} and passes every event that
+   * was not sent yet to {@code send}.
+   *
+   * @return the number of events sent
+   */
+  int poll(
+      BiFunction<String, Integer, List<AgentEvent>> appendedAfter,
+      int batchSize,
+      Consumer<AgentEvent> send) {
+    long now = clock.getAsLong();
+    expire(now);
+    String after = floor;
+    int sent = 0;
+    while (true) {
+      List<AgentEvent> batch = appendedAfter.apply(after, batchSize);
+      for (AgentEvent event : batch) {
+        if (remember(event.getIdentity(), now)) {
+          send.accept(event);
+          sent++;
+        }
+      }
+      if (batch.size() < batchSize) {
+        return sent;
+      }
+      after = batch.get(batch.size() - 1).getIdentity();
+    }
+  }
+
+  /** Highest event id sent so far, or the cursor the stream resumed from. */
+  String highWaterMark() {
+    return highWaterMark;
+  }
+
+  private boolean remember(String id, long now) {
+    if (isAtOrBelow(id, floor) || !recentIds.add(id)) {
+      return false;
+    }
+    recent.addLast(new Sent(id, now));
+    if (highWaterMark == null || APPEND_ORDER.compare(id, highWaterMark) > 0) {
+      highWaterMark = id;
+    }
+    while (recent.size() > capacity) {
+      forget(recent.removeFirst());
+    }
+    return true;
+  }
+
+  private void expire(long now) {
+    while (!recent.isEmpty() && recent.peekFirst().sentAt() <= now - commitGraceMillis) {
+      forget(recent.removeFirst());
+    }
+  }
+
+  private void forget(Sent sent) {
+    recentIds.remove(sent.id());
+    if (floor == null || APPEND_ORDER.compare(sent.id(), floor) > 0) {
+      floor = sent.id();
+    }
+  }
+
+  private static boolean isAtOrBelow(String id, String floor) {
+    return floor != null && APPEND_ORDER.compare(id, floor) <= 0;
+  }
+
+  private record Sent(String id, long sentAt) {}
+}
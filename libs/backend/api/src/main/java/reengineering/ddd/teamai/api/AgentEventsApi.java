@@ -23,14 +23,14 @@ import jakarta.ws.rs.core.UriInfo;
 import jakarta.ws.rs.sse.OutboundSseEvent;
 import jakarta.ws.rs.sse.Sse;
 import jakarta.ws.rs.sse.SseEventSink;
+import java.net.URI;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Objects;
-import java.util.Set;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Function;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.hateoas.CollectionModel;
@@ -47,6 +47,9 @@ import reengineering.ddd.teamai.model.Project;
 public class AgentEventsApi {
   private static final long STREAM_POLL_INTERVAL_MILLIS = 1000;
   private static final int STREAM_HEARTBEAT_TICKS = 10;
+  private static final int STREAM_BATCH_SIZE = 200;
+  private static final long STREAM_COMMIT_GRACE_MILLIS = 5000;
+  private static final int STREAM_RECENT_EVENTS = 256;
   private static final ExecutorService STREAM_EXECUTOR = Executors.newCachedThreadPool();
 
   @Context ResourceContext resourceContext;
@@ -75,16 +78,25 @@ public class AgentEventsApi {
   @GET
   @VendorMediaType(ResourceTypes.AGENT_EVENT_COLLECTION)
   public CollectionModel<AgentEventModel> findAll(
-      @Context UriInfo uriInfo, @DefaultValue("0") @QueryParam("page") int page) {
-    CollectionModel<AgentEventModel> model =
-        new Pagination<>(project.events().findAll(), 40)
-            .page(
-                page,
-                event -> AgentEventModel.simple(project, event, uriInfo),
-                p ->
-                    ApiTemplates.events(uriInfo)
-                        .queryParam("page", p)
-                        .build(project.getIdentity()));
+      @Context UriInfo uriInfo,
+      @DefaultValue("0") @QueryParam("page") int page,
+      @QueryParam("cursor") String cursor) {
+    Pagination<AgentEvent> pagination = new Pagination<>(project.events().findAll(), 40);
+    Function<AgentEvent, AgentEventModel> toModel =
+        event -> AgentEventModel.simple(project, event, uriInfo);
+    Function<String, URI> toCursorUri =
+        c -> ApiTemplates.events(uriInfo).queryParam("cursor", c).build(project.getIdentity());
+    CollectionModel<AgentEventModel> model;
+    if (blankToNull(cursor) != null) {
+      model = pagination.after(cursor.trim(), toModel, toCursorUri);
+    } else {
+      model =
+          pagination.page(
+              page,
+              toModel,
+              p -> ApiTemplates.events(uriInfo).queryParam("page", p).build(project.getIdentity()),
+              toCursorUri);
+    }
 
     model.add(
         Affordances.of(
@@ -145,37 +157,25 @@ public class AgentEventsApi {
     String cursorSource = "none";
 
     try {
-      List<AgentEvent> baselineEvents = project.events().findAll().stream().toList();
       ResumeCursor resumeCursor =
-          resolveResumeCursor(baselineEvents, blankToNull(sinceEventId), blankToNull(lastEventId));
+          resolveResumeCursor(blankToNull(sinceEventId), blankToNull(lastEventId));
       cursor = resumeCursor.cursor();
       cursorSource = resumeCursor.source();
-      int replayStart = replayStartIndex(baselineEvents, cursor);
-      int replayCount = Math.max(0, baselineEvents.size() - replayStart);
+      boolean resumable = cursor != null && findEvent(cursor).isPresent();
+      String mode = cursor == null ? "initial" : resumable ? "resume" : "resume-miss";
 
       streamTelemetry.connectionOpened(project.getIdentity(), cursor, cursorSource);
-      if (replayCount > 0 && !"none".equals(cursorSource)) {
-        streamTelemetry.replay(project.getIdentity(), cursorSource, replayCount);
-      }
-
-      Set<String> delivered = new HashSet<>();
-      for (AgentEvent baselineEvent : baselineEvents) {
-        delivered.add(baselineEvent.getIdentity());
-      }
-
-      String mode = cursor == null ? "initial" : replayStart > 0 ? "resume" : "resume-miss";
-      sendSnapshot(
-          sseEventSink,
-          sse,
-          baselineEvents,
-          cursor,
-          mode,
-          cursorSource,
-          traceId,
-          uriInfo.getPath());
-
-      for (int index = replayStart; index < baselineEvents.size(); index++) {
-        sendAgentEvent(sseEventSink, sse, baselineEvents.get(index), traceId);
+      sendSnapshot(sseEventSink, sse, cursor, mode, cursorSource, traceId, uriInfo.getPath());
+
+      AgentEventTail tail =
+          new AgentEventTail(
+              resumable ? cursor : null,
+              STREAM_COMMIT_GRACE_MILLIS,
+              STREAM_RECENT_EVENTS,
+              System::currentTimeMillis);
+      int replayed = sendEventsAppendedAfter(sseEventSink, sse, tail, traceId);
+      if (replayed > 0 && !"none".equals(cursorSource)) {
+        streamTelemetry.replay(project.getIdentity(), cursorSource, replayed);
       }
 
       if (once) {
@@ -188,19 +188,11 @@ public class AgentEventsApi {
         Thread.sleep(STREAM_POLL_INTERVAL_MILLIS);
         ticks++;
 
-        List<AgentEvent> events = project.events().findAll().stream().toList();
-        String latestEventId =
-            events.isEmpty() ? null : events.get(events.size() - 1).getIdentity();
-
-        for (AgentEvent event : events) {
-          if (delivered.add(event.getIdentity())) {
-            sendAgentEvent(sseEventSink, sse, event, traceId);
-          }
-        }
+        sendEventsAppendedAfter(sseEventSink, sse, tail, traceId);
 
         if (ticks % STREAM_HEARTBEAT_TICKS == 0) {
-          sendHeartbeat(sseEventSink, sse, latestEventId, traceId);
-          streamTelemetry.heartbeat(project.getIdentity(), latestEventId);
+          sendHeartbeat(sseEventSink, sse, tail.highWaterMark(), traceId);
+          streamTelemetry.heartbeat(project.getIdentity(), tail.highWaterMark());
         }
       }
     } catch (InterruptedException error) {
@@ -237,8 +229,7 @@ public class AgentEventsApi {
     }
   }
 
-  private ResumeCursor resolveResumeCursor(
-      List<AgentEvent> events, String sinceEventId, String lastEventId) {
+  private ResumeCursor resolveResumeCursor(String sinceEventId, String lastEventId) {
     if (sinceEventId == null && lastEventId == null) {
       return new ResumeCursor(null, "none");
     }
@@ -252,63 +243,59 @@ public class AgentEventsApi {
       return new ResumeCursor(sinceEventId, "both");
     }
 
-    int sinceIndex = indexOfEvent(events, sinceEventId);
-    int lastIndex = indexOfEvent(events, lastEventId);
-    if (sinceIndex >= 0 && lastIndex >= 0) {
-      return sinceIndex >= lastIndex
+    Optional<AgentEvent> since = findEvent(sinceEventId);
+    Optional<AgentEvent> last = findEvent(lastEventId);
+    if (since.isPresent() && last.isPresent()) {
+      return AgentEventTail.APPEND_ORDER.compare(sinceEventId, lastEventId) > 0
           ? new ResumeCursor(sinceEventId, "merged")
           : new ResumeCursor(lastEventId, "merged");
     }
-    if (sinceIndex >= 0) {
+    if (since.isPresent()) {
       return new ResumeCursor(sinceEventId, "since");
     }
-    if (lastIndex >= 0) {
+    if (last.isPresent()) {
       return new ResumeCursor(lastEventId, "last-event-id");
     }
     return new ResumeCursor(sinceEventId, "since");
   }
 
-  private int replayStartIndex(List<AgentEvent> events, String resumeFrom) {
-    if (resumeFrom == null) {
-      return 0;
-    }
-    for (int index = 0; index < events.size(); index++) {
-      if (resumeFrom.equals(events.get(index).getIdentity())) {
-        return index + 1;
-      }
+  private Optional<AgentEvent> findEvent(String eventId) {
+    try {
+      return project.events().findByIdentity(eventId);
+    } catch (IllegalArgumentException malformedId) {
+      return Optional.empty();
     }
-    return 0;
   }
 
-  private int indexOfEvent(List<AgentEvent> events, String eventId) {
-    if (eventId == null) {
-      return -1;
-    }
-    for (int index = 0; index < events.size(); index++) {
-      if (eventId.equals(events.get(index).getIdentity())) {
-        return index;
-      }
-    }
-    return -1;
+  /**
+   * Sends every event of {@code tail} that was not sent yet, one batch at a time, and returns how
+   * many were sent.
+   */
+  private int sendEventsAppendedAfter(
+      SseEventSink sseEventSink, Sse sse, AgentEventTail tail, String traceId) {
+    return tail.poll(
+        (after, limit) -> project.findEventsAppendedAfter(after, limit).stream().toList(),
+        STREAM_BATCH_SIZE,
+        event -> sendAgentEvent(sseEventSink, sse, event, traceId));
   }
 
   private void sendSnapshot(
       SseEventSink sseEventSink,
       Sse sse,
-      List<AgentEvent> events,
       String resumeFrom,
       String mode,
       String cursorSource,
       String traceId,
       String streamPath) {
-    String latestEventId = events.isEmpty() ? null : events.get(events.size() - 1).getIdentity();
+    String latestEventId =
+        project.findLastAppendedEvent().map(AgentEvent::getIdentity).orElse(null);
     SnapshotPayload payload =
         new SnapshotPayload(
             project.getIdentity(),
             mode,
             resumeFrom,
             latestEventId,
-            events.size(),
+            project.events().findAll().size(),
             cursorSource,
             traceId,
             streamPath,
@@ -63,6 +63,22 @@ public class ApiTemplates {
     return project(uriInfo).path(ProjectApi.class, "knowledgeGraph");
   }
 
+  public static UriBuilder knowledgeGraphExport(UriInfo uriInfo) {
+    return knowledgeGraph(uriInfo).path(KnowledgeGraphApi.class, "export");
+  }
+
+  public static UriBuilder similarNodes(UriInfo uriInfo) {
+    return knowledgeGraph(uriInfo).path(KnowledgeGraphApi.class, "similarNodes");
+  }
+
+  public static UriBuilder neighborhood(UriInfo uriInfo) {
+    return knowledgeGraph(uriInfo).path(KnowledgeGraphApi.class, "neighborhood");
+  }
+
+  public static UriBuilder shortestPath(UriInfo uriInfo) {
+    return knowledgeGraph(uriInfo).path(KnowledgeGraphApi.class, "shortestPath");
+  }
+
   public static UriBuilder diagram(UriInfo uriInfo) {
     return diagrams(uriInfo).path(DiagramsApi.class, "findById");
   }
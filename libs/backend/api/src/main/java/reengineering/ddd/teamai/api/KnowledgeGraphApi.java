@@ -1,16 +1,41 @@
 package reengineering.ddd.teamai.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import reengineering.ddd.teamai.api.representation.KnowledgeGraphModel;
+import reengineering.ddd.teamai.api.representation.KnowledgeGraphPathModel;
+import reengineering.ddd.teamai.api.representation.NeighborhoodModel;
+import reengineering.ddd.teamai.api.representation.SimilarNodesModel;
 import reengineering.ddd.teamai.model.KnowledgeGraph;
 import reengineering.ddd.teamai.model.KnowledgeGraphReader;
 import reengineering.ddd.teamai.model.Project;
 
 public class KnowledgeGraphApi {
+  static final int MAX_SIMILAR_NODES = 100;
+  static final int MAX_TRAVERSAL_DEPTH = 6;
+  static final int NEIGHBORHOOD_PAGE_SIZE = 100;
+  static final int DEFAULT_PAGE_LIMIT = 500;
+  static final int MAX_PAGE_LIMIT = 5000;
+  static final String NDJSON = "application/x-ndjson";
+
   @Inject private KnowledgeGraphReader knowledgeGraphReader;
+  @Inject private ObjectMapper objectMapper;
 
   private final Project project;
 
@@ -18,10 +43,135 @@ public class KnowledgeGraphApi {
     this.project = project;
   }
 
+  /**
+   * Returns the whole graph, or with {@code limit} or {@code cursor} one page of it in export order
+   * with a {@code next} link carrying the cursor of the following page.
+   */
   @GET
   @VendorMediaType(ResourceTypes.KNOWLEDGE_GRAPH)
-  public KnowledgeGraphModel get(@Context UriInfo uriInfo) {
-    KnowledgeGraph graph = knowledgeGraphReader.readProjectKnowledgeGraph(project.getIdentity());
-    return KnowledgeGraphModel.of(project, graph, uriInfo);
+  public KnowledgeGraphModel get(
+      @QueryParam("cursor") String cursor,
+      @QueryParam("limit") Integer limit,
+      @Context UriInfo uriInfo) {
+    if (cursor == null && limit == null) {
+      KnowledgeGraph graph = knowledgeGraphReader.readProjectKnowledgeGraph(project.getIdentity());
+      return KnowledgeGraphModel.of(project, graph, uriInfo);
+    }
+    int pageLimit = limit == null ? DEFAULT_PAGE_LIMIT : limit;
+    if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT) {
+      throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_LIMIT);
+    }
+    KnowledgeGraph.Page page;
+    try {
+      page =
+          knowledgeGraphReader.readProjectKnowledgeGraphPage(
+              project.getIdentity(), cursor, pageLimit);
+    } catch (IllegalArgumentException error) {
+      throw new BadRequestException(error.getMessage());
+    }
+    return KnowledgeGraphModel.of(project, page, cursor, pageLimit, uriInfo);
+  }
+
+  /** Streams every node and then every edge as NDJSON, in constant memory per request. */
+  @GET
+  @Path("export")
+  @Produces(NDJSON)
+  public Response export() {
+    StreamingOutput body =
+        output -> {
+          try (KnowledgeGraphNdjsonWriter writer =
+              new KnowledgeGraphNdjsonWriter(objectMapper, output)) {
+            knowledgeGraphReader.exportProjectKnowledgeGraph(project.getIdentity(), writer);
+          } catch (UncheckedIOException error) {
+            throw error.getCause();
+          }
+        };
+    return Response.ok(body, NDJSON).build();
+  }
+
+  @GET
+  @Path("similar-nodes")
+  @VendorMediaType(ResourceTypes.KNOWLEDGE_GRAPH_SIMILAR_NODES)
+  public SimilarNodesModel similarNodes(
+      @QueryParam("logicalEntityId") String logicalEntityId,
+      @DefaultValue("10") @QueryParam("limit") int limit,
+      @Context UriInfo uriInfo) {
+    requireEntityId("logicalEntityId", logicalEntityId);
+    if (limit < 1 || limit > MAX_SIMILAR_NODES) {
+      throw new BadRequestException("limit must be between 1 and " + MAX_SIMILAR_NODES);
+    }
+    List<KnowledgeGraph.SimilarNode> nodes =
+        knowledgeGraphReader.findSimilarNodes(project.getIdentity(), logicalEntityId, limit);
+    return SimilarNodesModel.of(project, logicalEntityId, limit, nodes, uriInfo);
+  }
+
+  /**
+   * Returns one page of the nodes reachable from {@code logicalEntityId}, with a {@code next} link
+   * carrying the cursor of the following page.
+   */
+  @GET
+  @Path("neighborhood")
+  @VendorMediaType(ResourceTypes.KNOWLEDGE_GRAPH_NEIGHBORHOOD)
+  public NeighborhoodModel neighborhood(
+      @QueryParam("logicalEntityId") String logicalEntityId,
+      @DefaultValue("1") @QueryParam("depth") int depth,
+      @DefaultValue("BOTH") @QueryParam("direction") String direction,
+      @QueryParam("relationType") List<String> relationTypes,
+      @QueryParam("cursor") String cursor,
+      @Context UriInfo uriInfo) {
+    requireEntityId("logicalEntityId", logicalEntityId);
+    KnowledgeGraph.Traversal traversal = traversal("depth", depth, direction, relationTypes);
+    KnowledgeGraph.Neighborhood neighborhood;
+    try {
+      neighborhood =
+          knowledgeGraphReader.findNeighborhood(
+              project.getIdentity(), logicalEntityId, traversal, cursor, NEIGHBORHOOD_PAGE_SIZE);
+    } catch (IllegalArgumentException error) {
+      throw new BadRequestException(error.getMessage());
+    }
+    return NeighborhoodModel.of(project, traversal, neighborhood, cursor, uriInfo);
+  }
+
+  @GET
+  @Path("shortest-path")
+  @VendorMediaType(ResourceTypes.KNOWLEDGE_GRAPH_PATH)
+  public KnowledgeGraphPathModel shortestPath(
+      @QueryParam("from") String from,
+      @QueryParam("to") String to,
+      @DefaultValue("6") @QueryParam("maxDepth") int maxDepth,
+      @DefaultValue("BOTH") @QueryParam("direction") String direction,
+      @QueryParam("relationType") List<String> relationTypes,
+      @Context UriInfo uriInfo) {
+    requireEntityId("from", from);
+    requireEntityId("to", to);
+    KnowledgeGraph.Traversal traversal = traversal("maxDepth", maxDepth, direction, relationTypes);
+    return knowledgeGraphReader
+        .findShortestPath(project.getIdentity(), from, to, traversal)
+        .map(path -> KnowledgeGraphPathModel.of(project, from, to, traversal, path, uriInfo))
+        .orElseThrow(() -> new WebApplicationException(Response.Status.NOT_FOUND));
+  }
+
+  private static void requireEntityId(String name, String value) {
+    if (value == null || value.isBlank()) {
+      throw new BadRequestException(name + " must not be blank");
+    }
+  }
+
+  private static KnowledgeGraph.Traversal traversal(
+      String depthName, int depth, String direction, List<String> relationTypes) {
+    if (depth < 1 || depth > MAX_TRAVERSAL_DEPTH) {
+      throw new BadRequestException(depthName + " must be between 1 and " + MAX_TRAVERSAL_DEPTH);
+    }
+    KnowledgeGraph.Direction parsedDirection;
+    try {
+      parsedDirection = KnowledgeGraph.Direction.valueOf(direction.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException error) {
+      throw new BadRequestException("direction must be OUTGOING, INCOMING or BOTH");
+    }
+    Set<String> types = new HashSet<>();
+    if (relationTypes != null) {
+      relationTypes.stream().filter(type -> !type.isBlank()).forEach(types::add);
+    }
+    return new KnowledgeGraph.Traversal(depth, parsedDirection, types);
   }
 }
@@ -0,0 +1,50 @@
+package reengineering.ddd.teamai.api;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import reengineering.ddd.teamai.model.KnowledgeGraph;
+
+/**
+ * Writes an exported knowledge graph as NDJSON, one {@code {"node":...}} or {@code {"edge":...}}
+ * object per line, straight to the response stream.
+ */
+class KnowledgeGraphNdjsonWriter implements KnowledgeGraph.Sink, Closeable {
+  private final JsonGenerator generator;
+
+  KnowledgeGraphNdjsonWriter(ObjectMapper objectMapper, OutputStream output) throws IOException {
+    this.generator = objectMapper.createGenerator(output, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.setRootValueSeparator(null);
+  }
+
+  @Override
+  public void node(KnowledgeGraph.Node node) {
+    write("node", node);
+  }
+
+  @Override
+  public void edge(KnowledgeGraph.Edge edge) {
+    write("edge", edge);
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+
+  private void write(String kind, Object value) {
+    try {
+      generator.writeStartObject();
+      generator.writeObjectField(kind, value);
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+}
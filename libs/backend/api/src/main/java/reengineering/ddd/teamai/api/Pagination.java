@@ -4,6 +4,10 @@ import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import org.springframework.hateoas.CollectionModel;
@@ -11,34 +15,118 @@ import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedModel;
 import reengineering.ddd.archtype.Entity;
 import reengineering.ddd.archtype.Many;
+import reengineering.ddd.archtype.SeekableMany;
 
 public class Pagination<E extends Entity<?, ?>> {
-  private final int total;
   private final Many<E> many;
 
   private final int pageSize;
 
   public Pagination(Many<E> many, int pageSize) {
     this.many = many;
-    this.total = many.size();
     this.pageSize = pageSize;
   }
 
   public <M> CollectionModel<M> page(
       int page, Function<E, M> toModel, Function<Integer, URI> toUri) {
-    if (!withInRange(page)) throw new WebApplicationException(Response.Status.NOT_FOUND);
+    return page(page, toModel, toUri, null);
+  }
+
+  /**
+   * Returns page {@code page} with its total. When {@code toCursorUri} is given, the {@code next}
+   * link continues after the last entity of this page with a cursor instead of a page number.
+   */
+  public <M> CollectionModel<M> page(
+      int page,
+      Function<E, M> toModel,
+      Function<Integer, URI> toUri,
+      Function<String, URI> toCursorUri) {
+    int total = many.size();
+    if (!withInRange(page, total)) throw new WebApplicationException(Response.Status.NOT_FOUND);
 
     PagedModel.PageMetadata metadata = new PagedModel.PageMetadata(pageSize, page, total);
-    Many<E> current = many.subCollection(page * pageSize, Math.min(total, (page + 1) * pageSize));
+    List<E> current =
+        many.subCollection(page * pageSize, Math.min(total, (page + 1) * pageSize))
+            .stream()
+            .toList();
 
     Map<String, Integer> pages = Map.of("self", page, "prev", page - 1, "next", page + 1);
 
-    return PagedModel.of(current.stream().map(toModel).toList(), metadata)
-        .add(
-            pages.entrySet().stream()
-                .filter(e -> withInRange(e.getValue()))
-                .map(e -> Link.of(getFile(toUri.apply(e.getValue())), e.getKey()))
-                .toList());
+    CollectionModel<M> model =
+        PagedModel.of(current.stream().map(toModel).toList(), metadata)
+            .add(
+                pages.entrySet().stream()
+                    .filter(e -> withInRange(e.getValue(), total))
+                    .filter(e -> toCursorUri == null || !e.getKey().equals("next"))
+                    .map(e -> Link.of(getFile(toUri.apply(e.getValue())), e.getKey()))
+                    .toList());
+    if (toCursorUri != null && withInRange(page + 1, total) && !current.isEmpty()) {
+      model.add(nextLink(current, toCursorUri));
+    }
+    return model;
+  }
+
+  /**
+   * Returns up to one page of entities after the entity that {@code cursor} points at, or the first
+   * page when {@code cursor} is null. The collection is not counted, so the model carries no page
+   * metadata; a {@code next} link is present while more entities follow. A cursor that is malformed
+   * or points at an entity that no longer exists is rejected with {@code 400 Bad Request}.
+   */
+  public <M> CollectionModel<M> after(
+      String cursor, Function<E, M> toModel, Function<String, URI> toCursorUri) {
+    List<E> entities;
+    try {
+      entities = seek(cursor == null ? null : decodeCursor(cursor), pageSize + 1);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e, Response.Status.BAD_REQUEST);
+    }
+    List<E> current = entities.size() > pageSize ? entities.subList(0, pageSize) : entities;
+
+    CollectionModel<M> model =
+        CollectionModel.of(current.stream().map(toModel).toList())
+            .add(Link.of(getFile(toCursorUri.apply(cursor)), "self"));
+    if (entities.size() > pageSize) {
+      model.add(nextLink(current, toCursorUri));
+    }
+    return model;
+  }
+
+  public static String cursorOf(Entity<?, ?> entity) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(String.valueOf(entity.getIdentity()).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodeCursor(String cursor) {
+    return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<E> seek(String identity, int limit) {
+    // Identities reach the API as strings, so seekable collections are keyed by string.
+    if (many instanceof SeekableMany<?, ?> seekable) {
+      Many<?> entities = ((SeekableMany<String, ?>) seekable).subCollectionAfter(identity, limit);
+      return ((Many<E>) entities).stream().toList();
+    }
+    List<E> entities = new ArrayList<>();
+    boolean found = identity == null;
+    for (E entity : many) {
+      if (!found) {
+        found = identity.equals(String.valueOf(entity.getIdentity()));
+      } else if (entities.size() < limit) {
+        entities.add(entity);
+      } else {
+        break;
+      }
+    }
+    if (!found) {
+      throw new IllegalArgumentException("No entity to continue after: " + identity);
+    }
+    return entities;
+  }
+
+  private Link nextLink(List<E> current, Function<String, URI> toCursorUri) {
+    return Link.of(getFile(toCursorUri.apply(cursorOf(current.get(current.size() - 1)))), "next");
   }
 
   private String getFile(URI uri) {
@@ -49,7 +137,7 @@ public class Pagination<E extends Entity<?, ?>> {
     }
   }
 
-  private boolean withInRange(int page) {
+  private boolean withInRange(int page, int total) {
     return page >= 0 && page * pageSize <= total;
   }
 }
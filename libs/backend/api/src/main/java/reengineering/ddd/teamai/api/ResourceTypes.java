@@ -50,4 +50,9 @@ public class ResourceTypes {
 
   public static final String KNOWLEDGE_GRAPH = VENDOR + ".knowledge-graph+json";
   public static final String KNOWLEDGE_GRAPH_COLLECTION = VENDOR + ".knowledge-graphs+json";
+  public static final String KNOWLEDGE_GRAPH_SIMILAR_NODES =
+      VENDOR + ".knowledge-graph-similar-nodes+json";
+  public static final String KNOWLEDGE_GRAPH_NEIGHBORHOOD =
+      VENDOR + ".knowledge-graph-neighborhood+json";
+  public static final String KNOWLEDGE_GRAPH_PATH = VENDOR + ".knowledge-graph-path+json";
 }
@@ -10,8 +10,11 @@ import jakarta.ws.rs.container.ResourceContext;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
+import java.net.URI;
+import java.util.function.Function;
 import org.springframework.hateoas.CollectionModel;
 import reengineering.ddd.teamai.api.representation.AcpSessionModel;
+import reengineering.ddd.teamai.model.AcpSession;
 import reengineering.ddd.teamai.model.Project;
 
 public class SessionsApi {
@@ -39,11 +42,21 @@ public class SessionsApi {
   @GET
   @VendorMediaType(ResourceTypes.SESSION_COLLECTION)
   public CollectionModel<AcpSessionModel> findAll(
-      @Context UriInfo uriInfo, @DefaultValue("0") @QueryParam("page") int page) {
-    return new Pagination<>(project.acpSessions().findAll(), 40)
-        .page(
-            page,
-            session -> AcpSessionModel.simple(project, session, uriInfo),
-            p -> ApiTemplates.sessions(uriInfo).queryParam("page", p).build(project.getIdentity()));
+      @Context UriInfo uriInfo,
+      @DefaultValue("0") @QueryParam("page") int page,
+      @QueryParam("cursor") String cursor) {
+    Pagination<AcpSession> pagination = new Pagination<>(project.acpSessions().findAll(), 40);
+    Function<AcpSession, AcpSessionModel> toModel =
+        session -> AcpSessionModel.simple(project, session, uriInfo);
+    Function<String, URI> toCursorUri =
+        c -> ApiTemplates.sessions(uriInfo).queryParam("cursor", c).build(project.getIdentity());
+    if (cursor != null && !cursor.isBlank()) {
+      return pagination.after(cursor.trim(), toModel, toCursorUri);
+    }
+    return pagination.page(
+        page,
+        toModel,
+        p -> ApiTemplates.sessions(uriInfo).queryParam("page", p).build(project.getIdentity()),
+        toCursorUri);
   }
 }
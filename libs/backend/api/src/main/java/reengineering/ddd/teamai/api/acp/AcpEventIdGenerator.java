@@ -3,16 +3,25 @@ package reengineering.ddd.teamai.api.acp;
 import java.util.concurrent.atomic.AtomicLong;
 import org.springframework.stereotype.Component;
 
+/**
+ * Builds ACP event ids of the form {@code acp-<session>-<type>-<number>}. Session events end in
+ * the sequence the event store allocated for them, so a {@code Last-Event-ID} is resumed with a
+ * range scan on the sequence. Stream notices, which are never stored, are numbered by {@link
+ * #next} from a local counter and are sent without an SSE id.
+ */
 @Component
 public class AcpEventIdGenerator {
-  private final AtomicLong sequence = new AtomicLong(0);
+  private final AtomicLong notices = new AtomicLong(0);
 
   public String next(String sessionId, String eventType) {
+    return eventId(sessionId, eventType, notices.incrementAndGet());
+  }
+
+  public String eventId(String sessionId, String eventType, long sequence) {
     String normalizedSessionId =
         sessionId == null || sessionId.isBlank() ? "unknown" : sessionId.trim();
     String normalizedType =
         eventType == null || eventType.isBlank() ? "event" : eventType.trim().toLowerCase();
-    long id = sequence.incrementAndGet();
-    return "acp-%s-%s-%d".formatted(normalizedSessionId, normalizedType, id);
+    return "acp-%s-%s-%d".formatted(normalizedSessionId, normalizedType, sequence);
   }
 }
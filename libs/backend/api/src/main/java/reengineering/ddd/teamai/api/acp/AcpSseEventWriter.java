@@ -34,17 +34,31 @@ public class AcpSseEventWriter {
         error);
   }
 
+  /** Sends a session event. Its id becomes the client's {@code Last-Event-ID}. */
   public void send(SseEventSink sink, Sse sse, AcpEventEnvelope envelope) {
+    send(sink, sse, envelope, true);
+  }
+
+  /**
+   * Sends a stream notice, such as a heartbeat, without an SSE id. Notices are not session events,
+   * so they must not move the client's {@code Last-Event-ID}.
+   */
+  public void sendNotice(SseEventSink sink, Sse sse, AcpEventEnvelope envelope) {
+    send(sink, sse, envelope, false);
+  }
+
+  private void send(SseEventSink sink, Sse sse, AcpEventEnvelope envelope, boolean resumable) {
     try {
       String payload = objectMapper.writeValueAsString(envelope);
-      OutboundSseEvent event =
+      OutboundSseEvent.Builder builder =
           sse.newEventBuilder()
               .name("acp-event")
-              .id(envelope.eventId())
               .mediaType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON_TYPE)
-              .data(String.class, payload)
-              .build();
-      sink.send(event);
+              .data(String.class, payload);
+      if (resumable) {
+        builder.id(envelope.eventId());
+      }
+      sink.send(builder.build());
     } catch (JsonProcessingException error) {
       throw new IllegalStateException("Failed to serialize ACP event envelope", error);
     }
@@ -5,14 +5,23 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reengineering.ddd.teamai.api.acp.AcpEventEnvelope;
 import reengineering.ddd.teamai.api.acp.AcpEventIdGenerator;
@@ -29,27 +38,40 @@ public class AcpRuntimeBridgeService {
   private static final Logger log = LoggerFactory.getLogger(AcpRuntimeBridgeService.class);
   private static final int DEFAULT_HISTORY_LIMIT = 200;
   private static final int MAX_HISTORY_LIMIT = 1000;
+  private static final int DEFAULT_RETAINED_EVENTS = 2000;
+  private static final long DEFAULT_FINISHED_SESSION_TTL_MILLIS = 300_000;
 
   private final AgentProtocolGateway gateway;
   private final AcpEventIdGenerator eventIdGenerator;
   private final AcpSessionEventStore sessionEventStore;
   private final AcpRuntimeTelemetry telemetry;
+  private final int retainedEventsPerSession;
+  private final long finishedSessionTtlMillis;
+  private final LongSupplier clock;
   private final Map<String, AgentProtocolGateway.SessionHandle> activeHandles =
       new ConcurrentHashMap<>();
-  private final Map<String, CopyOnWriteArrayList<AcpEventEnvelope>> sessionEvents =
-      new ConcurrentHashMap<>();
+  private final Map<String, AcpSessionEventLog> sessionEvents = new ConcurrentHashMap<>();
   private final Map<String, String> sessionProjectIds = new ConcurrentHashMap<>();
+  private final Map<String, List<Consumer<AcpEventEnvelope>>> sessionSubscribers =
+      new ConcurrentHashMap<>();
 
   @Inject
   public AcpRuntimeBridgeService(
       AgentProtocolGateway gateway,
       AcpEventIdGenerator eventIdGenerator,
       AcpSessionEventStore sessionEventStore,
-      AcpRuntimeTelemetry telemetry) {
-    this.gateway = gateway;
-    this.eventIdGenerator = eventIdGenerator;
-    this.sessionEventStore = sessionEventStore;
-    this.telemetry = telemetry;
+      AcpRuntimeTelemetry telemetry,
+      @Value("${team-ai.acp.events.retained-per-session:2000}") int retainedEventsPerSession,
+      @Value("${team-ai.acp.events.finished-session-ttl-ms:300000}")
+          long finishedSessionTtlMillis) {
+    this(
+        gateway,
+        eventIdGenerator,
+        sessionEventStore,
+        telemetry,
+        retainedEventsPerSession,
+        finishedSessionTtlMillis,
+        System::currentTimeMillis);
   }
 
   public AcpRuntimeBridgeService(AgentRuntime runtime, AcpEventIdGenerator eventIdGenerator) {
@@ -57,12 +79,38 @@ public class AcpRuntimeBridgeService {
         new AgentRuntimeGateway(runtime),
         eventIdGenerator,
         noopEventStore(),
-        AcpRuntimeTelemetry.noop());
+        AcpRuntimeTelemetry.noop(),
+        DEFAULT_RETAINED_EVENTS,
+        DEFAULT_FINISHED_SESSION_TTL_MILLIS,
+        System::currentTimeMillis);
+  }
+
+  AcpRuntimeBridgeService(
+      AgentProtocolGateway gateway,
+      AcpEventIdGenerator eventIdGenerator,
+      AcpSessionEventStore sessionEventStore,
+      AcpRuntimeTelemetry telemetry,
+      int retainedEventsPerSession,
+      long finishedSessionTtlMillis,
+      LongSupplier clock) {
+    this.gateway = gateway;
+    this.eventIdGenerator = eventIdGenerator;
+    this.sessionEventStore = sessionEventStore;
+    this.telemetry = telemetry;
+    this.retainedEventsPerSession = Math.max(1, retainedEventsPerSession);
+    this.finishedSessionTtlMillis = Math.max(0, finishedSessionTtlMillis);
+    this.clock = clock;
   }
 
   public AgentProtocolGateway.SessionHandle startSession(
       String projectId, String sessionId, String actorUserId, String goal) {
     String normalizedProjectId = normalizeProjectId(projectId);
+    AcpSessionEventLog events = sessionEvents.get(normalizeSessionId(sessionId));
+    if (events != null) {
+      // a returning prompt keeps an idle session from being evicted before it starts
+      events.touch(clock.getAsLong());
+    }
+    evictExpiredSessions();
     sessionProjectIds.putIfAbsent(sessionId, normalizedProjectId);
     return activeHandles.computeIfAbsent(
         sessionId,
@@ -124,15 +172,31 @@ public class AcpRuntimeBridgeService {
     AgentProtocolGateway.SessionHandle handle = requireHandle(sessionId);
     Duration effectiveTimeout =
         timeout == null || timeout.isNegative() || timeout.isZero() ? DEFAULT_TIMEOUT : timeout;
+    AcpSessionEventLog events = sessionEventLog(requireSessionId(sessionId));
+    events.promptStarted(clock.getAsLong());
     Instant startedAt = Instant.now();
+    AtomicBoolean streamed = new AtomicBoolean();
     try {
       AgentProtocolGateway.SendResult result =
-          gateway.send(handle, new AgentProtocolGateway.SendRequest(prompt, effectiveTimeout));
-      appendEvent(
-          sessionId,
-          AcpEventEnvelope.TYPE_DELTA,
-          Map.of("content", result.output(), "format", "text", "completedAt", result.completedAt()),
-          null);
+          gateway.send(
+              handle,
+              new AgentProtocolGateway.SendRequest(prompt, effectiveTimeout),
+              delta -> {
+                streamed.set(true);
+                appendEvent(
+                    sessionId,
+                    AcpEventEnvelope.TYPE_DELTA,
+                    Map.of("content", delta, "format", "text"),
+                    null);
+              });
+      if (!streamed.get()) {
+        appendEvent(
+            sessionId,
+            AcpEventEnvelope.TYPE_DELTA,
+            Map.of(
+                "content", result.output(), "format", "text", "completedAt", result.completedAt()),
+            null);
+      }
       appendEvent(
           sessionId,
           AcpEventEnvelope.TYPE_COMPLETE,
@@ -175,43 +239,125 @@ public class AcpRuntimeBridgeService {
           failure.category(),
           failure.message());
       throw error;
+    } finally {
+      events.promptFinished(clock.getAsLong());
     }
   }
 
-  public void cancelSession(String sessionId, String reason) {
+  public void cancelSession(String projectId, String sessionId, String reason) {
+    sessionProjectIds.putIfAbsent(sessionId, normalizeProjectId(projectId));
     AgentProtocolGateway.SessionHandle handle = activeHandles.remove(sessionId);
     if (handle != null) {
       gateway.stop(handle);
     }
-    sessionProjectIds.remove(sessionId);
     appendEvent(
         sessionId,
         AcpEventEnvelope.TYPE_COMPLETE,
         Map.of("reason", reason == null || reason.isBlank() ? "cancelled" : reason.trim()),
         null);
+    sessionProjectIds.remove(sessionId);
+    AcpSessionEventLog events = sessionEvents.get(normalizeSessionId(sessionId));
+    if (events != null) {
+      events.promptFinished(clock.getAsLong());
+    }
+    evictExpiredSessions();
     log.info("event=acp_runtime_cancelled traceId={} sessionId={}", traceId(), sessionId);
   }
 
+  public void cancelSession(String sessionId, String reason) {
+    cancelSession("unknown", sessionId, reason);
+  }
+
+  /**
+   * Returns the project of a session started on this node, or of one whose events are in the event
+   * store because it ran on another node or before a restart.
+   */
+  public Optional<String> findSessionProject(String sessionId) {
+    String normalizedSessionId = normalizeSessionId(sessionId);
+    AcpSessionEventLog events = sessionEvents.get(normalizedSessionId);
+    if (events != null) {
+      return Optional.of(events.projectId());
+    }
+    String projectId = sessionProjectIds.get(normalizedSessionId);
+    if (projectId != null) {
+      return Optional.of(projectId);
+    }
+    return sessionEventStore.findProjectId(normalizedSessionId);
+  }
+
+  /** Whether this node started the session or still holds its events, so it can push them. */
+  public boolean isLocalSession(String sessionId) {
+    String normalizedSessionId = normalizeSessionId(sessionId);
+    return sessionEvents.containsKey(normalizedSessionId)
+        || sessionProjectIds.containsKey(normalizedSessionId);
+  }
+
+  /**
+   * Returns the events after {@code lastEventId}. Events that fell out of the retained window are
+   * read from the event store; an unknown cursor replays the whole session.
+   */
   public List<AcpEventEnvelope> findEventsSince(String sessionId, String lastEventId) {
-    List<AcpEventEnvelope> events =
-        sessionEvents.getOrDefault(sessionId, new CopyOnWriteArrayList<>());
-    if (lastEventId == null || lastEventId.isBlank()) {
-      return List.copyOf(events);
-    }
-    int index = -1;
-    for (int i = 0; i < events.size(); i++) {
-      if (lastEventId.equals(events.get(i).eventId())) {
-        index = i;
-        break;
+    String normalizedSessionId = normalizeSessionId(sessionId);
+    AcpSessionEventLog events = sessionEvents.get(normalizedSessionId);
+    if (events == null) {
+      return List.of();
+    }
+    String cursor = blankToNull(lastEventId);
+    AcpSessionEventLog.Window window;
+    synchronized (events) {
+      List<AcpEventEnvelope> retained = events.after(cursor);
+      if (retained != null) {
+        return retained;
       }
+      window = events.window();
     }
-    if (index < 0) {
-      return List.copyOf(events);
+    return replayFromStore(normalizedSessionId, events.projectId(), cursor, window);
+  }
+
+  /**
+   * Replays the events after {@code lastEventId} to {@code subscriber} and then pushes every event
+   * appended to the session, without gaps or duplicates in between. Only the retained window is
+   * captured under the session lock; older events are read from the store afterwards while newly
+   * appended events are buffered. The subscriber is called on the appending thread, so it must
+   * only hand the event off.
+   *
+   * @throws IllegalStateException if the session was not started on this node
+   */
+  public Subscription subscribe(
+      String sessionId, String lastEventId, Consumer<AcpEventEnvelope> subscriber) {
+    String normalizedSessionId = requireSessionId(sessionId);
+    AcpSessionEventLog events = sessionEventLog(normalizedSessionId);
+    String cursor = blankToNull(lastEventId);
+    ReplayingSubscriber replaying = new ReplayingSubscriber(subscriber);
+    List<AcpEventEnvelope> retained;
+    AcpSessionEventLog.Window window = null;
+    synchronized (events) {
+      retained = events.after(cursor);
+      if (retained == null) {
+        window = events.window();
+      }
+      sessionSubscribers
+          .computeIfAbsent(normalizedSessionId, ignored -> new CopyOnWriteArrayList<>())
+          .add(replaying);
     }
-    if (index + 1 >= events.size()) {
-      return List.of();
+    Subscription subscription =
+        () ->
+            sessionSubscribers.computeIfPresent(
+                normalizedSessionId,
+                (ignored, subscribers) -> {
+                  subscribers.remove(replaying);
+                  return subscribers.isEmpty() ? null : subscribers;
+                });
+    try {
+      replaying.replay(
+          retained != null
+              ? retained
+              : replayFromStore(normalizedSessionId, events.projectId(), cursor, window));
+    } catch (RuntimeException error) {
+      subscription.close();
+      throw error;
     }
-    return List.copyOf(events.subList(index + 1, events.size()));
+    return subscription;
   }
 
   public List<AcpEventEnvelope> findHistory(
@@ -249,29 +395,139 @@ public class AcpRuntimeBridgeService {
 
   private void appendEvent(
       String sessionId, String type, Map<String, Object> data, AcpEventEnvelope.EventError error) {
-    String normalizedSessionId =
-        sessionId == null || sessionId.isBlank() ? "unknown" : sessionId.trim();
+    String normalizedSessionId = requireSessionId(sessionId);
     Map<String, Object> payload = new LinkedHashMap<>();
     if (data != null) {
       payload.putAll(data);
     }
     payload.put("traceId", traceId());
-    AcpEventEnvelope envelope =
-        new AcpEventEnvelope(
-            eventIdGenerator.next(normalizedSessionId, type),
-            normalizedSessionId,
-            type,
-            Instant.now(),
-            payload,
-            error);
-    sessionEvents
-        .computeIfAbsent(normalizedSessionId, ignored -> new CopyOnWriteArrayList<>())
-        .add(envelope);
-    persistEvent(normalizedSessionId, envelope);
-  }
-
-  private void persistEvent(String sessionId, AcpEventEnvelope envelope) {
-    String projectId = sessionProjectIds.getOrDefault(sessionId, "unknown");
+    AcpSessionEventLog events = sessionEventLog(normalizedSessionId);
+    AcpEventEnvelope envelope;
+    synchronized (events) {
+      long sequence = sessionEventStore.nextSequence(events.projectId(), normalizedSessionId);
+      envelope =
+          new AcpEventEnvelope(
+              eventIdGenerator.eventId(normalizedSessionId, type, sequence),
+              normalizedSessionId,
+              type,
+              Instant.now(),
+              payload,
+              error);
+      events.append(envelope, clock.getAsLong());
+      publish(normalizedSessionId, envelope);
+    }
+    persistEvent(events.projectId(), normalizedSessionId, envelope);
+    if (AcpEventEnvelope.TYPE_COMPLETE.equals(type)) {
+      flushEvents(events.projectId(), normalizedSessionId);
+    }
+  }
+
+  /**
+   * Returns the event log of a started session, creating it on first use. The last persisted
+   * sequence is read before the log is published, outside of the map's lock; a racing creator
+   * reads the same value and its log is dropped. A store that cannot be read fails the call, as a
+   * log starting from 0 would hide the persisted events from cursors.
+   */
+  private AcpSessionEventLog sessionEventLog(String sessionId) {
+    AcpSessionEventLog events = sessionEvents.get(sessionId);
+    if (events != null) {
+      return events;
+    }
+    String projectId = sessionProjectIds.get(sessionId);
+    if (projectId == null) {
+      throw new IllegalStateException("ACP session is not started: " + sessionId);
+    }
+    long persistedSequence = sessionEventStore.lastSequence(projectId, sessionId);
+    AcpSessionEventLog created =
+        new AcpSessionEventLog(
+            retainedEventsPerSession, projectId, persistedSequence, clock.getAsLong());
+    AcpSessionEventLog existing = sessionEvents.putIfAbsent(sessionId, created);
+    return existing != null ? existing : created;
+  }
+
+  /**
+   * Pages through the event store from {@code cursor} up to the first event of {@code window}, then
+   * continues with the window. Events appended after the window was captured are left to the
+   * subscriber, so the store is read without holding the session lock.
+   */
+  private List<AcpEventEnvelope> replayFromStore(
+      String sessionId, String projectId, String cursor, AcpSessionEventLog.Window window) {
+    List<AcpEventEnvelope> replay = new ArrayList<>();
+    String storeCursor = cursor;
+    paging:
+    while (true) {
+      List<AcpSessionEvent> page =
+          sessionEventStore.findBySession(projectId, sessionId, storeCursor, MAX_HISTORY_LIMIT);
+      for (AcpSessionEvent event : page) {
+        OptionalLong sequence = event.sequence();
+        if (sequence.isPresent() && sequence.getAsLong() >= window.firstSequence()) {
+          break paging;
+        }
+        replay.add(toEnvelope(event));
+      }
+      if (page.size() < MAX_HISTORY_LIMIT) {
+        break;
+      }
+      String lastEventId = page.get(page.size() - 1).eventId();
+      if (lastEventId.equals(storeCursor)) {
+        break;
+      }
+      storeCursor = lastEventId;
+    }
+    replay.addAll(window.events());
+    return replay;
+  }
+
+  /**
+   * Drops sessions that were idle for the TTL and have no subscribers: their event log, project
+   * and runtime handle. A later prompt starts the runtime again.
+   */
+  private void evictExpiredSessions() {
+    long now = clock.getAsLong();
+    Iterator<Map.Entry<String, AcpSessionEventLog>> entries = sessionEvents.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<String, AcpSessionEventLog> entry = entries.next();
+      String sessionId = entry.getKey();
+      if (!sessionSubscribers.containsKey(sessionId)
+          && entry.getValue().expired(now, finishedSessionTtlMillis)) {
+        entries.remove();
+        sessionProjectIds.remove(sessionId);
+        AgentProtocolGateway.SessionHandle handle = activeHandles.remove(sessionId);
+        if (handle != null) {
+          stopQuietly(sessionId, handle);
+        }
+      }
+    }
+  }
+
+  private void stopQuietly(String sessionId, AgentProtocolGateway.SessionHandle handle) {
+    try {
+      gateway.stop(handle);
+    } catch (RuntimeException error) {
+      log.warn(
+          "event=acp_runtime_idle_stop_failed traceId={} sessionId={} message={}",
+          traceId(),
+          sessionId,
+          message(error));
+    }
+  }
+
+  private void publish(String sessionId, AcpEventEnvelope envelope) {
+    for (Consumer<AcpEventEnvelope> subscriber :
+        sessionSubscribers.getOrDefault(sessionId, List.of())) {
+      try {
+        subscriber.accept(envelope);
+      } catch (RuntimeException error) {
+        log.warn(
+            "event=acp_runtime_event_publish_failed traceId={} sessionId={} message={}",
+            traceId(),
+            sessionId,
+            message(error));
+      }
+    }
+  }
+
+  private void persistEvent(String projectId, String sessionId, AcpEventEnvelope envelope) {
     AcpSessionEvent event =
         new AcpSessionEvent(
             envelope.eventId(),
@@ -292,6 +548,19 @@ public class AcpRuntimeBridgeService {
     }
   }
 
+  private void flushEvents(String projectId, String sessionId) {
+    try {
+      sessionEventStore.flush(projectId, sessionId);
+    } catch (RuntimeException error) {
+      log.warn(
+          "event=acp_runtime_event_flush_failed traceId={} sessionId={} projectId={} message={}",
+          traceId(),
+          sessionId,
+          projectId,
+          message(error));
+    }
+  }
+
   private AcpSessionEvent.Error toDomainError(AcpEventEnvelope.EventError error) {
     if (error == null) {
       return null;
@@ -332,6 +601,13 @@ public class AcpRuntimeBridgeService {
     return sessionId.trim();
   }
 
+  private String requireSessionId(String sessionId) {
+    if (sessionId == null || sessionId.isBlank()) {
+      throw new IllegalArgumentException("ACP sessionId is required");
+    }
+    return sessionId.trim();
+  }
+
   private String blankToNull(String value) {
     if (value == null) {
       return null;
@@ -349,6 +625,13 @@ public class AcpRuntimeBridgeService {
 
   private static AcpSessionEventStore noopEventStore() {
     return new AcpSessionEventStore() {
+      private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+      @Override
+      public long nextSequence(String projectId, String sessionId) {
+        return sequences.computeIfAbsent(sessionId, ignored -> new AtomicLong()).incrementAndGet();
+      }
+
       @Override
       public void append(String projectId, AcpSessionEvent event) {}
 
@@ -357,6 +640,19 @@ public class AcpRuntimeBridgeService {
           String projectId, String sessionId, String afterEventId, int limit) {
         return List.of();
       }
+
+      @Override
+      public long lastSequence(String projectId, String sessionId) {
+        return 0;
+      }
+
+      @Override
+      public Optional<String> findProjectId(String sessionId) {
+        return Optional.empty();
+      }
+
+      @Override
+      public void flush(String projectId, String sessionId) {}
     };
   }
 
@@ -410,6 +706,42 @@ public class AcpRuntimeBridgeService {
     return traceId == null || traceId.isBlank() ? "unknown" : traceId;
   }
 
+  /** Stops pushing session events to a subscriber. */
+  @FunctionalInterface
+  public interface Subscription extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /**
+   * Buffers pushed events until the replay before them was delivered, then passes events straight
+   * through. Appending threads hold the session lock when they call it, the replaying thread never
+   * takes that lock, so the two monitors are always acquired in the same order.
+   */
+  private static final class ReplayingSubscriber implements Consumer<AcpEventEnvelope> {
+    private final Consumer<AcpEventEnvelope> target;
+    private List<AcpEventEnvelope> buffered = new ArrayList<>();
+
+    private ReplayingSubscriber(Consumer<AcpEventEnvelope> target) {
+      this.target = target;
+    }
+
+    @Override
+    public synchronized void accept(AcpEventEnvelope envelope) {
+      if (buffered != null) {
+        buffered.add(envelope);
+      } else {
+        target.accept(envelope);
+      }
+    }
+
+    synchronized void replay(List<AcpEventEnvelope> events) {
+      events.forEach(target);
+      buffered.forEach(target);
+      buffered = null;
+    }
+  }
+
   private record RuntimeFailure(
       String code, String category, boolean retryable, long retryAfterMs, String message) {}
 }
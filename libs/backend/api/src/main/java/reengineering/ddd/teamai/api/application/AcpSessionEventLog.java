@@ -0,0 +1,152 @@
+package reengineering.ddd.teamai.api.application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import reengineering.ddd.teamai.api.acp.AcpEventEnvelope;
+import reengineering.ddd.teamai.model.AcpSessionEvent;
+
+/**
+ * The most recent events of one ACP session, kept in a fixed-size ring.
+ *
+ * <p>Events are appended in the order of the sequence carried by their event id, so a cursor is
+ * resolved with a binary search over the retained sequences. Once the ring is full the oldest
+ * event is overwritten, and callers read older events from the {@link
+ * reengineering.ddd.teamai.model.AcpSessionEventStore}. Callers append and publish while holding
+ * the monitor of the log, so all methods synchronize on it.
+ */
+final class AcpSessionEventLog {
+  private final AcpEventEnvelope[] ring;
+  private final long[] sequences;
+  private final String projectId;
+  private long appended;
+  private long lastSequence;
+  private long lastDroppedSequence;
+  private long lastActivityMillis;
+  private boolean prompting;
+
+  /**
+   * Creates the log of a session whose events up to {@code persistedSequence} are already in the
+   * store. Those events were never retained here, so cursors below it are read from the store.
+   */
+  AcpSessionEventLog(int capacity, String projectId, long persistedSequence, long nowMillis) {
+    this.ring = new AcpEventEnvelope[Math.max(1, capacity)];
+    this.sequences = new long[ring.length];
+    this.projectId = projectId;
+    this.lastSequence = Math.max(0, persistedSequence);
+    this.lastDroppedSequence = persistedSequence > 0 ? persistedSequence : -1;
+    this.lastActivityMillis = nowMillis;
+  }
+
+  synchronized void append(AcpEventEnvelope envelope, long nowMillis) {
+    int slot = slot(appended);
+    if (ring[slot] != null) {
+      lastDroppedSequence = sequences[slot];
+    }
+    long sequence = AcpSessionEvent.sequenceOf(envelope.eventId()).orElse(lastSequence + 1);
+    lastSequence = Math.max(lastSequence + 1, sequence);
+    ring[slot] = envelope;
+    sequences[slot] = lastSequence;
+    appended++;
+    lastActivityMillis = nowMillis;
+  }
+
+  /**
+   * Returns the retained events after {@code eventId}, or {@code null} when they cannot be served
+   * from the ring because older events were overwritten. A {@code null} or non-sequenced cursor
+   * means the start of the session.
+   */
+  synchronized List<AcpEventEnvelope> after(String eventId) {
+    OptionalLong sequence = AcpSessionEvent.sequenceOf(eventId);
+    if (sequence.isEmpty()) {
+      return truncated() ? null : retained();
+    }
+    return retainedAfter(sequence.getAsLong());
+  }
+
+  synchronized List<AcpEventEnvelope> retained() {
+    return range(first());
+  }
+
+  /**
+   * Returns the retained events with a sequence above {@code sequence}, or {@code null} if some of
+   * them were already overwritten.
+   */
+  synchronized List<AcpEventEnvelope> retainedAfter(long sequence) {
+    if (sequence < lastDroppedSequence) {
+      return null;
+    }
+    long low = first();
+    long high = appended;
+    while (low < high) {
+      long middle = (low + high) >>> 1;
+      if (sequences[slot(middle)] <= sequence) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return range(low);
+  }
+
+  /**
+   * Captures the retained events together with the sequence of the oldest one, so a caller can
+   * read everything before it from the store without holding the monitor.
+   */
+  synchronized Window window() {
+    long first = first();
+    long firstSequence = first < appended ? sequences[slot(first)] : lastSequence + 1;
+    return new Window(range(first), firstSequence);
+  }
+
+  synchronized boolean truncated() {
+    return lastDroppedSequence >= 0;
+  }
+
+  String projectId() {
+    return projectId;
+  }
+
+  synchronized void touch(long nowMillis) {
+    lastActivityMillis = nowMillis;
+  }
+
+  /** Marks a prompt as running, so the session is kept however long the prompt takes. */
+  synchronized void promptStarted(long nowMillis) {
+    prompting = true;
+    lastActivityMillis = nowMillis;
+  }
+
+  synchronized void promptFinished(long nowMillis) {
+    prompting = false;
+    lastActivityMillis = nowMillis;
+  }
+
+  /** A session without a running prompt expires once it was idle for {@code ttlMillis}. */
+  synchronized boolean expired(long nowMillis, long ttlMillis) {
+    return !prompting && nowMillis - lastActivityMillis >= ttlMillis;
+  }
+
+  private long first() {
+    return Math.max(0, appended - ring.length);
+  }
+
+  private List<AcpEventEnvelope> range(long from) {
+    if (from >= appended) {
+      return List.of();
+    }
+    List<AcpEventEnvelope> events = new ArrayList<>((int) (appended - from));
+    for (long index = from; index < appended; index++) {
+      events.add(ring[slot(index)]);
+    }
+    return Collections.unmodifiableList(events);
+  }
+
+  private int slot(long index) {
+    return (int) (index % ring.length);
+  }
+
+  /** Retained events of a log and the sequence of the first of them. */
+  record Window(List<AcpEventEnvelope> events, long firstSequence) {}
+}
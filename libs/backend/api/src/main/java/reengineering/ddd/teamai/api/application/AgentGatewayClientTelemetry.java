@@ -0,0 +1,59 @@
+package reengineering.ddd.teamai.api.application;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/** Records in-flight requests and per-endpoint latency of the agent-gateway HTTP client. */
+@Component
+public class AgentGatewayClientTelemetry {
+  private final MeterRegistry meterRegistry;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  @Inject
+  public AgentGatewayClientTelemetry(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this(meterRegistryProvider.getIfAvailable());
+  }
+
+  AgentGatewayClientTelemetry(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    if (meterRegistry != null) {
+      Gauge.builder("teamai.acp.gateway.client.requests.in_flight", inFlight, AtomicInteger::get)
+          .register(meterRegistry);
+    }
+  }
+
+  public static AgentGatewayClientTelemetry noop() {
+    return new AgentGatewayClientTelemetry((MeterRegistry) null);
+  }
+
+  /** Counts a request as in flight and returns its start time for {@link #requestFinished}. */
+  public long requestStarted() {
+    inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Ends a request started at {@code startedNanos}. The outcome is the HTTP status code, or
+   * {@code io_error}, {@code interrupted} or {@code cancelled} when no response was read.
+   */
+  public void requestFinished(String endpoint, String outcome, long startedNanos) {
+    inFlight.decrementAndGet();
+    if (meterRegistry != null) {
+      Timer.builder("teamai.acp.gateway.client.request.duration")
+          .tags("endpoint", endpoint, "outcome", outcome)
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+}
@@ -1,6 +1,7 @@
 package reengineering.ddd.teamai.api.application;
 
 import jakarta.inject.Inject;
+import java.util.function.Consumer;
 import org.springframework.stereotype.Component;
 import reengineering.ddd.teamai.model.AgentProtocolGateway;
 import reengineering.ddd.teamai.model.AgentRuntime;
@@ -33,6 +34,16 @@ public class AgentRuntimeGateway implements AgentProtocolGateway {
     return new SendResult(runtimeResult.output(), runtimeResult.completedAt());
   }
 
+  @Override
+  public SendResult send(SessionHandle session, SendRequest request, Consumer<String> deltas) {
+    AgentRuntime.SendResult runtimeResult =
+        runtime.send(
+            toRuntimeHandle(session),
+            new AgentRuntime.SendRequest(request.input(), request.timeout()),
+            deltas);
+    return new SendResult(runtimeResult.output(), runtimeResult.completedAt());
+  }
+
   @Override
   public void stop(SessionHandle session) {
     runtime.stop(toRuntimeHandle(session));
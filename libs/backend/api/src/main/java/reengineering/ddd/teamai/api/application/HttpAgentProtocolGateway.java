@@ -3,6 +3,7 @@ package reengineering.ddd.teamai.api.application;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -12,9 +13,25 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import reengineering.ddd.teamai.model.AgentProtocolGateway;
 import reengineering.ddd.teamai.model.AgentRuntimeException;
@@ -25,34 +42,87 @@ import reengineering.ddd.teamai.model.AgentRuntimeTimeoutException;
  *
  * <p>This adapter keeps Java-side orchestration logic stable while delegating provider protocol
  * handling to the TypeScript gateway.
+ *
+ * <p>With {@code streamEvents} the prompt output is read from the server-sent event stream of the
+ * session, so deltas reach the caller as they arrive. Polling {@code /events} remains the fallback
+ * when the stream cannot be opened or closes before the prompt completes. One poller serves every
+ * waiting prompt and reads the events of all their sessions with a single batch request.
  */
-public class HttpAgentProtocolGateway implements AgentProtocolGateway {
+public class HttpAgentProtocolGateway implements AgentProtocolGateway, AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(HttpAgentProtocolGateway.class);
   private static final String TRACE_ID_HEADER = "X-Trace-Id";
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
   private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
       new TypeReference<>() {};
 
   private final HttpClient client;
   private final String baseUrl;
-  private final long pollIntervalMillis;
+  private final Duration requestTimeout;
+  private final boolean streamEvents;
+  private final AgentGatewayClientTelemetry telemetry;
+  private final ScheduledExecutorService poller;
   private final Map<String, String> sessionCursors = new ConcurrentHashMap<>();
+  private final Map<String, PendingPoll> pendingPolls = new ConcurrentHashMap<>();
+  private volatile boolean batchEventsSupported = true;
 
   public HttpAgentProtocolGateway(String baseUrl, long pollIntervalMillis) {
-    this(HttpClient.newHttpClient(), baseUrl, pollIntervalMillis);
+    this(baseUrl, pollIntervalMillis, false);
+  }
+
+  public HttpAgentProtocolGateway(String baseUrl, long pollIntervalMillis, boolean streamEvents) {
+    this(
+        baseUrl,
+        pollIntervalMillis,
+        streamEvents,
+        ClientOptions.defaults(),
+        AgentGatewayClientTelemetry.noop());
+  }
+
+  public HttpAgentProtocolGateway(
+      String baseUrl,
+      long pollIntervalMillis,
+      boolean streamEvents,
+      ClientOptions options,
+      AgentGatewayClientTelemetry telemetry) {
+    this(
+        HttpClient.newBuilder()
+            .version(options.version())
+            .connectTimeout(options.connectTimeout())
+            .executor(
+                Executors.newFixedThreadPool(
+                    options.threads(), daemonThreads("agent-gateway-client")))
+            .build(),
+        baseUrl,
+        pollIntervalMillis,
+        streamEvents,
+        options.requestTimeout(),
+        telemetry);
   }
 
-  HttpAgentProtocolGateway(HttpClient client, String baseUrl, long pollIntervalMillis) {
+  HttpAgentProtocolGateway(
+      HttpClient client,
+      String baseUrl,
+      long pollIntervalMillis,
+      boolean streamEvents,
+      Duration requestTimeout,
+      AgentGatewayClientTelemetry telemetry) {
     this.client = client;
     this.baseUrl = normalizeBaseUrl(baseUrl);
-    this.pollIntervalMillis = Math.max(50L, pollIntervalMillis);
+    this.requestTimeout = requestTimeout;
+    this.streamEvents = streamEvents;
+    this.telemetry = telemetry;
+    long interval = Math.max(50L, pollIntervalMillis);
+    this.poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("agent-gateway-poller"));
+    poller.scheduleWithFixedDelay(this::pollPending, interval, interval, TimeUnit.MILLISECONDS);
   }
 
   @Override
   public SessionHandle start(StartRequest request) {
     JsonNode response =
         postJson(
-            "/sessions", Map.of("traceId", traceId(), "provider", providerFromRequest(request)));
+            "sessions.create",
+            "/sessions",
+            Map.of("traceId", traceId(), "provider", providerFromRequest(request)));
     String remoteSessionId = text(response.path("session"), "sessionId");
     if (remoteSessionId == null || remoteSessionId.isBlank()) {
       throw new AgentRuntimeException("Agent gateway returned empty sessionId");
@@ -63,8 +133,19 @@ public class HttpAgentProtocolGateway implements AgentProtocolGateway {
 
   @Override
   public SendResult send(SessionHandle session, SendRequest request) {
+    return send(session, request, delta -> {});
+  }
+
+  /**
+   * Posts the prompt and follows the session event stream until it completes. Deltas are handed
+   * to {@code deltas} on the client thread that reads the events. When the stream is unavailable
+   * or ends early, the remaining events are polled from the last cursor.
+   */
+  @Override
+  public SendResult send(SessionHandle session, SendRequest request, Consumer<String> deltas) {
     String sessionId = session.sessionId();
     postJson(
+        "sessions.prompt",
         "/sessions/" + encode(sessionId) + "/prompt",
         Map.of(
             "input", request.input(),
@@ -72,52 +153,27 @@ public class HttpAgentProtocolGateway implements AgentProtocolGateway {
             "traceId", traceId()));
 
     Instant deadline = Instant.now().plus(request.timeout());
-    StringBuilder output = new StringBuilder();
-    String cursor = sessionCursors.get(sessionId);
-    while (Instant.now().isBefore(deadline)) {
-      JsonNode page = getEvents(sessionId, cursor);
-      JsonNode events = page.path("events");
-      if (events.isArray()) {
-        for (JsonNode event : events) {
-          String eventCursor = text(event, "cursor");
-          if (eventCursor != null && !eventCursor.isBlank()) {
-            cursor = eventCursor;
-            sessionCursors.put(sessionId, cursor);
-          }
-
-          String type = text(event, "type");
-          if ("delta".equals(type)) {
-            appendDelta(output, event.path("data"));
-          } else if ("error".equals(type)) {
-            JsonNode error = event.path("error");
-            throw gatewayException(
-                error,
-                "RUNTIME_FAILURE",
-                text(error, "message") == null ? "gateway error" : text(error, "message"));
-          } else if ("complete".equals(type)) {
-            String mergedOutput = normalizeOutput(output.toString(), event.path("data"));
-            return new SendResult(mergedOutput, Instant.now());
-          }
-        }
+    PromptProgress progress = new PromptProgress(sessionId, deltas, MDC.getCopyOfContextMap());
+    if (streamEvents) {
+      SendResult result = streamEvents(progress, deadline, request.timeout());
+      if (result != null) {
+        return result;
       }
-
-      sleepPolling();
     }
-
-    throw new AgentRuntimeTimeoutException(
-        "Gateway prompt timed out after " + request.timeout().toMillis() + "ms");
+    return pollEvents(progress, deadline, request.timeout());
   }
 
   @Override
   public void stop(SessionHandle session) {
     postJson(
+        "sessions.cancel",
         "/sessions/" + encode(session.sessionId()) + "/cancel",
         Map.of("reason", "cancelled by java runtime bridge", "traceId", traceId()));
   }
 
   @Override
   public Health health() {
-    JsonNode response = getJson("/health");
+    JsonNode response = getJson("health", "/health");
     String status = text(response, "status");
     if ("ok".equalsIgnoreCase(status)) {
       return new Health(Status.UP, 0, "agent-gateway reachable");
@@ -125,42 +181,217 @@ public class HttpAgentProtocolGateway implements AgentProtocolGateway {
     return new Health(Status.DEGRADED, 0, "agent-gateway status: " + status);
   }
 
-  private JsonNode getEvents(String sessionId, String cursor) {
-    String path = "/sessions/" + encode(sessionId) + "/events";
-    if (cursor != null && !cursor.isBlank()) {
-      path = path + "?cursor=" + encode(cursor);
-    }
-    return getJson(path);
+  /** Stops the poller and the client threads. */
+  @Override
+  public void close() {
+    poller.shutdownNow();
+    client
+        .executor()
+        .ifPresent(
+            executor -> {
+              if (executor instanceof ExecutorService service) {
+                service.shutdownNow();
+              }
+            });
   }
 
-  private JsonNode getJson(String path) {
+  /** Returns {@code null} when the stream ended before the prompt completed. */
+  private SendResult streamEvents(PromptProgress progress, Instant deadline, Duration timeout) {
+    String path = "/sessions/" + encode(progress.sessionId) + "/stream";
+    if (progress.cursor != null && !progress.cursor.isBlank()) {
+      path = path + "?cursor=" + encode(progress.cursor);
+    }
     HttpRequest request =
         HttpRequest.newBuilder()
             .uri(URI.create(baseUrl + path))
-            .timeout(REQUEST_TIMEOUT)
+            .timeout(timeout)
             .GET()
-            .header("Accept", "application/json")
+            .header("Accept", "text/event-stream")
             .header(TRACE_ID_HEADER, traceId())
             .build();
-    return send(request);
+    EventStreamSubscriber subscriber = new EventStreamSubscriber(progress);
+    long startedNanos = telemetry.requestStarted();
+    CompletableFuture<HttpResponse<Void>> exchange =
+        client.sendAsync(
+            request,
+            response ->
+                response.statusCode() == 200
+                    ? HttpResponse.BodySubscribers.fromLineSubscriber(
+                        subscriber, ignored -> null, StandardCharsets.UTF_8, null)
+                    : HttpResponse.BodySubscribers.replacing(null));
+    exchange.whenComplete(
+        (response, error) -> {
+          telemetry.requestFinished("sessions.stream", outcome(response, error), startedNanos);
+          subscriber.closed(error);
+        });
+    try {
+      return await(subscriber.result, deadline, timeout);
+    } catch (ExecutionException error) {
+      if (error.getCause() instanceof AgentRuntimeException runtimeError) {
+        throw runtimeError;
+      }
+      log.warn(
+          "event=agent_gateway_stream_failed sessionId={} message={}",
+          progress.sessionId,
+          error.getCause() == null ? "unknown" : error.getCause().getMessage());
+      return null;
+    } finally {
+      subscriber.cancel();
+      exchange.cancel(true);
+    }
+  }
+
+  private SendResult pollEvents(PromptProgress progress, Instant deadline, Duration timeout) {
+    PendingPoll poll = new PendingPoll(progress);
+    pendingPolls.put(progress.sessionId, poll);
+    poller.execute(this::pollPending);
+    try {
+      return await(poll.result, deadline, timeout);
+    } catch (ExecutionException error) {
+      throw (AgentRuntimeException) error.getCause();
+    } finally {
+      pendingPolls.remove(progress.sessionId, poll);
+    }
+  }
+
+  private SendResult await(CompletableFuture<SendResult> result, Instant deadline, Duration timeout)
+      throws ExecutionException {
+    try {
+      return result.get(
+          Math.max(1L, Duration.between(Instant.now(), deadline).toMillis()),
+          TimeUnit.MILLISECONDS);
+    } catch (TimeoutException error) {
+      throw new AgentRuntimeTimeoutException(
+          "Gateway prompt timed out after " + timeout.toMillis() + "ms");
+    } catch (InterruptedException error) {
+      Thread.currentThread().interrupt();
+      throw new AgentRuntimeException("Gateway request interrupted");
+    }
+  }
+
+  /**
+   * Runs on the poller thread: reads new events for every prompt waiting on polling. A failed
+   * batch read falls back to reading each session on its own, so one bad batch response does not
+   * fail every waiting prompt.
+   */
+  private void pollPending() {
+    List<PendingPoll> polls =
+        pendingPolls.values().stream().filter(poll -> !poll.result.isDone()).toList();
+    if (polls.size() > 1 && batchEventsSupported) {
+      try {
+        if (pollBatch(polls)) {
+          return;
+        }
+      } catch (RuntimeException error) {
+        log.warn(
+            "event=agent_gateway_batch_events_failed sessions={} message={}",
+            polls.size(),
+            error.getMessage());
+        polls = polls.stream().filter(poll -> !poll.result.isDone()).toList();
+      }
+    }
+    for (PendingPoll poll : polls) {
+      try {
+        String path = "/sessions/" + encode(poll.progress.sessionId) + "/events";
+        if (poll.progress.cursor != null && !poll.progress.cursor.isBlank()) {
+          path = path + "?cursor=" + encode(poll.progress.cursor);
+        }
+        poll.apply(getJson("sessions.events", path).path("events"));
+      } catch (RuntimeException error) {
+        poll.fail(error);
+      }
+    }
+  }
+
+  /** Returns {@code false} when the gateway has no batch endpoint. */
+  private boolean pollBatch(List<PendingPoll> polls) {
+    List<Map<String, Object>> sessions = new ArrayList<>(polls.size());
+    Map<String, PendingPoll> bySession = new LinkedHashMap<>();
+    for (PendingPoll poll : polls) {
+      Map<String, Object> session = new LinkedHashMap<>();
+      session.put("sessionId", poll.progress.sessionId);
+      if (poll.progress.cursor != null && !poll.progress.cursor.isBlank()) {
+        session.put("cursor", poll.progress.cursor);
+      }
+      sessions.add(session);
+      bySession.put(poll.progress.sessionId, poll);
+    }
+    HttpResponse<String> response =
+        exchange(
+            "sessions.events.batch",
+            postRequest("/sessions/events", Map.of("sessions", sessions)));
+    if (response.statusCode() == 404 || response.statusCode() == 405) {
+      batchEventsSupported = false;
+      log.info("event=agent_gateway_batch_events_unsupported status={}", response.statusCode());
+      return false;
+    }
+    JsonNode payload = readResponse(response);
+    for (JsonNode page : payload.path("sessions")) {
+      PendingPoll poll = bySession.get(text(page, "sessionId"));
+      if (poll != null) {
+        poll.apply(page.path("events"));
+      }
+    }
+    for (JsonNode missing : payload.path("missing")) {
+      PendingPoll poll = bySession.get(missing.asText());
+      if (poll != null) {
+        poll.fail(
+            gatewayException(
+                MissingNode.getInstance(),
+                "SESSION_NOT_FOUND",
+                "Session not found: " + missing.asText()));
+      }
+    }
+    return true;
   }
 
-  private JsonNode postJson(String path, Map<String, Object> body) {
+  private JsonNode getJson(String endpoint, String path) {
     HttpRequest request =
         HttpRequest.newBuilder()
             .uri(URI.create(baseUrl + path))
-            .timeout(REQUEST_TIMEOUT)
-            .POST(HttpRequest.BodyPublishers.ofString(toJson(body)))
-            .header("Content-Type", "application/json")
+            .timeout(requestTimeout)
+            .GET()
             .header("Accept", "application/json")
             .header(TRACE_ID_HEADER, traceId())
             .build();
-    return send(request);
+    return readResponse(exchange(endpoint, request));
+  }
+
+  private JsonNode postJson(String endpoint, String path, Map<String, Object> body) {
+    return readResponse(exchange(endpoint, postRequest(path, body)));
   }
 
-  private JsonNode send(HttpRequest request) {
+  private HttpRequest postRequest(String path, Map<String, Object> body) {
+    return HttpRequest.newBuilder()
+        .uri(URI.create(baseUrl + path))
+        .timeout(requestTimeout)
+        .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(body)))
+        .header("Content-Type", "application/json")
+        .header("Accept", "application/json")
+        .header(TRACE_ID_HEADER, traceId())
+        .build();
+  }
+
+  private HttpResponse<String> exchange(String endpoint, HttpRequest request) {
+    long startedNanos = telemetry.requestStarted();
+    String outcome = "io_error";
     try {
       HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      outcome = String.valueOf(response.statusCode());
+      return response;
+    } catch (IOException error) {
+      throw new AgentRuntimeException("Gateway IO error: " + error.getMessage());
+    } catch (InterruptedException error) {
+      outcome = "interrupted";
+      Thread.currentThread().interrupt();
+      throw new AgentRuntimeException("Gateway request interrupted");
+    } finally {
+      telemetry.requestFinished(endpoint, outcome, startedNanos);
+    }
+  }
+
+  private JsonNode readResponse(HttpResponse<String> response) {
+    try {
       if (response.statusCode() >= 400) {
         JsonNode payload = parseJson(response.body());
         JsonNode error = payload.path("error");
@@ -172,12 +403,16 @@ public class HttpAgentProtocolGateway implements AgentProtocolGateway {
       return parseJson(response.body());
     } catch (IOException error) {
       throw new AgentRuntimeException("Gateway IO error: " + error.getMessage());
-    } catch (InterruptedException error) {
-      Thread.currentThread().interrupt();
-      throw new AgentRuntimeException("Gateway request interrupted");
     }
   }
 
+  private String outcome(HttpResponse<?> response, Throwable error) {
+    if (response != null) {
+      return String.valueOf(response.statusCode());
+    }
+    return error instanceof CancellationException ? "cancelled" : "io_error";
+  }
+
   private JsonNode parseJson(String body) throws IOException {
     if (body == null || body.isBlank()) {
       return OBJECT_MAPPER.createObjectNode();
@@ -185,9 +420,9 @@ public class HttpAgentProtocolGateway implements AgentProtocolGateway {
     return OBJECT_MAPPER.readTree(body);
   }
 
-  private String toJson(Map<String, Object> value) {
+  private byte[] toJson(Map<String, Object> value) {
     try {
-      return OBJECT_MAPPER.writeValueAsString(value);
+      return OBJECT_MAPPER.writeValueAsBytes(value);
     } catch (IOException error) {
       throw new AgentRuntimeException("Failed to serialize gateway request body");
     }
@@ -202,26 +437,21 @@ public class HttpAgentProtocolGateway implements AgentProtocolGateway {
     return reason == null || reason.isBlank() ? "completed" : reason;
   }
 
-  private void appendDelta(StringBuilder output, JsonNode data) {
+  private String deltaText(JsonNode data) {
     String text = text(data, "text");
     if (text == null || text.isBlank()) {
       text = text(data, "content");
     }
-    if (text != null && !text.isBlank()) {
-      if (!output.isEmpty()) {
-        output.append('\n');
-      }
-      output.append(text);
-    }
+    return text == null || text.isBlank() ? null : text;
   }
 
-  private void sleepPolling() {
-    try {
-      Thread.sleep(pollIntervalMillis);
-    } catch (InterruptedException error) {
-      Thread.currentThread().interrupt();
-      throw new AgentRuntimeException("Gateway polling interrupted");
-    }
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
   }
 
   private String providerFromRequest(StartRequest request) {
@@ -325,4 +555,220 @@ public class HttpAgentProtocolGateway implements AgentProtocolGateway {
     }
     return value.asText();
   }
+
+  /**
+   * Transport settings of the gateway client. The JDK client cannot speak HTTP/2 with prior
+   * knowledge over plain HTTP; {@code HTTP_2} upgrades the connection and falls back to HTTP/1.1
+   * when the gateway declines.
+   */
+  public record ClientOptions(
+      Duration connectTimeout, Duration requestTimeout, HttpClient.Version version, int threads) {
+    public ClientOptions {
+      if (connectTimeout == null || connectTimeout.isZero() || connectTimeout.isNegative()) {
+        throw new IllegalArgumentException("connectTimeout must be a positive duration");
+      }
+      if (requestTimeout == null || requestTimeout.isZero() || requestTimeout.isNegative()) {
+        throw new IllegalArgumentException("requestTimeout must be a positive duration");
+      }
+      if (version == null) {
+        version = HttpClient.Version.HTTP_1_1;
+      }
+      threads = Math.max(1, threads);
+    }
+
+    public static ClientOptions defaults() {
+      return new ClientOptions(
+          Duration.ofSeconds(2), Duration.ofSeconds(10), HttpClient.Version.HTTP_1_1, 4);
+    }
+  }
+
+  /** Output of one prompt, fed with gateway events from the stream or from polling. */
+  private final class PromptProgress {
+    private final String sessionId;
+    private final Consumer<String> deltas;
+    private final Map<String, String> mdc;
+    private final StringBuilder output = new StringBuilder();
+    private String cursor;
+
+    PromptProgress(String sessionId, Consumer<String> deltas, Map<String, String> mdc) {
+      this.sessionId = sessionId;
+      this.deltas = deltas;
+      this.mdc = mdc;
+      this.cursor = sessionCursors.get(sessionId);
+    }
+
+    /**
+     * Returns the result once {@code event} completes the prompt, otherwise {@code null}. Runs on a
+     * client thread with the diagnostic context of the caller.
+     */
+    SendResult apply(JsonNode event) {
+      if (mdc != null) {
+        MDC.setContextMap(mdc);
+      }
+      try {
+        return applyEvent(event);
+      } finally {
+        MDC.clear();
+      }
+    }
+
+    private SendResult applyEvent(JsonNode event) {
+      String eventCursor = text(event, "cursor");
+      if (eventCursor != null && !eventCursor.isBlank()) {
+        cursor = eventCursor;
+        sessionCursors.put(sessionId, cursor);
+      }
+
+      String type = text(event, "type");
+      if ("delta".equals(type)) {
+        String delta = deltaText(event.path("data"));
+        if (delta != null) {
+          if (!output.isEmpty()) {
+            output.append('\n');
+          }
+          output.append(delta);
+          deltas.accept(delta);
+        }
+      } else if ("error".equals(type)) {
+        JsonNode error = event.path("error");
+        throw gatewayException(
+            error,
+            "RUNTIME_FAILURE",
+            text(error, "message") == null ? "gateway error" : text(error, "message"));
+      } else if ("complete".equals(type)) {
+        String merged = normalizeOutput(output.toString(), event.path("data"));
+        return new SendResult(merged, Instant.now());
+      }
+      return null;
+    }
+  }
+
+  /** A prompt waiting on the poller; {@link #result} completes like the event stream's. */
+  private static final class PendingPoll {
+    private final PromptProgress progress;
+    private final CompletableFuture<SendResult> result = new CompletableFuture<>();
+
+    PendingPoll(PromptProgress progress) {
+      this.progress = progress;
+    }
+
+    void apply(JsonNode events) {
+      if (!events.isArray()) {
+        return;
+      }
+      try {
+        for (JsonNode event : events) {
+          if (result.isDone()) {
+            return;
+          }
+          SendResult completed = progress.apply(event);
+          if (completed != null) {
+            result.complete(completed);
+          }
+        }
+      } catch (RuntimeException error) {
+        fail(error);
+      }
+    }
+
+    void fail(RuntimeException error) {
+      result.completeExceptionally(
+          error instanceof AgentRuntimeException
+              ? error
+              : new AgentRuntimeException("Gateway polling failed: " + error.getMessage()));
+    }
+  }
+
+  /**
+   * Reads the server-sent events of a session stream line by line and applies every {@code
+   * gateway-event} to the prompt. {@link #result} completes with the prompt result, with the
+   * gateway error, or with {@code null} when the stream closes first.
+   */
+  private static final class EventStreamSubscriber implements Flow.Subscriber<String> {
+    private final PromptProgress progress;
+    private final CompletableFuture<SendResult> result = new CompletableFuture<>();
+    private final StringBuilder data = new StringBuilder();
+    private String eventName;
+    private volatile Flow.Subscription subscription;
+
+    EventStreamSubscriber(PromptProgress progress) {
+      this.progress = progress;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (result.isDone()) {
+        subscription.cancel();
+      } else {
+        subscription.request(Long.MAX_VALUE);
+      }
+    }
+
+    @Override
+    public void onNext(String line) {
+      if (result.isDone()) {
+        return;
+      }
+      if (line.isEmpty()) {
+        dispatch();
+      } else if (line.startsWith("data:")) {
+        if (!data.isEmpty()) {
+          data.append('\n');
+        }
+        data.append(field(line, 5));
+      } else if (line.startsWith("event:")) {
+        eventName = field(line, 6);
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      result.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+      result.complete(null);
+    }
+
+    void closed(Throwable error) {
+      if (error != null) {
+        result.completeExceptionally(error);
+      } else {
+        result.complete(null);
+      }
+    }
+
+    void cancel() {
+      Flow.Subscription current = subscription;
+      if (current != null) {
+        current.cancel();
+      }
+    }
+
+    private void dispatch() {
+      String name = eventName;
+      String payload = data.toString();
+      eventName = null;
+      data.setLength(0);
+      if (payload.isEmpty() || (name != null && !"gateway-event".equals(name))) {
+        return;
+      }
+      try {
+        SendResult completed = progress.apply(OBJECT_MAPPER.readTree(payload));
+        if (completed != null) {
+          result.complete(completed);
+          cancel();
+        }
+      } catch (IOException | RuntimeException error) {
+        result.completeExceptionally(error);
+        cancel();
+      }
+    }
+
+    private String field(String line, int offset) {
+      return line.startsWith(" ", offset) ? line.substring(offset + 1) : line.substring(offset);
+    }
+  }
 }
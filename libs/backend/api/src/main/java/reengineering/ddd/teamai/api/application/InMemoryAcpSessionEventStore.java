@@ -3,8 +3,10 @@ package reengineering.ddd.teamai.api.application;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import org.springframework.stereotype.Component;
 import reengineering.ddd.teamai.model.AcpSessionEvent;
 import reengineering.ddd.teamai.model.AcpSessionEventStore;
@@ -13,6 +15,14 @@ import reengineering.ddd.teamai.model.AcpSessionEventStore;
 public class InMemoryAcpSessionEventStore implements AcpSessionEventStore {
   private final Map<String, CopyOnWriteArrayList<AcpSessionEvent>> eventsBySession =
       new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+  @Override
+  public long nextSequence(String projectId, String sessionId) {
+    return sequences
+        .computeIfAbsent(key(projectId, sessionId), ignored -> new AtomicLong())
+        .incrementAndGet();
+  }
 
   @Override
   public void append(String projectId, AcpSessionEvent event) {
@@ -47,6 +57,28 @@ public class InMemoryAcpSessionEventStore implements AcpSessionEventStore {
     return new ArrayList<>(events.subList(start, end));
   }
 
+  @Override
+  public long lastSequence(String projectId, String sessionId) {
+    return eventsBySession
+        .getOrDefault(key(projectId, sessionId), new CopyOnWriteArrayList<>())
+        .stream()
+        .mapToLong(event -> event.sequence().orElse(0))
+        .max()
+        .orElse(0);
+  }
+
+  @Override
+  public Optional<String> findProjectId(String sessionId) {
+    String suffix = ":" + normalize(sessionId);
+    return eventsBySession.keySet().stream()
+        .filter(key -> key.endsWith(suffix))
+        .map(key -> key.substring(0, key.length() - suffix.length()))
+        .findFirst();
+  }
+
+  @Override
+  public void flush(String projectId, String sessionId) {}
+
   private String key(String projectId, String sessionId) {
     return normalize(projectId) + ":" + normalize(sessionId);
   }
@@ -3,11 +3,16 @@ package reengineering.ddd.teamai.api.application;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
@@ -20,7 +25,7 @@ import reengineering.ddd.teamai.model.AgentProtocolGateway;
  */
 @Component
 @Primary
-public class SwitchableAgentProtocolGateway implements AgentProtocolGateway {
+public class SwitchableAgentProtocolGateway implements AgentProtocolGateway, DisposableBean {
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
   private final AgentProtocolGateway localGateway;
@@ -37,12 +42,27 @@ public class SwitchableAgentProtocolGateway implements AgentProtocolGateway {
       AcpGatewayRoutingController routingController,
       @Value("${team-ai.acp.gateway.base-url:http://127.0.0.1:3321}") String baseUrl,
       @Value("${team-ai.acp.gateway.poll-interval-ms:200}") long pollIntervalMillis,
+      @Value("${team-ai.acp.gateway.stream-events:true}") boolean streamEvents,
+      @Value("${team-ai.acp.gateway.client.connect-timeout-ms:2000}") long connectTimeoutMillis,
+      @Value("${team-ai.acp.gateway.client.request-timeout-ms:10000}") long requestTimeoutMillis,
+      @Value("${team-ai.acp.gateway.client.http-version:HTTP_1_1}") HttpClient.Version httpVersion,
+      @Value("${team-ai.acp.gateway.client.threads:4}") int clientThreads,
+      AgentGatewayClientTelemetry clientTelemetry,
       @Value("${team-ai.acp.gateway.rollout.projects:}") String rolloutProjects,
       @Value("${team-ai.acp.gateway.rollout.users:}") String rolloutUsers,
       @Value("${team-ai.acp.gateway.rollout.percent:100}") int rolloutPercent) {
     this(
         localGateway,
-        new HttpAgentProtocolGateway(baseUrl, pollIntervalMillis),
+        new HttpAgentProtocolGateway(
+            baseUrl,
+            pollIntervalMillis,
+            streamEvents,
+            new HttpAgentProtocolGateway.ClientOptions(
+                Duration.ofMillis(connectTimeoutMillis),
+                Duration.ofMillis(requestTimeoutMillis),
+                httpVersion,
+                clientThreads),
+            clientTelemetry),
         routingController,
         parseList(rolloutProjects),
         parseList(rolloutUsers),
@@ -96,18 +116,12 @@ public class SwitchableAgentProtocolGateway implements AgentProtocolGateway {
 
   @Override
   public SendResult send(SessionHandle session, SendRequest request) {
-    Route route = routeForSession(session);
-    if (route == Route.REMOTE) {
-      try {
-        SendResult result = remoteGateway.send(session, request);
-        routingController.recordRemoteSuccess();
-        return result;
-      } catch (RuntimeException error) {
-        routingController.recordRemoteFailure(error);
-        throw error;
-      }
-    }
-    return localGateway.send(session, request);
+    return send(session, gateway -> gateway.send(session, request));
+  }
+
+  @Override
+  public SendResult send(SessionHandle session, SendRequest request, Consumer<String> deltas) {
+    return send(session, gateway -> gateway.send(session, request, deltas));
   }
 
   @Override
@@ -146,6 +160,29 @@ public class SwitchableAgentProtocolGateway implements AgentProtocolGateway {
     return routingController;
   }
 
+  @Override
+  public void destroy() {
+    if (remoteGateway instanceof HttpAgentProtocolGateway httpGateway) {
+      httpGateway.close();
+    }
+  }
+
+  private SendResult send(
+      SessionHandle session, Function<AgentProtocolGateway, SendResult> sendPrompt) {
+    Route route = routeForSession(session);
+    if (route == Route.REMOTE) {
+      try {
+        SendResult result = sendPrompt.apply(remoteGateway);
+        routingController.recordRemoteSuccess();
+        return result;
+      } catch (RuntimeException error) {
+        routingController.recordRemoteFailure(error);
+        throw error;
+      }
+    }
+    return sendPrompt.apply(localGateway);
+  }
+
   private Route pickRouteForStart(StartRequest request) {
     if (!routingController.shouldUseRemote()) {
       return Route.LOCAL;
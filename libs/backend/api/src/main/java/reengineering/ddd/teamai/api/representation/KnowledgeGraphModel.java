@@ -1,7 +1,9 @@
 package reengineering.ddd.teamai.api.representation;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
+import java.net.URI;
 import java.util.List;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.RepresentationModel;
@@ -27,9 +29,36 @@ public class KnowledgeGraphModel extends RepresentationModel<KnowledgeGraphModel
     model.add(
         Link.of(ApiTemplates.knowledgeGraph(uriInfo).build(project.getIdentity()).getPath())
             .withSelfRel());
-    model.add(
+    return model.withCommonLinks(project, uriInfo);
+  }
+
+  public static KnowledgeGraphModel of(
+      Project project, KnowledgeGraph.Page page, String cursor, int limit, UriInfo uriInfo) {
+    KnowledgeGraphModel model =
+        new KnowledgeGraphModel(project.getIdentity(), page.nodes(), page.edges());
+    model.add(Link.of(pageLink(project, cursor, limit, uriInfo)).withSelfRel());
+    if (page.nextCursor() != null) {
+      model.add(Link.of(pageLink(project, page.nextCursor(), limit, uriInfo)).withRel("next"));
+    }
+    return model.withCommonLinks(project, uriInfo);
+  }
+
+  private KnowledgeGraphModel withCommonLinks(Project project, UriInfo uriInfo) {
+    add(
+        Link.of(ApiTemplates.knowledgeGraphExport(uriInfo).build(project.getIdentity()).getPath())
+            .withRel("export"));
+    add(
         Link.of(ApiTemplates.project(uriInfo).build(project.getIdentity()).getPath())
             .withRel("project"));
-    return model;
+    return this;
+  }
+
+  private static String pageLink(Project project, String cursor, int limit, UriInfo uriInfo) {
+    UriBuilder builder = ApiTemplates.knowledgeGraph(uriInfo);
+    if (cursor != null) {
+      builder.queryParam("cursor", cursor);
+    }
+    URI uri = builder.queryParam("limit", limit).build(project.getIdentity());
+    return uri.getRawPath() + "?" + uri.getRawQuery();
   }
 }
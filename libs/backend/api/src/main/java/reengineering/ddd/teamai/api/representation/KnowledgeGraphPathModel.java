@@ -0,0 +1,57 @@
+package reengineering.ddd.teamai.api.representation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
+import java.net.URI;
+import java.util.List;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+import reengineering.ddd.teamai.api.ApiTemplates;
+import reengineering.ddd.teamai.model.KnowledgeGraph;
+import reengineering.ddd.teamai.model.Project;
+
+public class KnowledgeGraphPathModel extends RepresentationModel<KnowledgeGraphPathModel> {
+  @JsonProperty private final String projectId;
+  @JsonProperty private final String from;
+  @JsonProperty private final String to;
+  @JsonProperty private final int length;
+  @JsonProperty private final List<KnowledgeGraph.Node> nodes;
+  @JsonProperty private final List<KnowledgeGraph.Edge> edges;
+
+  public KnowledgeGraphPathModel(
+      String projectId, String from, String to, KnowledgeGraph.Path path) {
+    this.projectId = projectId;
+    this.from = from;
+    this.to = to;
+    this.length = path.edges().size();
+    this.nodes = path.nodes();
+    this.edges = path.edges();
+  }
+
+  public static KnowledgeGraphPathModel of(
+      Project project,
+      String from,
+      String to,
+      KnowledgeGraph.Traversal traversal,
+      KnowledgeGraph.Path path,
+      UriInfo uriInfo) {
+    KnowledgeGraphPathModel model =
+        new KnowledgeGraphPathModel(project.getIdentity(), from, to, path);
+    UriBuilder self =
+        ApiTemplates.shortestPath(uriInfo)
+            .queryParam("from", from)
+            .queryParam("to", to)
+            .queryParam("maxDepth", traversal.maxDepth())
+            .queryParam("direction", traversal.direction());
+    traversal.relationTypes().stream()
+        .sorted()
+        .forEach(type -> self.queryParam("relationType", type));
+    URI uri = self.build(project.getIdentity());
+    model.add(Link.of(uri.getRawPath() + "?" + uri.getRawQuery()).withSelfRel());
+    model.add(
+        Link.of(ApiTemplates.knowledgeGraph(uriInfo).build(project.getIdentity()).getPath())
+            .withRel("knowledge-graph"));
+    return model;
+  }
+}
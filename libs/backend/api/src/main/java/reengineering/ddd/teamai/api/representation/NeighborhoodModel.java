@@ -0,0 +1,68 @@
+package reengineering.ddd.teamai.api.representation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
+import java.net.URI;
+import java.util.List;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+import reengineering.ddd.teamai.api.ApiTemplates;
+import reengineering.ddd.teamai.model.KnowledgeGraph;
+import reengineering.ddd.teamai.model.Project;
+
+public class NeighborhoodModel extends RepresentationModel<NeighborhoodModel> {
+  @JsonProperty private final String projectId;
+  @JsonProperty private final String logicalEntityId;
+  @JsonProperty private final int depth;
+  @JsonProperty private final KnowledgeGraph.Direction direction;
+  @JsonProperty private final List<String> relationTypes;
+  @JsonProperty private final List<KnowledgeGraph.ReachedNode> nodes;
+  @JsonProperty private final List<KnowledgeGraph.Edge> edges;
+
+  public NeighborhoodModel(
+      String projectId,
+      KnowledgeGraph.Traversal traversal,
+      KnowledgeGraph.Neighborhood neighborhood) {
+    this.projectId = projectId;
+    this.logicalEntityId = neighborhood.logicalEntityId();
+    this.depth = traversal.maxDepth();
+    this.direction = traversal.direction();
+    this.relationTypes = traversal.relationTypes().stream().sorted().toList();
+    this.nodes = neighborhood.nodes();
+    this.edges = neighborhood.edges();
+  }
+
+  public static NeighborhoodModel of(
+      Project project,
+      KnowledgeGraph.Traversal traversal,
+      KnowledgeGraph.Neighborhood neighborhood,
+      String cursor,
+      UriInfo uriInfo) {
+    NeighborhoodModel model = new NeighborhoodModel(project.getIdentity(), traversal, neighborhood);
+    model.add(Link.of(pageLink(project, model, cursor, uriInfo)).withSelfRel());
+    if (neighborhood.nextCursor() != null) {
+      model.add(
+          Link.of(pageLink(project, model, neighborhood.nextCursor(), uriInfo)).withRel("next"));
+    }
+    model.add(
+        Link.of(ApiTemplates.knowledgeGraph(uriInfo).build(project.getIdentity()).getPath())
+            .withRel("knowledge-graph"));
+    return model;
+  }
+
+  private static String pageLink(
+      Project project, NeighborhoodModel model, String cursor, UriInfo uriInfo) {
+    UriBuilder builder =
+        ApiTemplates.neighborhood(uriInfo)
+            .queryParam("logicalEntityId", model.logicalEntityId)
+            .queryParam("depth", model.depth)
+            .queryParam("direction", model.direction);
+    model.relationTypes.forEach(type -> builder.queryParam("relationType", type));
+    if (cursor != null) {
+      builder.queryParam("cursor", cursor);
+    }
+    URI uri = builder.build(project.getIdentity());
+    return uri.getRawPath() + "?" + uri.getRawQuery();
+  }
+}
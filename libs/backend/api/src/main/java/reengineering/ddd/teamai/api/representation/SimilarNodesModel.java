@@ -0,0 +1,43 @@
+package reengineering.ddd.teamai.api.representation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.ws.rs.core.UriInfo;
+import java.net.URI;
+import java.util.List;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.RepresentationModel;
+import reengineering.ddd.teamai.api.ApiTemplates;
+import reengineering.ddd.teamai.model.KnowledgeGraph;
+import reengineering.ddd.teamai.model.Project;
+
+public class SimilarNodesModel extends RepresentationModel<SimilarNodesModel> {
+  @JsonProperty private final String projectId;
+  @JsonProperty private final String logicalEntityId;
+  @JsonProperty private final List<KnowledgeGraph.SimilarNode> nodes;
+
+  public SimilarNodesModel(
+      String projectId, String logicalEntityId, List<KnowledgeGraph.SimilarNode> nodes) {
+    this.projectId = projectId;
+    this.logicalEntityId = logicalEntityId;
+    this.nodes = nodes;
+  }
+
+  public static SimilarNodesModel of(
+      Project project,
+      String logicalEntityId,
+      int limit,
+      List<KnowledgeGraph.SimilarNode> nodes,
+      UriInfo uriInfo) {
+    SimilarNodesModel model = new SimilarNodesModel(project.getIdentity(), logicalEntityId, nodes);
+    URI self =
+        ApiTemplates.similarNodes(uriInfo)
+            .queryParam("logicalEntityId", logicalEntityId)
+            .queryParam("limit", limit)
+            .build(project.getIdentity());
+    model.add(Link.of(self.getRawPath() + "?" + self.getRawQuery()).withSelfRel());
+    model.add(
+        Link.of(ApiTemplates.knowledgeGraph(uriInfo).build(project.getIdentity()).getPath())
+            .withRel("knowledge-graph"));
+    return model;
+  }
+}
@@ -24,7 +24,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.springframework.beans.factory.annotation.Autowired;
 import reengineering.ddd.archtype.Ref;
+import reengineering.ddd.teamai.api.application.AcpRuntimeBridgeService;
 import reengineering.ddd.teamai.api.config.TraceIdFilter;
 import reengineering.ddd.teamai.description.AcpSessionDescription;
 import reengineering.ddd.teamai.description.ProjectDescription;
@@ -44,6 +46,7 @@ class AcpApiTest extends ApiTest {
   @Mock private Project.Tasks tasks;
   @Mock private Project.AgentEvents events;
   @Mock private Project.AcpSessions acpSessions;
+  @Autowired private AcpRuntimeBridgeService runtimeBridgeService;
 
   @BeforeEach
   void beforeEach() {
@@ -475,6 +478,8 @@ class AcpApiTest extends ApiTest {
 
   @Test
   void should_open_acp_sse_stream() {
+    runtimeBridgeService.startSession("project-1", "s-1", "user-1", "goal");
+
     given(documentationSpec)
         .accept("text/event-stream")
         .queryParam("sessionId", "s-1")
@@ -493,6 +498,18 @@ class AcpApiTest extends ApiTest {
         .body(notNullValue());
   }
 
+  @Test
+  void should_reject_acp_sse_stream_of_unknown_session() {
+    given(documentationSpec)
+        .accept("text/event-stream")
+        .queryParam("sessionId", "not-started")
+        .queryParam("once", true)
+        .when()
+        .get("/acp")
+        .then()
+        .statusCode(404);
+  }
+
   @Test
   void should_return_session_history_for_project_session_resource() {
     AcpSession pending = session("601", "user-6", AcpSessionDescription.Status.PENDING);
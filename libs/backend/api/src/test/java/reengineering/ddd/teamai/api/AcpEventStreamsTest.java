@@ -0,0 +1,188 @@
+package reengineering.ddd.teamai.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import reengineering.ddd.teamai.api.acp.AcpEventEnvelope;
+import reengineering.ddd.teamai.api.acp.AcpSseEventWriter;
+import reengineering.ddd.teamai.api.application.AcpRuntimeBridgeService;
+
+class AcpEventStreamsTest {
+  private AcpSseEventWriter writer;
+  private AcpRuntimeBridgeService runtimeBridgeService;
+  private SseEventSink sink;
+  private AcpRuntimeBridgeService.Subscription subscription;
+  private AcpEventStreams streams;
+  private final List<AcpEventEnvelope> sent = new CopyOnWriteArrayList<>();
+  private final CountDownLatch sending = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicReference<Consumer<AcpEventEnvelope>> subscriber = new AtomicReference<>();
+  private final AtomicBoolean sinkClosed = new AtomicBoolean();
+
+  @BeforeEach
+  void setUp() {
+    writer = mock(AcpSseEventWriter.class);
+    runtimeBridgeService = mock(AcpRuntimeBridgeService.class);
+    sink = mock(SseEventSink.class);
+    subscription = mock(AcpRuntimeBridgeService.Subscription.class);
+    when(writer.envelope(anyString(), anyString(), any(), any()))
+        .thenAnswer(
+            invocation ->
+                new AcpEventEnvelope(
+                    "acp-s-1-" + invocation.getArgument(1) + "-0",
+                    invocation.getArgument(0),
+                    invocation.getArgument(1),
+                    Instant.now(),
+                    invocation.getArgument(2),
+                    invocation.getArgument(3)));
+    Answer<Void> recording =
+        invocation -> {
+          sent.add(invocation.getArgument(2));
+          sending.countDown();
+          release.await(5, TimeUnit.SECONDS);
+          return null;
+        };
+    doAnswer(recording).when(writer).send(any(), any(), any());
+    doAnswer(recording).when(writer).sendNotice(any(), any(), any());
+    when(runtimeBridgeService.findSessionProject("s-1")).thenReturn(Optional.of("p-1"));
+    when(runtimeBridgeService.isLocalSession("s-1")).thenReturn(true);
+    when(runtimeBridgeService.subscribe(eq("s-1"), isNull(), any()))
+        .thenAnswer(
+            invocation -> {
+              subscriber.set(invocation.getArgument(2));
+              return subscription;
+            });
+    when(sink.isClosed()).thenAnswer(invocation -> sinkClosed.get());
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    streams.destroy();
+  }
+
+  @Test
+  void should_send_queued_events_and_a_stream_overflow_error_to_a_slow_client()
+      throws InterruptedException {
+    streams = new AcpEventStreams(writer, runtimeBridgeService, 60_000, 60_000, 3, 1);
+
+    streams.open("s-1", null, false, sink, mock(Sse.class), "trace-1");
+    assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+    for (int i = 1; i <= 5; i++) {
+      subscriber.get().accept(event(i));
+    }
+    release.countDown();
+
+    verify(sink, timeout(5_000)).close();
+    assertThat(sent)
+        .extracting(AcpEventEnvelope::type)
+        .containsExactly(
+            AcpEventEnvelope.TYPE_STATUS,
+            AcpEventEnvelope.TYPE_DELTA,
+            AcpEventEnvelope.TYPE_DELTA,
+            AcpEventEnvelope.TYPE_DELTA,
+            AcpEventEnvelope.TYPE_ERROR);
+    assertThat(sent.get(4).error().code()).isEqualTo("STREAM_OVERFLOW");
+    assertThat(sent.get(4).error().retryable()).isTrue();
+    verify(subscription).close();
+    assertThat(streams.openConnections()).isZero();
+  }
+
+  @Test
+  void should_stop_draining_when_the_connection_is_closed_during_a_send()
+      throws InterruptedException {
+    streams = new AcpEventStreams(writer, runtimeBridgeService, 10, 60_000, 100, 1);
+
+    streams.open("s-1", null, false, sink, mock(Sse.class), "trace-1");
+    assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+    subscriber.get().accept(event(1));
+    subscriber.get().accept(event(2));
+    sinkClosed.set(true);
+    verify(subscription, timeout(5_000)).close();
+    subscriber.get().accept(event(3));
+    release.countDown();
+
+    verify(writer, after(200).times(1)).sendNotice(any(), any(), any());
+    verify(writer, never()).send(any(), any(), any());
+    assertThat(sent)
+        .extracting(AcpEventEnvelope::type)
+        .containsExactly(AcpEventEnvelope.TYPE_STATUS);
+    assertThat(streams.openConnections()).isZero();
+    verify(subscription, times(1)).close();
+    verify(sink, never()).close();
+  }
+
+  @Test
+  void should_not_open_streams_of_unknown_sessions() {
+    streams = new AcpEventStreams(writer, runtimeBridgeService, 60_000, 60_000, 3, 1);
+
+    WebApplicationException error =
+        assertThrows(
+            WebApplicationException.class,
+            () -> streams.open("s-2", null, false, sink, mock(Sse.class), "trace-1"));
+
+    assertThat(error.getResponse().getStatus()).isEqualTo(404);
+    assertThat(streams.openConnections()).isZero();
+  }
+
+  @Test
+  void should_poll_the_store_for_sessions_that_run_on_another_node() {
+    release.countDown();
+    when(runtimeBridgeService.findSessionProject("s-2")).thenReturn(Optional.of("p-1"));
+    when(runtimeBridgeService.findHistory("p-1", "s-2", null, 200))
+        .thenReturn(List.of(event(1), event(2)));
+    when(runtimeBridgeService.findHistory("p-1", "s-2", "acp-s-1-delta-2", 200))
+        .thenReturn(List.of(), List.of(event(3)), List.of());
+    streams = new AcpEventStreams(writer, runtimeBridgeService, 60_000, 10, 100, 1);
+
+    streams.open("s-2", null, false, sink, mock(Sse.class), "trace-1");
+
+    verify(writer, timeout(5_000).times(3)).send(any(), any(), any());
+    verify(writer).sendNotice(any(), any(), any());
+    assertThat(sent)
+        .extracting(AcpEventEnvelope::eventId)
+        .containsExactly(
+            "acp-s-1-status-0", "acp-s-1-delta-1", "acp-s-1-delta-2", "acp-s-1-delta-3");
+    verify(runtimeBridgeService, never()).subscribe(anyString(), any(), any());
+    assertThat(streams.openConnections()).isOne();
+  }
+
+  private static AcpEventEnvelope event(int index) {
+    return new AcpEventEnvelope(
+        "acp-s-1-delta-" + index,
+        "s-1",
+        AcpEventEnvelope.TYPE_DELTA,
+        Instant.now(),
+        Map.of("content", "chunk " + index),
+        null);
+  }
+}
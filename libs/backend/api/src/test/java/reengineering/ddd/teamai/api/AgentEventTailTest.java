@@ -0,0 +1,95 @@
+package reengineering.ddd.teamai.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import reengineering.ddd.archtype.Ref;
+import reengineering.ddd.teamai.description.AgentEventDescription;
+import reengineering.ddd.teamai.model.AgentEvent;
+
+class AgentEventTailTest {
+  private final TreeMap<String, AgentEvent> committed = new TreeMap<>(AgentEventTail.APPEND_ORDER);
+  private final List<String> reads = new ArrayList<>();
+  private final List<String> sent = new ArrayList<>();
+  private final AtomicLong now = new AtomicLong(1_000);
+
+  @Test
+  void should_send_an_event_committed_after_events_with_higher_ids() {
+    AgentEventTail tail = new AgentEventTail(null, 5_000, 100, now::get);
+    commit("1", "3");
+    assertThat(poll(tail)).isEqualTo(2);
+
+    commit("2");
+    now.addAndGet(1_000);
+    assertThat(poll(tail)).isEqualTo(1);
+    assertThat(poll(tail)).isZero();
+
+    assertThat(sent).containsExactly("1", "3", "2");
+    assertThat(tail.highWaterMark()).isEqualTo("3");
+  }
+
+  @Test
+  void should_move_the_floor_up_once_the_commit_grace_has_passed() {
+    AgentEventTail tail = new AgentEventTail("1", 5_000, 100, now::get);
+    commit("1", "2", "10");
+    poll(tail);
+
+    now.addAndGet(5_000);
+    commit("9");
+    poll(tail);
+
+    assertThat(reads).containsExactly("1", "10");
+    assertThat(sent).containsExactly("2", "10");
+  }
+
+  @Test
+  void should_remember_at_most_capacity_recent_events() {
+    AgentEventTail tail = new AgentEventTail(null, 5_000, 2, now::get);
+    commit("1", "2", "3", "4");
+    poll(tail);
+    poll(tail);
+
+    assertThat(reads).containsExactly(null, "2");
+    assertThat(sent).containsExactly("1", "2", "3", "4");
+  }
+
+  @Test
+  void should_read_in_batches_until_a_short_batch() {
+    AgentEventTail tail = new AgentEventTail(null, 5_000, 100, now::get);
+    commit("1", "2", "3", "4", "5");
+
+    assertThat(tail.poll(this::appendedAfter, 2, event -> sent.add(event.getIdentity())))
+        .isEqualTo(5);
+    assertThat(reads).containsExactly(null, "2", "4");
+  }
+
+  private int poll(AgentEventTail tail) {
+    return tail.poll(this::appendedAfter, 200, event -> sent.add(event.getIdentity()));
+  }
+
+  private List<AgentEvent> appendedAfter(String after, int limit) {
+    reads.add(after);
+    return (after == null ? committed : committed.tailMap(after, false))
+        .values().stream().limit(limit).toList();
+  }
+
+  private void commit(String... ids) {
+    for (String id : ids) {
+      committed.put(
+          id,
+          new AgentEvent(
+              id,
+              new AgentEventDescription(
+                  AgentEventDescription.Type.TASK_ASSIGNED,
+                  new Ref<>("agent-1"),
+                  new Ref<>("task-1"),
+                  "Event " + id,
+                  Instant.parse("2026-01-01T00:00:00Z"))));
+    }
+  }
+}
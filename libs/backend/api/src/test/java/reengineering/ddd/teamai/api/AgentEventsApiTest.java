@@ -4,15 +4,20 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import jakarta.ws.rs.core.MediaType;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -64,8 +69,28 @@ public class AgentEventsApiTest extends ApiTest {
                 Instant.parse("2026-01-01T00:00:00Z")));
 
     when(projects.findByIdentity(project.getIdentity())).thenReturn(Optional.of(project));
-    when(events.findAll()).thenReturn(new EntityList<>(event));
-    when(events.findByIdentity(event.getIdentity())).thenReturn(Optional.of(event));
+    stubEvents(event);
+  }
+
+  private void stubEvents(AgentEvent... all) {
+    List<AgentEvent> appended = List.of(all);
+    when(events.findAll()).thenReturn(new EntityList<>(all));
+    for (AgentEvent each : all) {
+      when(events.findByIdentity(each.getIdentity())).thenReturn(Optional.of(each));
+    }
+    when(events.findLastAppended()).thenReturn(Optional.of(all[all.length - 1]));
+    when(events.findAppendedAfter(any(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              String after = invocation.getArgument(0);
+              int limit = invocation.getArgument(1);
+              int from =
+                  after == null
+                      ? 0
+                      : appended.stream().map(AgentEvent::getIdentity).toList().indexOf(after) + 1;
+              return new EntityList<>(
+                  appended.subList(from, Math.min(appended.size(), from + limit)));
+            });
   }
 
   @Test
@@ -83,6 +108,91 @@ public class AgentEventsApiTest extends ApiTest {
         .body("_templates.create-event.method", is("POST"));
   }
 
+  @Test
+  void should_link_next_page_of_events_by_cursor() {
+    List<AgentEvent> many = new ArrayList<>();
+    for (int i = 1; i <= 41; i++) {
+      many.add(
+          new AgentEvent(
+              "event-" + i,
+              new AgentEventDescription(
+                  AgentEventDescription.Type.TASK_ASSIGNED,
+                  new Ref<>("agent-1"),
+                  new Ref<>("task-1"),
+                  "Task assigned",
+                  Instant.parse("2026-01-01T00:00:00Z"))));
+    }
+    when(events.findAll()).thenReturn(new EntityList<>(many));
+
+    given(documentationSpec)
+        .accept(MediaTypes.HAL_FORMS_JSON_VALUE)
+        .when()
+        .get("/projects/{projectId}/events", project.getIdentity())
+        .then()
+        .statusCode(200)
+        .body("_embedded.events", hasSize(40))
+        .body("page.totalElements", is(41))
+        .body(
+            "_links.next.href",
+            is(
+                "/api/projects/"
+                    + project.getIdentity()
+                    + "/events?cursor="
+                    + Pagination.cursorOf(many.get(39))));
+  }
+
+  @Test
+  void should_return_events_after_cursor_without_totals() {
+    AgentEvent second =
+        new AgentEvent(
+            "event-2",
+            new AgentEventDescription(
+                AgentEventDescription.Type.TASK_STATUS_CHANGED,
+                new Ref<>("agent-2"),
+                new Ref<>("task-2"),
+                "Task moved to review",
+                Instant.parse("2026-01-01T00:01:00Z")));
+    stubEvents(event, second);
+    String cursor = Pagination.cursorOf(event);
+
+    given(documentationSpec)
+        .accept(MediaTypes.HAL_FORMS_JSON_VALUE)
+        .when()
+        .get("/projects/{projectId}/events?cursor={cursor}", project.getIdentity(), cursor)
+        .then()
+        .statusCode(200)
+        .body("_embedded.events", hasSize(1))
+        .body("_embedded.events[0].id", is("event-2"))
+        .body("page", nullValue())
+        .body("_links.next", nullValue())
+        .body(
+            "_links.self.href",
+            is("/api/projects/" + project.getIdentity() + "/events?cursor=" + cursor));
+  }
+
+  @Test
+  void should_reject_cursor_of_an_event_that_does_not_exist() {
+    AgentEvent removed =
+        new AgentEvent(
+            "event-removed",
+            new AgentEventDescription(
+                AgentEventDescription.Type.TASK_ASSIGNED,
+                new Ref<>("agent-1"),
+                new Ref<>("task-1"),
+                "Task assigned",
+                Instant.parse("2026-01-01T00:00:00Z")));
+
+    given(documentationSpec)
+        .accept(MediaTypes.HAL_FORMS_JSON_VALUE)
+        .when()
+        .get(
+            "/projects/{projectId}/events?cursor={cursor}",
+            project.getIdentity(),
+            Pagination.cursorOf(removed))
+        .then()
+        .statusCode(400);
+  }
+
   @Test
   void should_create_event() {
     AgentEvent created =
@@ -146,7 +256,7 @@ public class AgentEventsApiTest extends ApiTest {
                 new Ref<>("task-2"),
                 "Task moved to review",
                 Instant.parse("2026-01-01T00:01:00Z")));
-    when(events.findAll()).thenReturn(new EntityList<>(event, second));
+    stubEvents(event, second);
 
     given(documentationSpec)
         .accept(MediaType.SERVER_SENT_EVENTS)
@@ -172,7 +282,7 @@ public class AgentEventsApiTest extends ApiTest {
                 new Ref<>("task-2"),
                 "Task moved to review",
                 Instant.parse("2026-01-01T00:01:00Z")));
-    when(events.findAll()).thenReturn(new EntityList<>(event, second));
+    stubEvents(event, second);
 
     given(documentationSpec)
         .accept(MediaType.SERVER_SENT_EVENTS)
@@ -207,7 +317,7 @@ public class AgentEventsApiTest extends ApiTest {
                 new Ref<>("task-3"),
                 "Report submitted",
                 Instant.parse("2026-01-01T00:02:00Z")));
-    when(events.findAll()).thenReturn(new EntityList<>(event, second, third));
+    stubEvents(event, second, third);
 
     given(documentationSpec)
         .accept(MediaType.SERVER_SENT_EVENTS)
@@ -222,4 +332,38 @@ public class AgentEventsApiTest extends ApiTest {
         .body(containsString("id: event-3"))
         .body(containsString("\"type\":\"REPORT_SUBMITTED\""));
   }
+
+  @Test
+  void should_merge_since_and_last_event_id_by_append_order_not_occurrence_time() {
+    AgentEvent second =
+        new AgentEvent(
+            "event-2",
+            new AgentEventDescription(
+                AgentEventDescription.Type.TASK_STATUS_CHANGED,
+                new Ref<>("agent-2"),
+                new Ref<>("task-2"),
+                "Task moved to review",
+                Instant.parse("2026-01-01T00:05:00Z")));
+    AgentEvent third =
+        new AgentEvent(
+            "event-3",
+            new AgentEventDescription(
+                AgentEventDescription.Type.REPORT_SUBMITTED,
+                new Ref<>("agent-3"),
+                new Ref<>("task-3"),
+                "Report submitted",
+                Instant.parse("2026-01-01T00:02:00Z")));
+    stubEvents(event, second, third);
+
+    given(documentationSpec)
+        .accept(MediaType.SERVER_SENT_EVENTS)
+        .header("Last-Event-ID", "event-2")
+        .when()
+        .get("/projects/{projectId}/events/stream?once=true&since=event-3", project.getIdentity())
+        .then()
+        .statusCode(200)
+        .body(containsString("\"resumeFromEventId\":\"event-3\""))
+        .body(containsString("\"cursorSource\":\"merged\""))
+        .body(not(containsString("event: agent-event")));
+  }
 }
@@ -4,10 +4,17 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
+import io.restassured.path.json.JsonPath;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -79,4 +86,235 @@ public class KnowledgeGraphApiTest extends ApiTest {
         .body("_links.self.href", is("/api/projects/" + project.getIdentity() + "/knowledge-graph"))
         .body("_links.project.href", is("/api/projects/" + project.getIdentity()));
   }
+
+  @Test
+  public void should_return_similar_nodes_of_logical_entity() {
+    KnowledgeGraph.Node node =
+        new KnowledgeGraph.Node(
+            "102", "EVIDENCE", "fulfillment_request", "CreatePayment", "创建支付", "{}");
+    when(knowledgeGraphReader.findSimilarNodes(project.getIdentity(), "101", 5))
+        .thenReturn(List.of(new KnowledgeGraph.SimilarNode(node, 0.875)));
+
+    given(documentationSpec)
+        .when()
+        .get(
+            "/projects/{projectId}/knowledge-graph/similar-nodes?logicalEntityId=101&limit=5",
+            project.getIdentity())
+        .then()
+        .statusCode(200)
+        .contentType(startsWith(ResourceTypes.KNOWLEDGE_GRAPH_SIMILAR_NODES))
+        .body("logicalEntityId", is("101"))
+        .body("nodes", hasSize(1))
+        .body("nodes[0].node.logicalEntityId", is("102"))
+        .body("nodes[0].similarity", is(0.875f))
+        .body(
+            "_links.self.href",
+            is(
+                "/api/projects/"
+                    + project.getIdentity()
+                    + "/knowledge-graph/similar-nodes?logicalEntityId=101&limit=5"))
+        .body(
+            "_links.'knowledge-graph'.href",
+            is("/api/projects/" + project.getIdentity() + "/knowledge-graph"));
+  }
+
+  @Test
+  public void should_reject_similar_nodes_request_without_logical_entity() {
+    given(documentationSpec)
+        .when()
+        .get("/projects/{projectId}/knowledge-graph/similar-nodes", project.getIdentity())
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void should_return_page_of_neighborhood_filtered_by_relation_type() {
+    KnowledgeGraph.Node start =
+        new KnowledgeGraph.Node("101", "EVIDENCE", "contract", "OrderContract", "订单合同", "{}");
+    KnowledgeGraph.Node next =
+        new KnowledgeGraph.Node(
+            "102", "EVIDENCE", "fulfillment_request", "CreatePayment", "创建支付", "{}");
+    KnowledgeGraph.Traversal traversal =
+        new KnowledgeGraph.Traversal(2, KnowledgeGraph.Direction.OUTGOING, Set.of("FULFILLS"));
+    when(knowledgeGraphReader.findNeighborhood(
+            eq(project.getIdentity()), eq("101"), eq(traversal), isNull(), eq(100)))
+        .thenReturn(
+            new KnowledgeGraph.Neighborhood(
+                "101",
+                List.of(
+                    new KnowledgeGraph.ReachedNode(start, 0),
+                    new KnowledgeGraph.ReachedNode(next, 1)),
+                List.of(new KnowledgeGraph.Edge("1", "101", "102", "FULFILLS")),
+                "cursor-1"));
+
+    given(documentationSpec)
+        .when()
+        .get(
+            "/projects/{projectId}/knowledge-graph/neighborhood"
+                + "?logicalEntityId=101&depth=2&direction=outgoing&relationType=FULFILLS",
+            project.getIdentity())
+        .then()
+        .statusCode(200)
+        .contentType(startsWith(ResourceTypes.KNOWLEDGE_GRAPH_NEIGHBORHOOD))
+        .body("nodes", hasSize(2))
+        .body("nodes[1].node.logicalEntityId", is("102"))
+        .body("nodes[1].depth", is(1))
+        .body("edges[0].relationType", is("FULFILLS"))
+        .body(
+            "_links.self.href",
+            is(
+                "/api/projects/"
+                    + project.getIdentity()
+                    + "/knowledge-graph/neighborhood?logicalEntityId=101&depth=2"
+                    + "&direction=OUTGOING&relationType=FULFILLS"))
+        .body(
+            "_links.next.href",
+            is(
+                "/api/projects/"
+                    + project.getIdentity()
+                    + "/knowledge-graph/neighborhood?logicalEntityId=101&depth=2"
+                    + "&direction=OUTGOING&relationType=FULFILLS&cursor=cursor-1"));
+  }
+
+  @Test
+  public void should_reject_neighborhood_deeper_than_limit() {
+    given(documentationSpec)
+        .when()
+        .get(
+            "/projects/{projectId}/knowledge-graph/neighborhood?logicalEntityId=101&depth=7",
+            project.getIdentity())
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void should_reject_unknown_neighborhood_cursor() {
+    when(knowledgeGraphReader.findNeighborhood(
+            eq(project.getIdentity()), eq("101"), any(), eq("bogus"), eq(100)))
+        .thenThrow(new IllegalArgumentException("Invalid neighborhood cursor: bogus"));
+
+    given(documentationSpec)
+        .when()
+        .get(
+            "/projects/{projectId}/knowledge-graph/neighborhood?logicalEntityId=101&cursor=bogus",
+            project.getIdentity())
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void should_return_shortest_path_between_entities() {
+    KnowledgeGraph.Node from =
+        new KnowledgeGraph.Node("101", "EVIDENCE", "contract", "OrderContract", "订单合同", "{}");
+    KnowledgeGraph.Node to =
+        new KnowledgeGraph.Node(
+            "102", "EVIDENCE", "fulfillment_request", "CreatePayment", "创建支付", "{}");
+    KnowledgeGraph.Traversal traversal =
+        new KnowledgeGraph.Traversal(6, KnowledgeGraph.Direction.BOTH, Set.of());
+    when(knowledgeGraphReader.findShortestPath(project.getIdentity(), "101", "102", traversal))
+        .thenReturn(
+            Optional.of(
+                new KnowledgeGraph.Path(
+                    List.of(from, to),
+                    List.of(new KnowledgeGraph.Edge("1", "101", "102", "AUTHORIZES")))));
+
+    given(documentationSpec)
+        .when()
+        .get(
+            "/projects/{projectId}/knowledge-graph/shortest-path?from=101&to=102",
+            project.getIdentity())
+        .then()
+        .statusCode(200)
+        .contentType(startsWith(ResourceTypes.KNOWLEDGE_GRAPH_PATH))
+        .body("length", is(1))
+        .body("nodes[0].logicalEntityId", is("101"))
+        .body("nodes[1].logicalEntityId", is("102"))
+        .body("edges[0].relationType", is("AUTHORIZES"));
+  }
+
+  @Test
+  public void should_return_404_when_no_path_exists() {
+    when(knowledgeGraphReader.findShortestPath(
+            eq(project.getIdentity()), eq("101"), eq("109"), any()))
+        .thenReturn(Optional.empty());
+
+    given(documentationSpec)
+        .when()
+        .get(
+            "/projects/{projectId}/knowledge-graph/shortest-path?from=101&to=109",
+            project.getIdentity())
+        .then()
+        .statusCode(404);
+  }
+
+  @Test
+  public void should_return_page_of_knowledge_graph_with_next_cursor() {
+    KnowledgeGraph.Node node =
+        new KnowledgeGraph.Node("101", "EVIDENCE", "contract", "OrderContract", "订单合同", "{}");
+    when(knowledgeGraphReader.readProjectKnowledgeGraphPage(project.getIdentity(), "bi0x", 2))
+        .thenReturn(
+            new KnowledgeGraph.Page(
+                List.of(node),
+                List.of(new KnowledgeGraph.Edge("1", "101", "102", "AUTHORIZES")),
+                "ZToxNw"));
+
+    given(documentationSpec)
+        .when()
+        .get("/projects/{projectId}/knowledge-graph?cursor=bi0x&limit=2", project.getIdentity())
+        .then()
+        .statusCode(200)
+        .contentType(startsWith(ResourceTypes.KNOWLEDGE_GRAPH))
+        .body("nodes", hasSize(1))
+        .body("edges", hasSize(1))
+        .body(
+            "_links.next.href",
+            is("/api/projects/" + project.getIdentity() + "/knowledge-graph?cursor=ZToxNw&limit=2"))
+        .body(
+            "_links.export.href",
+            is("/api/projects/" + project.getIdentity() + "/knowledge-graph/export"));
+  }
+
+  @Test
+  public void should_reject_unknown_knowledge_graph_cursor() {
+    when(knowledgeGraphReader.readProjectKnowledgeGraphPage(project.getIdentity(), "bogus", 500))
+        .thenThrow(new IllegalArgumentException("Invalid knowledge graph cursor: bogus"));
+
+    given(documentationSpec)
+        .when()
+        .get("/projects/{projectId}/knowledge-graph?cursor=bogus", project.getIdentity())
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void should_stream_knowledge_graph_as_ndjson() {
+    doAnswer(
+            invocation -> {
+              KnowledgeGraph.Sink sink = invocation.getArgument(1);
+              sink.node(
+                  new KnowledgeGraph.Node(
+                      "101", "EVIDENCE", "contract", "OrderContract", "订单合同", "{}"));
+              sink.edge(new KnowledgeGraph.Edge("1", "101", "102", "AUTHORIZES"));
+              return null;
+            })
+        .when(knowledgeGraphReader)
+        .exportProjectKnowledgeGraph(eq(project.getIdentity()), any());
+
+    String body =
+        given(documentationSpec)
+            .accept(KnowledgeGraphApi.NDJSON)
+            .when()
+            .get("/projects/{projectId}/knowledge-graph/export", project.getIdentity())
+            .then()
+            .statusCode(200)
+            .contentType(startsWith(KnowledgeGraphApi.NDJSON))
+            .extract()
+            .asString();
+
+    List<String> lines = body.lines().toList();
+    assertEquals(2, lines.size());
+    assertEquals("101", JsonPath.from(lines.get(0)).getString("node.logicalEntityId"));
+    assertEquals("订单合同", JsonPath.from(lines.get(0)).getString("node.label"));
+    assertEquals("AUTHORIZES", JsonPath.from(lines.get(1)).getString("edge.relationType"));
+  }
 }
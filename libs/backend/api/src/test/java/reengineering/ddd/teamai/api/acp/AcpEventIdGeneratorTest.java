@@ -19,4 +19,14 @@ class AcpEventIdGeneratorTest {
     int secondSeq = Integer.parseInt(second.substring(second.lastIndexOf('-') + 1));
     assertEquals(firstSeq + 1, secondSeq);
   }
+
+  @Test
+  void should_end_session_event_ids_in_their_allocated_sequence() {
+    AcpEventIdGenerator generator = new AcpEventIdGenerator();
+    generator.next("session-1", AcpEventEnvelope.TYPE_STATUS);
+
+    assertEquals(
+        "acp-session-1-delta-42", generator.eventId("session-1", AcpEventEnvelope.TYPE_DELTA, 42));
+    assertEquals("acp-unknown-event-7", generator.eventId(" ", null, 7));
+  }
 }
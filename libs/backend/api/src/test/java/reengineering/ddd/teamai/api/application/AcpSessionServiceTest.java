@@ -3,6 +3,8 @@ package reengineering.ddd.teamai.api.application;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -10,11 +12,18 @@ import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reengineering.ddd.teamai.api.acp.AcpEventEnvelope;
 import reengineering.ddd.teamai.api.acp.AcpEventIdGenerator;
+import reengineering.ddd.teamai.model.AcpSessionEvent;
 import reengineering.ddd.teamai.model.AgentRuntime;
 import reengineering.ddd.teamai.model.AgentRuntimeException;
 import reengineering.ddd.teamai.model.AgentRuntimeTimeoutException;
@@ -25,7 +34,7 @@ class AcpSessionServiceTest {
 
   @BeforeEach
   void setUp() {
-    runtime = mock(AgentRuntime.class);
+    runtime = mock(AgentRuntime.class, CALLS_REAL_METHODS);
     service = new AcpRuntimeBridgeService(runtime, new AcpEventIdGenerator());
   }
 
@@ -67,6 +76,38 @@ class AcpSessionServiceTest {
     assertThat(events.get(2).data()).containsEntry("reason", "prompt-finished");
   }
 
+  @Test
+  void should_emit_delta_event_per_chunk_streamed_by_runtime() {
+    AgentRuntime.SessionHandle handle =
+        new AgentRuntime.SessionHandle(
+            "runtime-s-2b", "s-2b", "user-2", Instant.parse("2026-03-03T10:00:00Z"));
+    when(runtime.start(any(AgentRuntime.StartRequest.class))).thenReturn(handle);
+    doAnswer(
+            invocation -> {
+              Consumer<String> chunks = invocation.getArgument(2);
+              chunks.accept("first line\n");
+              chunks.accept("second line\n");
+              return new AgentRuntime.SendResult(
+                  "first line\nsecond line", Instant.parse("2026-03-03T10:00:02Z"));
+            })
+        .when(runtime)
+        .send(any(AgentRuntime.SessionHandle.class), any(AgentRuntime.SendRequest.class), any());
+
+    service.startSession("s-2b", "user-2", "goal");
+    service.sendPrompt("s-2b", "hello", Duration.ofSeconds(3));
+
+    List<AcpEventEnvelope> events = service.findEventsSince("s-2b", null);
+    assertThat(events)
+        .extracting(AcpEventEnvelope::type)
+        .containsExactly(
+            AcpEventEnvelope.TYPE_STATUS,
+            AcpEventEnvelope.TYPE_DELTA,
+            AcpEventEnvelope.TYPE_DELTA,
+            AcpEventEnvelope.TYPE_COMPLETE);
+    assertThat(events.get(1).data()).containsEntry("content", "first line\n");
+    assertThat(events.get(2).data()).containsEntry("content", "second line\n");
+  }
+
   @Test
   void should_emit_error_event_when_runtime_times_out() {
     AgentRuntime.SessionHandle handle =
@@ -147,4 +188,239 @@ class AcpSessionServiceTest {
     assertThat(afterFirst).hasSize(1);
     assertThat(afterFirst.get(0).eventId()).isEqualTo(allEvents.get(1).eventId());
   }
+
+  @Test
+  void should_push_appended_events_to_subscribers_after_replay() {
+    AgentRuntime.SessionHandle handle =
+        new AgentRuntime.SessionHandle(
+            "runtime-s-6", "s-6", "user-6", Instant.parse("2026-03-03T10:00:00Z"));
+    when(runtime.start(any(AgentRuntime.StartRequest.class))).thenReturn(handle);
+    service.startSession("s-6", "user-6", "goal");
+    List<AcpEventEnvelope> received = new ArrayList<>();
+
+    AcpRuntimeBridgeService.Subscription subscription =
+        service.subscribe("s-6", null, received::add);
+    service.appendStatus("s-6", Map.of("state", "WAITING"));
+    subscription.close();
+    service.cancelSession("s-6", "cancelled");
+
+    assertThat(received).hasSize(2);
+    assertThat(received.get(0).data()).containsEntry("state", "RUNNING");
+    assertThat(received.get(1).data()).containsEntry("state", "WAITING");
+  }
+
+  @Test
+  void should_read_events_outside_the_retained_window_from_the_store() {
+    AcpRuntimeBridgeService bounded =
+        new AcpRuntimeBridgeService(
+            new AgentRuntimeGateway(runtime),
+            new AcpEventIdGenerator(),
+            new InMemoryAcpSessionEventStore(),
+            AcpRuntimeTelemetry.noop(),
+            3,
+            60_000,
+            System::currentTimeMillis);
+    start(bounded, "s-7");
+    for (int i = 0; i < 10; i++) {
+      bounded.appendStatus("s-7", Map.of("index", i));
+    }
+
+    List<AcpEventEnvelope> allEvents = bounded.findEventsSince("s-7", null);
+    List<AcpEventEnvelope> afterSecond = bounded.findEventsSince("s-7", allEvents.get(1).eventId());
+    List<AcpEventEnvelope> afterEighth = bounded.findEventsSince("s-7", allEvents.get(7).eventId());
+
+    assertThat(allEvents.get(0).data()).containsEntry("state", "RUNNING");
+    assertThat(allEvents.subList(1, allEvents.size()))
+        .extracting(event -> event.data().get("index"))
+        .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    assertThat(afterSecond).hasSize(9);
+    assertThat(afterSecond.get(0).eventId()).isEqualTo(allEvents.get(2).eventId());
+    assertThat(afterEighth)
+        .extracting(AcpEventEnvelope::eventId)
+        .containsExactly(
+            allEvents.get(8).eventId(), allEvents.get(9).eventId(), allEvents.get(10).eventId());
+  }
+
+  @Test
+  void should_evict_finished_session_events_after_ttl() {
+    AtomicLong now = new AtomicLong(0);
+    AcpRuntimeBridgeService evicting =
+        new AcpRuntimeBridgeService(
+            new AgentRuntimeGateway(runtime),
+            new AcpEventIdGenerator(),
+            new InMemoryAcpSessionEventStore(),
+            AcpRuntimeTelemetry.noop(),
+            100,
+            1_000,
+            now::get);
+    start(evicting, "s-8");
+    evicting.appendStatus("s-8", Map.of("state", "WAITING"));
+    evicting.cancelSession("s-8", "done");
+
+    now.set(500);
+    evicting.cancelSession("s-9", "done");
+    assertThat(evicting.findEventsSince("s-8", null)).hasSize(3);
+
+    now.set(1_500);
+    evicting.cancelSession("s-9", "done");
+    assertThat(evicting.findEventsSince("s-8", null)).isEmpty();
+  }
+
+  @Test
+  void should_stop_and_forget_sessions_that_stay_idle_after_their_prompt() {
+    AtomicLong now = new AtomicLong(0);
+    AcpRuntimeBridgeService evicting =
+        new AcpRuntimeBridgeService(
+            new AgentRuntimeGateway(runtime),
+            new AcpEventIdGenerator(),
+            new InMemoryAcpSessionEventStore(),
+            AcpRuntimeTelemetry.noop(),
+            100,
+            1_000,
+            now::get);
+    when(runtime.send(any(AgentRuntime.SessionHandle.class), any(AgentRuntime.SendRequest.class)))
+        .thenReturn(new AgentRuntime.SendResult("done", Instant.parse("2026-03-03T10:00:02Z")));
+    start(evicting, "s-15");
+    evicting.sendPrompt("s-15", "hello", Duration.ofSeconds(3));
+
+    now.set(500);
+    start(evicting, "s-16");
+    assertThat(evicting.isLocalSession("s-15")).isTrue();
+
+    now.set(1_400);
+    start(evicting, "s-17");
+    assertThat(evicting.isLocalSession("s-15")).isFalse();
+    assertThat(evicting.findEventsSince("s-15", null)).isEmpty();
+    verify(runtime).stop(any(AgentRuntime.SessionHandle.class));
+    assertThrows(
+        IllegalStateException.class,
+        () -> evicting.sendPrompt("s-15", "again", Duration.ofSeconds(3)));
+  }
+
+  @Test
+  void should_reject_events_and_subscriptions_of_sessions_that_were_not_started() {
+    assertThat(service.isLocalSession("s-10")).isFalse();
+    assertThrows(
+        IllegalStateException.class,
+        () -> service.appendStatus("s-10", Map.of("state", "WAITING")));
+    assertThrows(IllegalStateException.class, () -> service.subscribe("s-10", null, event -> {}));
+    assertThrows(IllegalArgumentException.class, () -> service.appendStatus(" ", Map.of()));
+
+    assertThat(service.isLocalSession("s-10")).isFalse();
+    assertThat(service.findEventsSince("s-10", null)).isEmpty();
+  }
+
+  @Test
+  void should_replay_from_the_store_without_blocking_appends() {
+    AtomicReference<AcpRuntimeBridgeService> bridge = new AtomicReference<>();
+    AtomicBoolean appendedDuringReplay = new AtomicBoolean();
+    InMemoryAcpSessionEventStore store =
+        new InMemoryAcpSessionEventStore() {
+          @Override
+          public List<AcpSessionEvent> findBySession(
+              String projectId, String sessionId, String afterEventId, int limit) {
+            if (appendedDuringReplay.compareAndSet(false, true)) {
+              Thread appender =
+                  new Thread(() -> bridge.get().appendStatus("s-11", Map.of("index", 3)));
+              appender.start();
+              try {
+                appender.join(5_000);
+              } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+              }
+              assertThat(appender.isAlive()).isFalse();
+            }
+            return super.findBySession(projectId, sessionId, afterEventId, limit);
+          }
+        };
+    bridge.set(
+        new AcpRuntimeBridgeService(
+            new AgentRuntimeGateway(runtime),
+            new AcpEventIdGenerator(),
+            store,
+            AcpRuntimeTelemetry.noop(),
+            2,
+            60_000,
+            System::currentTimeMillis));
+    start(bridge.get(), "s-11");
+    for (int i = 0; i < 3; i++) {
+      bridge.get().appendStatus("s-11", Map.of("index", i));
+    }
+    List<AcpEventEnvelope> received = new ArrayList<>();
+
+    bridge.get().subscribe("s-11", null, received::add).close();
+
+    assertThat(appendedDuringReplay).isTrue();
+    assertThat(received)
+        .extracting(event -> event.data().getOrDefault("index", event.data().get("state")))
+        .containsExactly("RUNNING", 0, 1, 2, 3);
+  }
+
+  @Test
+  void should_replay_events_persisted_before_a_restart_from_the_store() {
+    InMemoryAcpSessionEventStore store = new InMemoryAcpSessionEventStore();
+    AcpRuntimeBridgeService before = bridge(store);
+    start(before, "s-12");
+    before.appendStatus("s-12", Map.of("index", 0));
+    before.appendStatus("s-12", Map.of("index", 1));
+    List<AcpEventEnvelope> persisted = before.findEventsSince("s-12", null);
+
+    AcpRuntimeBridgeService restarted = bridge(store);
+    start(restarted, "s-12");
+    restarted.appendStatus("s-12", Map.of("index", 2));
+
+    List<AcpEventEnvelope> allEvents = restarted.findEventsSince("s-12", null);
+    assertThat(allEvents).hasSize(5);
+    assertThat(allEvents.subList(0, 3)).isEqualTo(persisted);
+    assertThat(allEvents.get(4).data()).containsEntry("index", 2);
+    assertThat(restarted.findEventsSince("s-12", persisted.get(0).eventId()))
+        .extracting(AcpEventEnvelope::eventId)
+        .containsExactlyElementsOf(
+            allEvents.subList(1, 5).stream().map(AcpEventEnvelope::eventId).toList());
+  }
+
+  @Test
+  void should_find_the_project_of_sessions_that_ran_on_another_node_in_the_store() {
+    InMemoryAcpSessionEventStore store = new InMemoryAcpSessionEventStore();
+    start(bridge(store), "s-13");
+    AcpRuntimeBridgeService otherNode = bridge(store);
+
+    assertThat(otherNode.isLocalSession("s-13")).isFalse();
+    assertThat(otherNode.findSessionProject("s-13")).contains("project-1");
+    assertThat(otherNode.findSessionProject("s-14")).isEmpty();
+  }
+
+  @Test
+  void should_fail_to_append_events_when_the_store_cannot_be_read() {
+    InMemoryAcpSessionEventStore store =
+        new InMemoryAcpSessionEventStore() {
+          @Override
+          public long lastSequence(String projectId, String sessionId) {
+            throw new IllegalStateException("store unavailable");
+          }
+        };
+    AcpRuntimeBridgeService unreadable = bridge(store);
+
+    assertThrows(IllegalStateException.class, () -> start(unreadable, "s-14"));
+    assertThat(store.findBySession("project-1", "s-14", null, 10)).isEmpty();
+  }
+
+  private AcpRuntimeBridgeService bridge(InMemoryAcpSessionEventStore store) {
+    return new AcpRuntimeBridgeService(
+        new AgentRuntimeGateway(runtime),
+        new AcpEventIdGenerator(),
+        store,
+        AcpRuntimeTelemetry.noop(),
+        100,
+        60_000,
+        System::currentTimeMillis);
+  }
+
+  private void start(AcpRuntimeBridgeService target, String sessionId) {
+    when(runtime.start(any(AgentRuntime.StartRequest.class)))
+        .thenReturn(
+            new AgentRuntime.SessionHandle(
+                "runtime-" + sessionId, sessionId, "user", Instant.parse("2026-03-03T10:00:00Z")));
+    target.startSession("project-1", sessionId, "user", "goal");
+  }
 }
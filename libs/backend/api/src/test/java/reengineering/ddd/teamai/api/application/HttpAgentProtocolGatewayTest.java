@@ -8,11 +8,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.AfterEach;
@@ -113,6 +118,212 @@ class HttpAgentProtocolGatewayTest {
     assertThat(secondPollCursor.get()).isEqualTo("cursor=c-1");
   }
 
+  @Test
+  void should_forward_deltas_from_event_stream_until_complete() throws IOException {
+    AtomicInteger eventPollCount = new AtomicInteger();
+    startServer(
+        exchange -> {
+          String path = exchange.getRequestURI().getPath();
+          if ("POST".equals(exchange.getRequestMethod())
+              && "/sessions/remote-s-6/prompt".equals(path)) {
+            writeJson(exchange, 200, "{\"accepted\":true}");
+            return;
+          }
+          if ("GET".equals(exchange.getRequestMethod())
+              && "/sessions/remote-s-6/stream".equals(path)) {
+            writeEventStream(
+                exchange,
+                "event: connected\ndata: {\"sessionId\":\"remote-s-6\",\"cursor\":null}\n\n",
+                ": heartbeat\n\n",
+                "event: gateway-event\nid: c-1\n"
+                    + "data: {\"cursor\":\"c-1\",\"type\":\"delta\","
+                    + "\"data\":{\"text\":\"chunk-1\"}}\n\n",
+                "event: gateway-event\nid: c-2\n"
+                    + "data: {\"cursor\":\"c-2\",\"type\":\"delta\","
+                    + "\"data\":{\"content\":\"chunk-2\"}}\n\n",
+                "event: gateway-event\nid: c-3\n"
+                    + "data: {\"cursor\":\"c-3\",\"type\":\"complete\",\"data\":{}}\n\n");
+            return;
+          }
+          if ("GET".equals(exchange.getRequestMethod())
+              && "/sessions/remote-s-6/events".equals(path)) {
+            eventPollCount.incrementAndGet();
+          }
+          writeJson(exchange, 404, "{\"error\":\"not found\"}");
+        });
+
+    HttpAgentProtocolGateway gateway = new HttpAgentProtocolGateway(baseUrl(), 20, true);
+    List<String> deltas = new CopyOnWriteArrayList<>();
+    AgentProtocolGateway.SendResult result =
+        gateway.send(
+            session("remote-s-6"),
+            new AgentProtocolGateway.SendRequest("hello stream", Duration.ofSeconds(2)),
+            deltas::add);
+
+    assertThat(result.output()).isEqualTo("chunk-1\nchunk-2");
+    assertThat(deltas).containsExactly("chunk-1", "chunk-2");
+    assertThat(eventPollCount.get()).isZero();
+  }
+
+  @Test
+  void should_poll_events_from_last_cursor_when_stream_closes_early() throws IOException {
+    AtomicReference<String> pollQuery = new AtomicReference<>();
+    startServer(
+        exchange -> {
+          String path = exchange.getRequestURI().getPath();
+          if ("POST".equals(exchange.getRequestMethod())
+              && "/sessions/remote-s-7/prompt".equals(path)) {
+            writeJson(exchange, 200, "{\"accepted\":true}");
+            return;
+          }
+          if ("GET".equals(exchange.getRequestMethod())
+              && "/sessions/remote-s-7/stream".equals(path)) {
+            writeEventStream(
+                exchange,
+                "event: gateway-event\nid: c-1\n"
+                    + "data: {\"cursor\":\"c-1\",\"type\":\"delta\","
+                    + "\"data\":{\"text\":\"chunk-1\"}}\n\n");
+            return;
+          }
+          if ("GET".equals(exchange.getRequestMethod())
+              && "/sessions/remote-s-7/events".equals(path)) {
+            pollQuery.set(exchange.getRequestURI().getQuery());
+            writeJson(
+                exchange,
+                200,
+                "{\"events\":[{\"cursor\":\"c-2\",\"type\":\"delta\","
+                    + "\"data\":{\"text\":\"chunk-2\"}},"
+                    + "{\"cursor\":\"c-3\",\"type\":\"complete\",\"data\":{}}]}");
+            return;
+          }
+          writeJson(exchange, 404, "{\"error\":\"not found\"}");
+        });
+
+    HttpAgentProtocolGateway gateway = new HttpAgentProtocolGateway(baseUrl(), 20, true);
+    List<String> deltas = new CopyOnWriteArrayList<>();
+    AgentProtocolGateway.SendResult result =
+        gateway.send(
+            session("remote-s-7"),
+            new AgentProtocolGateway.SendRequest("hello stream", Duration.ofSeconds(2)),
+            deltas::add);
+
+    assertThat(result.output()).isEqualTo("chunk-1\nchunk-2");
+    assertThat(deltas).containsExactly("chunk-1", "chunk-2");
+    assertThat(pollQuery.get()).isEqualTo("cursor=c-1");
+  }
+
+  @Test
+  void should_poll_events_of_waiting_prompts_in_one_batch() throws Exception {
+    List<JsonNode> batches = new CopyOnWriteArrayList<>();
+    startServer(
+        exchange -> {
+          String path = exchange.getRequestURI().getPath();
+          if ("POST".equals(exchange.getRequestMethod()) && path.endsWith("/prompt")) {
+            writeJson(exchange, 200, "{\"accepted\":true}");
+            return;
+          }
+          if ("POST".equals(exchange.getRequestMethod()) && "/sessions/events".equals(path)) {
+            JsonNode batch = readJsonBody(exchange);
+            batches.add(batch);
+            StringBuilder pages = new StringBuilder();
+            for (JsonNode session : batch.path("sessions")) {
+              String sessionId = session.path("sessionId").asText();
+              pages
+                  .append(pages.isEmpty() ? "" : ",")
+                  .append("{\"sessionId\":\"")
+                  .append(sessionId)
+                  .append("\",\"events\":[{\"cursor\":\"c-1\",\"type\":\"delta\",")
+                  .append("\"data\":{\"text\":\"out-")
+                  .append(sessionId)
+                  .append("\"}},{\"cursor\":\"c-2\",\"type\":\"complete\",\"data\":{}}]}");
+            }
+            writeJson(exchange, 200, "{\"sessions\":[" + pages + "],\"missing\":[]}");
+            return;
+          }
+          if ("GET".equals(exchange.getRequestMethod()) && path.endsWith("/events")) {
+            writeJson(exchange, 200, "{\"events\":[]}");
+            return;
+          }
+          writeJson(exchange, 404, "{\"error\":\"not found\"}");
+        });
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    HttpAgentProtocolGateway gateway =
+        new HttpAgentProtocolGateway(
+            baseUrl(),
+            50,
+            false,
+            HttpAgentProtocolGateway.ClientOptions.defaults(),
+            new AgentGatewayClientTelemetry(meterRegistry));
+    try {
+      CompletableFuture<AgentProtocolGateway.SendResult> first =
+          CompletableFuture.supplyAsync(() -> sendPrompt(gateway, "remote-s-8"));
+      CompletableFuture<AgentProtocolGateway.SendResult> second =
+          CompletableFuture.supplyAsync(() -> sendPrompt(gateway, "remote-s-9"));
+
+      assertThat(first.get(5, TimeUnit.SECONDS).output()).isEqualTo("out-remote-s-8");
+      assertThat(second.get(5, TimeUnit.SECONDS).output()).isEqualTo("out-remote-s-9");
+    } finally {
+      gateway.close();
+    }
+
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0).path("sessions").size()).isEqualTo(2);
+    assertThat(
+            meterRegistry
+                .get("teamai.acp.gateway.client.request.duration")
+                .tags("endpoint", "sessions.events.batch", "outcome", "200")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("teamai.acp.gateway.client.requests.in_flight").gauge().value())
+        .isZero();
+  }
+
+  @Test
+  void should_poll_each_session_when_the_batch_read_fails() throws Exception {
+    List<String> polledSessions = new CopyOnWriteArrayList<>();
+    startServer(
+        exchange -> {
+          String path = exchange.getRequestURI().getPath();
+          if ("POST".equals(exchange.getRequestMethod()) && path.endsWith("/prompt")) {
+            writeJson(exchange, 200, "{\"accepted\":true}");
+            return;
+          }
+          if ("POST".equals(exchange.getRequestMethod()) && "/sessions/events".equals(path)) {
+            writeJson(exchange, 500, "{\"error\":\"unavailable\"}");
+            return;
+          }
+          if ("GET".equals(exchange.getRequestMethod()) && path.endsWith("/events")) {
+            String sessionId = path.split("/")[2];
+            polledSessions.add(sessionId);
+            writeJson(
+                exchange,
+                200,
+                "{\"events\":[{\"cursor\":\"c-1\",\"type\":\"delta\",\"data\":{\"text\":\"out-"
+                    + sessionId
+                    + "\"}},{\"cursor\":\"c-2\",\"type\":\"complete\",\"data\":{}}]}");
+            return;
+          }
+          writeJson(exchange, 404, "{\"error\":\"not found\"}");
+        });
+
+    HttpAgentProtocolGateway gateway = new HttpAgentProtocolGateway(baseUrl(), 50, false);
+    try {
+      CompletableFuture<AgentProtocolGateway.SendResult> first =
+          CompletableFuture.supplyAsync(() -> sendPrompt(gateway, "remote-s-10"));
+      CompletableFuture<AgentProtocolGateway.SendResult> second =
+          CompletableFuture.supplyAsync(() -> sendPrompt(gateway, "remote-s-11"));
+
+      assertThat(first.get(5, TimeUnit.SECONDS).output()).isEqualTo("out-remote-s-10");
+      assertThat(second.get(5, TimeUnit.SECONDS).output()).isEqualTo("out-remote-s-11");
+    } finally {
+      gateway.close();
+    }
+
+    assertThat(polledSessions).contains("remote-s-10", "remote-s-11");
+  }
+
   @Test
   void should_throw_runtime_exception_when_gateway_returns_error_event() throws IOException {
     startServer(
@@ -267,6 +478,12 @@ class HttpAgentProtocolGatewayTest {
     assertThat(degraded.status()).isEqualTo(AgentProtocolGateway.Status.DEGRADED);
   }
 
+  private AgentProtocolGateway.SendResult sendPrompt(
+      HttpAgentProtocolGateway gateway, String sessionId) {
+    return gateway.send(
+        session(sessionId), new AgentProtocolGateway.SendRequest("prompt", Duration.ofSeconds(5)));
+  }
+
   private AgentProtocolGateway.SessionHandle session(String sessionId) {
     return new AgentProtocolGateway.SessionHandle(
         sessionId, "orchestration-" + sessionId, "agent-1", Instant.parse("2026-03-03T10:00:00Z"));
@@ -290,6 +507,16 @@ class HttpAgentProtocolGatewayTest {
     return OBJECT_MAPPER.readTree(new String(bytes, StandardCharsets.UTF_8));
   }
 
+  private void writeEventStream(HttpExchange exchange, String... events) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+    exchange.sendResponseHeaders(200, 0);
+    for (String event : events) {
+      exchange.getResponseBody().write(event.getBytes(StandardCharsets.UTF_8));
+      exchange.getResponseBody().flush();
+    }
+    exchange.close();
+  }
+
   private void writeJson(HttpExchange exchange, int status, String body) throws IOException {
     byte[] response = body.getBytes(StandardCharsets.UTF_8);
     exchange.getResponseHeaders().add("Content-Type", "application/json");
@@ -0,0 +1,17 @@
+package reengineering.ddd.archtype;
+
+/**
+ * A {@link Many} that can also be read by position relative to one of its entities, so a page can
+ * start right after the last entity of the previous page without counting or skipping rows.
+ */
+public interface SeekableMany<Id, E extends Entity<Id, ?>> extends Many<E> {
+  /**
+   * Returns at most {@code limit} entities that follow the entity identified by {@code identity},
+   * in the order of this collection, or the first {@code limit} entities when {@code identity} is
+   * null.
+   *
+   * @throws IllegalArgumentException if {@code identity} does not identify an entity of this
+   *     collection
+   */
+  Many<E> subCollectionAfter(Id identity, int limit);
+}
@@ -2,6 +2,7 @@ package reengineering.ddd.teamai.model;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.OptionalLong;
 
 public record AcpSessionEvent(
     String eventId,
@@ -26,6 +27,31 @@ public record AcpSessionEvent(
     data = data == null ? Map.of() : Map.copyOf(data);
   }
 
+  /** The per-session sequence carried as the numeric suffix of the event id, if there is one. */
+  public OptionalLong sequence() {
+    return sequenceOf(eventId);
+  }
+
+  public static OptionalLong sequenceOf(String eventId) {
+    if (eventId == null) {
+      return OptionalLong.empty();
+    }
+    int start = eventId.lastIndexOf('-') + 1;
+    if (start >= eventId.length()) {
+      return OptionalLong.empty();
+    }
+    for (int i = start; i < eventId.length(); i++) {
+      if (!Character.isDigit(eventId.charAt(i))) {
+        return OptionalLong.empty();
+      }
+    }
+    try {
+      return OptionalLong.of(Long.parseLong(eventId, start, eventId.length(), 10));
+    } catch (NumberFormatException error) {
+      return OptionalLong.empty();
+    }
+  }
+
   public record Error(String code, String message, boolean retryable, long retryAfterMs) {
     public Error {
       if (code == null || code.isBlank()) {
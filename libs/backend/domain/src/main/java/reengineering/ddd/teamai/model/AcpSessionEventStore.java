@@ -1,10 +1,29 @@
 package reengineering.ddd.teamai.model;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface AcpSessionEventStore {
+  /**
+   * Allocates the next sequence of the session. Event ids end in their sequence, so every node
+   * appending to the session draws from this one counter.
+   */
+  long nextSequence(String projectId, String sessionId);
+
   void append(String projectId, AcpSessionEvent event);
 
   List<AcpSessionEvent> findBySession(
       String projectId, String sessionId, String afterEventId, int limit);
+
+  /** The highest event sequence stored for the session, or {@code 0} when there is none. */
+  long lastSequence(String projectId, String sessionId);
+
+  /** The project of a session whose events the store holds, or empty for an unknown session. */
+  Optional<String> findProjectId(String sessionId);
+
+  /**
+   * Waits until the events appended to the session are durable and throws if some of them could
+   * not be written. Stores that write on append return at once.
+   */
+  void flush(String projectId, String sessionId);
 }
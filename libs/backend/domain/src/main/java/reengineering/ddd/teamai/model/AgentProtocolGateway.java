@@ -4,6 +4,7 @@ import static reengineering.ddd.teamai.validation.DomainValidation.requireText;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.function.Consumer;
 
 /**
  * Stable boundary for protocol/runtime integrations used by application services.
@@ -16,6 +17,15 @@ public interface AgentProtocolGateway {
 
   SendResult send(SessionHandle session, SendRequest request);
 
+  /**
+   * Sends a prompt and hands every output delta to {@code deltas} as soon as the runtime reports
+   * it. The result still carries the whole output. Runtimes that cannot stream never call {@code
+   * deltas}, so callers treat the result output as the only delta.
+   */
+  default SendResult send(SessionHandle session, SendRequest request, Consumer<String> deltas) {
+    return send(session, request);
+  }
+
   void stop(SessionHandle session);
 
   Health health();
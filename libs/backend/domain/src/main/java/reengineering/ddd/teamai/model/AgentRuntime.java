@@ -4,12 +4,21 @@ import static reengineering.ddd.teamai.validation.DomainValidation.requireText;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.function.Consumer;
 
 public interface AgentRuntime {
   SessionHandle start(StartRequest request);
 
   SendResult send(SessionHandle session, SendRequest request);
 
+  /**
+   * Sends a prompt and hands {@code chunks} each piece of output as the agent produces it. The
+   * result still carries the whole output. Runtimes that cannot stream never call {@code chunks}.
+   */
+  default SendResult send(SessionHandle session, SendRequest request, Consumer<String> chunks) {
+    return send(session, request);
+  }
+
   void stop(SessionHandle session);
 
   Health health();
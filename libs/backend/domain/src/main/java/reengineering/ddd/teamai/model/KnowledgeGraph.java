@@ -1,6 +1,7 @@
 package reengineering.ddd.teamai.model;
 
 import java.util.List;
+import java.util.Set;
 
 public record KnowledgeGraph(String projectId, List<Node> nodes, List<Edge> edges) {
   public record Node(
@@ -16,4 +17,50 @@ public record KnowledgeGraph(String projectId, List<Node> nodes, List<Edge> edge
       String sourceLogicalEntityId,
       String targetLogicalEntityId,
       String relationType) {}
+
+  public record SimilarNode(Node node, double similarity) {}
+
+  /** Receives an exported graph one row at a time: every node first, then every edge. */
+  public interface Sink {
+    void node(Node node);
+
+    void edge(Edge edge);
+  }
+
+  /**
+   * A slice of the graph in export order. {@code nextCursor} continues after it, and is null on the
+   * last slice.
+   */
+  public record Page(List<Node> nodes, List<Edge> edges, String nextCursor) {}
+
+  /** Which edges a traversal may follow from a node. */
+  public enum Direction {
+    OUTGOING,
+    INCOMING,
+    BOTH
+  }
+
+  /**
+   * Limits a traversal to {@code maxDepth} hops along edges in {@code direction}. An empty {@code
+   * relationTypes} follows every relation type.
+   */
+  public record Traversal(int maxDepth, Direction direction, Set<String> relationTypes) {
+    public Traversal {
+      relationTypes = relationTypes == null ? Set.of() : Set.copyOf(relationTypes);
+    }
+  }
+
+  public record ReachedNode(Node node, int depth) {}
+
+  /**
+   * One page of the nodes reachable from {@code logicalEntityId}, ordered by depth and then id.
+   * {@code edges} are the edges between reached nodes whose later endpoint is on this page, so
+   * reading every page yields each edge once. {@code nextCursor} continues after it, and is null on
+   * the last page.
+   */
+  public record Neighborhood(
+      String logicalEntityId, List<ReachedNode> nodes, List<Edge> edges, String nextCursor) {}
+
+  /** Nodes from start to end, with {@code edges.get(i)} joining node {@code i} and {@code i+1}. */
+  public record Path(List<Node> nodes, List<Edge> edges) {}
 }
@@ -1,5 +1,54 @@
 package reengineering.ddd.teamai.model;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface KnowledgeGraphReader {
   KnowledgeGraph readProjectKnowledgeGraph(String projectId);
+
+  /**
+   * Streams the project graph to {@code sink} on the calling thread, reading rows in batches
+   * instead of loading the whole graph.
+   */
+  void exportProjectKnowledgeGraph(String projectId, KnowledgeGraph.Sink sink);
+
+  /**
+   * Returns up to {@code limit} nodes and edges that follow {@code cursor} in export order, starting
+   * from the beginning when it is null.
+   *
+   * @throws IllegalArgumentException if {@code cursor} was not returned by this method
+   */
+  KnowledgeGraph.Page readProjectKnowledgeGraphPage(String projectId, String cursor, int limit);
+
+  /**
+   * Returns up to {@code limit} nodes of the project whose embeddings are closest to the embedding
+   * of {@code logicalEntityId}, most similar first. The entity itself is not included, and an
+   * entity without an embedding has no similar nodes.
+   */
+  List<KnowledgeGraph.SimilarNode> findSimilarNodes(
+      String projectId, String logicalEntityId, int limit);
+
+  /**
+   * Returns up to {@code limit} nodes reachable from {@code logicalEntityId} within the traversal
+   * that follow {@code cursor}, starting from the entity itself when it is null. The entity is the
+   * only node at depth 0; an entity outside the graph reaches nothing.
+   *
+   * @throws IllegalArgumentException if {@code cursor} was not returned by this method
+   */
+  KnowledgeGraph.Neighborhood findNeighborhood(
+      String projectId,
+      String logicalEntityId,
+      KnowledgeGraph.Traversal traversal,
+      String cursor,
+      int limit);
+
+  /**
+   * Returns a path with the fewest edges from {@code fromLogicalEntityId} to {@code
+   * toLogicalEntityId}, or empty when none exists within the traversal.
+   */
+  Optional<KnowledgeGraph.Path> findShortestPath(
+      String projectId,
+      String fromLogicalEntityId,
+      String toLogicalEntityId,
+      KnowledgeGraph.Traversal traversal);
 }
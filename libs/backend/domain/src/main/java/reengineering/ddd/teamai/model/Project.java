@@ -506,6 +506,17 @@ public class Project implements Entity<String, ProjectDescription> {
     return events.append(description);
   }
 
+  public Many<AgentEvent> findEventsAppendedAfter(String eventId, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be greater than 0");
+    }
+    return events.findAppendedAfter(eventId, limit);
+  }
+
+  public Optional<AgentEvent> findLastAppendedEvent() {
+    return events.findLastAppended();
+  }
+
   public interface Members extends HasMany<String, Member> {
     Member addMember(MemberDescription description);
   }
@@ -582,6 +593,14 @@ public class Project implements Entity<String, ProjectDescription> {
 
   public interface AgentEvents extends HasMany<String, AgentEvent> {
     AgentEvent append(AgentEventDescription description);
+
+    /**
+     * Returns at most {@code limit} events appended after {@code eventId}, oldest first, or the
+     * earliest events when {@code eventId} is null.
+     */
+    Many<AgentEvent> findAppendedAfter(String eventId, int limit);
+
+    Optional<AgentEvent> findLastAppended();
   }
 
   public interface AcpSessions extends HasMany<String, AcpSession> {
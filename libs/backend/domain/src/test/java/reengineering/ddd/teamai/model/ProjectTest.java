@@ -14,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reengineering.ddd.archtype.Many;
 import reengineering.ddd.archtype.Ref;
 import reengineering.ddd.teamai.description.AcpSessionDescription;
 import reengineering.ddd.teamai.description.AgentDescription;
@@ -405,6 +406,17 @@ public class ProjectTest {
       assertSame(expectedEvent, result);
       verify(events).append(description);
     }
+
+    @Test
+    @DisplayName("should delegate findEventsAppendedAfter to events association")
+    void shouldDelegateFindEventsAppendedAfter() {
+      Many<AgentEvent> expected = mock(Many.class);
+      when(events.findAppendedAfter("event-1", 50)).thenReturn(expected);
+
+      assertSame(expected, project.findEventsAppendedAfter("event-1", 50));
+      assertThrows(
+          IllegalArgumentException.class, () -> project.findEventsAppendedAfter("event-1", 0));
+    }
   }
 
   @Nested
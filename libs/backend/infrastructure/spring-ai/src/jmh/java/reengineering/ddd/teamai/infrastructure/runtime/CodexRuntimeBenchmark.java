@@ -0,0 +1,53 @@
+package reengineering.ddd.teamai.infrastructure.runtime;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reengineering.ddd.teamai.model.AgentRuntime;
+
+/**
+ * Samples the latency of one prompt through {@link CodexRuntime} with {@code cat} standing in for
+ * {@code codex exec -}; the sample-time report gives p50 and p99. {@code warmProcesses=0} forks a
+ * process on the request path as before, while {@code 1} takes a process spawned in advance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodexRuntimeBenchmark {
+
+  private static final AgentRuntime.SendRequest PROMPT =
+      new AgentRuntime.SendRequest("Summarise the open tasks", Duration.ofSeconds(5));
+
+  @Param({"0", "1"})
+  private int warmProcesses;
+
+  private CodexRuntime runtime;
+  private AgentRuntime.SessionHandle session;
+
+  @Setup
+  public void setup() {
+    runtime =
+        new CodexRuntime(
+            List.of("/bin/sh", "-c", "cat"), warmProcesses, 4, Duration.ofMinutes(5));
+    session = runtime.start(new AgentRuntime.StartRequest("orch-1", "agent-1", "goal"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    runtime.close();
+  }
+
+  @Benchmark
+  public AgentRuntime.SendResult send() {
+    return runtime.send(session, PROMPT);
+  }
+}
@@ -1,5 +1,6 @@
 package reengineering.ddd.teamai.infrastructure.config;
 
+import java.time.Duration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import reengineering.ddd.teamai.infrastructure.providers.DeepSeekModelProvider;
@@ -25,8 +26,18 @@ public class ChatClientConfig {
   @Bean
   public AgentRuntime agentRuntime(
       @org.springframework.beans.factory.annotation.Value("${team-ai.orchestration.runtime:mock}")
-          String runtimeType) {
-    return createAgentRuntime(runtimeType);
+          String runtimeType,
+      @org.springframework.beans.factory.annotation.Value(
+              "${team-ai.orchestration.codex.warm-processes:1}")
+          int warmProcesses,
+      @org.springframework.beans.factory.annotation.Value(
+              "${team-ai.orchestration.codex.max-processes:8}")
+          int maxProcesses,
+      @org.springframework.beans.factory.annotation.Value(
+              "${team-ai.orchestration.codex.idle-timeout-ms:300000}")
+          long idleTimeoutMs) {
+    return createAgentRuntime(
+        runtimeType, warmProcesses, maxProcesses, Duration.ofMillis(idleTimeoutMs));
   }
 
   AgentRuntime createAgentRuntime(String runtimeType) {
@@ -35,4 +46,12 @@ public class ChatClientConfig {
     }
     return new MockAgentRuntime();
   }
+
+  AgentRuntime createAgentRuntime(
+      String runtimeType, int warmProcesses, int maxProcesses, Duration idleTimeout) {
+    if ("codex".equalsIgnoreCase(runtimeType)) {
+      return new CodexRuntime(warmProcesses, maxProcesses, idleTimeout);
+    }
+    return new MockAgentRuntime();
+  }
 }
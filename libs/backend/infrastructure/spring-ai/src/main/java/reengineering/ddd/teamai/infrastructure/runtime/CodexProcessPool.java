@@ -0,0 +1,267 @@
+package reengineering.ddd.teamai.infrastructure.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import reengineering.ddd.teamai.model.AgentRuntimeException;
+import reengineering.ddd.teamai.model.AgentRuntimeTimeoutException;
+
+/**
+ * Codex processes spawned ahead of use, keyed by the MCP configuration in their environment.
+ *
+ * <p>A Codex process reads one prompt from stdin and exits, so a warm process serves a single
+ * prompt; taking one spawns its replacement in the background. Every live process, warm or busy,
+ * holds one of {@code maxProcesses} permits until it exits. A prompt that finds no free permit
+ * gives up an idle warm process and waits for the slot. The semaphore lets any caller barge in,
+ * so refills hand a permit straight back while a prompt is after one. Warm processes that died or
+ * stayed idle longer than {@code idleTimeout} are discarded.
+ */
+final class CodexProcessPool implements AutoCloseable {
+  private static final String MCP_CONFIG_ENV = "TEAMAI_MCP_SERVERS";
+  private static final int MAX_CHUNK_CHARS = 4096;
+
+  private final List<String> command;
+  private final int warmProcesses;
+  private final int maxProcesses;
+  private final long idleTimeoutNanos;
+  private final Semaphore permits;
+  private final AtomicInteger promptsAcquiring = new AtomicInteger();
+  private final Map<String, Deque<WarmProcess>> idle = new ConcurrentHashMap<>();
+  private final ExecutorService io;
+  private final ScheduledExecutorService sweeper;
+  private volatile boolean closed;
+
+  CodexProcessPool(
+      List<String> command, int warmProcesses, int maxProcesses, Duration idleTimeout) {
+    this.command = List.copyOf(command);
+    this.maxProcesses = Math.max(1, maxProcesses);
+    this.warmProcesses = Math.max(0, Math.min(warmProcesses, this.maxProcesses));
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.permits = new Semaphore(this.maxProcesses);
+    this.io = Executors.newCachedThreadPool(daemonThreads("codex-runtime-io"));
+    this.sweeper =
+        Executors.newSingleThreadScheduledExecutor(daemonThreads("codex-runtime-sweep"));
+    long sweepMillis = Math.max(1000L, idleTimeout.toMillis() / 2);
+    sweeper.scheduleWithFixedDelay(
+        this::discardStaleProcesses, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns a live process for {@code mcpConfig}, warm if one is ready. Waits at most {@code
+   * timeout} for a permit when {@code maxProcesses} are already running.
+   */
+  Process acquire(String mcpConfig, Duration timeout) throws InterruptedException {
+    String key = key(mcpConfig);
+    Deque<WarmProcess> warm = idle.get(key);
+    if (warm != null) {
+      WarmProcess candidate;
+      while ((candidate = warm.pollFirst()) != null) {
+        if (candidate.process().isAlive()) {
+          prewarm(mcpConfig);
+          return candidate.process();
+        }
+      }
+    }
+    promptsAcquiring.incrementAndGet();
+    try {
+      if (!permits.tryAcquire()) {
+        discardOneIdleProcess();
+        if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+          throw new AgentRuntimeTimeoutException(
+              "Codex runtime timed out after "
+                  + timeout.toMillis()
+                  + "ms waiting for one of "
+                  + maxProcesses
+                  + " process slots");
+        }
+      }
+    } finally {
+      promptsAcquiring.decrementAndGet();
+    }
+    Process process = spawn(mcpConfig);
+    prewarm(mcpConfig);
+    return process;
+  }
+
+  /**
+   * Tops up the warm processes of {@code mcpConfig} in the background, stopping while a prompt is
+   * acquiring a permit.
+   */
+  void prewarm(String mcpConfig) {
+    if (warmProcesses == 0 || closed) {
+      return;
+    }
+    Deque<WarmProcess> warm =
+        idle.computeIfAbsent(key(mcpConfig), ignored -> new ConcurrentLinkedDeque<>());
+    if (warm.size() >= warmProcesses) {
+      return;
+    }
+    io.execute(
+        () -> {
+          synchronized (warm) {
+            while (!closed && warm.size() < warmProcesses && permits.tryAcquire()) {
+              // Checked after taking the permit, so a prompt that asked first gets it back.
+              if (promptsAcquiring.get() > 0) {
+                permits.release();
+                return;
+              }
+              try {
+                warm.addLast(new WarmProcess(spawn(mcpConfig), System.nanoTime()));
+              } catch (AgentRuntimeException error) {
+                return;
+              }
+            }
+          }
+        });
+  }
+
+  /** Reads {@code stream} to the end on a shared I/O thread. */
+  CompletableFuture<String> drain(InputStream stream) {
+    return drain(stream, chunk -> {});
+  }
+
+  /**
+   * Reads {@code stream} to the end on a shared I/O thread, handing {@code chunks} every complete
+   * line as it arrives. A line longer than {@value #MAX_CHUNK_CHARS} characters is split, and a
+   * trailing line without a newline is handed over at the end of the stream.
+   */
+  CompletableFuture<String> drain(InputStream stream, Consumer<String> chunks) {
+    return CompletableFuture.supplyAsync(() -> readAll(stream, chunks), io);
+  }
+
+  int warmCount() {
+    return idle.values().stream().mapToInt(Deque::size).sum();
+  }
+
+  int liveCount() {
+    return maxProcesses - permits.availablePermits();
+  }
+
+  int maxProcesses() {
+    return maxProcesses;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    sweeper.shutdownNow();
+    for (Deque<WarmProcess> warm : idle.values()) {
+      synchronized (warm) {
+        WarmProcess process;
+        while ((process = warm.pollFirst()) != null) {
+          process.process().destroyForcibly();
+        }
+      }
+    }
+    io.shutdownNow();
+  }
+
+  /** Spawns a process for a permit the caller already holds; the permit returns on exit. */
+  private Process spawn(String mcpConfig) {
+    ProcessBuilder processBuilder = new ProcessBuilder(command);
+    processBuilder.redirectErrorStream(false);
+    if (mcpConfig != null && !mcpConfig.isBlank()) {
+      processBuilder.environment().put(MCP_CONFIG_ENV, mcpConfig);
+    }
+    Process process;
+    try {
+      process = processBuilder.start();
+    } catch (IOException error) {
+      permits.release();
+      throw new AgentRuntimeException("Failed to start Codex process: " + error.getMessage());
+    }
+    process.onExit().thenRun(permits::release);
+    return process;
+  }
+
+  private void discardOneIdleProcess() {
+    for (Deque<WarmProcess> warm : idle.values()) {
+      WarmProcess process = warm.pollLast();
+      if (process != null) {
+        process.process().destroyForcibly();
+        return;
+      }
+    }
+  }
+
+  private void discardStaleProcesses() {
+    long now = System.nanoTime();
+    for (Deque<WarmProcess> warm : idle.values()) {
+      for (WarmProcess process : warm) {
+        boolean stale =
+            !process.process().isAlive() || now - process.idleSince() > idleTimeoutNanos;
+        // Only the side that removes the entry owns it; a concurrent acquire may have taken it.
+        if (stale && warm.removeFirstOccurrence(process)) {
+          process.process().destroyForcibly();
+        }
+      }
+    }
+  }
+
+  private static String key(String mcpConfig) {
+    return mcpConfig == null ? "" : mcpConfig;
+  }
+
+  private static String readAll(InputStream stream, Consumer<String> chunks) {
+    StringBuilder output = new StringBuilder();
+    char[] buffer = new char[MAX_CHUNK_CHARS];
+    try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+      int emitted = 0;
+      int read;
+      while ((read = reader.read(buffer)) != -1) {
+        output.append(buffer, 0, read);
+        int lineEnd = output.length();
+        while (lineEnd > emitted && output.charAt(lineEnd - 1) != '\n') {
+          lineEnd--;
+        }
+        if (lineEnd > emitted) {
+          chunks.accept(output.substring(emitted, lineEnd));
+          emitted = lineEnd;
+        }
+        while (output.length() - emitted >= MAX_CHUNK_CHARS) {
+          int chunkEnd = emitted + MAX_CHUNK_CHARS;
+          if (Character.isHighSurrogate(output.charAt(chunkEnd - 1))) {
+            chunkEnd--;
+          }
+          chunks.accept(output.substring(emitted, chunkEnd));
+          emitted = chunkEnd;
+        }
+      }
+      if (output.length() > emitted) {
+        chunks.accept(output.substring(emitted));
+      }
+      return output.toString();
+    } catch (IOException error) {
+      throw new UncheckedIOException(error);
+    }
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private record WarmProcess(Process process, long idleSince) {}
+}
@@ -1,39 +1,52 @@
 package reengineering.ddd.teamai.infrastructure.runtime;
 
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import reengineering.ddd.teamai.model.AgentRuntime;
 import reengineering.ddd.teamai.model.AgentRuntimeException;
 import reengineering.ddd.teamai.model.AgentRuntimeTimeoutException;
 
-public class CodexRuntime implements AgentRuntime {
+/**
+ * Runs every prompt through a {@code codex exec -} process taken from a {@link CodexProcessPool},
+ * which keeps processes warm per MCP configuration and caps how many run on the host.
+ */
+public class CodexRuntime implements AgentRuntime, AutoCloseable {
   private static final List<String> DEFAULT_COMMAND = List.of("codex", "exec", "-");
-  private static final String MCP_CONFIG_ENV = "TEAMAI_MCP_SERVERS";
+  private static final int DEFAULT_WARM_PROCESSES = 1;
+  private static final int DEFAULT_MAX_PROCESSES = 8;
+  private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
 
-  private final List<String> command;
+  private final CodexProcessPool processes;
   private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
 
   public CodexRuntime() {
-    this(DEFAULT_COMMAND);
+    this(DEFAULT_WARM_PROCESSES, DEFAULT_MAX_PROCESSES, DEFAULT_IDLE_TIMEOUT);
+  }
+
+  public CodexRuntime(int warmProcesses, int maxProcesses, Duration idleTimeout) {
+    this(DEFAULT_COMMAND, warmProcesses, maxProcesses, idleTimeout);
   }
 
   CodexRuntime(List<String> command) {
+    this(command, 0, DEFAULT_MAX_PROCESSES, DEFAULT_IDLE_TIMEOUT);
+  }
+
+  CodexRuntime(List<String> command, int warmProcesses, int maxProcesses, Duration idleTimeout) {
     if (command == null || command.isEmpty()) {
       throw new IllegalArgumentException("command must not be empty");
     }
-    this.command = List.copyOf(command);
+    this.processes = new CodexProcessPool(command, warmProcesses, maxProcesses, idleTimeout);
   }
 
   @Override
@@ -48,28 +61,41 @@ public class CodexRuntime implements AgentRuntime {
             request.agentId(),
             Instant.now());
     sessions.put(handle.sessionId(), new SessionState(request.mcpConfig()));
+    processes.prewarm(request.mcpConfig());
     return handle;
   }
 
   @Override
   public SendResult send(SessionHandle session, SendRequest request) {
+    return send(session, request, chunk -> {});
+  }
+
+  /** Hands every stdout line to {@code chunks} on an I/O thread while the process runs. */
+  @Override
+  public SendResult send(SessionHandle session, SendRequest request, Consumer<String> chunks) {
     if (request == null) {
       throw new IllegalArgumentException("request must not be null");
     }
     SessionState state = requireSession(session);
-    Process process = startProcess(state.mcpConfig);
+    long deadline = System.nanoTime() + request.timeout().toNanos();
+    Process process = acquire(state.mcpConfig, request.timeout());
     state.process = process;
 
-    ExecutorService ioPool = Executors.newFixedThreadPool(2);
     try {
-      Future<String> stdoutFuture = ioPool.submit(() -> readAll(process.getInputStream()));
-      Future<String> stderrFuture = ioPool.submit(() -> readAll(process.getErrorStream()));
+      CompletableFuture<String> stdoutFuture = processes.drain(process.getInputStream(), chunks);
+      // A failing subscriber stops the draining, so the process must not block on a full pipe.
+      stdoutFuture.exceptionally(
+          error -> {
+            process.destroyForcibly();
+            return null;
+          });
+      CompletableFuture<String> stderrFuture = processes.drain(process.getErrorStream());
 
       process.getOutputStream().write(request.input().getBytes(StandardCharsets.UTF_8));
       process.getOutputStream().flush();
       process.getOutputStream().close();
 
-      if (!process.waitFor(request.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+      if (!process.waitFor(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
         process.destroyForcibly();
         throw new AgentRuntimeTimeoutException(
             "Codex runtime timed out after " + request.timeout().toMillis() + "ms");
@@ -85,18 +111,20 @@ public class CodexRuntime implements AgentRuntime {
       return new SendResult(stdout.strip(), Instant.now());
     } catch (InterruptedException error) {
       Thread.currentThread().interrupt();
+      process.destroyForcibly();
       throw new AgentRuntimeException("Codex runtime was interrupted");
     } catch (TimeoutException error) {
       process.destroyForcibly();
       throw new AgentRuntimeException("Timed out while collecting Codex process output");
     } catch (ExecutionException error) {
+      process.destroyForcibly();
       throw new AgentRuntimeException(
           "Failed to collect Codex process output: " + error.getCause());
     } catch (IOException error) {
+      process.destroyForcibly();
       throw new AgentRuntimeException(
           "Failed to communicate with Codex process: " + error.getMessage());
     } finally {
-      ioPool.shutdownNow();
       state.process = null;
     }
   }
@@ -113,7 +141,31 @@ public class CodexRuntime implements AgentRuntime {
 
   @Override
   public Health health() {
-    return new Health(Status.UP, sessions.size(), "Codex runtime ready");
+    return new Health(
+        Status.UP,
+        sessions.size(),
+        "Codex runtime ready: "
+            + processes.liveCount()
+            + "/"
+            + processes.maxProcesses()
+            + " processes, "
+            + processes.warmCount()
+            + " warm");
+  }
+
+  /** Destroys the warm processes and stops the pool threads. */
+  @Override
+  public void close() {
+    processes.close();
+  }
+
+  private Process acquire(String mcpConfig, Duration timeout) {
+    try {
+      return processes.acquire(mcpConfig, timeout);
+    } catch (InterruptedException error) {
+      Thread.currentThread().interrupt();
+      throw new AgentRuntimeException("Codex runtime was interrupted");
+    }
   }
 
   private SessionState requireSession(SessionHandle session) {
@@ -127,27 +179,6 @@ public class CodexRuntime implements AgentRuntime {
     return state;
   }
 
-  private Process startProcess(String mcpConfig) {
-    ProcessBuilder processBuilder = new ProcessBuilder(command);
-    processBuilder.redirectErrorStream(false);
-    if (mcpConfig != null && !mcpConfig.isBlank()) {
-      processBuilder.environment().put(MCP_CONFIG_ENV, mcpConfig);
-    }
-    try {
-      return processBuilder.start();
-    } catch (IOException error) {
-      throw new AgentRuntimeException("Failed to start Codex process: " + error.getMessage());
-    }
-  }
-
-  private static String readAll(java.io.InputStream stream) {
-    try (stream) {
-      return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
-    } catch (IOException error) {
-      throw new UncheckedIOException(error);
-    }
-  }
-
   private static class SessionState {
     private final String mcpConfig;
     private volatile Process process;
@@ -4,6 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.junit.jupiter.api.Test;
 import reengineering.ddd.teamai.model.AgentRuntime;
 import reengineering.ddd.teamai.model.AgentRuntimeException;
@@ -22,6 +25,24 @@ class CodexRuntimeTest {
     assertThat(result.output()).isEqualTo("hello codex");
   }
 
+  @Test
+  void should_stream_stdout_lines_while_process_runs() {
+    CodexRuntime runtime =
+        new CodexRuntime(
+            java.util.List.of("/bin/sh", "-c", "cat >/dev/null; echo one; sleep 0.2; echo two"));
+    AgentRuntime.SessionHandle session = start(runtime);
+    List<String> chunks = new CopyOnWriteArrayList<>();
+
+    AgentRuntime.SendResult result =
+        runtime.send(
+            session,
+            new AgentRuntime.SendRequest("hello codex", Duration.ofSeconds(2)),
+            chunks::add);
+
+    assertThat(chunks).containsExactly("one\n", "two\n");
+    assertThat(result.output()).isEqualTo("one\ntwo");
+  }
+
   @Test
   void should_throw_runtime_exception_for_non_zero_exit_code() {
     CodexRuntime runtime =
@@ -84,6 +105,58 @@ class CodexRuntimeTest {
     assertThat(result.output()).isEqualTo("[{\"name\":\"Local FS\"}]");
   }
 
+  @Test
+  void should_serve_prompt_from_process_spawned_at_session_start() throws Exception {
+    try (CodexRuntime runtime =
+        new CodexRuntime(java.util.List.of("/bin/sh", "-c", "cat"), 1, 2, Duration.ofMinutes(1))) {
+      AgentRuntime.SessionHandle session = start(runtime);
+      waitForHealth(runtime, "1 warm");
+
+      AgentRuntime.SendResult result =
+          runtime.send(
+              session, new AgentRuntime.SendRequest("hello codex", Duration.ofSeconds(2)));
+
+      assertThat(result.output()).isEqualTo("hello codex");
+      waitForHealth(runtime, "1 warm");
+      assertThat(runtime.health().detail()).contains("1 warm");
+    }
+  }
+
+  @Test
+  void should_time_out_prompt_when_all_process_slots_are_busy() throws Exception {
+    try (CodexRuntime runtime =
+        new CodexRuntime(
+            java.util.List.of("/bin/sh", "-c", "cat; sleep 1"),
+            0,
+            1,
+            Duration.ofMinutes(1))) {
+      AgentRuntime.SessionHandle first = start(runtime);
+      AgentRuntime.SessionHandle second = start(runtime);
+      CompletableFuture<AgentRuntime.SendResult> running =
+          CompletableFuture.supplyAsync(
+              () ->
+                  runtime.send(
+                      first, new AgentRuntime.SendRequest("first", Duration.ofSeconds(5))));
+
+      waitForHealth(runtime, "1/1 processes");
+
+      assertThatThrownBy(
+              () ->
+                  runtime.send(
+                      second, new AgentRuntime.SendRequest("second", Duration.ofMillis(100))))
+          .isInstanceOf(AgentRuntimeTimeoutException.class)
+          .hasMessageContaining("process slots");
+      assertThat(running.join().output()).isEqualTo("first");
+    }
+  }
+
+  private static void waitForHealth(CodexRuntime runtime, String detail)
+      throws InterruptedException {
+    for (int attempt = 0; attempt < 100 && !runtime.health().detail().contains(detail); attempt++) {
+      Thread.sleep(20);
+    }
+  }
+
   private AgentRuntime.SessionHandle start(CodexRuntime runtime) {
     return runtime.start(new AgentRuntime.StartRequest("orch-1", "agent-1", "goal"));
   }
@@ -0,0 +1,103 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jol.info.GraphLayout;
+import reengineering.ddd.archtype.JsonBlob;
+import reengineering.ddd.archtype.Ref;
+import reengineering.ddd.mybatis.support.InjectableObjectFactory;
+import reengineering.ddd.teamai.description.NodeDescription;
+import reengineering.ddd.teamai.model.DiagramNode;
+
+/**
+ * Compares the object form of a cached diagram node list with its {@link BinaryCacheValueCodec}
+ * form. Latency covers decoding alone and the full read path (decode plus hydrate) against
+ * hydrating the object form. The retained heap of both forms, measured with JOL, is printed per
+ * 1,000 nodes at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompactCacheValueBenchmark {
+
+  private static final List<String> NODE_TYPES = List.of("class", "sticky-note", "group");
+
+  @Param({"100", "1000"})
+  private int nodeCount;
+
+  private GenericEntityHydrator hydrator;
+  private BinaryCacheValueCodec codec;
+  private List<CacheEntry<?, ?>> objectForm;
+  private CompactCacheValue compactForm;
+
+  @Setup
+  public void setup() {
+    hydrator = new GenericEntityHydrator(new InjectableObjectFactory());
+    hydrator.scanAssociations();
+    codec = new BinaryCacheValueCodec();
+    objectForm = new ArrayList<>(nodeCount);
+    for (int i = 0; i < nodeCount; i++) {
+      objectForm.add(node(i));
+    }
+    compactForm = new CompactCacheValue(codec.encode(objectForm));
+  }
+
+  @TearDown(Level.Trial)
+  public void reportHeap() {
+    long objectBytes = GraphLayout.parseInstance(objectForm).totalSize();
+    long compactBytes = GraphLayout.parseInstance(compactForm).totalSize();
+    System.out.printf(
+        "%n%d nodes: object form %d bytes/1k nodes, compact form %d bytes/1k nodes (%.1fx)%n",
+        nodeCount,
+        objectBytes * 1000 / nodeCount,
+        compactBytes * 1000 / nodeCount,
+        (double) objectBytes / compactBytes);
+  }
+
+  @Benchmark
+  public Object decodeCompactForm() {
+    return codec.decode(compactForm.bytes());
+  }
+
+  @Benchmark
+  public List<?> hydrateObjectForm() {
+    return hydrator.hydrateList(objectForm);
+  }
+
+  @Benchmark
+  public List<?> decodeAndHydrateCompactForm() {
+    return hydrator.hydrateList((List<?>) codec.decode(compactForm.bytes()));
+  }
+
+  @Benchmark
+  public byte[] encodeObjectForm() {
+    return codec.encode(objectForm);
+  }
+
+  private static CacheEntry<String, NodeDescription> node(int index) {
+    NodeDescription description =
+        new NodeDescription(
+            NODE_TYPES.get(index % NODE_TYPES.size()),
+            new Ref<>(String.valueOf(index % 50)),
+            index % 10 == 0 ? null : new Ref<>(String.valueOf(index / 10 * 10)),
+            index * 12.5,
+            index * 7.25,
+            200,
+            120,
+            new JsonBlob("{\"color\":\"#ffffff\",\"border\":\"solid\"}"),
+            new JsonBlob("{\"label\":\"Node " + index + "\",\"collapsed\":false}"));
+    return new CacheEntry<>(DiagramNode.class, String.valueOf(index), description, index, Map.of());
+  }
+}
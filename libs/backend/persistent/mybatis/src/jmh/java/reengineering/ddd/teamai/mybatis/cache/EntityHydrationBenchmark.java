@@ -0,0 +1,66 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reengineering.ddd.mybatis.support.InjectableObjectFactory;
+import reengineering.ddd.teamai.description.ConversationDescription;
+import reengineering.ddd.teamai.description.DiagramDescription;
+import reengineering.ddd.teamai.description.ProjectDescription;
+import reengineering.ddd.teamai.description.Viewport;
+import reengineering.ddd.teamai.model.Conversation;
+import reengineering.ddd.teamai.model.Diagram;
+import reengineering.ddd.teamai.model.Project;
+
+/**
+ * Extract and hydrate round-trips through {@link GenericEntityHydrator}. The benchmark only uses
+ * the hydrator's public API, so the reflective baseline is measured by running the same class in
+ * a worktree of the commit before the hydrator switched to precomputed accessors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityHydrationBenchmark {
+
+  private GenericEntityHydrator hydrator;
+  private Project project;
+  private Diagram diagram;
+  private Conversation conversation;
+
+  @Setup
+  public void setup() {
+    hydrator = new GenericEntityHydrator(new InjectableObjectFactory());
+    hydrator.scanAssociations();
+    DiagramDescription diagramDescription =
+        new DiagramDescription("Benchmark", Diagram.Type.CLASS, Viewport.defaultViewport());
+    project = hydrator.hydrate(entry(Project.class, new ProjectDescription("Benchmark")));
+    diagram = hydrator.hydrate(entry(Diagram.class, diagramDescription));
+    conversation =
+        hydrator.hydrate(entry(Conversation.class, new ConversationDescription("Benchmark")));
+  }
+
+  @Benchmark
+  public Project projectRoundTrip() {
+    return hydrator.hydrate(hydrator.extract(project));
+  }
+
+  @Benchmark
+  public Diagram diagramRoundTrip() {
+    return hydrator.hydrate(hydrator.extract(diagram));
+  }
+
+  @Benchmark
+  public Conversation conversationRoundTrip() {
+    return hydrator.hydrate(hydrator.extract(conversation));
+  }
+
+  private static <D> CacheEntry<String, D> entry(Class<?> entityType, D description) {
+    return new CacheEntry<>(entityType, "1", description, 1, Map.of());
+  }
+}
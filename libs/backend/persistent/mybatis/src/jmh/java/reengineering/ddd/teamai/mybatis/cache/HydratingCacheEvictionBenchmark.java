@@ -0,0 +1,62 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.Cache;
+import reengineering.ddd.mybatis.support.InjectableObjectFactory;
+
+/**
+ * Measures evicting all keys of one diagram while the cache holds {@code cacheSize} entries. Each
+ * invocation evicts a diagram and repopulates its keys so the cache size stays constant. With the
+ * per-parent key index the cost depends on the keys of the evicted diagram only, so the score
+ * should stay flat up to the {@code maximumSize(10_000)} bound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HydratingCacheEvictionBenchmark {
+
+  private static final int KEYS_PER_DIAGRAM = 10;
+
+  @Param({"100", "1000", "5000", "9990"})
+  private int cacheSize;
+
+  private Cache cache;
+  private int diagramCount;
+  private int nextDiagram;
+
+  @Setup
+  public void setup() {
+    HydratingCacheManager cacheManager =
+        new HydratingCacheManager(new GenericEntityHydrator(new InjectableObjectFactory()));
+    cache = cacheManager.getCache("diagramNodes");
+    diagramCount = cacheSize / KEYS_PER_DIAGRAM;
+    for (int diagramId = 0; diagramId < diagramCount; diagramId++) {
+      populate(diagramId);
+    }
+  }
+
+  @Benchmark
+  public boolean evictDiagramByPrefix() {
+    int diagramId = nextDiagram;
+    nextDiagram = (nextDiagram + 1) % diagramCount;
+    boolean evicted = cache.evictIfPresent(CacheKeyIndex.allKeysOf(diagramId));
+    populate(diagramId);
+    return evicted;
+  }
+
+  private void populate(int diagramId) {
+    cache.put(diagramId, "nodes");
+    cache.put(diagramId + ":size", KEYS_PER_DIAGRAM - 2);
+    for (int nodeId = 1; nodeId <= KEYS_PER_DIAGRAM - 2; nodeId++) {
+      cache.put(diagramId + ":" + nodeId, "node");
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how many entity texts per millisecond the publish worker can turn into embeddings.
+ * {@code hashedNgram} is the current encoder writing into a reused array; {@code
+ * legacyTextLiteral} reproduces the previous 8-dimension bag-of-words encoder, which split on a
+ * regex and formatted the vector as a Postgres array literal for binding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmbeddingEncoderBenchmark {
+
+  private static final String[] TEXTS = {
+    "PurchaseOrder 采购订单 Evidence contract fulfillment order line",
+    "Customer account holder with billing address and payment preferences",
+    "InvoiceLine 发票明细 Participant amount tax rate currency",
+    "Shipment tracking number carrier warehouse dispatch date",
+  };
+
+  @Param({"256", "384"})
+  private int dimension;
+
+  private HashedNgramEmbeddingEncoder encoder;
+  private float[] target;
+  private int nextText;
+
+  @Setup
+  public void setup() {
+    encoder = new HashedNgramEmbeddingEncoder(dimension);
+    target = new float[dimension];
+  }
+
+  @Benchmark
+  public float[] hashedNgram() {
+    encoder.encode(nextText(), target);
+    return target;
+  }
+
+  @Benchmark
+  public String legacyTextLiteral() {
+    double[] vector = new double[8];
+    for (String token : nextText().toLowerCase(Locale.ROOT).split("\\s+")) {
+      if (!token.isBlank()) {
+        vector[Math.floorMod(token.hashCode(), vector.length)] += 1;
+      }
+    }
+    double norm = 0;
+    for (double value : vector) {
+      norm += value * value;
+    }
+    norm = Math.sqrt(norm);
+    StringBuilder literal = new StringBuilder("{");
+    for (int i = 0; i < vector.length; i++) {
+      if (i > 0) {
+        literal.append(',');
+      }
+      literal.append(String.format(Locale.ROOT, "%.8f", norm == 0 ? 0 : vector[i] / norm));
+    }
+    return literal.append('}').toString();
+  }
+
+  private String nextText() {
+    String text = TEXTS[nextText];
+    nextText = (nextText + 1) % TEXTS.length;
+    return text;
+  }
+}
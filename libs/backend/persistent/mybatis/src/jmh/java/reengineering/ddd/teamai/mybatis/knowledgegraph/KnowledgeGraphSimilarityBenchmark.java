@@ -0,0 +1,117 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares a top-10 similarity query on {@link HnswIndex} with a brute-force cosine scan over the
+ * same vectors. Vectors are drawn around a few hundred cluster centres, and every query is the
+ * vector of an indexed entity, as in the similar-nodes endpoint. The recall@10 of the HNSW search
+ * against the exact result is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KnowledgeGraphSimilarityBenchmark {
+
+  private static final int K = 10;
+  private static final int QUERIES = 256;
+
+  @Param({"1000", "10000", "50000"})
+  private int entityCount;
+
+  @Param({"8", "64"})
+  private int dimension;
+
+  @Param({"64"})
+  private int efSearch;
+
+  private HnswIndex index;
+  private float[][] queries;
+  private int nextQuery;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    float[][] centres = new float[Math.max(1, entityCount / 50)][];
+    for (int i = 0; i < centres.length; i++) {
+      centres[i] = gaussian(random, 1.0f);
+    }
+    index =
+        new HnswIndex(
+            dimension,
+            KnowledgeGraphSimilaritySearch.MAX_LINKS,
+            KnowledgeGraphSimilaritySearch.EF_CONSTRUCTION,
+            42);
+    float[][] vectors = new float[entityCount][];
+    for (int key = 0; key < entityCount; key++) {
+      float[] centre = centres[random.nextInt(centres.length)];
+      float[] noise = gaussian(random, 0.3f);
+      vectors[key] = new float[dimension];
+      for (int i = 0; i < dimension; i++) {
+        vectors[key][i] = centre[i] + noise[i];
+      }
+      index.put(key, vectors[key]);
+    }
+    queries = new float[QUERIES][];
+    for (int i = 0; i < QUERIES; i++) {
+      queries[i] = vectors[random.nextInt(entityCount)];
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void reportRecall() {
+    int found = 0;
+    int expected = 0;
+    for (float[] query : queries) {
+      Set<Integer> exact = new HashSet<>();
+      index.exactSearch(query, K).forEach(neighbor -> exact.add(neighbor.key()));
+      for (HnswIndex.Neighbor neighbor : index.search(query, K, efSearch)) {
+        if (exact.contains(neighbor.key())) {
+          found++;
+        }
+      }
+      expected += exact.size();
+    }
+    System.out.printf(
+        "%nentities=%d dimension=%d efSearch=%d recall@%d=%.4f%n",
+        entityCount, dimension, efSearch, K, (double) found / expected);
+  }
+
+  @Benchmark
+  public List<HnswIndex.Neighbor> hnsw() {
+    return index.search(nextQuery(), K, efSearch);
+  }
+
+  @Benchmark
+  public List<HnswIndex.Neighbor> bruteForce() {
+    return index.exactSearch(nextQuery(), K);
+  }
+
+  private float[] nextQuery() {
+    float[] query = queries[nextQuery];
+    nextQuery = (nextQuery + 1) % QUERIES;
+    return query;
+  }
+
+  private float[] gaussian(SplittableRandom random, float scale) {
+    float[] vector = new float[dimension];
+    for (int i = 0; i < dimension; i++) {
+      vector[i] = (float) random.nextGaussian() * scale;
+    }
+    return vector;
+  }
+}
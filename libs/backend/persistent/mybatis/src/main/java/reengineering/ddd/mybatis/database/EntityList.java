@@ -1,13 +1,31 @@
 package reengineering.ddd.mybatis.database;
 
+import jakarta.inject.Inject;
+import java.lang.ref.Cleaner;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import reengineering.ddd.archtype.Entity;
 import reengineering.ddd.archtype.HasMany;
 import reengineering.ddd.archtype.Many;
+import reengineering.ddd.mybatis.support.PrefetchExecutor;
 
 public abstract class EntityList<Id, E extends Entity<Id, ?>> implements Many<E>, HasMany<Id, E> {
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private PrefetchExecutor prefetchExecutor;
+
+  /** Iterators read ahead on {@code executor}; without one every batch is read on demand. */
+  @Inject
+  public void setPrefetchExecutor(Optional<PrefetchExecutor> executor) {
+    this.prefetchExecutor = executor.orElse(null);
+  }
+
   @Override
   public final Many<E> findAll() {
     return this;
@@ -28,38 +46,156 @@ public abstract class EntityList<Id, E extends Entity<Id, ?>> implements Many<E>
     return new BatchIterator();
   }
 
+  /**
+   * Reads the collection batch by batch. A {@link SeekableEntityList} seeks past the last entity of
+   * the previous batch and is never counted; other lists are counted once and read by offset.
+   * Batches start at {@link #batchSize()} and double up to {@link #maxBatchSize()}, so a caller
+   * that stops early reads little while a full scan needs few queries. Once half of a batch is
+   * consumed the next one is fetched on the {@link PrefetchExecutor}, unless a transaction is bound
+   * to the calling thread, whose uncommitted rows another thread could not see. A prefetch the
+   * saturated executor declines is not asked for again until the iterator reaches that batch. A
+   * prefetch still queued when the iterator is dropped is cancelled once the iterator is garbage
+   * collected.
+   */
   private class BatchIterator implements Iterator<E> {
-
-    private Iterator<E> iterator;
+    private final boolean seekable = EntityList.this instanceof SeekableEntityList<?, ?>;
     private final int size;
-    private int current = 0;
+    private final PendingPrefetch pending = new PendingPrefetch();
+    private List<E> batch = List.of();
+    private int position;
+    private int limit = Math.max(1, batchSize());
+    private int nextOffset;
+    private Id nextAfter;
+    private boolean more;
+    private Future<List<E>> prefetched;
+    private boolean prefetchDeclined;
+    private Cleaner.Cleanable cleanable;
 
     public BatchIterator() {
-      this.size = size();
-      this.iterator = nextBatch();
-    }
-
-    private Iterator<E> nextBatch() {
-      return subCollection(current, Math.min(current + batchSize(), size)).iterator();
+      this.size = seekable ? -1 : size();
+      this.more = seekable || size > 0;
     }
 
     @Override
     public boolean hasNext() {
-      return current < size;
+      while (position == batch.size()) {
+        if (!more) {
+          return false;
+        }
+        advance();
+      }
+      return true;
     }
 
     @Override
     public E next() {
-      if (!iterator.hasNext()) iterator = nextBatch();
-      current++;
-      return iterator.next();
+      if (!hasNext()) throw new NoSuchElementException();
+      E entity = batch.get(position++);
+      if (more
+          && prefetched == null
+          && !prefetchDeclined
+          && position * 2 >= batch.size()
+          && canPrefetch()) {
+        prefetch();
+      }
+      return entity;
+    }
+
+    private void prefetch() {
+      prefetched =
+          prefetchExecutor.submit(
+              loader(EntityList.this, seekable, size, nextOffset, nextAfter, limit));
+      if (prefetched == null) {
+        prefetchDeclined = true;
+      } else {
+        pending.future = prefetched;
+        if (cleanable == null) {
+          cleanable = CLEANER.register(this, pending);
+        }
+      }
+    }
+
+    private void advance() {
+      batch =
+          prefetched == null
+              ? load(seekable, size, nextOffset, nextAfter, limit)
+              : await(prefetched);
+      prefetched = null;
+      prefetchDeclined = false;
+      pending.future = null;
+      position = 0;
+      if (seekable) {
+        more = batch.size() >= limit;
+        if (!batch.isEmpty()) {
+          nextAfter = batch.get(batch.size() - 1).getIdentity();
+        }
+      } else {
+        nextOffset += batch.size();
+        more = !batch.isEmpty() && nextOffset < size;
+      }
+      limit = Math.max(limit, Math.min(limit * 2, maxBatchSize()));
+      if (!more && cleanable != null) {
+        cleanable.clean();
+      }
     }
   }
 
+  /**
+   * Cancels the prefetch of an iterator that was dropped before reaching it, so a queued prefetch
+   * never runs. It must not refer to the iterator, or the iterator would never become unreachable.
+   */
+  private static final class PendingPrefetch implements Runnable {
+    private volatile Future<?> future;
+
+    @Override
+    public void run() {
+      Future<?> current = future;
+      if (current != null) {
+        current.cancel(true);
+      }
+    }
+  }
+
+  private static <Id, E extends Entity<Id, ?>> Callable<List<E>> loader(
+      EntityList<Id, E> list, boolean seekable, int size, int offset, Id after, int count) {
+    return () -> list.load(seekable, size, offset, after, count);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<E> load(boolean seekable, int size, int offset, Id after, int count) {
+    return seekable
+        ? ((SeekableEntityList<Id, E>) this).findEntitiesAfter(after, count)
+        : findEntities(offset, Math.min(offset + count, size));
+  }
+
+  private boolean canPrefetch() {
+    return prefetchExecutor != null
+        && !TransactionSynchronizationManager.isActualTransactionActive();
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      if (e.getCause() instanceof Error cause) throw cause;
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading the next batch", e);
+    }
+  }
+
+  /** Rows fetched per query when iteration starts. */
   protected int batchSize() {
     return 100;
   }
 
+  /** Upper bound the batch size grows to; associations with wide rows should keep it low. */
+  protected int maxBatchSize() {
+    return 1000;
+  }
+
   protected abstract List<E> findEntities(int from, int to);
 
   protected abstract E findEntity(Id id);
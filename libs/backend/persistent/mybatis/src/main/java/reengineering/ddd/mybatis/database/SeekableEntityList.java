@@ -0,0 +1,29 @@
+package reengineering.ddd.mybatis.database;
+
+import java.util.List;
+import reengineering.ddd.archtype.Entity;
+import reengineering.ddd.archtype.Many;
+import reengineering.ddd.archtype.SeekableMany;
+
+/**
+ * An {@link EntityList} whose rows can be read after one of its entities with a keyset query, so
+ * pages and iteration seek instead of counting and skipping rows.
+ */
+public abstract class SeekableEntityList<Id, E extends Entity<Id, ?>> extends EntityList<Id, E>
+    implements SeekableMany<Id, E> {
+
+  @Override
+  public final Many<E> subCollectionAfter(Id identity, int limit) {
+    List<E> entities = findEntitiesAfter(identity, limit);
+    if (entities.isEmpty() && identity != null && findEntity(identity) == null) {
+      throw new IllegalArgumentException("No entity to continue after: " + identity);
+    }
+    return new reengineering.ddd.mybatis.memory.EntityList<>(entities);
+  }
+
+  /**
+   * Returns at most {@code limit} entities that follow the entity {@code id} in the order of this
+   * collection, or the first ones when {@code id} is null.
+   */
+  protected abstract List<E> findEntitiesAfter(Id id, int limit);
+}
@@ -0,0 +1,37 @@
+package reengineering.ddd.mybatis.support;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Splits the ids or rows of one bulk statement into chunks of {@link #SIZE}, keeping {@code IN}
+ * lists and multi-row {@code VALUES} well below the bind parameter limit of the driver.
+ */
+public final class Chunks {
+  public static final int SIZE = 500;
+
+  private Chunks() {}
+
+  public static <T> void forEachChunk(List<T> items, Consumer<List<T>> action) {
+    for (int from = 0; from < items.size(); from += SIZE) {
+      action.accept(items.subList(from, Math.min(items.size(), from + SIZE)));
+    }
+  }
+
+  /** Chunks of the entries of {@code items}, in their iteration order. */
+  public static <K, V> void forEachChunk(Map<K, V> items, Consumer<Map<K, V>> action) {
+    Map<K, V> chunk = new LinkedHashMap<>();
+    for (Map.Entry<K, V> item : items.entrySet()) {
+      chunk.put(item.getKey(), item.getValue());
+      if (chunk.size() == SIZE) {
+        action.accept(chunk);
+        chunk = new LinkedHashMap<>();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      action.accept(chunk);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package reengineering.ddd.mybatis.support;
+
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded pool that reads the next batch of an {@link
+ * reengineering.ddd.mybatis.database.EntityList} while the current one is consumed.
+ *
+ * <p>Tasks run with the diagnostic context (MDC) of the thread that submitted them, so their logs
+ * keep the trace id of the request. A prefetch that finds every thread busy and the queue full is
+ * not run at all: the iterator reads that batch itself when it gets there.
+ */
+@Component
+public class PrefetchExecutor implements DisposableBean {
+  private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+  @Inject
+  public PrefetchExecutor(
+      @Value("${teamai.entity-list.prefetch.threads:4}") int threads,
+      @Value("${teamai.entity-list.prefetch.queue-capacity:16}") int queueCapacity) {
+    executor.setCorePoolSize(Math.max(1, threads));
+    executor.setMaxPoolSize(Math.max(1, threads));
+    executor.setQueueCapacity(Math.max(0, queueCapacity));
+    executor.setThreadNamePrefix("entity-list-prefetch-");
+    executor.setDaemon(true);
+    executor.setTaskDecorator(PrefetchExecutor::withCallerContext);
+    executor.initialize();
+  }
+
+  /** Returns the pending result of {@code task}, or {@code null} when the pool is saturated. */
+  public <T> Future<T> submit(Callable<T> task) {
+    try {
+      return executor.submit(task);
+    } catch (TaskRejectedException error) {
+      return null;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
+  private static Runnable withCallerContext(Runnable task) {
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+    return () -> {
+      if (mdc != null) {
+        MDC.setContextMap(mdc);
+      }
+      try {
+        task.run();
+      } finally {
+        MDC.clear();
+      }
+    };
+  }
+}
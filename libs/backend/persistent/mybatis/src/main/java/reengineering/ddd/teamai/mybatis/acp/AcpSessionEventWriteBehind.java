@@ -0,0 +1,319 @@
+package reengineering.ddd.teamai.mybatis.acp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reengineering.ddd.teamai.mybatis.mappers.ProjectAcpSessionEventRow;
+import reengineering.ddd.teamai.mybatis.mappers.ProjectAcpSessionEventsMapper;
+
+/**
+ * Writes ACP session events in the background, grouped into multi-row inserts.
+ *
+ * <p>One writer thread takes up to {@code batchSize} queued rows and waits at most {@code linger}
+ * for a batch to fill. When the queue is full, the appending thread inserts its row itself, so
+ * events are never dropped. A batch that fails is retried row by row, each row a bounded number of
+ * times; rows that still fail are counted against their session rather than written. {@link
+ * #flush} returns once the rows a session queued before it are settled and throws only for that
+ * session's failures, {@link #await} waits the same way and leaves the failures to the session's
+ * next flush, and {@link #close()} drains the queue before the writer stops.
+ */
+final class AcpSessionEventWriteBehind implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(AcpSessionEventWriteBehind.class);
+  private static final long IDLE_POLL_MILLIS = 100;
+  private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+  private static final int MAX_ROW_ATTEMPTS = 3;
+  private static final long RETRY_BACKOFF_MILLIS = 50;
+
+  private final ProjectAcpSessionEventsMapper mapper;
+  private final BlockingQueue<ProjectAcpSessionEventRow> queue;
+  private final int batchSize;
+  private final long lingerNanos;
+  private final Timer flushTimer;
+  private final Counter overflowCounter;
+  private final Counter failureCounter;
+  private final Object progress = new Object();
+  private final Map<SessionKey, SessionProgress> sessions = new HashMap<>();
+  private final Thread writer;
+  private volatile boolean running = true;
+
+  AcpSessionEventWriteBehind(
+      ProjectAcpSessionEventsMapper mapper,
+      int batchSize,
+      Duration linger,
+      int queueCapacity,
+      MeterRegistry meterRegistry) {
+    this.mapper = mapper;
+    this.batchSize = Math.max(1, batchSize);
+    this.lingerNanos = Math.max(0, linger.toNanos());
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    if (meterRegistry != null) {
+      Gauge.builder("teamai.acp.events.write_behind.queue", queue, BlockingQueue::size)
+          .register(meterRegistry);
+      this.flushTimer =
+          Timer.builder("teamai.acp.events.write_behind.flush").register(meterRegistry);
+      this.overflowCounter =
+          Counter.builder("teamai.acp.events.write_behind.overflow").register(meterRegistry);
+      this.failureCounter =
+          Counter.builder("teamai.acp.events.write_behind.failed").register(meterRegistry);
+    } else {
+      this.flushTimer = null;
+      this.overflowCounter = null;
+      this.failureCounter = null;
+    }
+    this.writer = new Thread(this::run, "acp-session-event-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  void append(ProjectAcpSessionEventRow row) {
+    synchronized (progress) {
+      if (running && queue.offer(row)) {
+        sessions.computeIfAbsent(SessionKey.of(row), ignored -> new SessionProgress()).enqueued++;
+        return;
+      }
+    }
+    if (running && overflowCounter != null) {
+      overflowCounter.increment();
+    }
+    if (!write(List.of(row)).isEmpty()) {
+      throw new IllegalStateException("Failed to write ACP session event: " + row.getEventId());
+    }
+  }
+
+  /**
+   * Waits until every event the session queued before this call is written or has failed.
+   *
+   * @throws IllegalStateException if events of the session could not be written since its last
+   *     flush
+   */
+  void flush(int projectId, int sessionId) {
+    SessionKey key = new SessionKey(projectId, sessionId);
+    Pending pending = pending(key);
+    if (pending == null) {
+      return;
+    }
+    writeQueued();
+    synchronized (progress) {
+      if (!awaitSettled(key, pending)) {
+        return;
+      }
+      SessionProgress session = pending.session();
+      if (sessions.get(key) == session && session.failed > 0) {
+        long count = session.failed;
+        session.failed = 0;
+        forgetIfSettled(key, session);
+        throw new IllegalStateException(count + " ACP session events could not be written");
+      }
+    }
+  }
+
+  /**
+   * Waits until every event the session queued before this call is written or has failed. Failures
+   * are left to the next {@link #flush} of the session.
+   */
+  void await(int projectId, int sessionId) {
+    SessionKey key = new SessionKey(projectId, sessionId);
+    Pending pending = pending(key);
+    if (pending == null) {
+      return;
+    }
+    writeQueued();
+    synchronized (progress) {
+      awaitSettled(key, pending);
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    try {
+      writer.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException error) {
+      Thread.currentThread().interrupt();
+    }
+    writeQueued();
+    synchronized (progress) {
+      long failed = sessions.values().stream().mapToLong(session -> session.failed).sum();
+      if (failed > 0) {
+        log.error("event=acp_session_event_write_behind_closed failed={}", failed);
+      }
+    }
+  }
+
+  private Pending pending(SessionKey key) {
+    synchronized (progress) {
+      SessionProgress session = sessions.get(key);
+      return session == null ? null : new Pending(session, session.enqueued);
+    }
+  }
+
+  /** Writes the queued rows on the calling thread instead of waiting for the writer's linger. */
+  private void writeQueued() {
+    List<ProjectAcpSessionEventRow> rows = new ArrayList<>(batchSize);
+    while (queue.drainTo(rows, batchSize) > 0) {
+      settle(rows, write(rows));
+      rows.clear();
+    }
+  }
+
+  /**
+   * Waits, holding the monitor of {@code progress}, until the rows counted by {@code pending} are
+   * settled. Returns {@code false} if the session was forgotten meanwhile, i.e. all of its rows
+   * were written.
+   */
+  private boolean awaitSettled(SessionKey key, Pending pending) {
+    SessionProgress session = pending.session();
+    while (sessions.get(key) == session && session.settled < pending.target()) {
+      if (!writer.isAlive()) {
+        break;
+      }
+      try {
+        progress.wait(IDLE_POLL_MILLIS);
+      } catch (InterruptedException error) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return sessions.get(key) == session;
+  }
+
+  private void run() {
+    List<ProjectAcpSessionEventRow> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        ProjectAcpSessionEventRow first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0 || !running) {
+            break;
+          }
+          ProjectAcpSessionEventRow next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException error) {
+        running = false;
+      }
+      if (!batch.isEmpty()) {
+        settle(batch, write(batch));
+        batch.clear();
+      }
+    }
+  }
+
+  /** Writes {@code rows} and returns the ones that could not be written. */
+  private List<ProjectAcpSessionEventRow> write(List<ProjectAcpSessionEventRow> rows) {
+    long startedAt = System.nanoTime();
+    try {
+      mapper.insertEvents(rows);
+      return List.of();
+    } catch (RuntimeException error) {
+      log.warn(
+          "event=acp_session_event_batch_failed size={} message={}",
+          rows.size(),
+          error.getMessage());
+      return rows.stream().filter(row -> !writeOne(row)).toList();
+    } finally {
+      if (flushTimer != null) {
+        flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private boolean writeOne(ProjectAcpSessionEventRow row) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        mapper.insertEvent(row.getProjectId(), row.getSessionId(), row);
+        return true;
+      } catch (RuntimeException error) {
+        if (attempt >= MAX_ROW_ATTEMPTS || !backOff(attempt)) {
+          log.error(
+              "event=acp_session_event_write_failed eventId={} attempts={} message={}",
+              row.getEventId(),
+              attempt,
+              error.getMessage());
+          if (failureCounter != null) {
+            failureCounter.increment();
+          }
+          return false;
+        }
+      }
+    }
+  }
+
+  private static boolean backOff(int attempt) {
+    try {
+      Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+      return true;
+    } catch (InterruptedException error) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void settle(
+      List<ProjectAcpSessionEventRow> rows, List<ProjectAcpSessionEventRow> failedRows) {
+    synchronized (progress) {
+      for (ProjectAcpSessionEventRow row : rows) {
+        SessionProgress session = sessions.get(SessionKey.of(row));
+        if (session != null) {
+          session.settled++;
+        }
+      }
+      for (ProjectAcpSessionEventRow row : failedRows) {
+        SessionProgress session = sessions.get(SessionKey.of(row));
+        if (session != null) {
+          session.failed++;
+        }
+      }
+      for (ProjectAcpSessionEventRow row : rows) {
+        SessionKey key = SessionKey.of(row);
+        SessionProgress session = sessions.get(key);
+        if (session != null) {
+          forgetIfSettled(key, session);
+        }
+      }
+      progress.notifyAll();
+    }
+  }
+
+  private void forgetIfSettled(SessionKey key, SessionProgress session) {
+    if (session.settled >= session.enqueued && session.failed == 0) {
+      sessions.remove(key);
+    }
+  }
+
+  private record SessionKey(int projectId, int sessionId) {
+    static SessionKey of(ProjectAcpSessionEventRow row) {
+      return new SessionKey(row.getProjectId(), row.getSessionId());
+    }
+  }
+
+  /** Rows of one session that are queued, settled, and failed but not yet reported by a flush. */
+  private static final class SessionProgress {
+    private long enqueued;
+    private long settled;
+    private long failed;
+  }
+
+  private record Pending(SessionProgress session, long target) {}
+}
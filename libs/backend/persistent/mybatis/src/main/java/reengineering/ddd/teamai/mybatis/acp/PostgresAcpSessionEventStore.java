@@ -3,11 +3,17 @@ package reengineering.ddd.teamai.mybatis.acp;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.inject.Inject;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
-import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
 import reengineering.ddd.teamai.model.AcpSessionEvent;
 import reengineering.ddd.teamai.model.AcpSessionEventStore;
@@ -16,50 +22,138 @@ import reengineering.ddd.teamai.mybatis.mappers.ProjectAcpSessionEventsMapper;
 
 @Component
 @Primary
-public class PostgresAcpSessionEventStore implements AcpSessionEventStore {
+public class PostgresAcpSessionEventStore implements AcpSessionEventStore, DisposableBean {
   private final ProjectAcpSessionEventsMapper mapper;
   private final ObjectMapper objectMapper;
+  private final AcpSessionEventWriteBehind writeBehind;
 
-  @Inject
   public PostgresAcpSessionEventStore(
       ProjectAcpSessionEventsMapper mapper, ObjectMapper objectMapper) {
+    this(mapper, objectMapper, (AcpSessionEventWriteBehind) null);
+  }
+
+  @Inject
+  public PostgresAcpSessionEventStore(
+      ProjectAcpSessionEventsMapper mapper,
+      ObjectMapper objectMapper,
+      @Value("${team-ai.acp.events.write-behind.enabled:false}") boolean writeBehindEnabled,
+      @Value("${team-ai.acp.events.write-behind.batch-size:200}") int batchSize,
+      @Value("${team-ai.acp.events.write-behind.linger-ms:20}") long lingerMillis,
+      @Value("${team-ai.acp.events.write-behind.queue-capacity:10000}") int queueCapacity,
+      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this(
+        mapper,
+        objectMapper,
+        writeBehindEnabled
+            ? new AcpSessionEventWriteBehind(
+                mapper,
+                batchSize,
+                Duration.ofMillis(lingerMillis),
+                queueCapacity,
+                meterRegistryProvider.getIfAvailable())
+            : null);
+  }
+
+  PostgresAcpSessionEventStore(
+      ProjectAcpSessionEventsMapper mapper,
+      ObjectMapper objectMapper,
+      AcpSessionEventWriteBehind writeBehind) {
     this.mapper = mapper;
     this.objectMapper = objectMapper;
+    this.writeBehind = writeBehind;
   }
 
+  @Override
+  public long nextSequence(String projectId, String sessionId) {
+    return mapper.nextSeq(parseId(projectId, "projectId"), parseId(sessionId, "sessionId"));
+  }
+
+  /**
+   * Appends an event whose id ends in a sequence from {@link #nextSequence}. Appending an event id
+   * again is a no-op.
+   */
   @Override
   public void append(String projectId, AcpSessionEvent event) {
+    OptionalLong sequence = event.sequence();
+    if (sequence.isEmpty()) {
+      throw new IllegalArgumentException("eventId must end in a sequence: " + event.eventId());
+    }
     ProjectAcpSessionEventRow row = new ProjectAcpSessionEventRow();
+    row.setProjectId(parseId(projectId, "projectId"));
     row.setEventId(event.eventId());
+    row.setSeq(sequence.getAsLong());
     row.setSessionId(parseId(event.sessionId(), "sessionId"));
     row.setEventType(event.type());
     row.setEmittedAt(event.emittedAt());
     row.setDataJson(writeJson(event.data()));
     row.setErrorJson(writeJson(event.error()));
 
-    try {
-      mapper.insertEvent(
-          parseId(projectId, "projectId"), parseId(event.sessionId(), "sessionId"), row);
-    } catch (DuplicateKeyException ignored) {
-      // Idempotent event append: ignore duplicate event_id writes.
+    if (writeBehind != null) {
+      writeBehind.append(row);
+      return;
     }
+    mapper.insertEvent(row.getProjectId(), row.getSessionId(), row);
   }
 
   @Override
   public List<AcpSessionEvent> findBySession(
       String projectId, String sessionId, String afterEventId, int limit) {
     int normalizedLimit = sanitizeLimit(limit);
+    int project = parseId(projectId, "projectId");
+    int session = parseId(sessionId, "sessionId");
+    awaitWrites(project, session);
     return mapper
-        .findEventsBySession(
-            parseId(projectId, "projectId"),
-            parseId(sessionId, "sessionId"),
-            afterEventId,
-            normalizedLimit)
+        .findEventsBySession(project, session, sequence(afterEventId), normalizedLimit)
         .stream()
         .map(this::toModel)
         .toList();
   }
 
+  @Override
+  public long lastSequence(String projectId, String sessionId) {
+    int project = parseId(projectId, "projectId");
+    int session = parseId(sessionId, "sessionId");
+    awaitWrites(project, session);
+    return mapper.findLastSeq(project, session);
+  }
+
+  @Override
+  public Optional<String> findProjectId(String sessionId) {
+    int id;
+    try {
+      id = parseId(sessionId, "sessionId");
+    } catch (IllegalArgumentException error) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(mapper.findSessionProjectId(id)).map(String::valueOf);
+  }
+
+  @Override
+  public void flush(String projectId, String sessionId) {
+    if (writeBehind != null) {
+      writeBehind.flush(parseId(projectId, "projectId"), parseId(sessionId, "sessionId"));
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (writeBehind != null) {
+      writeBehind.close();
+    }
+  }
+
+  /** Lets a read see the session's queued events. Their failures are left to its next flush. */
+  private void awaitWrites(int projectId, int sessionId) {
+    if (writeBehind != null) {
+      writeBehind.await(projectId, sessionId);
+    }
+  }
+
+  private Long sequence(String eventId) {
+    OptionalLong sequence = AcpSessionEvent.sequenceOf(eventId);
+    return sequence.isPresent() ? sequence.getAsLong() : null;
+  }
+
   private AcpSessionEvent toModel(ProjectAcpSessionEventRow row) {
     return new AcpSessionEvent(
         row.getEventId(),
@@ -1,12 +1,20 @@
 package reengineering.ddd.teamai.mybatis.associations;
 
+import static reengineering.ddd.mybatis.support.Chunks.forEachChunk;
+import static reengineering.ddd.teamai.mybatis.cache.CacheKeyIndex.ALL_KEYS_OF;
+
 import jakarta.inject.Inject;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import reengineering.ddd.archtype.JsonBlob;
 import reengineering.ddd.archtype.Ref;
 import reengineering.ddd.mybatis.database.EntityList;
 import reengineering.ddd.mybatis.support.IdHolder;
@@ -48,7 +56,7 @@ public class DiagramEdges extends EntityList<String, DiagramEdge> implements Dia
   }
 
   @Override
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public DiagramEdge add(EdgeDescription description) {
     IdHolder idHolder = new IdHolder();
     mapper.insertEdge(idHolder, diagramId, description);
@@ -56,7 +64,7 @@ public class DiagramEdges extends EntityList<String, DiagramEdge> implements Dia
   }
 
   @Override
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public List<DiagramEdge> addAll(Collection<EdgeDescription> descriptions) {
     if (descriptions == null || descriptions.isEmpty()) {
       return List.of();
@@ -71,17 +79,50 @@ public class DiagramEdges extends EntityList<String, DiagramEdge> implements Dia
     return List.copyOf(createdEdges);
   }
 
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  /**
+   * Replaces the edges of the diagram with {@code draftEdges}. Each draft edge takes over a
+   * persisted edge between the same nodes, which is kept as is or updated in place; the remaining
+   * persisted edges are deleted and the remaining draft edges inserted, all in multi-row
+   * statements.
+   */
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public void commitDraftEdges(
       Collection<Project.Diagrams.DraftEdge> draftEdges, Map<String, String> createdNodeIdByRef) {
     List<Project.Diagrams.DraftEdge> requestedEdges =
         draftEdges == null ? List.of() : List.copyOf(draftEdges);
     Map<String, String> resolvedNodeIdByRef =
         createdNodeIdByRef == null ? Map.of() : Map.copyOf(createdNodeIdByRef);
-    mapper.deleteEdgesByDiagram(diagramId);
     List<EdgeDescription> edgeDescriptions =
         buildDraftEdgeDescriptions(requestedEdges, resolvedNodeIdByRef);
-    addAll(edgeDescriptions);
+
+    Map<EdgeEnds, ArrayDeque<DiagramEdge>> persistedEdgesByEnds = new HashMap<>();
+    for (DiagramEdge persistedEdge : mapper.findEdgesByDiagramId(diagramId)) {
+      persistedEdgesByEnds
+          .computeIfAbsent(EdgeEnds.of(persistedEdge.getDescription()), key -> new ArrayDeque<>())
+          .addLast(persistedEdge);
+    }
+
+    List<EdgeDescription> insertedEdges = new ArrayList<>();
+    Map<Integer, EdgeDescription> updatedEdges = new LinkedHashMap<>();
+    for (EdgeDescription description : edgeDescriptions) {
+      ArrayDeque<DiagramEdge> candidates = persistedEdgesByEnds.get(EdgeEnds.of(description));
+      DiagramEdge persistedEdge = candidates == null ? null : candidates.pollFirst();
+      if (persistedEdge == null) {
+        insertedEdges.add(description);
+      } else if (!isSameEdge(persistedEdge.getDescription(), description)) {
+        updatedEdges.put(Integer.parseInt(persistedEdge.getIdentity()), description);
+      }
+    }
+    List<Integer> deletedEdgeIds = new ArrayList<>();
+    for (ArrayDeque<DiagramEdge> unmatchedEdges : persistedEdgesByEnds.values()) {
+      for (DiagramEdge unmatchedEdge : unmatchedEdges) {
+        deletedEdgeIds.add(Integer.parseInt(unmatchedEdge.getIdentity()));
+      }
+    }
+
+    forEachChunk(deletedEdgeIds, chunk -> mapper.deleteEdgesByIds(diagramId, chunk));
+    forEachChunk(updatedEdges, chunk -> mapper.updateEdges(diagramId, chunk));
+    forEachChunk(insertedEdges, chunk -> mapper.insertEdges(diagramId, chunk));
   }
 
   private static List<EdgeDescription> buildDraftEdgeDescriptions(
@@ -107,6 +148,21 @@ public class DiagramEdges extends EntityList<String, DiagramEdge> implements Dia
     return edgeDescriptions;
   }
 
+  /** A stored edge without style reads back as an empty JSON object. */
+  private static boolean isSameEdge(EdgeDescription persisted, EdgeDescription draft) {
+    JsonBlob persistedStyle = persisted.styleProps();
+    boolean sameStyle =
+        Objects.equals(persistedStyle, draft.styleProps())
+            || (draft.styleProps() == null
+                && (persistedStyle == null || "{}".equals(persistedStyle.json())));
+    return sameStyle
+        && Objects.equals(persisted.sourceHandle(), draft.sourceHandle())
+        && Objects.equals(persisted.targetHandle(), draft.targetHandle())
+        && Objects.equals(persisted.relationType(), draft.relationType())
+        && Objects.equals(persisted.label(), draft.label())
+        && Objects.equals(persisted.hidden(), draft.hidden());
+  }
+
   private static String resolveNodeId(String nodeId, Map<String, String> createdNodeIdByRef) {
     if (nodeId == null || nodeId.isBlank()) {
       throw new Project.Diagrams.InvalidDraftException("Edge request must provide nodeId.");
@@ -120,4 +176,12 @@ public class DiagramEdges extends EntityList<String, DiagramEdge> implements Dia
     }
     return nodeId;
   }
+
+  private record EdgeEnds(String sourceNodeId, String targetNodeId) {
+    static EdgeEnds of(EdgeDescription description) {
+      return new EdgeEnds(
+          description.sourceNode() == null ? null : description.sourceNode().id(),
+          description.targetNode() == null ? null : description.targetNode().id());
+    }
+  }
 }
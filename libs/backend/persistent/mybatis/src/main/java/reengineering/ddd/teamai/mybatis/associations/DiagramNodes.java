@@ -1,10 +1,16 @@
 package reengineering.ddd.teamai.mybatis.associations;
 
+import static reengineering.ddd.mybatis.support.Chunks.forEachChunk;
+import static reengineering.ddd.teamai.mybatis.cache.CacheKeyIndex.ALL_KEYS_OF;
+
 import jakarta.inject.Inject;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,7 +60,7 @@ public class DiagramNodes extends EntityList<String, DiagramNode> implements Dia
   }
 
   @Override
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public DiagramNode add(NodeDescription description) {
     IdHolder idHolder = new IdHolder();
     mapper.insertNode(idHolder, diagramId, description);
@@ -62,7 +68,7 @@ public class DiagramNodes extends EntityList<String, DiagramNode> implements Dia
   }
 
   @Override
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public List<DiagramNode> addAll(Collection<NodeDescription> descriptions) {
     if (descriptions == null || descriptions.isEmpty()) {
       return List.of();
@@ -77,27 +83,32 @@ public class DiagramNodes extends EntityList<String, DiagramNode> implements Dia
     return List.copyOf(createdNodes);
   }
 
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  /**
+   * Replaces the nodes of the diagram with {@code draftNodes} using multi-row statements: persisted
+   * nodes missing from the draft are deleted, new nodes are inserted under ids reserved up front,
+   * and existing nodes are rewritten only where a column changed.
+   */
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public Map<String, String> commitDraftNodes(Collection<Project.Diagrams.DraftNode> draftNodes) {
     List<Project.Diagrams.DraftNode> requestedNodes =
         draftNodes == null ? List.of() : List.copyOf(draftNodes);
     DraftNodeMappings mappings = buildDraftNodeMappings(requestedNodes);
-    deleteMissingPersistedNodes(requestedNodes);
     List<Project.Diagrams.DraftNode> sortedDraftNodes =
         sortDraftNodesByParent(
             requestedNodes, mappings.draftNodeById(), mappings.draftNodeIdByAlias());
-    return createDraftNodes(
-        sortedDraftNodes, mappings.draftNodeIdByAlias(), mappings.legacyAliasByDraftNodeId());
+    deleteMissingPersistedNodes(sortedDraftNodes);
+    Map<String, String> persistedNodeIdByRef =
+        assignPersistedNodeIds(sortedDraftNodes, mappings.legacyAliasByDraftNodeId());
+    writeDraftNodes(sortedDraftNodes, persistedNodeIdByRef);
+    return persistedNodeIdByRef;
   }
 
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public void promoteNodeLocalDataToLogicalEntitiesForPublish(int projectId) {
     List<Integer> nodeIds = mapper.findNodeIdsWithoutLogicalEntityForPublish(projectId, diagramId);
-    for (Integer nodeId : nodeIds) {
-      if (nodeId != null) {
-        mapper.promoteNodeLocalDataToLogicalEntity(projectId, diagramId, nodeId);
-      }
-    }
+    forEachChunk(
+        nodeIds,
+        chunk -> mapper.promoteNodeLocalDataToLogicalEntities(projectId, diagramId, chunk));
   }
 
   private static DraftNodeMappings buildDraftNodeMappings(
@@ -128,69 +139,99 @@ public class DiagramNodes extends EntityList<String, DiagramNode> implements Dia
     return new DraftNodeMappings(draftNodeById, legacyAliasByDraftNodeId, draftNodeIdByAlias);
   }
 
-  private Map<String, String> createDraftNodes(
+  private Map<String, String> assignPersistedNodeIds(
       List<Project.Diagrams.DraftNode> sortedDraftNodes,
-      Map<String, String> draftNodeIdByAlias,
       Map<String, String> legacyAliasByDraftNodeId) {
-    Map<String, String> createdNodeIdByRef = new LinkedHashMap<>();
+    int newNodeCount = 0;
+    for (Project.Diagrams.DraftNode draftNode : sortedDraftNodes) {
+      if (isNewNodePlaceholderId(draftNode.id())) {
+        newNodeCount++;
+      }
+    }
+    Iterator<Integer> reservedNodeIds =
+        newNodeCount == 0
+            ? Collections.emptyIterator()
+            : mapper.reserveNodeIds(newNodeCount).iterator();
+
+    Map<String, String> persistedNodeIdByRef = new LinkedHashMap<>();
     for (Project.Diagrams.DraftNode draftNode : sortedDraftNodes) {
       String draftNodeId = draftNode.id();
-      NodeDescription resolvedDescription =
-          resolveParentNodeId(draftNode.description(), createdNodeIdByRef, draftNodeIdByAlias);
-      String persistedNodeId = commitNodeByDraftId(draftNodeId, resolvedDescription);
-      createdNodeIdByRef.put(draftNodeId, persistedNodeId);
+      String persistedNodeId =
+          isNewNodePlaceholderId(draftNodeId)
+              ? String.valueOf(reservedNodeIds.next())
+              : draftNodeId;
+      persistedNodeIdByRef.put(draftNodeId, persistedNodeId);
       // Backward compatibility with older indexed placeholder references.
       String legacyAlias = legacyAliasByDraftNodeId.get(draftNodeId);
       if (legacyAlias != null) {
-        createdNodeIdByRef.putIfAbsent(legacyAlias, persistedNodeId);
+        persistedNodeIdByRef.putIfAbsent(legacyAlias, persistedNodeId);
       }
     }
-    return createdNodeIdByRef;
+    return persistedNodeIdByRef;
   }
 
-  private String commitNodeByDraftId(String draftNodeId, NodeDescription resolvedDescription) {
-    if (isNewNodePlaceholderId(draftNodeId)) {
-      DiagramNode createdNode = add(resolvedDescription);
-      String createdNodeId = createdNode.getIdentity();
-      if (createdNodeId == null || createdNodeId.isBlank()) {
-        throw new Project.Diagrams.InvalidDraftException("Created node id must not be blank.");
+  private void writeDraftNodes(
+      List<Project.Diagrams.DraftNode> sortedDraftNodes, Map<String, String> persistedNodeIdByRef) {
+    Map<Integer, NodeDescription> insertedNodes = new LinkedHashMap<>();
+    Map<Integer, NodeDescription> updatedNodes = new LinkedHashMap<>();
+    for (Project.Diagrams.DraftNode draftNode : sortedDraftNodes) {
+      int persistedNodeId = Integer.parseInt(persistedNodeIdByRef.get(draftNode.id()));
+      NodeDescription resolvedDescription =
+          resolveParentNodeId(draftNode.description(), persistedNodeIdByRef);
+      if (isNewNodePlaceholderId(draftNode.id())) {
+        insertedNodes.put(persistedNodeId, resolvedDescription);
+      } else {
+        updatedNodes.put(persistedNodeId, resolvedDescription);
       }
-      return createdNodeId;
     }
-    return updateExistingNodeById(draftNodeId, resolvedDescription);
-  }
-
-  private String updateExistingNodeById(String draftNodeId, NodeDescription resolvedDescription) {
-    int persistedNodeId = parsePersistedNodeId(draftNodeId);
-    int affectedRows = mapper.updateNode(diagramId, persistedNodeId, resolvedDescription);
-    if (affectedRows == 0) {
-      throw new Project.Diagrams.InvalidDraftException("Node not found: " + draftNodeId);
-    }
-    DiagramNode updatedNode = findEntity(draftNodeId);
-    if (updatedNode == null
-        || updatedNode.getIdentity() == null
-        || updatedNode.getIdentity().isBlank()) {
-      throw new Project.Diagrams.InvalidDraftException(
-          "Updated node id must not be blank: " + draftNodeId);
-    }
-    return updatedNode.getIdentity();
+    // Parents come first in the sorted order, so no chunk references a node of a later chunk.
+    forEachChunk(insertedNodes, chunk -> mapper.insertNodes(diagramId, chunk));
+    forEachChunk(updatedNodes, chunk -> mapper.updateNodes(diagramId, chunk));
   }
 
   private void deleteMissingPersistedNodes(List<Project.Diagrams.DraftNode> requestedNodes) {
     Set<Integer> incomingExistingNodeIds = extractIncomingExistingNodeIds(requestedNodes);
+    Map<Integer, List<Integer>> childIdsByParentId = new HashMap<>();
+    Set<Integer> persistedNodeIds = new HashSet<>();
     List<Integer> nodeIdsToDelete = new ArrayList<>();
-    for (DiagramNode persistedNode : mapper.findNodesByDiagramId(diagramId)) {
+    for (DiagramNode persistedNode : mapper.findPlainNodesByDiagramId(diagramId)) {
       if (persistedNode == null || persistedNode.getIdentity() == null) {
         continue;
       }
       int persistedNodeId = parsePersistedNodeId(persistedNode.getIdentity());
+      persistedNodeIds.add(persistedNodeId);
+      String parentId = readPersistedParentId(persistedNode);
+      if (parentId != null) {
+        childIdsByParentId
+            .computeIfAbsent(parsePersistedNodeId(parentId), key -> new ArrayList<>())
+            .add(persistedNodeId);
+      }
       if (!incomingExistingNodeIds.contains(persistedNodeId)) {
         nodeIdsToDelete.add(persistedNodeId);
       }
     }
-    if (!nodeIdsToDelete.isEmpty()) {
-      mapper.deleteNodesByIds(diagramId, nodeIdsToDelete);
+
+    // Deleting a node cascades to its children, so a kept child of a deleted node is gone too.
+    Set<Integer> removedNodeIds = new HashSet<>();
+    ArrayDeque<Integer> queue = new ArrayDeque<>(nodeIdsToDelete);
+    while (!queue.isEmpty()) {
+      Integer nodeId = queue.removeFirst();
+      if (removedNodeIds.add(nodeId)) {
+        queue.addAll(childIdsByParentId.getOrDefault(nodeId, List.of()));
+      }
     }
+    for (Project.Diagrams.DraftNode draftNode : requestedNodes) {
+      String draftNodeId = draftNode.id();
+      if (isNewNodePlaceholderId(draftNodeId)) {
+        continue;
+      }
+      int persistedNodeId = parsePersistedNodeId(draftNodeId);
+      if (!persistedNodeIds.contains(persistedNodeId) || removedNodeIds.contains(persistedNodeId)) {
+        throw new Project.Diagrams.InvalidDraftException("Node not found: " + draftNodeId);
+      }
+    }
+
+    forEachChunk(nodeIdsToDelete, chunk -> mapper.deleteNodesByIds(diagramId, chunk));
   }
 
   private static Set<Integer> extractIncomingExistingNodeIds(
@@ -252,20 +293,14 @@ public class DiagramNodes extends EntityList<String, DiagramNode> implements Dia
   }
 
   private static NodeDescription resolveParentNodeId(
-      NodeDescription description,
-      Map<String, String> createdNodeIdByRef,
-      Map<String, String> draftNodeIdByAlias) {
+      NodeDescription description, Map<String, String> persistedNodeIdByRef) {
     String parentId = readRefId(description.parent(), "Node parent id must not be blank.");
     if (parentId == null) {
       return description;
     }
 
-    String resolvedParentId = createdNodeIdByRef.get(parentId);
+    String resolvedParentId = persistedNodeIdByRef.get(parentId);
     if (resolvedParentId == null) {
-      if (draftNodeIdByAlias.containsKey(parentId)) {
-        throw new Project.Diagrams.InvalidDraftException(
-            "Parent node must be created before child node: " + parentId);
-      }
       if (isNewNodePlaceholderId(parentId)) {
         throw new Project.Diagrams.InvalidDraftException(
             "Unknown node placeholder id: " + parentId);
@@ -1,5 +1,7 @@
 package reengineering.ddd.teamai.mybatis.associations;
 
+import static reengineering.ddd.teamai.mybatis.cache.CacheKeyIndex.ALL_KEYS_OF;
+
 import jakarta.inject.Inject;
 import java.util.List;
 import org.springframework.cache.annotation.CacheEvict;
@@ -37,6 +39,12 @@ public class DiagramVersions extends EntityList<String, DiagramVersion>
     return mapper.findVersionByDiagramAndId(diagramId, Integer.parseInt(id));
   }
 
+  /** Each version row carries a whole diagram snapshot, so batches do not grow past the first. */
+  @Override
+  protected int maxBatchSize() {
+    return batchSize();
+  }
+
   @Override
   @Cacheable(value = CACHE_NAME, key = "#root.target.diagramId + ':size'")
   public int size() {
@@ -44,7 +52,7 @@ public class DiagramVersions extends EntityList<String, DiagramVersion>
   }
 
   @Override
-  @CacheEvict(value = CACHE_NAME, key = "#root.target.diagramId + '*")
+  @CacheEvict(value = CACHE_NAME, key = ALL_KEYS_OF + "(#root.target.diagramId)")
   public DiagramVersion add(DiagramVersionDescription description) {
     IdHolder idHolder = new IdHolder();
     mapper.insertVersion(idHolder, diagramId, description);
@@ -7,7 +7,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import reengineering.ddd.archtype.Many;
-import reengineering.ddd.mybatis.database.EntityList;
+import reengineering.ddd.mybatis.database.SeekableEntityList;
 import reengineering.ddd.mybatis.support.IdHolder;
 import reengineering.ddd.teamai.description.AcpSessionDescription;
 import reengineering.ddd.teamai.model.AcpSession;
@@ -16,7 +16,7 @@ import reengineering.ddd.teamai.mybatis.cache.AssociationMapping;
 import reengineering.ddd.teamai.mybatis.mappers.ProjectAcpSessionsMapper;
 
 @AssociationMapping(entity = Project.class, field = "acpSessions", parentIdField = "projectId")
-public class ProjectAcpSessions extends EntityList<String, AcpSession>
+public class ProjectAcpSessions extends SeekableEntityList<String, AcpSession>
     implements Project.AcpSessions {
   private static final String CACHE_NAME = "projectAcpSessions";
   private static final String CACHE_LIST = "projectAcpSessionsList";
@@ -32,6 +32,12 @@ public class ProjectAcpSessions extends EntityList<String, AcpSession>
     return mapper.findSessionsByProjectId(projectId, from, to - from);
   }
 
+  @Override
+  protected List<AcpSession> findEntitiesAfter(String id, int limit) {
+    return mapper.findSessionsByProjectIdAfter(
+        projectId, id == null ? null : Integer.parseInt(id), limit);
+  }
+
   @Override
   @Cacheable(
       value = CACHE_NAME,
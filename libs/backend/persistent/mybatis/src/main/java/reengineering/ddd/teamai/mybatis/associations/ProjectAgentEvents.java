@@ -2,10 +2,12 @@ package reengineering.ddd.teamai.mybatis.associations;
 
 import jakarta.inject.Inject;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import reengineering.ddd.mybatis.database.EntityList;
+import reengineering.ddd.archtype.Many;
+import reengineering.ddd.mybatis.database.SeekableEntityList;
 import reengineering.ddd.mybatis.support.IdHolder;
 import reengineering.ddd.teamai.description.AgentEventDescription;
 import reengineering.ddd.teamai.model.AgentEvent;
@@ -14,7 +16,7 @@ import reengineering.ddd.teamai.mybatis.cache.AssociationMapping;
 import reengineering.ddd.teamai.mybatis.mappers.ProjectAgentEventsMapper;
 
 @AssociationMapping(entity = Project.class, field = "events", parentIdField = "projectId")
-public class ProjectAgentEvents extends EntityList<String, AgentEvent>
+public class ProjectAgentEvents extends SeekableEntityList<String, AgentEvent>
     implements Project.AgentEvents {
 
   private static final String CACHE_NAME = "projectAgentEvents";
@@ -31,6 +33,12 @@ public class ProjectAgentEvents extends EntityList<String, AgentEvent>
     return mapper.findEventsByProjectId(projectId, from, to - from);
   }
 
+  @Override
+  protected List<AgentEvent> findEntitiesAfter(String id, int limit) {
+    return mapper.findEventsByProjectIdAfter(
+        projectId, id == null ? null : Integer.parseInt(id), limit);
+  }
+
   @Override
   @Cacheable(
       value = CACHE_NAME,
@@ -57,4 +65,16 @@ public class ProjectAgentEvents extends EntityList<String, AgentEvent>
     mapper.insertEvent(idHolder, projectId, description);
     return findEntity(String.valueOf(idHolder.id()));
   }
+
+  @Override
+  public Many<AgentEvent> findAppendedAfter(String eventId, int limit) {
+    return new reengineering.ddd.mybatis.memory.EntityList<>(
+        mapper.findEventsAppendedAfter(
+            projectId, eventId == null ? null : Integer.parseInt(eventId), limit));
+  }
+
+  @Override
+  public Optional<AgentEvent> findLastAppended() {
+    return Optional.ofNullable(mapper.findLastAppendedEvent(projectId));
+  }
 }
@@ -1,9 +1,14 @@
 package reengineering.ddd.teamai.mybatis.associations;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.inject.Inject;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
@@ -28,6 +33,7 @@ public class ProjectDiagrams extends EntityList<String, Diagram> implements Proj
 
   @Inject private ProjectDiagramsMapper mapper;
   @Inject private AssociationTransactionDecorator transactionDecorator;
+  @Inject private ObjectProvider<MeterRegistry> meterRegistryProvider;
 
   @Override
   @Cacheable(value = CACHE_LIST, key = "#root.target.projectId + ':' + #from + ':' + #to")
@@ -81,21 +87,56 @@ public class ProjectDiagrams extends EntityList<String, Diagram> implements Proj
     }
     int parsedDiagramId = Integer.parseInt(diagramId);
     Diagram diagram =
-        findByIdentity(diagramId)
-            .orElseThrow(
-                () ->
-                    new Project.Diagrams.InvalidDraftException("Diagram not found: " + diagramId));
+        timePublishPhase(
+            "load",
+            () ->
+                findByIdentity(diagramId)
+                    .orElseThrow(
+                        () ->
+                            new Project.Diagrams.InvalidDraftException(
+                                "Diagram not found: " + diagramId)));
 
     if (!(diagram.nodes() instanceof DiagramNodes diagramNodes)) {
       throw new IllegalStateException("Diagram nodes association must be DiagramNodes.");
     }
 
-    transactionDecorator.execute(
-        () -> {
-          diagramNodes.promoteNodeLocalDataToLogicalEntitiesForPublish(projectId);
-          mapper.updateDiagramStatus(projectId, parsedDiagramId, Status.PUBLISHED);
-          return null;
-        });
+    timePublishPhase(
+        "transaction",
+        () ->
+            transactionDecorator.execute(
+                () -> {
+                  timePublishPhase(
+                      "promote",
+                      () -> {
+                        diagramNodes.promoteNodeLocalDataToLogicalEntitiesForPublish(projectId);
+                        return null;
+                      });
+                  return timePublishPhase(
+                      "status",
+                      () ->
+                          mapper.updateDiagramStatus(
+                              projectId, parsedDiagramId, Status.PUBLISHED));
+                }));
+  }
+
+  /**
+   * Records how long one phase of {@link #publishDiagram} took. The {@code transaction} phase
+   * spans {@code promote} and {@code status} plus the commit.
+   */
+  private <T> T timePublishPhase(String phase, Supplier<T> work) {
+    long startedAt = System.nanoTime();
+    try {
+      return work.get();
+    } finally {
+      MeterRegistry meterRegistry =
+          meterRegistryProvider == null ? null : meterRegistryProvider.getIfAvailable();
+      if (meterRegistry != null) {
+        Timer.builder("teamai.diagram.publish.phase.duration")
+            .tag("phase", phase)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      }
+    }
   }
 
   private void doCommitDraft(
@@ -0,0 +1,509 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import reengineering.ddd.archtype.JsonBlob;
+import reengineering.ddd.archtype.Ref;
+
+/**
+ * Encodes cached values into a compact binary form.
+ *
+ * <p>A payload is a format version followed by one tagged value. Strings of up to {@value
+ * #MAX_INTERNED_LENGTH} characters are written once per payload and referenced by index afterwards,
+ * so repeated node types, entity type names and reference ids cost one or two bytes each; decoding
+ * shares those strings between the decoded entries as well. Descriptions with a registered {@link
+ * DescriptionSchema} are written field by field without names. Other records, enums, lists and
+ * maps use a self-describing form, and anything else goes to the optional fallback codec.
+ */
+public class BinaryCacheValueCodec implements CacheValueCodec {
+  static final byte VERSION = 1;
+  static final int MAX_INTERNED_LENGTH = 64;
+
+  private static final int NULL = 0;
+  private static final int ENTRY = 1;
+  private static final int LIST = 2;
+  private static final int MAP = 3;
+  private static final int STRING = 4;
+  private static final int INT = 5;
+  private static final int LONG = 6;
+  private static final int DOUBLE = 7;
+  private static final int TRUE = 8;
+  private static final int FALSE = 9;
+  private static final int INSTANT = 10;
+  private static final int ENUM = 11;
+  private static final int REF = 12;
+  private static final int JSON_BLOB = 13;
+  private static final int SCHEMA = 14;
+  private static final int RECORD = 15;
+  private static final int FALLBACK = 16;
+
+  private final List<DescriptionSchema<?>> schemas;
+  private final Map<Class<?>, Integer> schemaIds = new IdentityHashMap<>();
+  private final CacheValueCodec fallback;
+  private final ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, RecordShape> recordShapes = new ConcurrentHashMap<>();
+
+  public BinaryCacheValueCodec() {
+    this(DescriptionSchemas.defaults(), null);
+  }
+
+  /**
+   * @param schemas schemas of the hot description types, identified by their position
+   * @param fallback codec for values this codec has no form for, null to reject them
+   */
+  public BinaryCacheValueCodec(List<DescriptionSchema<?>> schemas, CacheValueCodec fallback) {
+    this.schemas = List.copyOf(schemas);
+    this.fallback = fallback;
+    for (int i = 0; i < this.schemas.size(); i++) {
+      schemaIds.put(this.schemas.get(i).type(), i);
+    }
+  }
+
+  @Override
+  public byte[] encode(Object value) {
+    Output output = new Output();
+    output.writeByte(VERSION);
+    output.writeValue(value);
+    return output.toByteArray();
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    Input input = new Input(bytes);
+    try {
+      int version = input.readByte();
+      if (version != VERSION) {
+        throw new IllegalStateException("Unsupported cache value format version: " + version);
+      }
+      return input.readValue();
+    } catch (IndexOutOfBoundsException error) {
+      throw new IllegalStateException("Truncated cache value", error);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private void writeTagged(Output output, Object value) {
+    if (value == null) {
+      output.writeVarInt(NULL);
+    } else if (value instanceof CacheEntry<?, ?> entry) {
+      output.writeVarInt(ENTRY);
+      output.writeString(entry.entityType().getName());
+      output.writeValue(entry.identity());
+      output.writeValue(entry.description());
+      output.writeValue(entry.internalId());
+      output.writeVarInt(entry.nestedCollections().size());
+      for (Map.Entry<String, List<CacheEntry<?, ?>>> collection :
+          entry.nestedCollections().entrySet()) {
+        output.writeString(collection.getKey());
+        output.writeValue(collection.getValue());
+      }
+    } else if (value instanceof String string) {
+      output.writeVarInt(STRING);
+      output.writeString(string);
+    } else if (value instanceof Integer number) {
+      output.writeVarInt(INT);
+      output.writeInt(number);
+    } else if (value instanceof Long number) {
+      output.writeVarInt(LONG);
+      output.writeLong(number);
+    } else if (value instanceof Double number) {
+      output.writeVarInt(DOUBLE);
+      output.writeDouble(number);
+    } else if (value instanceof Boolean bool) {
+      output.writeVarInt(bool ? TRUE : FALSE);
+    } else if (value instanceof Instant instant) {
+      output.writeVarInt(INSTANT);
+      output.writeLong(instant.getEpochSecond());
+      output.writeInt(instant.getNano());
+    } else if (value instanceof Enum<?> constant) {
+      output.writeVarInt(ENUM);
+      output.writeString(constant.getDeclaringClass().getName());
+      output.writeString(constant.name());
+    } else if (value instanceof Ref<?> ref) {
+      output.writeVarInt(REF);
+      output.writeValue(ref.id());
+    } else if (value instanceof JsonBlob blob) {
+      output.writeVarInt(JSON_BLOB);
+      output.writeString(blob.json());
+    } else if (value instanceof List<?> list) {
+      output.writeVarInt(LIST);
+      output.writeVarInt(list.size());
+      for (Object item : list) {
+        output.writeValue(item);
+      }
+    } else if (value instanceof Map<?, ?> map) {
+      output.writeVarInt(MAP);
+      output.writeVarInt(map.size());
+      for (Map.Entry<?, ?> item : map.entrySet()) {
+        output.writeValue(item.getKey());
+        output.writeValue(item.getValue());
+      }
+    } else if (schemaIds.containsKey(value.getClass())) {
+      int schemaId = schemaIds.get(value.getClass());
+      output.writeVarInt(SCHEMA);
+      output.writeVarInt(schemaId);
+      ((DescriptionSchema) schemas.get(schemaId)).write(output, value);
+    } else if (value.getClass().isRecord()) {
+      output.writeVarInt(RECORD);
+      output.writeString(value.getClass().getName());
+      for (MethodHandle accessor : recordShape(value.getClass()).accessors()) {
+        output.writeValue(invoke(accessor, value));
+      }
+    } else if (fallback != null) {
+      byte[] bytes = fallback.encode(value);
+      output.writeVarInt(FALLBACK);
+      output.writeVarInt(bytes.length);
+      output.writeBytes(bytes);
+    } else {
+      throw new IllegalStateException(
+          "Unsupported cache value type: " + value.getClass().getName());
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object readTagged(Input input) {
+    int tag = input.readVarInt();
+    switch (tag) {
+      case NULL:
+        return null;
+      case ENTRY:
+        Class<?> entityType = classFor(input.readString());
+        Object identity = input.readValue();
+        Object description = input.readValue();
+        Object internalId = input.readValue();
+        int collectionCount = input.readVarInt();
+        Map<String, List<CacheEntry<?, ?>>> nestedCollections =
+            new LinkedHashMap<>(collectionCount * 2);
+        for (int i = 0; i < collectionCount; i++) {
+          nestedCollections.put(input.readString(), (List<CacheEntry<?, ?>>) input.readValue());
+        }
+        return new CacheEntry(entityType, identity, description, internalId, nestedCollections);
+      case STRING:
+        return input.readString();
+      case INT:
+        return input.readInt();
+      case LONG:
+        return input.readLong();
+      case DOUBLE:
+        return input.readDouble();
+      case TRUE:
+        return Boolean.TRUE;
+      case FALSE:
+        return Boolean.FALSE;
+      case INSTANT:
+        return Instant.ofEpochSecond(input.readLong(), input.readInt());
+      case ENUM:
+        return Enum.valueOf((Class) classFor(input.readString()), input.readString());
+      case REF:
+        return new Ref<>(input.readValue());
+      case JSON_BLOB:
+        return new JsonBlob(input.readString());
+      case LIST:
+        int size = input.readVarInt();
+        List<Object> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          items.add(input.readValue());
+        }
+        return items;
+      case MAP:
+        int entryCount = input.readVarInt();
+        Map<Object, Object> map = new LinkedHashMap<>(entryCount * 2);
+        for (int i = 0; i < entryCount; i++) {
+          map.put(input.readValue(), input.readValue());
+        }
+        return map;
+      case SCHEMA:
+        return schemas.get(input.readVarInt()).read(input);
+      case RECORD:
+        RecordShape shape = recordShape(classFor(input.readString()));
+        Object[] components = new Object[shape.accessors().size()];
+        for (int i = 0; i < components.length; i++) {
+          components[i] = input.readValue();
+        }
+        return construct(shape, components);
+      case FALLBACK:
+        if (fallback == null) {
+          throw new IllegalStateException("Cache value requires a fallback codec");
+        }
+        return fallback.decode(input.readBytes(input.readVarInt()));
+      default:
+        throw new IllegalStateException("Unknown cache value tag: " + tag);
+    }
+  }
+
+  private Class<?> classFor(String name) {
+    return classes.computeIfAbsent(
+        name,
+        key -> {
+          try {
+            return Class.forName(key);
+          } catch (ClassNotFoundException error) {
+            throw new IllegalStateException("Unknown cached type: " + key, error);
+          }
+        });
+  }
+
+  private RecordShape recordShape(Class<?> recordType) {
+    return recordShapes.computeIfAbsent(recordType, RecordShape::of);
+  }
+
+  private static Object invoke(MethodHandle accessor, Object record) {
+    try {
+      return accessor.invoke(record);
+    } catch (RuntimeException | Error error) {
+      throw error;
+    } catch (Throwable error) {
+      throw new IllegalStateException("Failed to read record component", error);
+    }
+  }
+
+  private static Object construct(RecordShape shape, Object[] components) {
+    try {
+      return shape.constructor().invokeWithArguments(components);
+    } catch (RuntimeException | Error error) {
+      throw error;
+    } catch (Throwable error) {
+      throw new IllegalStateException("Failed to construct cached record", error);
+    }
+  }
+
+  private record RecordShape(List<MethodHandle> accessors, MethodHandle constructor) {
+    static RecordShape of(Class<?> recordType) {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      RecordComponent[] components = recordType.getRecordComponents();
+      try {
+        List<MethodHandle> accessors = new ArrayList<>(components.length);
+        for (RecordComponent component : components) {
+          component.getAccessor().trySetAccessible();
+          accessors.add(lookup.unreflect(component.getAccessor()));
+        }
+        Class<?>[] parameterTypes =
+            Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+        var constructor = recordType.getDeclaredConstructor(parameterTypes);
+        constructor.trySetAccessible();
+        return new RecordShape(List.copyOf(accessors), lookup.unreflectConstructor(constructor));
+      } catch (ReflectiveOperationException error) {
+        throw new IllegalStateException("Cannot access record " + recordType.getName(), error);
+      }
+    }
+  }
+
+  /** Write side of a payload, handed to {@link DescriptionSchema}s. */
+  public final class Output {
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] buffer = new byte[256];
+    private int position;
+
+    private Output() {}
+
+    public void writeValue(Object value) {
+      writeTagged(this, value);
+    }
+
+    public void writeString(String value) {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      boolean interned = value.length() <= MAX_INTERNED_LENGTH;
+      if (interned) {
+        Integer index = strings.get(value);
+        if (index != null) {
+          writeVarInt(index + 3);
+          return;
+        }
+        strings.put(value, strings.size());
+      }
+      writeVarInt(interned ? 2 : 1);
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(utf8.length);
+      writeBytes(utf8);
+    }
+
+    public void writeStringRef(Ref<String> ref) {
+      writeBoolean(ref != null);
+      if (ref != null) {
+        writeString(ref.id());
+      }
+    }
+
+    public void writeJsonBlob(JsonBlob blob) {
+      writeBoolean(blob != null);
+      if (blob != null) {
+        writeString(blob.json());
+      }
+    }
+
+    public void writeEnum(Enum<?> value) {
+      writeString(value == null ? null : value.name());
+    }
+
+    public void writeBoolean(boolean value) {
+      writeByte(value ? 1 : 0);
+    }
+
+    public void writeInt(int value) {
+      writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeLong(long value) {
+      long zigzag = (value << 1) ^ (value >> 63);
+      while ((zigzag & ~0x7FL) != 0) {
+        writeByte((int) ((zigzag & 0x7F) | 0x80));
+        zigzag >>>= 7;
+      }
+      writeByte((int) zigzag);
+    }
+
+    public void writeDouble(double value) {
+      long bits = Double.doubleToRawLongBits(value);
+      ensureCapacity(Long.BYTES);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        buffer[position++] = (byte) (bits >>> shift);
+      }
+    }
+
+    void writeVarInt(int value) {
+      while ((value & ~0x7F) != 0) {
+        writeByte((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      writeByte(value);
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[position++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes) {
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int length) {
+      if (position + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+      }
+    }
+  }
+
+  /** Read side of a payload, handed to {@link DescriptionSchema}s. */
+  public final class Input {
+    private final List<String> strings = new ArrayList<>();
+    private final byte[] buffer;
+    private int position;
+
+    private Input(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    public Object readValue() {
+      return readTagged(this);
+    }
+
+    public String readString() {
+      int marker = readVarInt();
+      if (marker == 0) {
+        return null;
+      }
+      if (marker >= 3) {
+        return strings.get(marker - 3);
+      }
+      int length = readVarInt();
+      String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+      position += length;
+      if (marker == 2) {
+        strings.add(value);
+      }
+      return value;
+    }
+
+    public Ref<String> readStringRef() {
+      return readBoolean() ? new Ref<>(readString()) : null;
+    }
+
+    public JsonBlob readJsonBlob() {
+      return readBoolean() ? new JsonBlob(readString()) : null;
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+      String name = readString();
+      return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    public boolean readBoolean() {
+      return readByte() != 0;
+    }
+
+    public int readInt() {
+      int zigzag = readVarInt();
+      return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public long readLong() {
+      long zigzag = 0;
+      int shift = 0;
+      int current;
+      do {
+        current = readByte();
+        zigzag |= (long) (current & 0x7F) << shift;
+        shift += 7;
+      } while ((current & 0x80) != 0);
+      return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public double readDouble() {
+      long bits = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        bits = (bits << 8) | readByte();
+      }
+      return Double.longBitsToDouble(bits);
+    }
+
+    int readVarInt() {
+      int value = 0;
+      int shift = 0;
+      int current;
+      do {
+        current = readByte();
+        value |= (current & 0x7F) << shift;
+        shift += 7;
+      } while ((current & 0x80) != 0);
+      return value;
+    }
+
+    int readByte() {
+      if (position >= buffer.length) {
+        throw new IndexOutOfBoundsException("Read past end of cache value");
+      }
+      return buffer[position++] & 0xFF;
+    }
+
+    byte[] readBytes(int length) {
+      if (length > buffer.length - position) {
+        throw new IndexOutOfBoundsException("Read past end of cache value");
+      }
+      byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+      position += length;
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import reengineering.ddd.archtype.JsonBlob;
+import reengineering.ddd.archtype.Ref;
+
+/**
+ * Estimates the retained heap size in bytes of a cached value.
+ *
+ * <p>The estimate walks the {@link CacheEntry} tree including description records and nested
+ * collections. It is deliberately approximate (compressed oops, no alignment) but proportional to
+ * the real footprint, which is what a byte-bounded cache needs.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+  private static final int OBJECT_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int STRING_OVERHEAD = 40;
+  private static final int BOXED = 16;
+  private static final int ARRAY_OVERHEAD = 16;
+  private static final int COLLECTION_OVERHEAD = 40;
+  private static final int MAP_ENTRY = 32;
+  private static final int MAX_DEPTH = 16;
+
+  private final Map<Class<?>, List<Method>> recordAccessors = new ConcurrentHashMap<>();
+
+  @Override
+  public int weigh(Object key, Object value) {
+    return (int) Math.min(Integer.MAX_VALUE, estimate(value));
+  }
+
+  public long estimate(Object value) {
+    return estimate(value, 0);
+  }
+
+  private long estimate(Object value, int depth) {
+    if (value == null || value instanceof Enum<?> || value instanceof Class<?>) {
+      return 0;
+    }
+    if (depth > MAX_DEPTH) {
+      return OBJECT_HEADER;
+    }
+    if (value instanceof CompactCacheValue compact) {
+      return OBJECT_HEADER + REFERENCE + ARRAY_OVERHEAD + compact.bytes().length;
+    }
+    if (value instanceof CacheEntry<?, ?> entry) {
+      return OBJECT_HEADER
+          + 5 * REFERENCE
+          + estimate(entry.identity(), depth + 1)
+          + estimate(entry.description(), depth + 1)
+          + estimate(entry.internalId(), depth + 1)
+          + estimate(entry.nestedCollections(), depth + 1);
+    }
+    if (value instanceof String string) {
+      return STRING_OVERHEAD + string.length();
+    }
+    if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+      return BOXED;
+    }
+    if (value instanceof Ref<?> ref) {
+      return OBJECT_HEADER + REFERENCE + estimate(ref.id(), depth + 1);
+    }
+    if (value instanceof JsonBlob blob) {
+      return OBJECT_HEADER + REFERENCE + estimate(blob.json(), depth + 1);
+    }
+    if (value instanceof Collection<?> collection) {
+      long size = COLLECTION_OVERHEAD + (long) REFERENCE * collection.size();
+      for (Object element : collection) {
+        size += estimate(element, depth + 1);
+      }
+      return size;
+    }
+    if (value instanceof Map<?, ?> map) {
+      long size = COLLECTION_OVERHEAD + (long) MAP_ENTRY * map.size();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        size += estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+      }
+      return size;
+    }
+    if (value.getClass().isRecord()) {
+      return estimateRecord(value, depth);
+    }
+    return OBJECT_HEADER + 2 * REFERENCE;
+  }
+
+  private long estimateRecord(Object record, int depth) {
+    List<Method> accessors = recordAccessors.computeIfAbsent(record.getClass(), this::accessors);
+    long size = OBJECT_HEADER + (long) REFERENCE * accessors.size();
+    for (Method accessor : accessors) {
+      try {
+        size += estimate(accessor.invoke(record), depth + 1);
+      } catch (ReflectiveOperationException e) {
+        size += OBJECT_HEADER;
+      }
+    }
+    return size;
+  }
+
+  private List<Method> accessors(Class<?> recordType) {
+    RecordComponent[] components = recordType.getRecordComponents();
+    Method[] accessors = new Method[components.length];
+    for (int i = 0; i < components.length; i++) {
+      accessors[i] = components[i].getAccessor();
+      accessors[i].trySetAccessible();
+    }
+    return List.of(accessors);
+  }
+}
@@ -0,0 +1,38 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+/**
+ * Invalidation broadcast to the other nodes after a local eviction.
+ *
+ * @param origin node that evicted, used to skip own messages
+ * @param cacheName evicted cache
+ * @param scope what {@code key} addresses
+ * @param key evicted key, the parent of the evicted keys, or null when the cache was cleared
+ */
+public record CacheInvalidation(String origin, String cacheName, Scope scope, String key) {
+  private static final String SEPARATOR = "|";
+
+  public enum Scope {
+    KEY,
+    PARENT,
+    ALL
+  }
+
+  public String encode() {
+    return origin
+        + SEPARATOR
+        + cacheName
+        + SEPARATOR
+        + scope
+        + SEPARATOR
+        + (key == null ? "" : key);
+  }
+
+  public static CacheInvalidation decode(String payload) {
+    String[] parts = payload.split("\\|", 4);
+    if (parts.length != 4) {
+      throw new IllegalArgumentException("Malformed cache invalidation: " + payload);
+    }
+    return new CacheInvalidation(
+        parts[0], parts[1], Scope.valueOf(parts[2]), parts[3].isEmpty() ? null : parts[3]);
+  }
+}
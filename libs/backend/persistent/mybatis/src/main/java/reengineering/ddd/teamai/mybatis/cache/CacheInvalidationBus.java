@@ -0,0 +1,10 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.function.Consumer;
+
+/** Delivers {@link CacheInvalidation}s to every node, including the publishing one. */
+public interface CacheInvalidationBus {
+  void publish(CacheInvalidation invalidation);
+
+  void subscribe(Consumer<CacheInvalidation> subscriber);
+}
@@ -0,0 +1,156 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Secondary index of cache keys grouped by their parent segment.
+ *
+ * <p>Keys follow the {@code parent[:child...]} convention used by the association caches, e.g.
+ * {@code 42}, {@code 42:7} and {@code 42:size} all belong to parent {@code 42}. Evicting {@link
+ * AllKeys} of a parent only touches the keys recorded for the parent instead of scanning or
+ * clearing the whole cache.
+ *
+ * <p>Every update of a parent's keys runs under that parent's lock, but writes registered through
+ * {@link #register(Object, Runnable)} run outside it so that encoding or storing a value never
+ * blocks other keys. The key is recorded before the write and confirmed after it; a removal of the
+ * key or its parent in between makes the confirmation fail and the caller drops what it wrote.
+ */
+public class CacheKeyIndex {
+
+  static final char SEPARATOR = ':';
+
+  /**
+   * SpEL prefix of a cache key addressing every key of a parent, e.g. {@code key = ALL_KEYS_OF +
+   * "(#root.target.diagramId)"}.
+   */
+  public static final String ALL_KEYS_OF =
+      "T(reengineering.ddd.teamai.mybatis.cache.CacheKeyIndex).allKeysOf";
+
+  private final ConcurrentMap<String, Keys> keysByParent = new ConcurrentHashMap<>();
+
+  /** Cache key addressing every key registered under {@code parent}. */
+  public record AllKeys(String parent) {}
+
+  public static AllKeys allKeysOf(Object parent) {
+    return new AllKeys(String.valueOf(parent));
+  }
+
+  public void register(Object key) {
+    keysByParent.compute(parentOf(key), (parent, keys) -> add(keys, key));
+  }
+
+  /**
+   * Records {@code key}, runs {@code write} outside the parent's lock and confirms the key is still
+   * recorded.
+   *
+   * @return false when the key or its parent was removed while {@code write} ran, in which case the
+   *     written value may be stale and must be dropped by the caller
+   */
+  public boolean register(Object key, Runnable write) {
+    String parentKey = parentOf(key);
+    Keys[] recorded = new Keys[1];
+    long[] removals = new long[1];
+    keysByParent.compute(
+        parentKey,
+        (parent, keys) -> {
+          recorded[0] = add(keys, key);
+          removals[0] = recorded[0].removals;
+          return recorded[0];
+        });
+    try {
+      write.run();
+    } catch (RuntimeException error) {
+      unregister(key);
+      throw error;
+    }
+    boolean[] confirmed = new boolean[1];
+    keysByParent.computeIfPresent(
+        parentKey,
+        (parent, keys) -> {
+          confirmed[0] = keys == recorded[0] && keys.removals == removals[0];
+          return keys;
+        });
+    return confirmed[0];
+  }
+
+  public void unregister(Object key) {
+    unregisterIf(key, registered -> true);
+  }
+
+  /** Drops {@code key} from the index if {@code condition} holds for it at that moment. */
+  public void unregisterIf(Object key, Predicate<Object> condition) {
+    keysByParent.computeIfPresent(
+        parentOf(key),
+        (parent, keys) -> {
+          if (keys.keys.contains(key) && condition.test(key)) {
+            keys.keys.remove(key);
+            keys.removals++;
+          }
+          return keys.keys.isEmpty() ? null : keys;
+        });
+  }
+
+  /**
+   * Removes and returns every key registered under the given parent.
+   *
+   * @param parent parent segment of the keys
+   * @return removed keys, empty when nothing was registered
+   */
+  public Set<Object> removeParent(String parent) {
+    Keys keys = keysByParent.remove(parent);
+    return keys != null ? keys.keys : Set.of();
+  }
+
+  /**
+   * Removes and returns the registered keys whose string form equals {@code key}, resolving keys
+   * received as text (e.g. from other nodes) to the key objects used locally.
+   */
+  public Set<Object> removeMatching(String key) {
+    Set<Object> removed = ConcurrentHashMap.newKeySet();
+    keysByParent.computeIfPresent(
+        parentOf(key),
+        (parent, keys) -> {
+          if (keys.keys.removeIf(
+              registered -> {
+                boolean matches = key.equals(String.valueOf(registered));
+                if (matches) {
+                  removed.add(registered);
+                }
+                return matches;
+              })) {
+            keys.removals++;
+          }
+          return keys.keys.isEmpty() ? null : keys;
+        });
+    return removed;
+  }
+
+  public int size() {
+    return keysByParent.values().stream().mapToInt(keys -> keys.keys.size()).sum();
+  }
+
+  public void clear() {
+    keysByParent.clear();
+  }
+
+  private static Keys add(Keys keys, Object key) {
+    Keys added = keys != null ? keys : new Keys();
+    added.keys.add(key);
+    return added;
+  }
+
+  static String parentOf(Object key) {
+    String value = String.valueOf(key);
+    int separatorIndex = value.indexOf(SEPARATOR);
+    return separatorIndex < 0 ? value : value.substring(0, separatorIndex);
+  }
+
+  /** Keys of one parent; {@code removals} counts removals so a pending write can detect them. */
+  private static final class Keys {
+    private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+    private long removals;
+  }
+}
@@ -0,0 +1,50 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.time.Duration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Sizing and expiry policy of a named cache.
+ *
+ * <p>Either {@code maximumSize} (entry count) or {@code maximumWeight} (estimated bytes of the
+ * cached {@link CacheEntry} tree, see {@link CacheEntryWeigher}) bounds the cache; when both are
+ * set the weight wins. Cached methods load their own values, so {@code refreshAfterWrite} drops an
+ * aged entry and the next read reloads it through the cached method before {@code
+ * expireAfterWrite} is reached. With {@code compact} the entity entries are held in the binary
+ * form of {@link BinaryCacheValueCodec} and decoded on read, trading decode time for heap.
+ *
+ * @param expireAfterWrite hard time-to-live of an entry
+ * @param refreshAfterWrite age after which an entry is dropped and reloaded, null to disable
+ * @param maximumSize maximum number of entries
+ * @param maximumWeight maximum estimated heap size of all entries
+ * @param compact whether entity entries are stored encoded
+ */
+public record CachePolicy(
+    Duration expireAfterWrite,
+    Duration refreshAfterWrite,
+    Long maximumSize,
+    DataSize maximumWeight,
+    Boolean compact) {
+
+  public static final CachePolicy DEFAULT =
+      new CachePolicy(Duration.ofMinutes(10), null, 10_000L, null, false);
+
+  public boolean weighted() {
+    return maximumWeight != null;
+  }
+
+  public boolean compacted() {
+    return Boolean.TRUE.equals(compact);
+  }
+
+  /** Fills the settings missing from this policy with those of {@code defaults}. */
+  public CachePolicy withDefaults(CachePolicy defaults) {
+    boolean bounded = maximumSize != null || maximumWeight != null;
+    return new CachePolicy(
+        expireAfterWrite != null ? expireAfterWrite : defaults.expireAfterWrite(),
+        refreshAfterWrite != null ? refreshAfterWrite : defaults.refreshAfterWrite(),
+        bounded ? maximumSize : defaults.maximumSize(),
+        bounded ? maximumWeight : defaults.maximumWeight(),
+        compact != null ? compact : defaults.compact());
+  }
+}
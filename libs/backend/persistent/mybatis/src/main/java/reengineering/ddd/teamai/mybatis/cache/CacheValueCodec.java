@@ -0,0 +1,8 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+/** Encodes cached values (CacheEntry trees, lists and plain values) for the shared tier. */
+public interface CacheValueCodec {
+  byte[] encode(Object value);
+
+  Object decode(byte[] bytes);
+}
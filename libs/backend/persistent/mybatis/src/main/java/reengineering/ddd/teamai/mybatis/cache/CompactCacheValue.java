@@ -0,0 +1,8 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+/**
+ * Cached value kept in its encoded form and decoded only when read.
+ *
+ * @param bytes value encoded by {@link BinaryCacheValueCodec}
+ */
+public record CompactCacheValue(byte[] bytes) {}
@@ -0,0 +1,42 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Field-by-field binary layout of a description record, written without field or type names.
+ *
+ * <p>Changing a layout, or the order in which schemas are registered, changes the payload format;
+ * {@link BinaryCacheValueCodec#VERSION} must be bumped with it.
+ *
+ * @param <D> description record type
+ */
+public interface DescriptionSchema<D> {
+  Class<D> type();
+
+  void write(BinaryCacheValueCodec.Output output, D description);
+
+  D read(BinaryCacheValueCodec.Input input);
+
+  static <D> DescriptionSchema<D> of(
+      Class<D> type,
+      BiConsumer<BinaryCacheValueCodec.Output, D> writer,
+      Function<BinaryCacheValueCodec.Input, D> reader) {
+    return new DescriptionSchema<>() {
+      @Override
+      public Class<D> type() {
+        return type;
+      }
+
+      @Override
+      public void write(BinaryCacheValueCodec.Output output, D description) {
+        writer.accept(output, description);
+      }
+
+      @Override
+      public D read(BinaryCacheValueCodec.Input input) {
+        return reader.apply(input);
+      }
+    };
+  }
+}
@@ -0,0 +1,85 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.List;
+import reengineering.ddd.teamai.description.EdgeDescription;
+import reengineering.ddd.teamai.description.EntityDefinition;
+import reengineering.ddd.teamai.description.LogicalEntityDescription;
+import reengineering.ddd.teamai.description.NodeDescription;
+
+/** Schemas of the descriptions cached in bulk with diagrams. */
+public final class DescriptionSchemas {
+
+  public static final DescriptionSchema<NodeDescription> NODE =
+      DescriptionSchema.of(
+          NodeDescription.class,
+          (output, node) -> {
+            output.writeString(node.type());
+            output.writeStringRef(node.logicalEntity());
+            output.writeStringRef(node.parent());
+            output.writeDouble(node.positionX());
+            output.writeDouble(node.positionY());
+            output.writeValue(node.width());
+            output.writeValue(node.height());
+            output.writeJsonBlob(node.styleConfig());
+            output.writeJsonBlob(node.localData());
+          },
+          input ->
+              new NodeDescription(
+                  input.readString(),
+                  input.readStringRef(),
+                  input.readStringRef(),
+                  input.readDouble(),
+                  input.readDouble(),
+                  (Integer) input.readValue(),
+                  (Integer) input.readValue(),
+                  input.readJsonBlob(),
+                  input.readJsonBlob()));
+
+  public static final DescriptionSchema<EdgeDescription> EDGE =
+      DescriptionSchema.of(
+          EdgeDescription.class,
+          (output, edge) -> {
+            output.writeStringRef(edge.sourceNode());
+            output.writeStringRef(edge.targetNode());
+            output.writeString(edge.sourceHandle());
+            output.writeString(edge.targetHandle());
+            output.writeString(edge.relationType());
+            output.writeString(edge.label());
+            output.writeJsonBlob(edge.styleProps());
+            output.writeValue(edge.hidden());
+          },
+          input ->
+              new EdgeDescription(
+                  input.readStringRef(),
+                  input.readStringRef(),
+                  input.readString(),
+                  input.readString(),
+                  input.readString(),
+                  input.readString(),
+                  input.readJsonBlob(),
+                  (Boolean) input.readValue()));
+
+  public static final DescriptionSchema<LogicalEntityDescription> LOGICAL_ENTITY =
+      DescriptionSchema.of(
+          LogicalEntityDescription.class,
+          (output, entity) -> {
+            output.writeEnum(entity.type());
+            output.writeValue(entity.subType());
+            output.writeString(entity.name());
+            output.writeString(entity.label());
+            output.writeValue(entity.definition());
+          },
+          input ->
+              new LogicalEntityDescription(
+                  input.readEnum(LogicalEntityDescription.Type.class),
+                  (LogicalEntityDescription.SubType) input.readValue(),
+                  input.readString(),
+                  input.readString(),
+                  (EntityDefinition) input.readValue()));
+
+  private DescriptionSchemas() {}
+
+  public static List<DescriptionSchema<?>> defaults() {
+    return List.of(NODE, EDGE, LOGICAL_ENTITY);
+  }
+}
@@ -1,34 +1,42 @@
 package reengineering.ddd.teamai.mybatis.cache;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandle;
 import java.util.List;
 
 /**
- * Cached reflection metadata for entities, avoiding repeated reflection lookups.
+ * Cached accessor metadata for entities, avoiding repeated reflection lookups.
+ *
+ * <p>All handles are resolved once per entity type and adapted to erased {@code Object} signatures,
+ * so they can be invoked with {@code invokeExact}.
  *
  * @param entityType entity class type
- * @param constructor constructor for creating entity instances
+ * @param constructor {@code (Object[]) -> Object} handle creating entity instances
  * @param associations list of association field metadata
  */
 public record EntityMetadata(
-    Class<?> entityType, Constructor<?> constructor, List<AssociationFieldMeta> associations) {
+    Class<?> entityType, MethodHandle constructor, List<AssociationFieldMeta> associations) {
 
   /**
    * Association field metadata.
    *
    * @param fieldName field name in entity
    * @param associationType association implementation class
-   * @param parentIdField parent ID field
+   * @param fieldGetter {@code (Object) -> Object} reading the association from the entity
+   * @param parentIdSetter {@code (Object, Object) -> void} writing the parent ID of the association
    * @param eager whether eager loading
-   * @param listField list field of memory.EntityList (only used when eager=true)
+   * @param listGetter reads the list of memory.EntityList (only used when eager=true)
+   * @param listSetter writes the list of memory.EntityList (only used when eager=true)
+   * @param hasOne whether the association is a has-one reference
+   * @param hasOneEntitySetter writes the referenced entity (only used when hasOne=true)
    */
   public record AssociationFieldMeta(
       String fieldName,
       Class<?> associationType,
-      Field parentIdField,
+      MethodHandle fieldGetter,
+      MethodHandle parentIdSetter,
       boolean eager,
-      Field listField,
+      MethodHandle listGetter,
+      MethodHandle listSetter,
       boolean hasOne,
-      Field hasOneEntityField) {}
+      MethodHandle hasOneEntitySetter) {}
 }
@@ -1,6 +1,9 @@
 package reengineering.ddd.teamai.mybatis.cache;
 
 import jakarta.annotation.PostConstruct;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -28,6 +31,11 @@ public class GenericEntityHydrator {
 
   private static final String MEMORY_ENTITY_LIST_CLASS =
       "reengineering.ddd.mybatis.memory.EntityList";
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType CONSTRUCTOR_TYPE =
+      MethodType.methodType(Object.class, Object[].class);
 
   private final Supplier<InjectableObjectFactory> objectFactorySupplier;
   private final Map<Class<?>, EntityMetadata> metadataCache = new ConcurrentHashMap<>();
@@ -72,6 +80,7 @@ public class GenericEntityHydrator {
     }
 
     registerLeafEntities();
+    entityTypes.forEach(this::getOrCreateMetadata);
   }
 
   private void registerLeafEntities() {
@@ -119,38 +128,31 @@ public class GenericEntityHydrator {
     Map<String, List<CacheEntry<?, ?>>> nestedCollections = new HashMap<>();
 
     for (EntityMetadata.AssociationFieldMeta meta : metadata.associations()) {
-      try {
-        Field field = entity.getClass().getDeclaredField(meta.fieldName());
-        field.setAccessible(true);
-        Object association = field.get(entity);
-
-        if (meta.hasOne()) {
-          List<CacheEntry<?, ?>> nestedEntries = new ArrayList<>();
-          if (association instanceof HasOne<?> hasOne) {
-            Object nestedEntity = hasOne.get();
-            if (nestedEntity instanceof Entity<?, ?> nested) {
-              nestedEntries.add(extract(nested));
-            }
+      Object association = read(meta.fieldGetter(), entity, meta.fieldName());
+
+      if (meta.hasOne()) {
+        List<CacheEntry<?, ?>> nestedEntries = new ArrayList<>();
+        if (association instanceof HasOne<?> hasOne) {
+          Object nestedEntity = hasOne.get();
+          if (nestedEntity instanceof Entity<?, ?> nested) {
+            nestedEntries.add(extract(nested));
           }
-          nestedCollections.put(meta.fieldName(), nestedEntries);
-          continue;
         }
+        nestedCollections.put(meta.fieldName(), nestedEntries);
+        continue;
+      }
 
-        if (meta.eager() && isMemoryEntityList(association)) {
-          List<?> nestedEntities = extractListFromMemoryEntityList(association);
-          List<CacheEntry<?, ?>> nestedEntries = new ArrayList<>();
+      if (meta.eager() && meta.listGetter() != null && isMemoryEntityList(association)) {
+        List<?> nestedEntities = (List<?>) read(meta.listGetter(), association, "list");
+        List<CacheEntry<?, ?>> nestedEntries = new ArrayList<>();
 
-          for (Object nestedEntity : nestedEntities) {
-            if (nestedEntity instanceof Entity<?, ?> nested) {
-              nestedEntries.add(extract(nested));
-            }
+        for (Object nestedEntity : nestedEntities) {
+          if (nestedEntity instanceof Entity<?, ?> nested) {
+            nestedEntries.add(extract(nested));
           }
-
-          nestedCollections.put(meta.fieldName(), nestedEntries);
         }
-      } catch (ReflectiveOperationException e) {
-        throw new IllegalStateException(
-            "Failed to extract nested collection: " + meta.fieldName(), e);
+
+        nestedCollections.put(meta.fieldName(), nestedEntries);
       }
     }
 
@@ -171,25 +173,27 @@ public class GenericEntityHydrator {
     Class<E> entityType = (Class<E>) entry.entityType();
     EntityMetadata metadata = getOrCreateMetadata(entityType);
 
-    try {
-      Object[] args = new Object[2 + metadata.associations().size()];
-      args[0] = entry.identity();
-      args[1] = entry.description();
-
-      for (int i = 0; i < metadata.associations().size(); i++) {
-        EntityMetadata.AssociationFieldMeta assocMeta = metadata.associations().get(i);
-
-        if (assocMeta.hasOne()) {
-          args[2 + i] = createHasOneAssociation(assocMeta, entry.nestedCollections());
-        } else if (assocMeta.eager()) {
-          args[2 + i] = createEagerAssociation(assocMeta, entry.nestedCollections());
-        } else {
-          args[2 + i] = createLazyAssociation(assocMeta, entry.internalId());
-        }
+    Object[] args = new Object[2 + metadata.associations().size()];
+    args[0] = entry.identity();
+    args[1] = entry.description();
+
+    for (int i = 0; i < metadata.associations().size(); i++) {
+      EntityMetadata.AssociationFieldMeta assocMeta = metadata.associations().get(i);
+
+      if (assocMeta.hasOne()) {
+        args[2 + i] = createHasOneAssociation(assocMeta, entry.nestedCollections());
+      } else if (assocMeta.eager()) {
+        args[2 + i] = createEagerAssociation(assocMeta, entry.nestedCollections());
+      } else {
+        args[2 + i] = createLazyAssociation(assocMeta, entry.internalId());
       }
+    }
 
-      return (E) metadata.constructor().newInstance(args);
-    } catch (ReflectiveOperationException e) {
+    try {
+      return (E) (Object) metadata.constructor().invokeExact(args);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
       throw new IllegalStateException("Failed to hydrate: " + entityType.getName(), e);
     }
   }
@@ -201,66 +205,66 @@ public class GenericEntityHydrator {
 
   @SuppressWarnings("unchecked")
   private Object createLazyAssociation(EntityMetadata.AssociationFieldMeta meta, Object parentId) {
-    try {
-      InjectableObjectFactory factory = objectFactorySupplier.get();
-      Object association = factory.create((Class<Object>) meta.associationType());
-
-      if (parentId instanceof Integer intId) {
-        meta.parentIdField().setInt(association, intId);
-      } else if (parentId instanceof Long longId) {
-        meta.parentIdField().setLong(association, longId);
-      } else {
-        meta.parentIdField().set(association, parentId);
-      }
-
-      return association;
-    } catch (ReflectiveOperationException e) {
-      throw new IllegalStateException("Failed to create lazy association", e);
-    }
+    InjectableObjectFactory factory = objectFactorySupplier.get();
+    Object association = factory.create((Class<Object>) meta.associationType());
+    write(meta.parentIdSetter(), association, parentId, meta.fieldName());
+    return association;
   }
 
   @SuppressWarnings("unchecked")
   private Object createEagerAssociation(
       EntityMetadata.AssociationFieldMeta meta,
       Map<String, List<CacheEntry<?, ?>>> nestedCollections) {
-    try {
-      InjectableObjectFactory factory = objectFactorySupplier.get();
-      Object association = factory.create((Class<Object>) meta.associationType());
-
-      List<CacheEntry<?, ?>> nestedEntries =
-          nestedCollections.getOrDefault(meta.fieldName(), List.of());
+    InjectableObjectFactory factory = objectFactorySupplier.get();
+    Object association = factory.create((Class<Object>) meta.associationType());
 
-      List<Object> hydratedEntities = new ArrayList<>();
-      for (CacheEntry<?, ?> nestedEntry : nestedEntries) {
-        hydratedEntities.add(hydrate(nestedEntry));
-      }
+    List<CacheEntry<?, ?>> nestedEntries =
+        nestedCollections.getOrDefault(meta.fieldName(), List.of());
 
-      if (meta.listField() != null) {
-        meta.listField().set(association, hydratedEntities);
-      }
+    List<Object> hydratedEntities = new ArrayList<>(nestedEntries.size());
+    for (CacheEntry<?, ?> nestedEntry : nestedEntries) {
+      hydratedEntities.add(hydrate(nestedEntry));
+    }
 
-      return association;
-    } catch (ReflectiveOperationException e) {
-      throw new IllegalStateException("Failed to create eager association", e);
+    if (meta.listSetter() != null) {
+      write(meta.listSetter(), association, hydratedEntities, meta.fieldName());
     }
+
+    return association;
   }
 
   @SuppressWarnings("unchecked")
   private Object createHasOneAssociation(
       EntityMetadata.AssociationFieldMeta meta,
       Map<String, List<CacheEntry<?, ?>>> nestedCollections) {
+    InjectableObjectFactory factory = objectFactorySupplier.get();
+    Object association = factory.create((Class<Object>) meta.associationType());
+    List<CacheEntry<?, ?>> nestedEntries =
+        nestedCollections.getOrDefault(meta.fieldName(), List.of());
+    if (!nestedEntries.isEmpty() && meta.hasOneEntitySetter() != null) {
+      Object entity = hydrate(nestedEntries.get(0));
+      write(meta.hasOneEntitySetter(), association, entity, meta.fieldName());
+    }
+    return association;
+  }
+
+  private static Object read(MethodHandle getter, Object target, String fieldName) {
     try {
-      InjectableObjectFactory factory = objectFactorySupplier.get();
-      Object association = factory.create((Class<Object>) meta.associationType());
-      List<CacheEntry<?, ?>> nestedEntries =
-          nestedCollections.getOrDefault(meta.fieldName(), List.of());
-      if (!nestedEntries.isEmpty() && meta.hasOneEntityField() != null) {
-        Object entity = hydrate(nestedEntries.get(0));
-        meta.hasOneEntityField().set(association, entity);
-      }
-      return association;
-    } catch (ReflectiveOperationException e) {
-      throw new IllegalStateException("Failed to create has-one association", e);
+      return (Object) getter.invokeExact(target);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException("Failed to read field: " + fieldName, e);
+    }
+  }
+
+  private static void write(MethodHandle setter, Object target, Object value, String fieldName) {
+    try {
+      setter.invokeExact(target, value);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException("Failed to write field: " + fieldName, e);
     }
   }
 
@@ -276,23 +280,31 @@ public class GenericEntityHydrator {
     }
 
     try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
       Class<?> descriptionType = entityType.getMethod("getDescription").getReturnType();
       Constructor<?> constructor = findTargetConstructor(entityType, descriptionType);
+      MethodHandle constructorHandle =
+          lookup
+              .unreflectConstructor(constructor)
+              .asSpreader(Object[].class, constructor.getParameterCount())
+              .asType(CONSTRUCTOR_TYPE);
       List<Field> constructorAssociationFields =
           resolveConstructorAssociationFields(entityType, constructor);
 
       List<EntityMetadata.AssociationFieldMeta> assocMetas = new ArrayList<>();
       for (Field entityField : constructorAssociationFields) {
+        MethodHandle fieldGetter = getter(lookup, entityField);
         AssociationConfig config = configByFieldName.get(entityField.getName());
         if (config != null) {
           Field parentIdField = config.associationType().getDeclaredField(config.parentIdField());
-          parentIdField.setAccessible(true);
 
-          Field listField = null;
+          MethodHandle listGetter = null;
+          MethodHandle listSetter = null;
           if (config.eager()) {
-            listField = findListField(config.associationType());
+            Field listField = findListField(config.associationType());
             if (listField != null) {
-              listField.setAccessible(true);
+              listGetter = getter(lookup, listField);
+              listSetter = setter(lookup, listField);
             }
           }
 
@@ -300,9 +312,11 @@ public class GenericEntityHydrator {
               new EntityMetadata.AssociationFieldMeta(
                   config.fieldName(),
                   config.associationType(),
-                  parentIdField,
+                  fieldGetter,
+                  setter(lookup, parentIdField),
                   config.eager(),
-                  listField,
+                  listGetter,
+                  listSetter,
                   false,
                   null));
           continue;
@@ -310,16 +324,17 @@ public class GenericEntityHydrator {
 
         if (HasOne.class.isAssignableFrom(entityField.getType())) {
           Field hasOneEntityField = Reference.class.getDeclaredField("entity");
-          hasOneEntityField.setAccessible(true);
           assocMetas.add(
               new EntityMetadata.AssociationFieldMeta(
                   entityField.getName(),
                   Reference.class,
+                  fieldGetter,
                   null,
                   true,
                   null,
+                  null,
                   true,
-                  hasOneEntityField));
+                  setter(lookup, hasOneEntityField)));
           continue;
         }
 
@@ -330,13 +345,25 @@ public class GenericEntityHydrator {
                 + entityField.getName());
       }
 
-      return new EntityMetadata(entityType, constructor, assocMetas);
+      return new EntityMetadata(entityType, constructorHandle, assocMetas);
 
     } catch (ReflectiveOperationException e) {
       throw new IllegalStateException("Failed to build metadata for: " + entityType.getName(), e);
     }
   }
 
+  private static MethodHandle getter(MethodHandles.Lookup lookup, Field field)
+      throws IllegalAccessException {
+    field.setAccessible(true);
+    return lookup.unreflectGetter(field).asType(GETTER_TYPE);
+  }
+
+  private static MethodHandle setter(MethodHandles.Lookup lookup, Field field)
+      throws IllegalAccessException {
+    field.setAccessible(true);
+    return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+  }
+
   private Constructor<?> findTargetConstructor(Class<?> entityType, Class<?> descriptionType)
       throws NoSuchMethodException {
     Constructor<?> targetConstructor = null;
@@ -416,20 +443,6 @@ public class GenericEntityHydrator {
     return false;
   }
 
-  @SuppressWarnings("unchecked")
-  private List<?> extractListFromMemoryEntityList(Object memoryEntityList) {
-    try {
-      Field listField = findListField(memoryEntityList.getClass());
-      if (listField != null) {
-        listField.setAccessible(true);
-        return (List<?>) listField.get(memoryEntityList);
-      }
-      return List.of();
-    } catch (ReflectiveOperationException e) {
-      throw new IllegalStateException("Failed to extract list from memory.EntityList", e);
-    }
-  }
-
   private Field findListField(Class<?> clazz) {
     Class<?> current = clazz;
     while (current != null) {
@@ -9,10 +9,42 @@ public class HydratingCache implements Cache {
 
   private final Cache delegate;
   private final GenericEntityHydrator hydrator;
+  private final CacheKeyIndex keyIndex;
+  private final SharedCache.Tier sharedTier;
+  private final CacheValueCodec compactCodec;
 
   public HydratingCache(Cache delegate, GenericEntityHydrator hydrator) {
+    this(delegate, hydrator, new CacheKeyIndex());
+  }
+
+  public HydratingCache(Cache delegate, GenericEntityHydrator hydrator, CacheKeyIndex keyIndex) {
+    this(delegate, hydrator, keyIndex, null);
+  }
+
+  public HydratingCache(
+      Cache delegate,
+      GenericEntityHydrator hydrator,
+      CacheKeyIndex keyIndex,
+      SharedCache.Tier sharedTier) {
+    this(delegate, hydrator, keyIndex, sharedTier, null);
+  }
+
+  /**
+   * @param sharedTier optional second tier consulted on local misses, null for a local-only cache
+   * @param compactCodec codec holding entity entries encoded in the local tier, null to keep them
+   *     as objects
+   */
+  public HydratingCache(
+      Cache delegate,
+      GenericEntityHydrator hydrator,
+      CacheKeyIndex keyIndex,
+      SharedCache.Tier sharedTier,
+      CacheValueCodec compactCodec) {
     this.delegate = delegate;
     this.hydrator = hydrator;
+    this.keyIndex = keyIndex;
+    this.sharedTier = sharedTier;
+    this.compactCodec = compactCodec;
   }
 
   @Override
@@ -29,21 +61,17 @@ public class HydratingCache implements Cache {
   public ValueWrapper get(Object key) {
     ValueWrapper wrapper = delegate.get(key);
     if (wrapper == null) {
-      return null;
+      wrapper = getFromSharedTier(key);
+      if (wrapper == null) {
+        return null;
+      }
     }
 
     Object value = wrapper.get();
-
-    if (hydrator.isCacheEntry(value)) {
-      Entity<?, ?> entity = hydrator.hydrate((CacheEntry<?, ?>) value);
-      return () -> entity;
+    if (value instanceof CompactCacheValue || isCacheEntryValue(value)) {
+      Object hydrated = fromStoreValue(value);
+      return () -> hydrated;
     }
-
-    if (hydrator.isCacheEntryList(value)) {
-      List<?> entities = hydrator.hydrateList((List<?>) value);
-      return () -> entities;
-    }
-
     return wrapper;
   }
 
@@ -52,69 +80,188 @@ public class HydratingCache implements Cache {
   public <T> T get(Object key, Class<T> type) {
     Object value = delegate.get(key, Object.class);
     if (value == null) {
-      return null;
+      ValueWrapper wrapper = getFromSharedTier(key);
+      if (wrapper == null || wrapper.get() == null) {
+        return null;
+      }
+      value = wrapper.get();
     }
-
-    if (hydrator.isCacheEntry(value)) {
-      return (T) hydrator.hydrate((CacheEntry<?, ?>) value);
-    }
-
-    if (hydrator.isCacheEntryList(value)) {
-      return (T) hydrator.hydrateList((List<?>) value);
-    }
-
-    return (T) value;
+    return (T) fromStoreValue(value);
   }
 
   @Override
   @SuppressWarnings("unchecked")
   public <T> T get(Object key, Callable<T> valueLoader) {
-    return delegate.get(
-        key,
-        () -> {
-          T loaded = valueLoader.call();
-
-          if (hydrator.isEntity(loaded)) {
-            return (T) hydrator.extract((Entity<?, ?>) loaded);
-          }
-
-          if (hydrator.isEntityList(loaded)) {
-            return (T) hydrator.extractList((List<?>) loaded);
-          }
-
-          return loaded;
-        });
+    // Registered before loading so that a concurrent eviction of the parent waits for the load and
+    // drops its result, and again once the entry is stored in case such an eviction ran first.
+    keyIndex.register(key);
+    Object value;
+    Object[] loaded = new Object[1];
+    try {
+      // The shared tier is read and written outside the local load, so its I/O never runs while
+      // Caffeine holds the entry's lock.
+      ValueWrapper cached = delegate.get(key);
+      if (cached == null) {
+        cached = getFromSharedTier(key);
+      }
+      value =
+          cached != null
+              ? cached.get()
+              : delegate.get(
+                  key,
+                  () -> {
+                    loaded[0] = toStoreValue(valueLoader.call());
+                    return compact(loaded[0]);
+                  });
+    } catch (RuntimeException error) {
+      keyIndex.unregisterIf(key, this::isAbsent);
+      throw error;
+    }
+    keyIndex.register(key);
+    if (sharedTier != null && loaded[0] != null) {
+      sharedTier.put(key, loaded[0]);
+    }
+    return (T) fromStoreValue(value);
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public void put(Object key, Object value) {
-    if (hydrator.isEntity(value)) {
-      delegate.put(key, hydrator.extract((Entity<?, ?>) value));
-    } else if (hydrator.isEntityList(value)) {
-      delegate.put(key, hydrator.extractList((List<?>) value));
-    } else {
-      delegate.put(key, value);
+    Object stored = toStoreValue(value);
+    putLocally(key, stored);
+    if (sharedTier != null) {
+      sharedTier.put(key, stored);
     }
   }
 
   @Override
   public void evict(Object key) {
+    if (key instanceof CacheKeyIndex.AllKeys allKeys) {
+      evictParent(allKeys.parent());
+      return;
+    }
+    keyIndex.unregister(key);
     delegate.evict(key);
+    if (sharedTier != null) {
+      sharedTier.evict(key);
+    }
   }
 
   @Override
   public void clear() {
+    keyIndex.clear();
     delegate.clear();
+    if (sharedTier != null) {
+      sharedTier.clear();
+    }
   }
 
   @Override
   public boolean evictIfPresent(Object key) {
-    return delegate.evictIfPresent(key);
+    if (key instanceof CacheKeyIndex.AllKeys allKeys) {
+      return evictParent(allKeys.parent());
+    }
+    keyIndex.unregister(key);
+    boolean evicted = delegate.evictIfPresent(key);
+    if (sharedTier != null) {
+      sharedTier.evict(key);
+    }
+    return evicted;
   }
 
   @Override
   public boolean invalidate() {
-    return delegate.invalidate();
+    keyIndex.clear();
+    boolean invalidated = delegate.invalidate();
+    if (sharedTier != null) {
+      sharedTier.clear();
+    }
+    return invalidated;
+  }
+
+  /**
+   * Applies an invalidation published by another node to the local tier only; the shared tier was
+   * already updated by the publishing node.
+   */
+  public void evictLocally(CacheInvalidation invalidation) {
+    switch (invalidation.scope()) {
+      case ALL -> {
+        keyIndex.clear();
+        delegate.clear();
+      }
+      case PARENT -> evictLocalKeys(keyIndex.removeParent(invalidation.key()));
+      case KEY -> evictLocalKeys(keyIndex.removeMatching(invalidation.key()));
+    }
+  }
+
+  private Object toStoreValue(Object value) {
+    if (hydrator.isEntity(value)) {
+      return hydrator.extract((Entity<?, ?>) value);
+    }
+    if (hydrator.isEntityList(value)) {
+      return hydrator.extractList((List<?>) value);
+    }
+    return value;
+  }
+
+  private Object compact(Object stored) {
+    if (compactCodec != null && isCacheEntryValue(stored)) {
+      return new CompactCacheValue(compactCodec.encode(stored));
+    }
+    return stored;
+  }
+
+  private Object fromStoreValue(Object value) {
+    if (value instanceof CompactCacheValue compact) {
+      value = compactCodec.decode(compact.bytes());
+    }
+    if (hydrator.isCacheEntry(value)) {
+      return hydrator.hydrate((CacheEntry<?, ?>) value);
+    }
+    if (hydrator.isCacheEntryList(value)) {
+      return hydrator.hydrateList((List<?>) value);
+    }
+    return value;
+  }
+
+  private boolean isCacheEntryValue(Object value) {
+    return hydrator.isCacheEntry(value) || hydrator.isCacheEntryList(value);
+  }
+
+  private ValueWrapper getFromSharedTier(Object key) {
+    if (sharedTier == null) {
+      return null;
+    }
+    ValueWrapper shared = sharedTier.get(key);
+    if (shared != null) {
+      putLocally(key, shared.get());
+    }
+    return shared;
+  }
+
+  private void putLocally(Object key, Object stored) {
+    Object compacted = compact(stored);
+    if (!keyIndex.register(key, () -> delegate.put(key, compacted))) {
+      delegate.evict(key);
+    }
+  }
+
+  private boolean isAbsent(Object key) {
+    return delegate.get(key) == null;
+  }
+
+  private boolean evictParent(String parent) {
+    boolean evicted = evictLocalKeys(keyIndex.removeParent(parent));
+    if (sharedTier != null) {
+      sharedTier.evictParent(parent);
+    }
+    return evicted;
+  }
+
+  private boolean evictLocalKeys(Iterable<Object> keys) {
+    boolean evicted = false;
+    for (Object key : keys) {
+      evicted |= delegate.evictIfPresent(key);
+    }
+    return evicted;
   }
 }
@@ -1,10 +1,15 @@
 package reengineering.ddd.teamai.mybatis.cache;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
@@ -13,15 +18,42 @@ public class HydratingCacheManager implements CacheManager {
 
   private final GenericEntityHydrator hydrator;
   private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<>();
-  private final Caffeine<Object, Object> cacheBuilder;
+  private final CachePolicy defaultPolicy;
+  private final Map<String, CachePolicy> policies;
+  private final MeterRegistry meterRegistry;
+  private final SharedCache sharedCache;
+  private final CacheEntryWeigher weigher = new CacheEntryWeigher();
+  private final CacheValueCodec compactCodec = new BinaryCacheValueCodec();
 
   public HydratingCacheManager(GenericEntityHydrator hydrator) {
+    this(hydrator, CachePolicy.DEFAULT, Map.of(), null);
+  }
+
+  public HydratingCacheManager(
+      GenericEntityHydrator hydrator,
+      CachePolicy defaultPolicy,
+      Map<String, CachePolicy> policies,
+      MeterRegistry meterRegistry) {
+    this(hydrator, defaultPolicy, policies, meterRegistry, null);
+  }
+
+  /**
+   * @param sharedCache optional shared tier keeping several nodes coherent, null for local caches
+   */
+  public HydratingCacheManager(
+      GenericEntityHydrator hydrator,
+      CachePolicy defaultPolicy,
+      Map<String, CachePolicy> policies,
+      MeterRegistry meterRegistry,
+      SharedCache sharedCache) {
     this.hydrator = hydrator;
-    this.cacheBuilder =
-        Caffeine.newBuilder()
-            .expireAfterWrite(10, TimeUnit.MINUTES)
-            .maximumSize(10_000)
-            .recordStats();
+    this.defaultPolicy = defaultPolicy.withDefaults(CachePolicy.DEFAULT);
+    this.policies = Map.copyOf(policies);
+    this.meterRegistry = meterRegistry;
+    this.sharedCache = sharedCache;
+    if (sharedCache != null) {
+      sharedCache.onRemoteInvalidation(this::applyRemoteInvalidation);
+    }
   }
 
   @Override
@@ -34,9 +66,73 @@ public class HydratingCacheManager implements CacheManager {
     return cacheMap.keySet();
   }
 
+  public CachePolicy policyFor(String name) {
+    CachePolicy policy = policies.get(name);
+    return policy != null ? policy.withDefaults(defaultPolicy) : defaultPolicy;
+  }
+
+  private void applyRemoteInvalidation(CacheInvalidation invalidation) {
+    if (cacheMap.get(invalidation.cacheName()) instanceof HydratingCache cache) {
+      cache.evictLocally(invalidation);
+    }
+  }
+
   private Cache createHydratingCache(String name) {
-    com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = cacheBuilder.build();
+    CachePolicy policy = policyFor(name);
+    CacheKeyIndex keyIndex = new CacheKeyIndex();
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+        buildNativeCache(policy, keyIndex);
+    if (meterRegistry != null) {
+      CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, name);
+    }
     CaffeineCache caffeineCache = new CaffeineCache(name, nativeCache);
-    return new HydratingCache(caffeineCache, hydrator);
+    SharedCache.Tier sharedTier =
+        sharedCache != null ? sharedCache.tier(name, policy.expireAfterWrite()) : null;
+    return new HydratingCache(
+        caffeineCache, hydrator, keyIndex, sharedTier, policy.compacted() ? compactCodec : null);
+  }
+
+  private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildNativeCache(
+      CachePolicy policy, CacheKeyIndex keyIndex) {
+    AtomicReference<com.github.benmanes.caffeine.cache.Cache<Object, Object>> built =
+        new AtomicReference<>();
+    // Removal listeners run after the removal and off the caller's thread, so the key is only
+    // dropped from the index when no newer entry was stored under it in the meantime.
+    Caffeine<Object, Object> builder =
+        Caffeine.newBuilder()
+            .recordStats()
+            .removalListener(
+                (key, value, cause) -> {
+                  if (key != null && cause != RemovalCause.REPLACED) {
+                    keyIndex.unregisterIf(key, k -> !built.get().asMap().containsKey(k));
+                  }
+                });
+    Duration expireAfterWrite = expireAfterWrite(policy);
+    if (expireAfterWrite != null) {
+      builder.expireAfterWrite(expireAfterWrite);
+    }
+    if (policy.weighted()) {
+      builder.maximumWeight(policy.maximumWeight().toBytes()).weigher(weigher);
+    } else if (policy.maximumSize() != null) {
+      builder.maximumSize(policy.maximumSize());
+    }
+    built.set(builder.build());
+    return built.get();
+  }
+
+  /**
+   * Cached methods load their own values and leave no loader Caffeine could refresh with, so an
+   * entry older than {@code refreshAfterWrite} expires and the next read reloads it through the
+   * cached method.
+   */
+  private static Duration expireAfterWrite(CachePolicy policy) {
+    Duration expireAfterWrite = policy.expireAfterWrite();
+    Duration refreshAfterWrite = policy.refreshAfterWrite();
+    if (refreshAfterWrite == null) {
+      return expireAfterWrite;
+    }
+    return expireAfterWrite == null || refreshAfterWrite.compareTo(expireAfterWrite) < 0
+        ? refreshAfterWrite
+        : expireAfterWrite;
   }
 }
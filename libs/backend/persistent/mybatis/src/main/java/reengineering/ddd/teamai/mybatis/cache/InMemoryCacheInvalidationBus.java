@@ -0,0 +1,22 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** In-process stand-in for {@link PostgresCacheInvalidationBus}, delivering synchronously. */
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+  private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(CacheInvalidation invalidation) {
+    for (Consumer<CacheInvalidation> subscriber : subscribers) {
+      subscriber.accept(invalidation);
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidation> subscriber) {
+    subscribers.add(subscriber);
+  }
+}
@@ -0,0 +1,49 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** In-process stand-in for {@link PostgresSharedCacheStore}, shared by caches of one JVM. */
+public class InMemorySharedCacheStore implements SharedCacheStore {
+  private final Map<String, Map<String, StoredValue>> caches = new ConcurrentHashMap<>();
+
+  @Override
+  public byte[] get(String cacheName, String key) {
+    StoredValue stored = cache(cacheName).get(key);
+    if (stored == null) {
+      return null;
+    }
+    if (!stored.expiresAt().isAfter(Instant.now())) {
+      cache(cacheName).remove(key, stored);
+      return null;
+    }
+    return stored.value();
+  }
+
+  @Override
+  public void put(String cacheName, String key, String parentKey, byte[] value, Instant expiresAt) {
+    cache(cacheName).put(key, new StoredValue(parentKey, value, expiresAt));
+  }
+
+  @Override
+  public void evict(String cacheName, String key) {
+    cache(cacheName).remove(key);
+  }
+
+  @Override
+  public void evictParent(String cacheName, String parentKey) {
+    cache(cacheName).values().removeIf(stored -> stored.parentKey().equals(parentKey));
+  }
+
+  @Override
+  public void clear(String cacheName) {
+    cache(cacheName).clear();
+  }
+
+  private Map<String, StoredValue> cache(String cacheName) {
+    return caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+  }
+
+  private record StoredValue(String parentKey, byte[] value, Instant expiresAt) {}
+}
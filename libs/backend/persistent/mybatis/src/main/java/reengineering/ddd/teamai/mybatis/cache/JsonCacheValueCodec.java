@@ -0,0 +1,110 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes cached values as JSON. Description records are written with Jackson next to their type
+ * name, so values can be decoded without Java serialization support on the domain records.
+ */
+public class JsonCacheValueCodec implements CacheValueCodec {
+  private static final String KIND = "kind";
+  private static final String TYPE = "type";
+  private static final String VALUE = "value";
+
+  private final ObjectMapper objectMapper;
+
+  public JsonCacheValueCodec(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public byte[] encode(Object value) {
+    try {
+      return objectMapper.writeValueAsBytes(toNode(value));
+    } catch (IOException error) {
+      throw new IllegalStateException("Failed to encode cache value", error);
+    }
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    try {
+      return fromNode(objectMapper.readTree(bytes));
+    } catch (IOException | ClassNotFoundException error) {
+      throw new IllegalStateException("Failed to decode cache value", error);
+    }
+  }
+
+  private JsonNode toNode(Object value) {
+    ObjectNode node = objectMapper.createObjectNode();
+    if (value == null) {
+      return node.put(KIND, "null");
+    }
+    if (value instanceof CacheEntry<?, ?> entry) {
+      node.put(KIND, "entry");
+      node.put("entityType", entry.entityType().getName());
+      node.set("identity", toNode(entry.identity()));
+      node.set("description", toNode(entry.description()));
+      node.set("internalId", toNode(entry.internalId()));
+      ObjectNode nested = node.putObject("nestedCollections");
+      for (Map.Entry<String, List<CacheEntry<?, ?>>> collection :
+          entry.nestedCollections().entrySet()) {
+        nested.set(collection.getKey(), toNode(collection.getValue()));
+      }
+      return node;
+    }
+    if (value instanceof List<?> list) {
+      node.put(KIND, "list");
+      ArrayNode items = node.putArray("items");
+      for (Object item : list) {
+        items.add(toNode(item));
+      }
+      return node;
+    }
+    node.put(KIND, VALUE);
+    node.put(TYPE, value.getClass().getName());
+    node.set(VALUE, objectMapper.valueToTree(value));
+    return node;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object fromNode(JsonNode node) throws IOException, ClassNotFoundException {
+    switch (node.path(KIND).asText()) {
+      case "null":
+        return null;
+      case "entry":
+        Map<String, List<CacheEntry<?, ?>>> nestedCollections = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.path("nestedCollections").fields();
+        while (fields.hasNext()) {
+          Map.Entry<String, JsonNode> field = fields.next();
+          nestedCollections.put(
+              field.getKey(), (List<CacheEntry<?, ?>>) fromNode(field.getValue()));
+        }
+        return new CacheEntry(
+            Class.forName(node.path("entityType").asText()),
+            fromNode(node.path("identity")),
+            fromNode(node.path("description")),
+            fromNode(node.path("internalId")),
+            nestedCollections);
+      case "list":
+        List<Object> items = new ArrayList<>(node.path("items").size());
+        for (JsonNode item : node.path("items")) {
+          items.add(fromNode(item));
+        }
+        return items;
+      case VALUE:
+        return objectMapper.treeToValue(node.path(VALUE), Class.forName(node.path(TYPE).asText()));
+      default:
+        throw new IOException("Unknown cache value kind: " + node.path(KIND).asText());
+    }
+  }
+}
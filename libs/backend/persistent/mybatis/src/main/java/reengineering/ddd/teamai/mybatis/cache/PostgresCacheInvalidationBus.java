@@ -0,0 +1,32 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.util.function.Consumer;
+import reengineering.ddd.teamai.mybatis.mappers.SharedCacheMapper;
+import reengineering.ddd.teamai.mybatis.support.PostgresNotificationListener;
+
+/**
+ * Broadcasts invalidations with Postgres {@code NOTIFY}. Notifications sent inside a transaction
+ * are delivered on commit, so other nodes never drop entries before the change is visible.
+ */
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+  static final String CHANNEL = "teamai_cache_invalidation";
+
+  private final SharedCacheMapper mapper;
+  private final PostgresNotificationListener listener;
+
+  public PostgresCacheInvalidationBus(
+      SharedCacheMapper mapper, PostgresNotificationListener listener) {
+    this.mapper = mapper;
+    this.listener = listener;
+  }
+
+  @Override
+  public void publish(CacheInvalidation invalidation) {
+    mapper.notifyChannel(CHANNEL, invalidation.encode());
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheInvalidation> subscriber) {
+    listener.subscribe(CHANNEL, payload -> subscriber.accept(CacheInvalidation.decode(payload)));
+  }
+}
@@ -0,0 +1,72 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import reengineering.ddd.teamai.mybatis.mappers.SharedCacheMapper;
+
+/**
+ * Stores shared entries in Postgres. Reads and writes are best effort and run in a transaction of
+ * their own, so a failing statement never aborts the caller's transaction on the same connection.
+ * Evictions join the caller's transaction: they are undone with it and their notification is
+ * delivered on commit.
+ */
+public class PostgresSharedCacheStore implements SharedCacheStore {
+  private final SharedCacheMapper mapper;
+  private final ObjectProvider<PlatformTransactionManager> transactionManagerProvider;
+
+  public PostgresSharedCacheStore(
+      SharedCacheMapper mapper,
+      ObjectProvider<PlatformTransactionManager> transactionManagerProvider) {
+    this.mapper = mapper;
+    this.transactionManagerProvider = transactionManagerProvider;
+  }
+
+  @Override
+  public byte[] get(String cacheName, String key) {
+    return isolated(() -> mapper.findValue(cacheName, key));
+  }
+
+  @Override
+  public void put(String cacheName, String key, String parentKey, byte[] value, Instant expiresAt) {
+    isolated(
+        () -> {
+          mapper.upsertValue(cacheName, key, parentKey, value, expiresAt);
+          return null;
+        });
+  }
+
+  @Override
+  public void evict(String cacheName, String key) {
+    mapper.deleteValue(cacheName, key);
+  }
+
+  @Override
+  public void evictParent(String cacheName, String parentKey) {
+    mapper.deleteValuesByParent(cacheName, parentKey);
+  }
+
+  @Override
+  public void clear(String cacheName) {
+    mapper.deleteValuesByCache(cacheName);
+  }
+
+  @Scheduled(fixedDelayString = "${teamai.cache.shared.purge-delay-ms:60000}")
+  public void purgeExpired() {
+    mapper.deleteExpiredValues();
+  }
+
+  private <T> T isolated(Supplier<T> action) {
+    PlatformTransactionManager transactionManager = transactionManagerProvider.getIfAvailable();
+    if (transactionManager == null) {
+      return action.get();
+    }
+    TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    return template.execute(status -> action.get());
+  }
+}
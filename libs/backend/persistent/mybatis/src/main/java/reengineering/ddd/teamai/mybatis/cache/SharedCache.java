@@ -0,0 +1,119 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Shared second tier behind the per-node Caffeine caches.
+ *
+ * <p>Reads and writes are best effort: a failing store degrades to a local-only cache. Evictions
+ * are not, because a stale shared entry would be served to every node; they also publish a {@link
+ * CacheInvalidation} so other nodes drop their local copies.
+ */
+public class SharedCache {
+  private static final Logger log = LoggerFactory.getLogger(SharedCache.class);
+
+  private final SharedCacheStore store;
+  private final CacheInvalidationBus invalidationBus;
+  private final CacheValueCodec codec;
+  private final String nodeId = UUID.randomUUID().toString();
+
+  public SharedCache(
+      SharedCacheStore store, CacheInvalidationBus invalidationBus, CacheValueCodec codec) {
+    this.store = store;
+    this.invalidationBus = invalidationBus;
+    this.codec = codec;
+  }
+
+  public Tier tier(String cacheName, Duration timeToLive) {
+    return new Tier(cacheName, timeToLive);
+  }
+
+  /** Subscribes to invalidations published by other nodes. */
+  public void onRemoteInvalidation(Consumer<CacheInvalidation> subscriber) {
+    invalidationBus.subscribe(
+        invalidation -> {
+          if (!nodeId.equals(invalidation.origin())) {
+            subscriber.accept(invalidation);
+          }
+        });
+  }
+
+  public class Tier {
+    private final String cacheName;
+    private final Duration timeToLive;
+
+    private Tier(String cacheName, Duration timeToLive) {
+      this.cacheName = cacheName;
+      this.timeToLive = timeToLive;
+    }
+
+    public ValueWrapper get(Object key) {
+      try {
+        byte[] bytes = store.get(cacheName, String.valueOf(key));
+        return bytes == null ? null : new SimpleValueWrapper(codec.decode(bytes));
+      } catch (RuntimeException error) {
+        log.warn("Failed to read shared cache {} key {}", cacheName, key, error);
+        return null;
+      }
+    }
+
+    /**
+     * Shares {@code value}, once the current transaction commits when there is one: a value loaded
+     * inside a transaction may reflect its uncommitted writes.
+     */
+    public void put(Object key, Object value) {
+      if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+        write(key, value);
+        return;
+      }
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              write(key, value);
+            }
+          });
+    }
+
+    private void write(Object key, Object value) {
+      try {
+        store.put(
+            cacheName,
+            String.valueOf(key),
+            CacheKeyIndex.parentOf(key),
+            codec.encode(value),
+            Instant.now().plus(timeToLive));
+      } catch (RuntimeException error) {
+        log.warn("Failed to write shared cache {} key {}", cacheName, key, error);
+      }
+    }
+
+    public void evict(Object key) {
+      store.evict(cacheName, String.valueOf(key));
+      publish(CacheInvalidation.Scope.KEY, String.valueOf(key));
+    }
+
+    public void evictParent(String parentKey) {
+      store.evictParent(cacheName, parentKey);
+      publish(CacheInvalidation.Scope.PARENT, parentKey);
+    }
+
+    public void clear() {
+      store.clear(cacheName);
+      publish(CacheInvalidation.Scope.ALL, null);
+    }
+
+    private void publish(CacheInvalidation.Scope scope, String key) {
+      invalidationBus.publish(new CacheInvalidation(nodeId, cacheName, scope, key));
+    }
+  }
+}
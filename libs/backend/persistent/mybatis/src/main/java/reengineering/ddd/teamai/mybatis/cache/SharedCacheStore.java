@@ -0,0 +1,22 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import java.time.Instant;
+
+/**
+ * Second cache tier shared by all server nodes. Values are stored encoded by a {@link
+ * CacheValueCodec} and grouped by the parent segment of their key, see {@link CacheKeyIndex}.
+ */
+public interface SharedCacheStore {
+  /**
+   * @return encoded value, null when absent or expired
+   */
+  byte[] get(String cacheName, String key);
+
+  void put(String cacheName, String key, String parentKey, byte[] value, Instant expiresAt);
+
+  void evict(String cacheName, String key);
+
+  void evictParent(String cacheName, String parentKey);
+
+  void clear(String cacheName);
+}
@@ -1,14 +1,32 @@
 package reengineering.ddd.teamai.mybatis.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
 import reengineering.ddd.mybatis.support.InjectableObjectFactory;
+import reengineering.ddd.teamai.mybatis.cache.BinaryCacheValueCodec;
+import reengineering.ddd.teamai.mybatis.cache.CachePolicy;
+import reengineering.ddd.teamai.mybatis.cache.DescriptionSchemas;
 import reengineering.ddd.teamai.mybatis.cache.GenericEntityHydrator;
 import reengineering.ddd.teamai.mybatis.cache.HydratingCacheManager;
+import reengineering.ddd.teamai.mybatis.cache.JsonCacheValueCodec;
+import reengineering.ddd.teamai.mybatis.cache.PostgresCacheInvalidationBus;
+import reengineering.ddd.teamai.mybatis.cache.PostgresSharedCacheStore;
+import reengineering.ddd.teamai.mybatis.cache.SharedCache;
+import reengineering.ddd.teamai.mybatis.mappers.SharedCacheMapper;
+import reengineering.ddd.teamai.mybatis.support.PostgresNotificationListener;
 
 @Configuration
 @EnableCaching
@@ -20,7 +38,45 @@ public class CacheConfig {
   }
 
   @Bean
-  public CacheManager cacheManager(GenericEntityHydrator hydrator) {
-    return new HydratingCacheManager(hydrator);
+  @ConditionalOnProperty(name = "teamai.cache.shared.enabled", havingValue = "true")
+  public PostgresSharedCacheStore sharedCacheStore(
+      SharedCacheMapper mapper,
+      ObjectProvider<PlatformTransactionManager> transactionManagerProvider) {
+    return new PostgresSharedCacheStore(mapper, transactionManagerProvider);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "teamai.cache.shared.enabled", havingValue = "true")
+  public SharedCache sharedCache(
+      PostgresSharedCacheStore store,
+      SharedCacheMapper mapper,
+      PostgresNotificationListener notificationListener,
+      ObjectMapper objectMapper) {
+    return new SharedCache(
+        store,
+        new PostgresCacheInvalidationBus(mapper, notificationListener),
+        new BinaryCacheValueCodec(
+            DescriptionSchemas.defaults(), new JsonCacheValueCodec(objectMapper)));
+  }
+
+  @Bean
+  public CacheManager cacheManager(
+      GenericEntityHydrator hydrator,
+      Environment environment,
+      ObjectProvider<MeterRegistry> meterRegistryProvider,
+      ObjectProvider<SharedCache> sharedCacheProvider) {
+    Binder binder = Binder.get(environment);
+    CachePolicy defaultPolicy =
+        binder.bind("teamai.cache.default", CachePolicy.class).orElse(CachePolicy.DEFAULT);
+    Map<String, CachePolicy> policies =
+        binder
+            .bind("teamai.cache.caches", Bindable.mapOf(String.class, CachePolicy.class))
+            .orElse(Map.of());
+    return new HydratingCacheManager(
+        hydrator,
+        defaultPolicy,
+        policies,
+        meterRegistryProvider.getIfAvailable(),
+        sharedCacheProvider.getIfAvailable());
   }
 }
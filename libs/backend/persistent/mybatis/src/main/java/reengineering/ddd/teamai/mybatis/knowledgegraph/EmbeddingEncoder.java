@@ -0,0 +1,23 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+/**
+ * Turns the source text of a logical entity into a fixed-length vector for similarity search.
+ *
+ * <p>Implementations must be deterministic and thread-safe. Declare another bean of this type as
+ * {@code @Primary} to replace the default {@link HashedNgramEmbeddingEncoder}.
+ */
+public interface EmbeddingEncoder {
+  /**
+   * Names the encoder and its settings. It is part of the stored source hash, so changing it
+   * re-encodes every entity on the next publish.
+   */
+  String id();
+
+  int dimension();
+
+  /**
+   * Writes the unit-length embedding of {@code text} into the first {@link #dimension()} slots of
+   * {@code target}, overwriting what was there. Text without any features gives a zero vector.
+   */
+  void encode(CharSequence text, float[] target);
+}
@@ -0,0 +1,109 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import java.util.Arrays;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local, deterministic encoder that hashes words and their character trigrams into a signed
+ * feature vector.
+ *
+ * <p>Words are runs of letters and digits, lower-cased one character at a time. Each word adds its
+ * own feature plus one per trigram of the word padded with boundary markers, so related spellings
+ * and CJK labels that share characters land close together. Hashes are computed over the
+ * characters in place, without regular expressions or intermediate strings, and the result is
+ * written straight into the caller's array.
+ */
+@Component
+public class HashedNgramEmbeddingEncoder implements EmbeddingEncoder {
+  private static final int GRAM = 3;
+  private static final char BOUNDARY = '\u0002';
+  private static final int WORD_SEED = 0x9747b28c;
+  private static final int GRAM_SEED = 0x5bd1e995;
+  private static final int FNV_PRIME = 0x01000193;
+
+  private final int dimension;
+
+  public HashedNgramEmbeddingEncoder(
+      @Value("${teamai.knowledge-graph.embedding.dimension:256}") int dimension) {
+    if (dimension < 1) {
+      throw new IllegalArgumentException("dimension must be positive");
+    }
+    this.dimension = dimension;
+  }
+
+  @Override
+  public String id() {
+    return "hashed-ngram-v1:" + dimension;
+  }
+
+  @Override
+  public int dimension() {
+    return dimension;
+  }
+
+  @Override
+  public void encode(CharSequence text, float[] target) {
+    Arrays.fill(target, 0, dimension, 0f);
+    if (text == null) {
+      return;
+    }
+    int wordStart = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+        if (wordStart < 0) {
+          wordStart = i;
+        }
+      } else if (wordStart >= 0) {
+        addWord(text, wordStart, i, target);
+        wordStart = -1;
+      }
+    }
+    normalize(target);
+  }
+
+  private void addWord(CharSequence text, int from, int to, float[] target) {
+    int wordHash = WORD_SEED;
+    for (int i = from; i < to; i++) {
+      wordHash = (wordHash ^ Character.toLowerCase(text.charAt(i))) * FNV_PRIME;
+    }
+    add(wordHash, target);
+    for (int start = from - 1; start + GRAM <= to + 1; start++) {
+      int gramHash = GRAM_SEED;
+      for (int i = start; i < start + GRAM; i++) {
+        char c = i < from || i >= to ? BOUNDARY : Character.toLowerCase(text.charAt(i));
+        gramHash = (gramHash ^ c) * FNV_PRIME;
+      }
+      add(gramHash, target);
+    }
+  }
+
+  private void add(int hash, float[] target) {
+    int mixed = mix(hash);
+    target[Integer.remainderUnsigned(mixed >>> 1, dimension)] += (mixed & 1) == 0 ? 1f : -1f;
+  }
+
+  private void normalize(float[] target) {
+    float sum = 0f;
+    for (int i = 0; i < dimension; i++) {
+      sum += target[i] * target[i];
+    }
+    if (sum == 0f) {
+      return;
+    }
+    float scale = (float) (1 / Math.sqrt(sum));
+    for (int i = 0; i < dimension; i++) {
+      target[i] *= scale;
+    }
+  }
+
+  /** Murmur3 finalizer, so that FNV hashes of short inputs spread over all buckets. */
+  private static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+}
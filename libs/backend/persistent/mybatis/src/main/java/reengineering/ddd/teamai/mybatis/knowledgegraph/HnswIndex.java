@@ -0,0 +1,464 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Approximate nearest-neighbour index over {@code float[]} vectors ranked by cosine similarity,
+ * built as a hierarchical navigable small world graph.
+ *
+ * <p>Vectors are normalized on insert, so similarity is a plain dot product. Every node lives on
+ * layer 0 and on a random number of upper layers. A search descends greedily through the upper
+ * layers and then explores layer 0 with a candidate list of {@code ef} nodes. Neighbours are chosen
+ * with the diversity heuristic of the HNSW paper, topped up with the closest pruned candidates so
+ * that clusters of identical vectors stay connected.
+ *
+ * <p>Replacing or removing a key only marks its node as removed. Removed nodes are still walked
+ * through but never returned; {@link #needsCompaction()} tells the owner when to {@link
+ * #compacted() rebuild}. The index is not thread-safe.
+ */
+final class HnswIndex {
+  private static final int MAX_LEVEL = 16;
+
+  private final int dimension;
+  private final int maxLinks;
+  private final int efConstruction;
+  private final double levelMultiplier;
+  private final SplittableRandom random;
+  private final Map<Integer, Integer> nodeByKey = new HashMap<>();
+  private float[][] vectors = new float[16][];
+  private int[] keys = new int[16];
+  private int[][][] links = new int[16][][];
+  private boolean[] removed = new boolean[16];
+  private int nodeCount;
+  private int removedCount;
+  private int entryPoint = -1;
+  private int topLevel = -1;
+
+  HnswIndex(int dimension, int maxLinks, int efConstruction, long seed) {
+    if (dimension < 1 || maxLinks < 2) {
+      throw new IllegalArgumentException("dimension must be positive and maxLinks at least 2");
+    }
+    this.dimension = dimension;
+    this.maxLinks = maxLinks;
+    this.efConstruction = Math.max(maxLinks, efConstruction);
+    this.levelMultiplier = 1 / Math.log(maxLinks);
+    this.random = new SplittableRandom(seed);
+  }
+
+  int dimension() {
+    return dimension;
+  }
+
+  int size() {
+    return nodeCount - removedCount;
+  }
+
+  boolean contains(int key) {
+    return nodeByKey.containsKey(key);
+  }
+
+  /** Returns the normalized vector stored for {@code key}, or {@code null}. */
+  float[] vector(int key) {
+    Integer node = nodeByKey.get(key);
+    return node == null ? null : vectors[node];
+  }
+
+  void put(int key, float[] vector) {
+    if (vector.length != dimension) {
+      throw new IllegalArgumentException(
+          "expected " + dimension + " dimensions but got " + vector.length);
+    }
+    float[] normalized = normalize(vector);
+    Integer existing = nodeByKey.get(key);
+    if (existing != null) {
+      if (Arrays.equals(vectors[existing], normalized)) {
+        return;
+      }
+      markRemoved(existing);
+    }
+    int node = allocate(key, normalized);
+    nodeByKey.put(key, node);
+    insert(node);
+  }
+
+  void remove(int key) {
+    Integer node = nodeByKey.remove(key);
+    if (node != null) {
+      markRemoved(node);
+    }
+  }
+
+  boolean needsCompaction() {
+    return removedCount > 0 && removedCount * 2 >= nodeCount;
+  }
+
+  /** Returns a new index holding only the live nodes. */
+  HnswIndex compacted() {
+    HnswIndex compacted = new HnswIndex(dimension, maxLinks, efConstruction, random.nextLong());
+    for (int node = 0; node < nodeCount; node++) {
+      if (!removed[node]) {
+        compacted.put(keys[node], vectors[node]);
+      }
+    }
+    return compacted;
+  }
+
+  /** Returns up to {@code k} keys closest to {@code query}, most similar first. */
+  List<Neighbor> search(float[] query, int k, int ef) {
+    if (entryPoint < 0 || k < 1) {
+      return List.of();
+    }
+    float[] normalized = normalize(query);
+    int current = greedyDescend(normalized, entryPoint, topLevel, 1);
+    int width = Math.max(ef, k) + Math.min(removedCount, k);
+    Heap found = searchLayer(normalized, current, width, 0);
+    int[] nodes = new int[found.size];
+    float[] distances = new float[found.size];
+    drainAscending(found, nodes, distances);
+    List<Neighbor> neighbors = new ArrayList<>(Math.min(k, nodes.length));
+    for (int i = 0; i < nodes.length && neighbors.size() < k; i++) {
+      if (!removed[nodes[i]]) {
+        neighbors.add(new Neighbor(keys[nodes[i]], 1 - distances[i]));
+      }
+    }
+    return neighbors;
+  }
+
+  /** Scans every live node. Used for small indexes and as the reference for recall. */
+  List<Neighbor> exactSearch(float[] query, int k) {
+    if (k < 1) {
+      return List.of();
+    }
+    float[] normalized = normalize(query);
+    Heap nearest = new Heap(true, k + 1);
+    for (int node = 0; node < nodeCount; node++) {
+      if (removed[node]) {
+        continue;
+      }
+      float distance = distance(normalized, vectors[node]);
+      if (nearest.size < k || distance < nearest.topDistance()) {
+        nearest.push(node, distance);
+        if (nearest.size > k) {
+          nearest.pop();
+        }
+      }
+    }
+    int[] nodes = new int[nearest.size];
+    float[] distances = new float[nearest.size];
+    drainAscending(nearest, nodes, distances);
+    List<Neighbor> neighbors = new ArrayList<>(nodes.length);
+    for (int i = 0; i < nodes.length; i++) {
+      neighbors.add(new Neighbor(keys[nodes[i]], 1 - distances[i]));
+    }
+    return neighbors;
+  }
+
+  private void insert(int node) {
+    int level = randomLevel();
+    links[node] = new int[level + 1][];
+    for (int layer = 0; layer <= level; layer++) {
+      links[node][layer] = new int[capacity(layer) + 1];
+    }
+    if (entryPoint < 0) {
+      entryPoint = node;
+      topLevel = level;
+      return;
+    }
+    float[] vector = vectors[node];
+    int current = greedyDescend(vector, entryPoint, topLevel, level + 1);
+    for (int layer = Math.min(level, topLevel); layer >= 0; layer--) {
+      Heap found = searchLayer(vector, current, efConstruction, layer);
+      int[] candidates = new int[found.size];
+      float[] distances = new float[found.size];
+      drainAscending(found, candidates, distances);
+      int[] selected = selectNeighbors(candidates, distances, candidates.length, capacity(layer));
+      int[] own = links[node][layer];
+      own[0] = selected.length;
+      System.arraycopy(selected, 0, own, 1, selected.length);
+      for (int neighbor : selected) {
+        link(neighbor, node, layer);
+      }
+      current = candidates[0];
+    }
+    if (level > topLevel) {
+      topLevel = level;
+      entryPoint = node;
+    }
+  }
+
+  private int greedyDescend(float[] query, int start, int fromLayer, int toLayer) {
+    int current = start;
+    float currentDistance = distance(query, vectors[current]);
+    for (int layer = fromLayer; layer >= toLayer; layer--) {
+      boolean improved = true;
+      while (improved) {
+        improved = false;
+        int[] neighbors = links[current][layer];
+        for (int i = 1; i <= neighbors[0]; i++) {
+          float distance = distance(query, vectors[neighbors[i]]);
+          if (distance < currentDistance) {
+            currentDistance = distance;
+            current = neighbors[i];
+            improved = true;
+          }
+        }
+      }
+    }
+    return current;
+  }
+
+  /** Returns the {@code ef} closest nodes found on {@code layer} as a max-heap. */
+  private Heap searchLayer(float[] query, int start, int ef, int layer) {
+    BitSet visited = new BitSet(nodeCount);
+    Heap candidates = new Heap(false, ef + 1);
+    Heap results = new Heap(true, ef + 1);
+    float startDistance = distance(query, vectors[start]);
+    visited.set(start);
+    candidates.push(start, startDistance);
+    results.push(start, startDistance);
+    while (candidates.size > 0) {
+      int candidate = candidates.topNode();
+      float candidateDistance = candidates.topDistance();
+      candidates.pop();
+      if (results.size >= ef && candidateDistance > results.topDistance()) {
+        break;
+      }
+      int[] neighbors = links[candidate][layer];
+      for (int i = 1; i <= neighbors[0]; i++) {
+        int neighbor = neighbors[i];
+        if (visited.get(neighbor)) {
+          continue;
+        }
+        visited.set(neighbor);
+        float distance = distance(query, vectors[neighbor]);
+        if (results.size < ef || distance < results.topDistance()) {
+          candidates.push(neighbor, distance);
+          results.push(neighbor, distance);
+          if (results.size > ef) {
+            results.pop();
+          }
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Picks up to {@code capacity} of the candidates, which must be sorted by ascending distance. A
+   * candidate is kept when it is closer to the base than to every neighbour kept so far; remaining
+   * slots are filled with the closest candidates that were skipped.
+   */
+  private int[] selectNeighbors(int[] candidates, float[] distances, int count, int capacity) {
+    if (count <= capacity) {
+      return Arrays.copyOf(candidates, count);
+    }
+    int[] selected = new int[capacity];
+    boolean[] taken = new boolean[count];
+    int size = 0;
+    for (int i = 0; i < count && size < capacity; i++) {
+      boolean diverse = true;
+      for (int j = 0; j < size; j++) {
+        if (distance(vectors[candidates[i]], vectors[selected[j]]) < distances[i]) {
+          diverse = false;
+          break;
+        }
+      }
+      if (diverse) {
+        selected[size++] = candidates[i];
+        taken[i] = true;
+      }
+    }
+    for (int i = 0; i < count && size < capacity; i++) {
+      if (!taken[i]) {
+        selected[size++] = candidates[i];
+      }
+    }
+    return selected;
+  }
+
+  private void link(int from, int to, int layer) {
+    int[] neighbors = links[from][layer];
+    int capacity = capacity(layer);
+    if (neighbors[0] < capacity) {
+      neighbors[++neighbors[0]] = to;
+      return;
+    }
+    int[] candidates = new int[capacity + 1];
+    float[] distances = new float[capacity + 1];
+    float[] base = vectors[from];
+    for (int i = 0; i < capacity; i++) {
+      candidates[i] = neighbors[i + 1];
+      distances[i] = distance(base, vectors[candidates[i]]);
+    }
+    candidates[capacity] = to;
+    distances[capacity] = distance(base, vectors[to]);
+    sortByDistance(candidates, distances);
+    int[] selected = selectNeighbors(candidates, distances, candidates.length, capacity);
+    neighbors[0] = selected.length;
+    System.arraycopy(selected, 0, neighbors, 1, selected.length);
+  }
+
+  private int allocate(int key, float[] vector) {
+    if (nodeCount == vectors.length) {
+      int grown = vectors.length * 2;
+      vectors = Arrays.copyOf(vectors, grown);
+      keys = Arrays.copyOf(keys, grown);
+      links = Arrays.copyOf(links, grown);
+      removed = Arrays.copyOf(removed, grown);
+    }
+    int node = nodeCount++;
+    vectors[node] = vector;
+    keys[node] = key;
+    return node;
+  }
+
+  private void markRemoved(int node) {
+    if (!removed[node]) {
+      removed[node] = true;
+      removedCount++;
+    }
+  }
+
+  private int capacity(int layer) {
+    return layer == 0 ? maxLinks * 2 : maxLinks;
+  }
+
+  private int randomLevel() {
+    double level = -Math.log(1 - random.nextDouble()) * levelMultiplier;
+    return (int) Math.min(MAX_LEVEL, level);
+  }
+
+  private float[] normalize(float[] vector) {
+    double sum = 0;
+    for (float value : vector) {
+      sum += value * value;
+    }
+    float[] normalized = new float[vector.length];
+    if (sum == 0) {
+      return normalized;
+    }
+    float norm = (float) Math.sqrt(sum);
+    for (int i = 0; i < vector.length; i++) {
+      normalized[i] = vector[i] / norm;
+    }
+    return normalized;
+  }
+
+  /** Cosine distance of unit vectors. Four accumulators keep the loop from stalling on one sum. */
+  private static float distance(float[] left, float[] right) {
+    float dot0 = 0;
+    float dot1 = 0;
+    float dot2 = 0;
+    float dot3 = 0;
+    int i = 0;
+    for (int bound = left.length & ~3; i < bound; i += 4) {
+      dot0 += left[i] * right[i];
+      dot1 += left[i + 1] * right[i + 1];
+      dot2 += left[i + 2] * right[i + 2];
+      dot3 += left[i + 3] * right[i + 3];
+    }
+    for (; i < left.length; i++) {
+      dot0 += left[i] * right[i];
+    }
+    return 1 - (dot0 + dot1 + dot2 + dot3);
+  }
+
+  private static void drainAscending(Heap maxHeap, int[] nodes, float[] distances) {
+    for (int i = nodes.length - 1; i >= 0; i--) {
+      nodes[i] = maxHeap.topNode();
+      distances[i] = maxHeap.topDistance();
+      maxHeap.pop();
+    }
+  }
+
+  private static void sortByDistance(int[] nodes, float[] distances) {
+    for (int i = 1; i < nodes.length; i++) {
+      int node = nodes[i];
+      float distance = distances[i];
+      int j = i - 1;
+      while (j >= 0 && distances[j] > distance) {
+        nodes[j + 1] = nodes[j];
+        distances[j + 1] = distances[j];
+        j--;
+      }
+      nodes[j + 1] = node;
+      distances[j + 1] = distance;
+    }
+  }
+
+  record Neighbor(int key, float similarity) {}
+
+  /** Binary heap of node ids keyed by distance, ordered as a max-heap or a min-heap. */
+  private static final class Heap {
+    private final boolean max;
+    private int[] nodes;
+    private float[] distances;
+    private int size;
+
+    Heap(boolean max, int capacity) {
+      this.max = max;
+      this.nodes = new int[Math.max(1, capacity)];
+      this.distances = new float[nodes.length];
+    }
+
+    int topNode() {
+      return nodes[0];
+    }
+
+    float topDistance() {
+      return distances[0];
+    }
+
+    void push(int node, float distance) {
+      if (size == nodes.length) {
+        nodes = Arrays.copyOf(nodes, size * 2);
+        distances = Arrays.copyOf(distances, size * 2);
+      }
+      int index = size++;
+      while (index > 0) {
+        int parent = (index - 1) >>> 1;
+        if (!before(distance, distances[parent])) {
+          break;
+        }
+        nodes[index] = nodes[parent];
+        distances[index] = distances[parent];
+        index = parent;
+      }
+      nodes[index] = node;
+      distances[index] = distance;
+    }
+
+    void pop() {
+      int lastNode = nodes[--size];
+      float lastDistance = distances[size];
+      int index = 0;
+      while (true) {
+        int child = index * 2 + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && before(distances[child + 1], distances[child])) {
+          child++;
+        }
+        if (!before(distances[child], lastDistance)) {
+          break;
+        }
+        nodes[index] = nodes[child];
+        distances[index] = distances[child];
+        index = child;
+      }
+      nodes[index] = lastNode;
+      distances[index] = lastDistance;
+    }
+
+    private boolean before(float left, float right) {
+      return max ? left > right : left < right;
+    }
+  }
+}
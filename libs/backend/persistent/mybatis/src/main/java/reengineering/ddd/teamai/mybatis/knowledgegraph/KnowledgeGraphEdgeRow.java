@@ -1,11 +1,22 @@
 package reengineering.ddd.teamai.mybatis.knowledgegraph;
 
 public class KnowledgeGraphEdgeRow {
+  private Long id;
   private int diagramId;
+  private Integer sourceNodeId;
+  private Integer targetNodeId;
   private int sourceLogicalEntityId;
   private int targetLogicalEntityId;
   private String relationType;
 
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
   public int getDiagramId() {
     return diagramId;
   }
@@ -14,6 +25,22 @@ public class KnowledgeGraphEdgeRow {
     this.diagramId = diagramId;
   }
 
+  public Integer getSourceNodeId() {
+    return sourceNodeId;
+  }
+
+  public void setSourceNodeId(Integer sourceNodeId) {
+    this.sourceNodeId = sourceNodeId;
+  }
+
+  public Integer getTargetNodeId() {
+    return targetNodeId;
+  }
+
+  public void setTargetNodeId(Integer targetNodeId) {
+    this.targetNodeId = targetNodeId;
+  }
+
   public int getSourceLogicalEntityId() {
     return sourceLogicalEntityId;
   }
@@ -0,0 +1,51 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import java.time.Instant;
+
+public class KnowledgeGraphEmbeddingRow {
+  private int logicalEntityId;
+  private String sourceText;
+  private String sourceHash;
+  private float[] embedding;
+  private Instant updatedAt;
+
+  public int getLogicalEntityId() {
+    return logicalEntityId;
+  }
+
+  public void setLogicalEntityId(int logicalEntityId) {
+    this.logicalEntityId = logicalEntityId;
+  }
+
+  public String getSourceText() {
+    return sourceText;
+  }
+
+  public void setSourceText(String sourceText) {
+    this.sourceText = sourceText;
+  }
+
+  public String getSourceHash() {
+    return sourceHash;
+  }
+
+  public void setSourceHash(String sourceHash) {
+    this.sourceHash = sourceHash;
+  }
+
+  public float[] getEmbedding() {
+    return embedding;
+  }
+
+  public void setEmbedding(float[] embedding) {
+    this.embedding = embedding;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
@@ -1,11 +1,40 @@
 package reengineering.ddd.teamai.mybatis.knowledgegraph;
 
+import static reengineering.ddd.mybatis.support.Chunks.forEachChunk;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import reengineering.ddd.teamai.model.Diagram;
 import reengineering.ddd.teamai.model.DiagramEdge;
 import reengineering.ddd.teamai.model.DiagramNode;
@@ -13,13 +42,48 @@ import reengineering.ddd.teamai.model.LogicalEntity;
 import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphJobsMapper;
 import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphMapper;
 import reengineering.ddd.teamai.mybatis.mappers.ProjectDiagramsMapper;
+import reengineering.ddd.teamai.mybatis.support.PostgresNotificationListener;
 
+/**
+ * Rebuilds the knowledge graph of published diagrams from {@code kg_publish_jobs}.
+ *
+ * <p>Claimed jobs are grouped by project. The scheduler thread works through one project and the
+ * others run on a pool of {@code concurrency - 1} threads, so one slow diagram no longer holds back
+ * every other project, while the jobs of a single project still run one after another. A claim
+ * that comes back full is followed by another claim right away instead of waiting for the next
+ * tick.
+ *
+ * <p>A claim skips projects that already have a running job, so two replicas never rebuild the
+ * graph of one project at the same time. Claims take a transaction-scoped advisory lock, which
+ * makes each claim see the jobs that earlier claims set running. A running job older than {@code
+ * running-timeout-seconds} no longer holds its project back, so a replica that died mid-job cannot
+ * stall the project.
+ *
+ * <p>Publishing a diagram sends a {@code NOTIFY} on {@link
+ * PostgresKnowledgeGraphPublisher#CHANNEL}, which wakes the worker as soon as the job is committed.
+ * Wakeups that arrive while jobs are being processed are folded into one more run. The fixed-delay
+ * schedule is only a safety net for missed notifications and for requeued jobs whose retry time has
+ * come.
+ */
 @Component
-public class KnowledgeGraphPublishWorker {
+public class KnowledgeGraphPublishWorker implements DisposableBean {
+  private static final Logger log = LoggerFactory.getLogger(KnowledgeGraphPublishWorker.class);
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
   private final KnowledgeGraphJobsMapper jobsMapper;
   private final KnowledgeGraphMapper graphMapper;
   private final ProjectDiagramsMapper projectDiagramsMapper;
   private final SemanticRelationInferService relationInferService;
+  private final KnowledgeGraphSimilaritySearch similaritySearch;
+  private final EmbeddingEncoder encoder;
+  private final ExecutorService executor;
+  private final ExecutorService wakeups;
+  private final AtomicBoolean wakeupPending = new AtomicBoolean();
+  private final Object claimLock = new Object();
+  private final MeterRegistry meterRegistry;
+  private final ObjectProvider<PlatformTransactionManager> transactionManagerProvider;
+  private final AtomicLong backlog = new AtomicLong();
+  private volatile boolean running = true;
 
   @Value("${teamai.knowledge-graph.publish.batch-size:20}")
   private int batchSize;
@@ -30,100 +94,299 @@ public class KnowledgeGraphPublishWorker {
   @Value("${teamai.knowledge-graph.publish.retry-seconds:30}")
   private int retrySeconds;
 
+  @Value("${teamai.knowledge-graph.publish.running-timeout-seconds:600}")
+  private int runningTimeoutSeconds;
+
   public KnowledgeGraphPublishWorker(
       KnowledgeGraphJobsMapper jobsMapper,
       KnowledgeGraphMapper graphMapper,
       ProjectDiagramsMapper projectDiagramsMapper,
-      SemanticRelationInferService relationInferService) {
+      SemanticRelationInferService relationInferService,
+      KnowledgeGraphSimilaritySearch similaritySearch,
+      EmbeddingEncoder encoder,
+      PostgresNotificationListener notificationListener,
+      @Value("${teamai.knowledge-graph.publish.concurrency:4}") int concurrency,
+      ObjectProvider<MeterRegistry> meterRegistryProvider,
+      ObjectProvider<PlatformTransactionManager> transactionManagerProvider) {
     this.jobsMapper = jobsMapper;
     this.graphMapper = graphMapper;
     this.projectDiagramsMapper = projectDiagramsMapper;
     this.relationInferService = relationInferService;
+    this.similaritySearch = similaritySearch;
+    this.encoder = encoder;
+    this.executor =
+        concurrency > 1
+            ? Executors.newFixedThreadPool(concurrency - 1, daemonThreads("kg-publish-worker-"))
+            : null;
+    this.wakeups = Executors.newSingleThreadExecutor(daemonThreads("kg-publish-wakeup-"));
+    this.meterRegistry = meterRegistryProvider.getIfAvailable();
+    this.transactionManagerProvider = transactionManagerProvider;
+    if (meterRegistry != null) {
+      Gauge.builder("teamai.kg.publish.backlog", backlog, AtomicLong::get).register(meterRegistry);
+    }
+    notificationListener.subscribe(PostgresKnowledgeGraphPublisher.CHANNEL, payload -> wakeUp());
   }
 
-  @Scheduled(fixedDelayString = "${teamai.knowledge-graph.publish.fixed-delay-ms:2500}")
+  @Scheduled(fixedDelayString = "${teamai.knowledge-graph.publish.fixed-delay-ms:30000}")
   public void processPendingJobs() {
-    List<KnowledgeGraphJobRow> jobs = jobsMapper.claimPendingJobs(batchSize);
+    synchronized (claimLock) {
+      int limit = Math.max(1, batchSize);
+      List<KnowledgeGraphJobRow> jobs;
+      do {
+        jobs = claimPendingJobs(limit);
+        processClaimedJobs(jobs);
+      } while (running && jobs.size() >= limit);
+      if (meterRegistry != null) {
+        backlog.set(jobsMapper.countPendingJobs());
+      }
+    }
+  }
+
+  private List<KnowledgeGraphJobRow> claimPendingJobs(int limit) {
+    PlatformTransactionManager transactionManager = transactionManagerProvider.getIfAvailable();
+    if (transactionManager == null) {
+      return jobsMapper.claimPendingJobs(limit, runningTimeoutSeconds);
+    }
+    return new TransactionTemplate(transactionManager)
+        .execute(
+            status -> {
+              jobsMapper.lockJobClaims();
+              return jobsMapper.claimPendingJobs(limit, runningTimeoutSeconds);
+            });
+  }
+
+  /** Schedules a run on the wakeup thread unless one is already waiting to start. */
+  void wakeUp() {
+    if (!running || !wakeupPending.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      wakeups.execute(this::processOnWakeup);
+    } catch (RejectedExecutionException error) {
+      wakeupPending.set(false);
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    running = false;
+    wakeups.shutdown();
+    if (executor != null) {
+      executor.shutdown();
+      executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+  }
+
+  private void processOnWakeup() {
+    wakeupPending.set(false);
+    try {
+      processPendingJobs();
+    } catch (RuntimeException error) {
+      log.warn("event=kg_publish_wakeup_failed message={}", shortenError(error));
+    }
+  }
+
+  private void processClaimedJobs(List<KnowledgeGraphJobRow> jobs) {
+    if (jobs.isEmpty()) {
+      return;
+    }
+    Map<Integer, List<KnowledgeGraphJobRow>> jobsByProject = new LinkedHashMap<>();
     for (KnowledgeGraphJobRow job : jobs) {
-      processJob(job);
+      jobsByProject.computeIfAbsent(job.getProjectId(), id -> new ArrayList<>()).add(job);
+    }
+    Iterator<List<KnowledgeGraphJobRow>> partitions = jobsByProject.values().iterator();
+    List<KnowledgeGraphJobRow> local = partitions.next();
+    List<Future<?>> submitted = new ArrayList<>();
+    while (partitions.hasNext()) {
+      List<KnowledgeGraphJobRow> partition = partitions.next();
+      if (executor == null) {
+        local.addAll(partition);
+      } else {
+        submitted.add(executor.submit(() -> partition.forEach(this::processJob)));
+      }
+    }
+    local.forEach(this::processJob);
+    for (Future<?> partition : submitted) {
+      await(partition);
     }
   }
 
   private void processJob(KnowledgeGraphJobRow job) {
+    long startedAt = System.nanoTime();
+    String outcome;
     try {
       rebuildGraph(job.getProjectId(), job.getDiagramId());
       jobsMapper.markSucceeded(job.getId());
+      outcome = "succeeded";
     } catch (Exception error) {
       String message = shortenError(error);
       if (job.getAttemptCount() + 1 >= maxRetries) {
         jobsMapper.markFailed(job.getId(), message);
+        outcome = "failed";
       } else {
         jobsMapper.requeue(job.getId(), message, retrySeconds);
+        outcome = "requeued";
       }
     }
+    if (meterRegistry != null) {
+      Timer.builder("teamai.kg.publish.job.duration")
+          .tag("outcome", outcome)
+          .register(meterRegistry)
+          .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
   }
 
+  private static void await(Future<?> partition) {
+    try {
+      partition.get();
+    } catch (InterruptedException error) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException error) {
+      log.warn("event=kg_publish_partition_failed message={}", String.valueOf(error.getCause()));
+    }
+  }
+
+  private static ThreadFactory daemonThreads(String namePrefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Brings the graph rows of a diagram in line with its published state. Current edges and
+   * embedding hashes are diffed against the diagram, so only changed rows are written, in batches,
+   * and only entities whose source text changed are re-encoded. Nodes and embeddings of entities
+   * that no diagram of the project shows any more are deleted.
+   */
   private void rebuildGraph(int projectId, int diagramId) {
-    graphMapper.deleteEdgesByProjectAndDiagram(projectId, diagramId);
     Diagram diagram = projectDiagramsMapper.findDiagramByProjectAndId(projectId, diagramId);
     if (diagram == null) {
+      graphMapper.deleteEdgesByProjectAndDiagram(projectId, diagramId);
+      removeUnreferencedNodes(projectId);
       return;
     }
 
     Map<String, DiagramNode> nodeById = new LinkedHashMap<>();
+    Map<Integer, String> sourceTextByEntityId = new LinkedHashMap<>();
     for (DiagramNode node : diagram.nodes().findAll()) {
       nodeById.put(node.getIdentity(), node);
-      upsertNodeAndEmbedding(projectId, node);
+      LogicalEntity logicalEntity = node.logicalEntity();
+      Integer logicalEntityId =
+          logicalEntity == null ? null : toIntOrNull(logicalEntity.getIdentity());
+      if (logicalEntityId != null) {
+        sourceTextByEntityId.put(logicalEntityId, buildSourceText(logicalEntity));
+      }
     }
+    Map<EdgeKey, KnowledgeGraphEdgeRow> edges = new LinkedHashMap<>();
     for (DiagramEdge edge : diagram.edges().findAll()) {
       if (edge == null || Boolean.TRUE.equals(edge.getDescription().hidden())) {
         continue;
       }
-      upsertSemanticEdge(projectId, diagramId, edge, nodeById);
+      KnowledgeGraphEdgeRow row = semanticEdge(edge, nodeById);
+      if (row != null) {
+        edges.put(EdgeKey.of(row), row);
+      }
     }
+
+    syncNodesAndEmbeddings(projectId, sourceTextByEntityId);
+    syncEdges(projectId, diagramId, edges);
+    removeUnreferencedNodes(projectId);
   }
 
-  private void upsertNodeAndEmbedding(int projectId, DiagramNode node) {
-    LogicalEntity logicalEntity = node.logicalEntity();
-    if (logicalEntity == null) {
-      return;
-    }
-    Integer logicalEntityId = toIntOrNull(logicalEntity.getIdentity());
-    if (logicalEntityId == null) {
+  /**
+   * Deletes the nodes and embeddings of entities that were removed from every diagram of the
+   * project. Graph rows are kept per project, so an entity stays while another diagram shows it.
+   */
+  private void removeUnreferencedNodes(int projectId) {
+    List<Integer> removed = graphMapper.findUnreferencedNodeEntityIds(projectId);
+    forEachChunk(removed, chunk -> graphMapper.deleteEmbeddingsByEntityIds(projectId, chunk));
+    forEachChunk(removed, chunk -> graphMapper.deleteNodesByEntityIds(projectId, chunk));
+    removed.forEach(logicalEntityId -> similaritySearch.entityRemoved(projectId, logicalEntityId));
+  }
+
+  private void syncNodesAndEmbeddings(int projectId, Map<Integer, String> sourceTextByEntityId) {
+    if (sourceTextByEntityId.isEmpty()) {
       return;
     }
-    graphMapper.upsertNode(projectId, logicalEntityId);
+    Map<Integer, String> storedHashes = new HashMap<>();
+    forEachChunk(
+        List.copyOf(sourceTextByEntityId.keySet()),
+        chunk ->
+            graphMapper
+                .findEmbeddingHashes(projectId, chunk)
+                .forEach(row -> storedHashes.put(row.getLogicalEntityId(), row.getSourceHash())));
 
-    String sourceText = buildSourceText(logicalEntity);
-    String literal =
-        DeterministicEmbeddingEncoder.toPgArrayLiteral(
-            DeterministicEmbeddingEncoder.encode(sourceText));
-    graphMapper.upsertEmbedding(projectId, logicalEntityId, sourceText, literal);
+    List<KnowledgeGraphEmbeddingRow> changed = new ArrayList<>();
+    Map<Integer, float[]> vectors = new HashMap<>();
+    String encoderId = encoder.id();
+    sourceTextByEntityId.forEach(
+        (logicalEntityId, sourceText) -> {
+          String sourceHash = sourceHash(encoderId, sourceText);
+          if (sourceHash.equals(storedHashes.get(logicalEntityId))) {
+            return;
+          }
+          KnowledgeGraphEmbeddingRow row = new KnowledgeGraphEmbeddingRow();
+          row.setLogicalEntityId(logicalEntityId);
+          row.setSourceText(sourceText);
+          row.setSourceHash(sourceHash);
+          float[] vector = new float[encoder.dimension()];
+          encoder.encode(sourceText, vector);
+          row.setEmbedding(vector);
+          changed.add(row);
+          vectors.put(logicalEntityId, vector);
+        });
+    forEachChunk(
+        changed.stream().map(KnowledgeGraphEmbeddingRow::getLogicalEntityId).toList(),
+        chunk -> graphMapper.upsertNodes(projectId, chunk));
+    boolean withVector = similaritySearch.pgvectorAvailable();
+    forEachChunk(changed, chunk -> graphMapper.upsertEmbeddings(projectId, chunk, withVector));
+    similaritySearch.embeddingsChanged(projectId, vectors);
+  }
+
+  private void syncEdges(int projectId, int diagramId, Map<EdgeKey, KnowledgeGraphEdgeRow> edges) {
+    List<Long> removed = new ArrayList<>();
+    Map<EdgeKey, KnowledgeGraphEdgeRow> changed = new LinkedHashMap<>(edges);
+    for (KnowledgeGraphEdgeRow stored :
+        graphMapper.findEdgesByProjectAndDiagram(projectId, diagramId)) {
+      KnowledgeGraphEdgeRow wanted = edges.get(EdgeKey.of(stored));
+      if (wanted == null) {
+        removed.add(stored.getId());
+      } else if (Objects.equals(wanted.getSourceNodeId(), stored.getSourceNodeId())
+          && Objects.equals(wanted.getTargetNodeId(), stored.getTargetNodeId())) {
+        changed.remove(EdgeKey.of(stored));
+      }
+    }
+    forEachChunk(removed, chunk -> graphMapper.deleteEdgesByIds(projectId, chunk));
+    forEachChunk(
+        List.copyOf(changed.values()),
+        chunk -> graphMapper.upsertEdges(projectId, diagramId, chunk));
   }
 
-  private void upsertSemanticEdge(
-      int projectId, int diagramId, DiagramEdge edge, Map<String, DiagramNode> nodeById) {
+  private KnowledgeGraphEdgeRow semanticEdge(DiagramEdge edge, Map<String, DiagramNode> nodeById) {
     String sourceNodeId =
         edge.getDescription().sourceNode() == null ? null : edge.getDescription().sourceNode().id();
     String targetNodeId =
         edge.getDescription().targetNode() == null ? null : edge.getDescription().targetNode().id();
     if (sourceNodeId == null || targetNodeId == null) {
-      return;
+      return null;
     }
     DiagramNode sourceNode = nodeById.get(sourceNodeId);
     DiagramNode targetNode = nodeById.get(targetNodeId);
     if (sourceNode == null || targetNode == null) {
-      return;
+      return null;
     }
     LogicalEntity sourceEntity = sourceNode.logicalEntity();
     LogicalEntity targetEntity = targetNode.logicalEntity();
     if (sourceEntity == null || targetEntity == null) {
-      return;
+      return null;
     }
     Integer sourceLogicalEntityId = toIntOrNull(sourceEntity.getIdentity());
     Integer targetLogicalEntityId = toIntOrNull(targetEntity.getIdentity());
     if (sourceLogicalEntityId == null || targetLogicalEntityId == null) {
-      return;
+      return null;
     }
 
     String relationType = edge.getDescription().relationType();
@@ -131,14 +394,25 @@ public class KnowledgeGraphPublishWorker {
       relationType = relationInferService.inferRelationType(sourceNode, targetNode);
     }
 
-    graphMapper.upsertEdge(
-        projectId,
-        diagramId,
-        toIntOrNull(sourceNodeId),
-        toIntOrNull(targetNodeId),
-        sourceLogicalEntityId,
-        targetLogicalEntityId,
-        relationType);
+    KnowledgeGraphEdgeRow row = new KnowledgeGraphEdgeRow();
+    row.setSourceNodeId(toIntOrNull(sourceNodeId));
+    row.setTargetNodeId(toIntOrNull(targetNodeId));
+    row.setSourceLogicalEntityId(sourceLogicalEntityId);
+    row.setTargetLogicalEntityId(targetLogicalEntityId);
+    row.setRelationType(relationType);
+    return row;
+  }
+
+  /** Covers the encoder id too, so switching encoders re-encodes unchanged entities. */
+  private static String sourceHash(String encoderId, String sourceText) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(encoderId.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      return HexFormat.of().formatHex(digest.digest(sourceText.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException error) {
+      throw new IllegalStateException("SHA-256 is not available", error);
+    }
   }
 
   private static Integer toIntOrNull(String value) {
@@ -178,4 +452,12 @@ public class KnowledgeGraphPublishWorker {
     }
     return message.length() > 600 ? message.substring(0, 600) : message;
   }
+
+  private record EdgeKey(
+      int sourceLogicalEntityId, int targetLogicalEntityId, String relationType) {
+    static EdgeKey of(KnowledgeGraphEdgeRow row) {
+      return new EdgeKey(
+          row.getSourceLogicalEntityId(), row.getTargetLogicalEntityId(), row.getRelationType());
+    }
+  }
 }
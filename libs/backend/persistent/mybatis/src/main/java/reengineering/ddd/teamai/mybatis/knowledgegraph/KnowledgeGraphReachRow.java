@@ -0,0 +1,22 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+public class KnowledgeGraphReachRow {
+  private int logicalEntityId;
+  private int depth;
+
+  public int getLogicalEntityId() {
+    return logicalEntityId;
+  }
+
+  public void setLogicalEntityId(int logicalEntityId) {
+    this.logicalEntityId = logicalEntityId;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public void setDepth(int depth) {
+    this.depth = depth;
+  }
+}
@@ -0,0 +1,29 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+public class KnowledgeGraphSimilarityRow {
+  private int logicalEntityId;
+  private double similarity;
+
+  public KnowledgeGraphSimilarityRow() {}
+
+  KnowledgeGraphSimilarityRow(int logicalEntityId, double similarity) {
+    this.logicalEntityId = logicalEntityId;
+    this.similarity = similarity;
+  }
+
+  public int getLogicalEntityId() {
+    return logicalEntityId;
+  }
+
+  public void setLogicalEntityId(int logicalEntityId) {
+    this.logicalEntityId = logicalEntityId;
+  }
+
+  public double getSimilarity() {
+    return similarity;
+  }
+
+  public void setSimilarity(double similarity) {
+    this.similarity = similarity;
+  }
+}
@@ -0,0 +1,258 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphMapper;
+
+/**
+ * Finds the logical entities of a project whose embeddings are closest to a given entity.
+ *
+ * <p>Each project gets an {@link HnswIndex} in memory, loaded from {@code kg_embeddings} on first
+ * use. The publish worker hands over every embedding it writes, and every {@code
+ * refresh-interval-ms} the rows updated since the last load are read again, which picks up writes
+ * made on other nodes. Projects with at most {@value #EXACT_SEARCH_LIMIT} entities are scanned
+ * exactly.
+ *
+ * <p>When the in-memory index is disabled, or a project has more than {@code
+ * max-entities-per-project} embeddings, the query goes to pgvector through {@code
+ * kg_embeddings.embedding_vector}. Without pgvector every project is indexed in memory.
+ */
+@Component
+public class KnowledgeGraphSimilaritySearch {
+  static final int MAX_LINKS = 16;
+  static final int EF_CONSTRUCTION = 100;
+  private static final int EXACT_SEARCH_LIMIT = 512;
+  private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+  private final KnowledgeGraphMapper mapper;
+  private final EmbeddingEncoder encoder;
+  private final boolean inMemory;
+  private final int maxEntitiesPerProject;
+  private final long refreshIntervalMillis;
+  private final int efSearch;
+  private final LongSupplier clock;
+  private final Cache<Integer, ProjectIndex> projects;
+  private volatile Boolean pgvectorAvailable;
+
+  @Inject
+  public KnowledgeGraphSimilaritySearch(
+      KnowledgeGraphMapper mapper,
+      EmbeddingEncoder encoder,
+      @Value("${teamai.knowledge-graph.similarity.in-memory:true}") boolean inMemory,
+      @Value("${teamai.knowledge-graph.similarity.max-entities-per-project:50000}")
+          int maxEntitiesPerProject,
+      @Value("${teamai.knowledge-graph.similarity.max-projects:256}") int maxProjects,
+      @Value("${teamai.knowledge-graph.similarity.refresh-interval-ms:30000}")
+          long refreshIntervalMillis,
+      @Value("${teamai.knowledge-graph.similarity.ef-search:64}") int efSearch) {
+    this(
+        mapper,
+        encoder,
+        inMemory,
+        maxEntitiesPerProject,
+        maxProjects,
+        refreshIntervalMillis,
+        efSearch,
+        System::currentTimeMillis);
+  }
+
+  KnowledgeGraphSimilaritySearch(
+      KnowledgeGraphMapper mapper,
+      EmbeddingEncoder encoder,
+      boolean inMemory,
+      int maxEntitiesPerProject,
+      int maxProjects,
+      long refreshIntervalMillis,
+      int efSearch,
+      LongSupplier clock) {
+    this.mapper = mapper;
+    this.encoder = encoder;
+    this.inMemory = inMemory;
+    this.maxEntitiesPerProject = maxEntitiesPerProject;
+    this.refreshIntervalMillis = refreshIntervalMillis;
+    this.efSearch = efSearch;
+    this.clock = clock;
+    this.projects = Caffeine.newBuilder().maximumSize(Math.max(1, maxProjects)).build();
+  }
+
+  /** Returns up to {@code limit} other entities of the project, most similar first. */
+  List<KnowledgeGraphSimilarityRow> findSimilar(int projectId, int logicalEntityId, int limit) {
+    if (limit < 1) {
+      return List.of();
+    }
+    if (!inMemory && pgvectorAvailable()) {
+      return mapper.findSimilarByVector(projectId, logicalEntityId, limit);
+    }
+    ProjectIndex index = projects.get(projectId, ProjectIndex::new);
+    if (!index.refresh()) {
+      return mapper.findSimilarByVector(projectId, logicalEntityId, limit);
+    }
+    return index.findSimilar(logicalEntityId, limit);
+  }
+
+  /** Applies embeddings written by the publish worker to the project index, if it is loaded. */
+  void embeddingsChanged(int projectId, Map<Integer, float[]> embeddings) {
+    ProjectIndex index = projects.getIfPresent(projectId);
+    if (index != null) {
+      index.putAll(embeddings);
+    }
+  }
+
+  /** Drops an entity that no longer has a graph node from the project index. */
+  void entityRemoved(int projectId, int logicalEntityId) {
+    ProjectIndex index = projects.getIfPresent(projectId);
+    if (index != null) {
+      index.remove(logicalEntityId);
+    }
+  }
+
+  /**
+   * Whether {@code kg_embeddings.embedding_vector} exists with the dimension of the encoder, so
+   * pgvector can be written and read.
+   */
+  boolean pgvectorAvailable() {
+    Boolean available = pgvectorAvailable;
+    if (available == null) {
+      available = mapper.findEmbeddingVectorDimension() == encoder.dimension();
+      pgvectorAvailable = available;
+    }
+    return available;
+  }
+
+  private final class ProjectIndex {
+    private final int projectId;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private HnswIndex index;
+    private boolean loaded;
+    private boolean oversized;
+    private Instant loadedThrough;
+    private long refreshedAtMillis;
+
+    ProjectIndex(int projectId) {
+      this.projectId = projectId;
+    }
+
+    /** Loads new rows when due. Returns {@code false} when the project is left to pgvector. */
+    boolean refresh() {
+      lock.readLock().lock();
+      try {
+        if (fresh()) {
+          return !oversized;
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+      lock.writeLock().lock();
+      try {
+        if (fresh()) {
+          return !oversized;
+        }
+        if ((!loaded || oversized)
+            && mapper.countEmbeddings(projectId) > maxEntitiesPerProject
+            && pgvectorAvailable()) {
+          markOversized();
+          return false;
+        }
+        oversized = false;
+        Instant updatedAfter = loadedThrough == null ? null : loadedThrough.minus(REFRESH_OVERLAP);
+        for (KnowledgeGraphEmbeddingRow row :
+            mapper.findEmbeddingVectors(projectId, updatedAfter)) {
+          put(row.getLogicalEntityId(), row.getEmbedding());
+          if (loadedThrough == null || row.getUpdatedAt().isAfter(loadedThrough)) {
+            loadedThrough = row.getUpdatedAt();
+          }
+        }
+        if (index != null && index.size() > maxEntitiesPerProject && pgvectorAvailable()) {
+          markOversized();
+          return false;
+        }
+        if (index != null && index.needsCompaction()) {
+          index = index.compacted();
+        }
+        loaded = true;
+        refreshedAtMillis = clock.getAsLong();
+        return true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    List<KnowledgeGraphSimilarityRow> findSimilar(int logicalEntityId, int limit) {
+      lock.readLock().lock();
+      try {
+        float[] query = index == null ? null : index.vector(logicalEntityId);
+        if (query == null) {
+          return List.of();
+        }
+        List<HnswIndex.Neighbor> neighbors =
+            index.size() <= EXACT_SEARCH_LIMIT
+                ? index.exactSearch(query, limit + 1)
+                : index.search(query, limit + 1, Math.max(efSearch, limit + 1));
+        List<KnowledgeGraphSimilarityRow> similar = new ArrayList<>(limit);
+        for (HnswIndex.Neighbor neighbor : neighbors) {
+          if (neighbor.key() != logicalEntityId && similar.size() < limit) {
+            similar.add(new KnowledgeGraphSimilarityRow(neighbor.key(), neighbor.similarity()));
+          }
+        }
+        return similar;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    void putAll(Map<Integer, float[]> embeddings) {
+      lock.writeLock().lock();
+      try {
+        if (loaded && !oversized) {
+          embeddings.forEach(this::put);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void remove(int logicalEntityId) {
+      lock.writeLock().lock();
+      try {
+        if (index != null) {
+          index.remove(logicalEntityId);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private boolean fresh() {
+      return loaded && clock.getAsLong() - refreshedAtMillis < refreshIntervalMillis;
+    }
+
+    private void put(int logicalEntityId, float[] vector) {
+      if (vector == null || vector.length != encoder.dimension()) {
+        // Written by an older encoder; it is re-encoded on the next publish of its diagram.
+        return;
+      }
+      if (index == null) {
+        index = new HnswIndex(vector.length, MAX_LINKS, EF_CONSTRUCTION, projectId);
+      }
+      index.put(logicalEntityId, vector);
+    }
+
+    private void markOversized() {
+      index = null;
+      oversized = true;
+      loaded = true;
+      loadedThrough = null;
+      refreshedAtMillis = clock.getAsLong();
+    }
+  }
+}
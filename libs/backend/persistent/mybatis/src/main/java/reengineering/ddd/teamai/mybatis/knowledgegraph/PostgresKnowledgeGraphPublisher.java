@@ -6,8 +6,14 @@ import reengineering.ddd.teamai.model.Project;
 import reengineering.ddd.teamai.model.Project.KnowledgeGraphPublishRequest;
 import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphJobsMapper;
 
+/**
+ * Queues a knowledge-graph rebuild and notifies {@link #CHANNEL}. The notification is delivered
+ * when the surrounding transaction commits, so the worker never wakes up before the job is visible.
+ */
 @Component
 public class PostgresKnowledgeGraphPublisher implements Project.KnowledgeGraphPublisher {
+  static final String CHANNEL = "teamai_kg_publish_jobs";
+
   private final KnowledgeGraphJobsMapper mapper;
 
   public PostgresKnowledgeGraphPublisher(KnowledgeGraphJobsMapper mapper) {
@@ -20,6 +26,7 @@ public class PostgresKnowledgeGraphPublisher implements Project.KnowledgeGraphPu
     int diagramId = parseIdentifier(request.diagramId(), "diagramId");
     Instant requestedAt = request.publishedAt() == null ? Instant.now() : request.publishedAt();
     mapper.upsertPublishJob(projectId, diagramId, requestedAt);
+    mapper.notifyPublishJob(CHANNEL, projectId + ":" + diagramId);
   }
 
   private static int parseIdentifier(String value, String name) {
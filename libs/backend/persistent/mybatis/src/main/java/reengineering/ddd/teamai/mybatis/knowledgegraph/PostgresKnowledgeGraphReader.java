@@ -1,19 +1,56 @@
 package reengineering.ddd.teamai.mybatis.knowledgegraph;
 
+import static reengineering.ddd.mybatis.support.Chunks.forEachChunk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Component;
 import reengineering.ddd.teamai.model.KnowledgeGraph;
+import reengineering.ddd.teamai.model.KnowledgeGraph.Direction;
 import reengineering.ddd.teamai.model.KnowledgeGraph.Edge;
+import reengineering.ddd.teamai.model.KnowledgeGraph.Neighborhood;
 import reengineering.ddd.teamai.model.KnowledgeGraph.Node;
+import reengineering.ddd.teamai.model.KnowledgeGraph.Page;
+import reengineering.ddd.teamai.model.KnowledgeGraph.Path;
+import reengineering.ddd.teamai.model.KnowledgeGraph.ReachedNode;
+import reengineering.ddd.teamai.model.KnowledgeGraph.SimilarNode;
+import reengineering.ddd.teamai.model.KnowledgeGraph.Traversal;
 import reengineering.ddd.teamai.model.KnowledgeGraphReader;
 import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphMapper;
+import reengineering.ddd.teamai.mybatis.support.AssociationTransactionDecorator;
 
 @Component
 public class PostgresKnowledgeGraphReader implements KnowledgeGraphReader {
+  private static final String NODE_CURSOR = "n:";
+  private static final String EDGE_CURSOR = "e:";
+  private static final String REACH_CURSOR = "r:";
+  private static final Comparator<KnowledgeGraphReachRow> REACH_ORDER =
+      Comparator.comparingInt(KnowledgeGraphReachRow::getDepth)
+          .thenComparingInt(KnowledgeGraphReachRow::getLogicalEntityId);
+
   private final KnowledgeGraphMapper mapper;
+  private final KnowledgeGraphSimilaritySearch similaritySearch;
+  private final AssociationTransactionDecorator transactions;
 
-  public PostgresKnowledgeGraphReader(KnowledgeGraphMapper mapper) {
+  public PostgresKnowledgeGraphReader(
+      KnowledgeGraphMapper mapper,
+      KnowledgeGraphSimilaritySearch similaritySearch,
+      AssociationTransactionDecorator transactions) {
     this.mapper = mapper;
+    this.similaritySearch = similaritySearch;
+    this.transactions = transactions;
   }
 
   @Override
@@ -21,26 +58,421 @@ public class PostgresKnowledgeGraphReader implements KnowledgeGraphReader {
     int parsedProjectId = Integer.parseInt(projectId);
     List<Node> nodes =
         mapper.findNodesByProjectId(parsedProjectId).stream()
-            .map(
-                row ->
-                    new Node(
-                        String.valueOf(row.getLogicalEntityId()),
-                        row.getLogicalEntityType(),
-                        row.getLogicalEntitySubType(),
-                        row.getLogicalEntityName(),
-                        row.getLogicalEntityLabel(),
-                        row.getLogicalEntityDefinition()))
+            .map(PostgresKnowledgeGraphReader::toNode)
             .toList();
     List<Edge> edges =
         mapper.findEdgesByProjectId(parsedProjectId).stream()
-            .map(
-                row ->
-                    new Edge(
-                        String.valueOf(row.getDiagramId()),
-                        String.valueOf(row.getSourceLogicalEntityId()),
-                        String.valueOf(row.getTargetLogicalEntityId()),
-                        row.getRelationType()))
+            .map(PostgresKnowledgeGraphReader::toEdge)
             .toList();
     return new KnowledgeGraph(projectId, nodes, edges);
   }
+
+  /**
+   * Reads through server-side cursors inside one transaction, so the database connection stays
+   * checked out until the sink has taken the last row.
+   */
+  @Override
+  public void exportProjectKnowledgeGraph(String projectId, KnowledgeGraph.Sink sink) {
+    int parsedProjectId = Integer.parseInt(projectId);
+    transactions.execute(
+        () -> {
+          try (Cursor<KnowledgeGraphNodeRow> nodes =
+              mapper.streamNodesByProjectId(parsedProjectId)) {
+            nodes.forEach(row -> sink.node(toNode(row)));
+          } catch (IOException error) {
+            throw new UncheckedIOException(error);
+          }
+          try (Cursor<KnowledgeGraphEdgeRow> edges =
+              mapper.streamEdgesByProjectId(parsedProjectId)) {
+            edges.forEach(row -> sink.edge(toEdge(row)));
+          } catch (IOException error) {
+            throw new UncheckedIOException(error);
+          }
+          return null;
+        });
+  }
+
+  @Override
+  public Page readProjectKnowledgeGraphPage(String projectId, String cursor, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    int parsedProjectId = Integer.parseInt(projectId);
+    String position = cursor == null ? NODE_CURSOR + 0 : decodeCursor(cursor);
+    List<Node> nodes = new ArrayList<>();
+    long afterEdgeId = 0;
+    if (position.startsWith(NODE_CURSOR)) {
+      List<KnowledgeGraphNodeRow> rows =
+          mapper.findNodesAfter(parsedProjectId, (int) parsePosition(position, cursor), limit + 1);
+      rows.stream().limit(limit).map(PostgresKnowledgeGraphReader::toNode).forEach(nodes::add);
+      if (rows.size() > limit) {
+        return new Page(
+            nodes, List.of(), encodeCursor(NODE_CURSOR + rows.get(limit - 1).getLogicalEntityId()));
+      }
+    } else if (position.startsWith(EDGE_CURSOR)) {
+      afterEdgeId = parsePosition(position, cursor);
+    } else {
+      throw new IllegalArgumentException("Invalid knowledge graph cursor: " + cursor);
+    }
+
+    int remaining = limit - nodes.size();
+    List<KnowledgeGraphEdgeRow> rows =
+        mapper.findEdgesAfter(parsedProjectId, afterEdgeId, remaining + 1);
+    List<KnowledgeGraphEdgeRow> taken = rows.subList(0, Math.min(remaining, rows.size()));
+    if (!taken.isEmpty()) {
+      afterEdgeId = taken.get(taken.size() - 1).getId();
+    }
+    String nextCursor = rows.size() > remaining ? encodeCursor(EDGE_CURSOR + afterEdgeId) : null;
+    return new Page(
+        nodes, taken.stream().map(PostgresKnowledgeGraphReader::toEdge).toList(), nextCursor);
+  }
+
+  @Override
+  public List<SimilarNode> findSimilarNodes(String projectId, String logicalEntityId, int limit) {
+    int parsedProjectId = Integer.parseInt(projectId);
+    Integer parsedLogicalEntityId = toIntOrNull(logicalEntityId);
+    if (parsedLogicalEntityId == null) {
+      return List.of();
+    }
+    List<KnowledgeGraphSimilarityRow> similar =
+        similaritySearch.findSimilar(parsedProjectId, parsedLogicalEntityId, limit);
+    if (similar.isEmpty()) {
+      return List.of();
+    }
+    Map<Integer, Node> nodes =
+        findNodes(
+            parsedProjectId,
+            similar.stream().map(KnowledgeGraphSimilarityRow::getLogicalEntityId).toList());
+    List<SimilarNode> result = new ArrayList<>(similar.size());
+    for (KnowledgeGraphSimilarityRow row : similar) {
+      Node node = nodes.get(row.getLogicalEntityId());
+      if (node == null) {
+        similaritySearch.entityRemoved(parsedProjectId, row.getLogicalEntityId());
+      } else {
+        result.add(new SimilarNode(node, row.getSimilarity()));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Neighborhood findNeighborhood(
+      String projectId, String logicalEntityId, Traversal traversal, String cursor, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    int parsedProjectId = Integer.parseInt(projectId);
+    KnowledgeGraphReachRow after = cursor == null ? null : parseReachCursor(cursor);
+    Integer start = toIntOrNull(logicalEntityId);
+    if (start == null) {
+      return new Neighborhood(logicalEntityId, List.of(), List.of(), null);
+    }
+    List<KnowledgeGraphReachRow> rows =
+        mapper.findReachableEntitiesAfter(
+            parsedProjectId,
+            start,
+            traversal.maxDepth(),
+            traversal.direction().name(),
+            traversal.relationTypes(),
+            after == null ? null : after.getDepth(),
+            after == null ? null : after.getLogicalEntityId(),
+            limit + 1);
+    List<KnowledgeGraphReachRow> page = rows.subList(0, Math.min(limit, rows.size()));
+    if (page.isEmpty()) {
+      return new Neighborhood(logicalEntityId, List.of(), List.of(), null);
+    }
+    KnowledgeGraphReachRow last = page.get(page.size() - 1);
+    String nextCursor =
+        rows.size() > limit
+            ? encodeCursor(REACH_CURSOR + last.getDepth() + ":" + last.getLogicalEntityId())
+            : null;
+
+    Map<Integer, KnowledgeGraphReachRow> reached = new HashMap<>();
+    page.forEach(row -> reached.put(row.getLogicalEntityId(), row));
+    List<Integer> pageIds = page.stream().map(KnowledgeGraphReachRow::getLogicalEntityId).toList();
+    Map<Integer, Node> nodes = findNodes(parsedProjectId, pageIds);
+    List<ReachedNode> reachedNodes = new ArrayList<>(page.size());
+    for (KnowledgeGraphReachRow row : page) {
+      Node node = nodes.get(row.getLogicalEntityId());
+      if (node != null) {
+        reachedNodes.add(new ReachedNode(node, row.getDepth()));
+      }
+    }
+
+    // An edge belongs to the page of its later endpoint in depth and id order. Edges with both
+    // endpoints on this page are kept by the chunk holding that endpoint; for the others, the depth
+    // of the endpoint off this page tells whether it was reached on an earlier page.
+    List<KnowledgeGraphEdgeRow> candidates = new ArrayList<>();
+    Set<Integer> offPage = new HashSet<>();
+    forEachChunk(
+        pageIds,
+        chunk -> {
+          Set<Integer> owners = new HashSet<>(chunk);
+          for (KnowledgeGraphEdgeRow row :
+              mapper.findEdgesOfEntities(
+                  parsedProjectId, chunk, Direction.BOTH.name(), traversal.relationTypes())) {
+            KnowledgeGraphReachRow source = reached.get(row.getSourceLogicalEntityId());
+            KnowledgeGraphReachRow target = reached.get(row.getTargetLogicalEntityId());
+            if (source == null) {
+              offPage.add(row.getSourceLogicalEntityId());
+            } else if (target == null) {
+              offPage.add(row.getTargetLogicalEntityId());
+            } else if (!owners.contains(later(source, target).getLogicalEntityId())) {
+              continue;
+            }
+            candidates.add(row);
+          }
+        });
+    forEachChunk(
+        new ArrayList<>(offPage),
+        chunk ->
+            mapper
+                .findReachedEntitiesAmong(
+                    parsedProjectId,
+                    start,
+                    traversal.maxDepth(),
+                    traversal.direction().name(),
+                    traversal.relationTypes(),
+                    chunk)
+                .forEach(row -> reached.put(row.getLogicalEntityId(), row)));
+    Set<Integer> onPage = new HashSet<>(pageIds);
+    List<Edge> edges = new ArrayList<>();
+    for (KnowledgeGraphEdgeRow row : candidates) {
+      KnowledgeGraphReachRow source = reached.get(row.getSourceLogicalEntityId());
+      KnowledgeGraphReachRow target = reached.get(row.getTargetLogicalEntityId());
+      if (source != null
+          && target != null
+          && onPage.contains(later(source, target).getLogicalEntityId())) {
+        edges.add(toEdge(row));
+      }
+    }
+    return new Neighborhood(logicalEntityId, reachedNodes, edges, nextCursor);
+  }
+
+  @Override
+  public Optional<Path> findShortestPath(
+      String projectId,
+      String fromLogicalEntityId,
+      String toLogicalEntityId,
+      Traversal traversal) {
+    int parsedProjectId = Integer.parseInt(projectId);
+    Integer source = toIntOrNull(fromLogicalEntityId);
+    Integer target = toIntOrNull(toLogicalEntityId);
+    if (source == null || target == null) {
+      return Optional.empty();
+    }
+
+    // Bidirectional breadth-first search, one query per level, expanding the smaller frontier.
+    // The first level on which the two searches meet gives a shortest path.
+    Map<Integer, KnowledgeGraphEdgeRow> forward = new HashMap<>();
+    Map<Integer, KnowledgeGraphEdgeRow> backward = new HashMap<>();
+    forward.put(source, null);
+    backward.put(target, null);
+    List<Integer> forwardFrontier = List.of(source);
+    List<Integer> backwardFrontier = List.of(target);
+    Integer meeting = source.equals(target) ? source : null;
+    for (int length = 0;
+        meeting == null
+            && length < traversal.maxDepth()
+            && !forwardFrontier.isEmpty()
+            && !backwardFrontier.isEmpty();
+        length++) {
+      if (forwardFrontier.size() <= backwardFrontier.size()) {
+        forwardFrontier =
+            expand(
+                parsedProjectId,
+                forwardFrontier,
+                traversal.direction(),
+                traversal.relationTypes(),
+                forward);
+        meeting = firstVisited(forwardFrontier, backward);
+      } else {
+        backwardFrontier =
+            expand(
+                parsedProjectId,
+                backwardFrontier,
+                reverse(traversal.direction()),
+                traversal.relationTypes(),
+                backward);
+        meeting = firstVisited(backwardFrontier, forward);
+      }
+    }
+    if (meeting == null) {
+      return Optional.empty();
+    }
+
+    List<Integer> ids = new ArrayList<>();
+    List<KnowledgeGraphEdgeRow> rows = new ArrayList<>();
+    walk(meeting, forward, ids, rows);
+    Collections.reverse(ids);
+    Collections.reverse(rows);
+    ids.remove(ids.size() - 1);
+    walk(meeting, backward, ids, rows);
+
+    Map<Integer, Node> nodes = findNodes(parsedProjectId, ids);
+    List<Node> pathNodes = new ArrayList<>(ids.size());
+    for (Integer id : ids) {
+      Node node = nodes.get(id);
+      if (node == null) {
+        return Optional.empty();
+      }
+      pathNodes.add(node);
+    }
+    return Optional.of(
+        new Path(pathNodes, rows.stream().map(PostgresKnowledgeGraphReader::toEdge).toList()));
+  }
+
+  private List<Integer> expand(
+      int projectId,
+      List<Integer> frontier,
+      Direction direction,
+      Set<String> relationTypes,
+      Map<Integer, KnowledgeGraphEdgeRow> visited) {
+    Set<Integer> frontierIds = new HashSet<>(frontier);
+    List<Integer> next = new ArrayList<>();
+    forEachChunk(
+        frontier,
+        chunk -> {
+          for (KnowledgeGraphEdgeRow row :
+              mapper.findEdgesOfEntities(projectId, chunk, direction.name(), relationTypes)) {
+            if (direction != Direction.INCOMING
+                && frontierIds.contains(row.getSourceLogicalEntityId())) {
+              visit(row.getTargetLogicalEntityId(), row, visited, next);
+            }
+            if (direction != Direction.OUTGOING
+                && frontierIds.contains(row.getTargetLogicalEntityId())) {
+              visit(row.getSourceLogicalEntityId(), row, visited, next);
+            }
+          }
+        });
+    return next;
+  }
+
+  private static void visit(
+      int logicalEntityId,
+      KnowledgeGraphEdgeRow via,
+      Map<Integer, KnowledgeGraphEdgeRow> visited,
+      List<Integer> next) {
+    if (!visited.containsKey(logicalEntityId)) {
+      visited.put(logicalEntityId, via);
+      next.add(logicalEntityId);
+    }
+  }
+
+  private static Integer firstVisited(List<Integer> frontier, Map<Integer, ?> visited) {
+    Integer first = null;
+    for (Integer id : frontier) {
+      if (visited.containsKey(id) && (first == null || id < first)) {
+        first = id;
+      }
+    }
+    return first;
+  }
+
+  /** Follows the edges a search reached {@code from} by back to where the search started. */
+  private static void walk(
+      int from,
+      Map<Integer, KnowledgeGraphEdgeRow> visited,
+      List<Integer> ids,
+      List<KnowledgeGraphEdgeRow> rows) {
+    int current = from;
+    ids.add(current);
+    KnowledgeGraphEdgeRow via = visited.get(current);
+    while (via != null) {
+      current =
+          via.getSourceLogicalEntityId() == current
+              ? via.getTargetLogicalEntityId()
+              : via.getSourceLogicalEntityId();
+      rows.add(via);
+      ids.add(current);
+      via = visited.get(current);
+    }
+  }
+
+  private static Direction reverse(Direction direction) {
+    return switch (direction) {
+      case OUTGOING -> Direction.INCOMING;
+      case INCOMING -> Direction.OUTGOING;
+      case BOTH -> Direction.BOTH;
+    };
+  }
+
+  private Map<Integer, Node> findNodes(int projectId, List<Integer> logicalEntityIds) {
+    Map<Integer, Node> nodes = new HashMap<>();
+    forEachChunk(
+        logicalEntityIds,
+        chunk ->
+            mapper
+                .findNodesByLogicalEntityIds(projectId, chunk)
+                .forEach(row -> nodes.put(row.getLogicalEntityId(), toNode(row))));
+    return nodes;
+  }
+
+  private static String encodeCursor(String position) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodeCursor(String cursor) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException error) {
+      throw new IllegalArgumentException("Invalid knowledge graph cursor: " + cursor, error);
+    }
+  }
+
+  private static long parsePosition(String position, String cursor) {
+    try {
+      return Long.parseLong(position.substring(NODE_CURSOR.length()));
+    } catch (NumberFormatException error) {
+      throw new IllegalArgumentException("Invalid knowledge graph cursor: " + cursor, error);
+    }
+  }
+
+  private static KnowledgeGraphReachRow parseReachCursor(String cursor) {
+    String[] parts = decodeCursor(cursor).split(":");
+    if (parts.length != 3 || !REACH_CURSOR.equals(parts[0] + ":")) {
+      throw new IllegalArgumentException("Invalid neighborhood cursor: " + cursor);
+    }
+    KnowledgeGraphReachRow after = new KnowledgeGraphReachRow();
+    try {
+      after.setDepth(Integer.parseInt(parts[1]));
+      after.setLogicalEntityId(Integer.parseInt(parts[2]));
+    } catch (NumberFormatException error) {
+      throw new IllegalArgumentException("Invalid neighborhood cursor: " + cursor, error);
+    }
+    return after;
+  }
+
+  private static KnowledgeGraphReachRow later(
+      KnowledgeGraphReachRow one, KnowledgeGraphReachRow other) {
+    return REACH_ORDER.compare(one, other) >= 0 ? one : other;
+  }
+
+  private static Integer toIntOrNull(String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException error) {
+      return null;
+    }
+  }
+
+  private static Node toNode(KnowledgeGraphNodeRow row) {
+    return new Node(
+        String.valueOf(row.getLogicalEntityId()),
+        row.getLogicalEntityType(),
+        row.getLogicalEntitySubType(),
+        row.getLogicalEntityName(),
+        row.getLogicalEntityLabel(),
+        row.getLogicalEntityDefinition());
+  }
+
+  private static Edge toEdge(KnowledgeGraphEdgeRow row) {
+    return new Edge(
+        String.valueOf(row.getDiagramId()),
+        String.valueOf(row.getSourceLogicalEntityId()),
+        String.valueOf(row.getTargetLogicalEntityId()),
+        row.getRelationType());
+  }
 }
@@ -1,6 +1,7 @@
 package reengineering.ddd.teamai.mybatis.mappers;
 
 import java.util.List;
+import java.util.Map;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import reengineering.ddd.mybatis.support.IdHolder;
@@ -18,7 +19,13 @@ public interface DiagramEdgesMapper {
       @Param("diagram_id") int diagramId,
       @Param("description") EdgeDescription description);
 
-  int deleteEdgesByDiagram(@Param("diagram_id") int diagramId);
+  int insertEdges(
+      @Param("diagram_id") int diagramId, @Param("edges") List<EdgeDescription> edges);
+
+  int updateEdges(
+      @Param("diagram_id") int diagramId, @Param("edges") Map<Integer, EdgeDescription> edges);
+
+  int deleteEdgesByIds(@Param("diagram_id") int diagramId, @Param("ids") List<Integer> ids);
 
   int countEdgesByDiagram(@Param("diagram_id") int diagramId);
 }
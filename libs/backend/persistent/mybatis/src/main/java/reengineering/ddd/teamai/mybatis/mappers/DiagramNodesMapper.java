@@ -1,6 +1,7 @@
 package reengineering.ddd.teamai.mybatis.mappers;
 
 import java.util.List;
+import java.util.Map;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import reengineering.ddd.mybatis.support.IdHolder;
@@ -13,25 +14,30 @@ public interface DiagramNodesMapper {
 
   List<DiagramNode> findNodesByDiagramId(@Param("diagram_id") int diagramId);
 
+  List<DiagramNode> findPlainNodesByDiagramId(@Param("diagram_id") int diagramId);
+
+  List<Integer> reserveNodeIds(@Param("count") int count);
+
   int insertNode(
       @Param("holder") IdHolder holder,
       @Param("diagram_id") int diagramId,
       @Param("description") NodeDescription description);
 
-  int updateNode(
-      @Param("diagram_id") int diagramId,
-      @Param("id") int id,
-      @Param("description") NodeDescription description);
+  int insertNodes(
+      @Param("diagram_id") int diagramId, @Param("nodes") Map<Integer, NodeDescription> nodes);
+
+  int updateNodes(
+      @Param("diagram_id") int diagramId, @Param("nodes") Map<Integer, NodeDescription> nodes);
 
   int deleteNodesByIds(@Param("diagram_id") int diagramId, @Param("ids") List<Integer> ids);
 
   List<Integer> findNodeIdsWithoutLogicalEntityForPublish(
       @Param("project_id") int projectId, @Param("diagram_id") int diagramId);
 
-  int promoteNodeLocalDataToLogicalEntity(
+  int promoteNodeLocalDataToLogicalEntities(
       @Param("project_id") int projectId,
       @Param("diagram_id") int diagramId,
-      @Param("node_id") int nodeId);
+      @Param("node_ids") List<Integer> nodeIds);
 
   int countNodesByDiagram(@Param("diagram_id") int diagramId);
 }
@@ -13,7 +13,14 @@ public interface KnowledgeGraphJobsMapper {
       @Param("diagram_id") int diagramId,
       @Param("requested_at") Instant requestedAt);
 
-  List<KnowledgeGraphJobRow> claimPendingJobs(@Param("limit") int limit);
+  void notifyPublishJob(@Param("channel") String channel, @Param("payload") String payload);
+
+  void lockJobClaims();
+
+  List<KnowledgeGraphJobRow> claimPendingJobs(
+      @Param("limit") int limit, @Param("running_timeout_seconds") int runningTimeoutSeconds);
+
+  long countPendingJobs();
 
   void markSucceeded(@Param("id") long id);
 
@@ -1,35 +1,110 @@
 package reengineering.ddd.teamai.mybatis.mappers;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import reengineering.ddd.teamai.mybatis.knowledgegraph.KnowledgeGraphEdgeRow;
+import reengineering.ddd.teamai.mybatis.knowledgegraph.KnowledgeGraphEmbeddingRow;
 import reengineering.ddd.teamai.mybatis.knowledgegraph.KnowledgeGraphNodeRow;
+import reengineering.ddd.teamai.mybatis.knowledgegraph.KnowledgeGraphReachRow;
+import reengineering.ddd.teamai.mybatis.knowledgegraph.KnowledgeGraphSimilarityRow;
 
 @Mapper
 public interface KnowledgeGraphMapper {
   void deleteEdgesByProjectAndDiagram(
       @Param("project_id") int projectId, @Param("diagram_id") int diagramId);
 
-  void upsertNode(
-      @Param("project_id") int projectId, @Param("logical_entity_id") int logicalEntityId);
+  void deleteEdgesByIds(@Param("project_id") int projectId, @Param("ids") List<Long> ids);
 
-  void upsertEdge(
+  List<KnowledgeGraphEdgeRow> findEdgesByProjectAndDiagram(
+      @Param("project_id") int projectId, @Param("diagram_id") int diagramId);
+
+  void upsertEdges(
       @Param("project_id") int projectId,
       @Param("diagram_id") int diagramId,
-      @Param("source_node_id") Integer sourceNodeId,
-      @Param("target_node_id") Integer targetNodeId,
-      @Param("source_logical_entity_id") int sourceLogicalEntityId,
-      @Param("target_logical_entity_id") int targetLogicalEntityId,
-      @Param("relation_type") String relationType);
+      @Param("edges") List<KnowledgeGraphEdgeRow> edges);
+
+  void upsertNodes(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_ids") List<Integer> logicalEntityIds);
+
+  List<Integer> findUnreferencedNodeEntityIds(@Param("project_id") int projectId);
+
+  void deleteNodesByEntityIds(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_ids") List<Integer> logicalEntityIds);
+
+  void deleteEmbeddingsByEntityIds(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_ids") List<Integer> logicalEntityIds);
+
+  List<KnowledgeGraphEmbeddingRow> findEmbeddingHashes(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_ids") List<Integer> logicalEntityIds);
+
+  void upsertEmbeddings(
+      @Param("project_id") int projectId,
+      @Param("embeddings") List<KnowledgeGraphEmbeddingRow> embeddings,
+      @Param("with_vector") boolean withVector);
+
+  int countEmbeddings(@Param("project_id") int projectId);
+
+  List<KnowledgeGraphEmbeddingRow> findEmbeddingVectors(
+      @Param("project_id") int projectId, @Param("updated_after") Instant updatedAfter);
+
+  int findEmbeddingVectorDimension();
 
-  void upsertEmbedding(
+  List<KnowledgeGraphSimilarityRow> findSimilarByVector(
       @Param("project_id") int projectId,
       @Param("logical_entity_id") int logicalEntityId,
-      @Param("source_text") String sourceText,
-      @Param("embedding_literal") String embeddingLiteral);
+      @Param("limit") int limit);
 
   List<KnowledgeGraphNodeRow> findNodesByProjectId(@Param("project_id") int projectId);
 
+  List<KnowledgeGraphNodeRow> findNodesByLogicalEntityIds(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_ids") List<Integer> logicalEntityIds);
+
   List<KnowledgeGraphEdgeRow> findEdgesByProjectId(@Param("project_id") int projectId);
+
+  Cursor<KnowledgeGraphNodeRow> streamNodesByProjectId(@Param("project_id") int projectId);
+
+  Cursor<KnowledgeGraphEdgeRow> streamEdgesByProjectId(@Param("project_id") int projectId);
+
+  List<KnowledgeGraphNodeRow> findNodesAfter(
+      @Param("project_id") int projectId,
+      @Param("after_logical_entity_id") int afterLogicalEntityId,
+      @Param("limit") int limit);
+
+  List<KnowledgeGraphEdgeRow> findEdgesAfter(
+      @Param("project_id") int projectId,
+      @Param("after_id") long afterId,
+      @Param("limit") int limit);
+
+  List<KnowledgeGraphReachRow> findReachableEntitiesAfter(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_id") int logicalEntityId,
+      @Param("max_depth") int maxDepth,
+      @Param("direction") String direction,
+      @Param("relation_types") Collection<String> relationTypes,
+      @Param("after_depth") Integer afterDepth,
+      @Param("after_logical_entity_id") Integer afterLogicalEntityId,
+      @Param("limit") int limit);
+
+  List<KnowledgeGraphReachRow> findReachedEntitiesAmong(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_id") int logicalEntityId,
+      @Param("max_depth") int maxDepth,
+      @Param("direction") String direction,
+      @Param("relation_types") Collection<String> relationTypes,
+      @Param("logical_entity_ids") List<Integer> logicalEntityIds);
+
+  List<KnowledgeGraphEdgeRow> findEdgesOfEntities(
+      @Param("project_id") int projectId,
+      @Param("logical_entity_ids") Collection<Integer> logicalEntityIds,
+      @Param("direction") String direction,
+      @Param("relation_types") Collection<String> relationTypes);
 }
@@ -3,13 +3,23 @@ package reengineering.ddd.teamai.mybatis.mappers;
 import java.time.Instant;
 
 public class ProjectAcpSessionEventRow {
+  private int projectId;
   private int sessionId;
   private String eventId;
+  private Long seq;
   private String eventType;
   private Instant emittedAt;
   private String dataJson;
   private String errorJson;
 
+  public int getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(int projectId) {
+    this.projectId = projectId;
+  }
+
   public int getSessionId() {
     return sessionId;
   }
@@ -26,6 +36,14 @@ public class ProjectAcpSessionEventRow {
     this.eventId = eventId;
   }
 
+  public Long getSeq() {
+    return seq;
+  }
+
+  public void setSeq(Long seq) {
+    this.seq = seq;
+  }
+
   public String getEventType() {
     return eventType;
   }
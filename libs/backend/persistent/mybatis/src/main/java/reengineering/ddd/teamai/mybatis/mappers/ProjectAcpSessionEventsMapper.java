@@ -11,9 +11,17 @@ public interface ProjectAcpSessionEventsMapper {
       @Param("session_id") int sessionId,
       @Param("event") ProjectAcpSessionEventRow event);
 
+  int insertEvents(@Param("events") List<ProjectAcpSessionEventRow> events);
+
   List<ProjectAcpSessionEventRow> findEventsBySession(
       @Param("project_id") int projectId,
       @Param("session_id") int sessionId,
-      @Param("after_event_id") String afterEventId,
+      @Param("after_seq") Long afterSeq,
       @Param("size") int size);
+
+  long nextSeq(@Param("project_id") int projectId, @Param("session_id") int sessionId);
+
+  Integer findSessionProjectId(@Param("session_id") int sessionId);
+
+  long findLastSeq(@Param("project_id") int projectId, @Param("session_id") int sessionId);
 }
@@ -15,6 +15,11 @@ public interface ProjectAcpSessionsMapper {
   List<AcpSession> findSessionsByProjectId(
       @Param("project_id") int projectId, @Param("from") int from, @Param("size") int size);
 
+  List<AcpSession> findSessionsByProjectIdAfter(
+      @Param("project_id") int projectId,
+      @Param("after_id") Integer afterId,
+      @Param("size") int size);
+
   int insertSession(
       @Param("holder") IdHolder holder,
       @Param("project_id") int projectId,
@@ -14,6 +14,18 @@ public interface ProjectAgentEventsMapper {
   List<AgentEvent> findEventsByProjectId(
       @Param("project_id") int projectId, @Param("from") int from, @Param("size") int size);
 
+  List<AgentEvent> findEventsByProjectIdAfter(
+      @Param("project_id") int projectId,
+      @Param("after_id") Integer afterId,
+      @Param("size") int size);
+
+  List<AgentEvent> findEventsAppendedAfter(
+      @Param("project_id") int projectId,
+      @Param("after_id") Integer afterId,
+      @Param("size") int size);
+
+  AgentEvent findLastAppendedEvent(@Param("project_id") int projectId);
+
   int insertEvent(
       @Param("holder") IdHolder holder,
       @Param("project_id") int projectId,
@@ -0,0 +1,28 @@
+package reengineering.ddd.teamai.mybatis.mappers;
+
+import java.time.Instant;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface SharedCacheMapper {
+  byte[] findValue(@Param("cache_name") String cacheName, @Param("cache_key") String cacheKey);
+
+  void upsertValue(
+      @Param("cache_name") String cacheName,
+      @Param("cache_key") String cacheKey,
+      @Param("parent_key") String parentKey,
+      @Param("value") byte[] value,
+      @Param("expires_at") Instant expiresAt);
+
+  int deleteValue(@Param("cache_name") String cacheName, @Param("cache_key") String cacheKey);
+
+  int deleteValuesByParent(
+      @Param("cache_name") String cacheName, @Param("parent_key") String parentKey);
+
+  int deleteValuesByCache(@Param("cache_name") String cacheName);
+
+  int deleteExpiredValues();
+
+  void notifyChannel(@Param("channel") String channel, @Param("payload") String payload);
+}
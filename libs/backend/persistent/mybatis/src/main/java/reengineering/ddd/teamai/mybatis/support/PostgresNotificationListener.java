@@ -0,0 +1,128 @@
+package reengineering.ddd.teamai.mybatis.support;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds one dedicated connection that {@code LISTEN}s on the subscribed Postgres channels and
+ * dispatches {@code NOTIFY} payloads to the subscribers on a single daemon thread.
+ *
+ * <p>Subscriptions must be made before the application context starts. Without subscriptions no
+ * connection is taken. The connection is re-established after failures.
+ */
+@Component
+public class PostgresNotificationListener implements SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(PostgresNotificationListener.class);
+  private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+  private final DataSource dataSource;
+  private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+  private final int pollTimeoutMillis;
+  private final long reconnectDelayMillis;
+  private volatile boolean running;
+  private Thread listenerThread;
+
+  public PostgresNotificationListener(
+      DataSource dataSource,
+      @Value("${teamai.postgres.notification.poll-timeout-ms:5000}") int pollTimeoutMillis,
+      @Value("${teamai.postgres.notification.reconnect-delay-ms:5000}")
+          long reconnectDelayMillis) {
+    this.dataSource = dataSource;
+    this.pollTimeoutMillis = pollTimeoutMillis;
+    this.reconnectDelayMillis = reconnectDelayMillis;
+  }
+
+  public void subscribe(String channel, Consumer<String> subscriber) {
+    if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+      throw new IllegalArgumentException("Invalid notification channel: " + channel);
+    }
+    subscribers.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(subscriber);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running || subscribers.isEmpty()) {
+      return;
+    }
+    running = true;
+    listenerThread = new Thread(this::listen, "postgres-notification-listener");
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    running = false;
+    if (listenerThread != null) {
+      listenerThread.interrupt();
+      listenerThread = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = dataSource.getConnection()) {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        try (Statement statement = connection.createStatement()) {
+          for (String channel : subscribers.keySet()) {
+            statement.execute("LISTEN " + channel);
+          }
+        }
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+          if (notifications == null) {
+            continue;
+          }
+          for (PGNotification notification : notifications) {
+            dispatch(notification.getName(), notification.getParameter());
+          }
+        }
+      } catch (SQLException error) {
+        if (!running) {
+          return;
+        }
+        log.warn("Postgres notification listener disconnected, reconnecting", error);
+        sleepBeforeReconnect();
+      }
+    }
+  }
+
+  private void dispatch(String channel, String payload) {
+    for (Consumer<String> subscriber : subscribers.getOrDefault(channel, List.of())) {
+      try {
+        subscriber.accept(payload);
+      } catch (RuntimeException error) {
+        log.warn("Notification subscriber failed on channel {}", channel, error);
+      }
+    }
+  }
+
+  private void sleepBeforeReconnect() {
+    try {
+      Thread.sleep(reconnectDelayMillis);
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package reengineering.ddd.teamai.mybatis.typehandler;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+import org.postgresql.PGConnection;
+
+/**
+ * Binds {@code float[]} as a Postgres {@code real[]}. The driver encodes primitive arrays in the
+ * binary wire format, so vectors are never formatted as text.
+ */
+@MappedTypes(float[].class)
+public class FloatArrayHandler extends BaseTypeHandler<float[]> {
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, float[] parameter, JdbcType jdbcType) throws SQLException {
+    PGConnection connection = ps.getConnection().unwrap(PGConnection.class);
+    ps.setArray(i, connection.createArrayOf("float4", parameter));
+  }
+
+  @Override
+  public float[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return toFloats(rs.getArray(columnName));
+  }
+
+  @Override
+  public float[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return toFloats(rs.getArray(columnIndex));
+  }
+
+  @Override
+  public float[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return toFloats(cs.getArray(columnIndex));
+  }
+
+  private static float[] toFloats(Array array) throws SQLException {
+    if (array == null) {
+      return null;
+    }
+    try {
+      Object[] values = (Object[]) array.getArray();
+      float[] floats = new float[values.length];
+      for (int i = 0; i < values.length; i++) {
+        floats[i] = ((Number) values[i]).floatValue();
+      }
+      return floats;
+    } finally {
+      array.free();
+    }
+  }
+}
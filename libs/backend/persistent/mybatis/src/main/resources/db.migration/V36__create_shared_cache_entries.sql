@@ -0,0 +1,18 @@
+-- Shared second-level cache for HydratingCacheManager when several server nodes run side by side.
+-- Entries are disposable, so the table is unlogged.
+
+CREATE UNLOGGED TABLE shared_cache_entries (
+    cache_name     VARCHAR(128) NOT NULL,
+    cache_key      VARCHAR(512) NOT NULL,
+    parent_key     VARCHAR(512) NOT NULL,
+    value          BYTEA NOT NULL,
+    expires_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (cache_name, cache_key)
+);
+
+CREATE INDEX idx_shared_cache_entries_parent
+    ON shared_cache_entries(cache_name, parent_key);
+
+CREATE INDEX idx_shared_cache_entries_expires_at
+    ON shared_cache_entries(expires_at);
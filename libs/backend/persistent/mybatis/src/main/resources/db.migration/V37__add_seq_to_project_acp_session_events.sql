@@ -0,0 +1,40 @@
+-- Per-session event sequence, carried as the numeric suffix of event ids, so replay after a
+-- Last-Event-ID is a range scan on seq. Sequences are allocated from one counter row per session.
+-- Existing rows are numbered in insertion order and their event ids are rewritten to end in that
+-- number; a client still holding a pre-migration id is resumed by its suffix like any other.
+
+ALTER TABLE project_acp_session_events ADD COLUMN seq BIGINT;
+
+UPDATE project_acp_session_events AS events
+SET seq = numbered.seq
+FROM (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY project_id, session_id ORDER BY id) AS seq
+    FROM project_acp_session_events
+) AS numbered
+WHERE events.id = numbered.id;
+
+ALTER TABLE project_acp_session_events
+    DROP CONSTRAINT project_acp_session_events_event_id_key;
+
+UPDATE project_acp_session_events
+SET event_id = 'acp-' || session_id || '-' || LOWER(event_type) || '-' || seq;
+
+ALTER TABLE project_acp_session_events
+    ADD CONSTRAINT project_acp_session_events_event_id_key UNIQUE (event_id);
+
+ALTER TABLE project_acp_session_events ALTER COLUMN seq SET NOT NULL;
+
+CREATE UNIQUE INDEX ux_project_acp_session_events_project_session_seq
+    ON project_acp_session_events(project_id, session_id, seq);
+
+CREATE TABLE project_acp_session_event_sequences (
+    project_id     INTEGER NOT NULL REFERENCES projects(id) ON DELETE CASCADE,
+    session_id     INTEGER NOT NULL REFERENCES project_acp_sessions(id) ON DELETE CASCADE,
+    last_seq       BIGINT NOT NULL,
+    PRIMARY KEY (project_id, session_id)
+);
+
+INSERT INTO project_acp_session_event_sequences(project_id, session_id, last_seq)
+SELECT project_id, session_id, MAX(seq)
+FROM project_acp_session_events
+GROUP BY project_id, session_id;
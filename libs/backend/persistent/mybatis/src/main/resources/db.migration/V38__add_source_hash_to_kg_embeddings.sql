@@ -0,0 +1,5 @@
+-- Content hash of kg_embeddings.source_text and the encoder id, so a republish only re-encodes
+-- entities whose text or encoder changed. Existing rows keep a NULL hash: the encoder id lives in
+-- the application configuration, so the publish worker fills the hash when it next encodes them.
+
+ALTER TABLE kg_embeddings ADD COLUMN source_hash VARCHAR(64);
@@ -0,0 +1,33 @@
+-- Embeddings now come from the hashed character n-gram encoder: 256 real dimensions instead of
+-- 8 doubles, bound as binary arrays. Old vectors are ignored by similarity search, and every
+-- published diagram is queued again so its entities are re-encoded after the upgrade.
+
+ALTER TABLE kg_embeddings
+    ALTER COLUMN embedding TYPE REAL[];
+
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1
+        FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND table_name = 'kg_embeddings'
+          AND column_name = 'embedding_vector'
+    ) THEN
+        DROP INDEX IF EXISTS idx_kg_embeddings_vector_l2;
+        ALTER TABLE kg_embeddings DROP COLUMN embedding_vector;
+        ALTER TABLE kg_embeddings ADD COLUMN embedding_vector vector(256);
+        CREATE INDEX idx_kg_embeddings_vector_l2
+            ON kg_embeddings
+            USING ivfflat (embedding_vector vector_l2_ops)
+            WITH (lists = 100);
+    END IF;
+END $$;
+
+UPDATE kg_publish_jobs
+SET status = 'PENDING',
+    attempt_count = 0,
+    next_run_at = CURRENT_TIMESTAMP,
+    last_error = NULL,
+    updated_at = CURRENT_TIMESTAMP
+WHERE status = 'SUCCEEDED';
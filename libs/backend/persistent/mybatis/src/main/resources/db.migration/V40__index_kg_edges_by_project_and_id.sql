@@ -0,0 +1,4 @@
+-- The knowledge-graph export walks a project's edges in id order, one page after another.
+
+CREATE INDEX IF NOT EXISTS idx_kg_edges_project_id
+    ON kg_edges(project_id, id);
@@ -0,0 +1,11 @@
+-- Agent events and ACP sessions are paged newest first by seeking past the last row of the
+-- previous page, so the sort key needs the id as a tie-breaker.
+
+CREATE INDEX IF NOT EXISTS idx_project_agent_events_project_time_id
+    ON project_agent_events(project_id, occurred_at DESC, id DESC);
+
+-- Covered by the index above.
+DROP INDEX IF EXISTS idx_project_agent_events_project_time;
+
+CREATE INDEX IF NOT EXISTS idx_project_acp_sessions_project_created_id
+    ON project_acp_sessions(project_id, created_at DESC, id DESC);
@@ -0,0 +1,4 @@
+-- The agent event stream tails a project's events in append (id) order past a high-water mark.
+
+CREATE INDEX IF NOT EXISTS idx_project_agent_events_project_id
+    ON project_agent_events(project_id, id);
@@ -291,6 +291,55 @@ public class DiagramEdgesTest {
     assertEquals(node2.getIdentity(), edgesAfterCommit.get(0).getDescription().targetNode().id());
   }
 
+  @Test
+  public void should_keep_unchanged_edges_and_update_changed_edges_in_place() {
+    DiagramEdge unchangedEdge =
+        diagram.addEdge(
+            new EdgeDescription(
+                new Ref<>(node1.getIdentity()),
+                new Ref<>(node2.getIdentity()),
+                null,
+                null,
+                null,
+                null,
+                null,
+                false));
+    DiagramEdge hiddenEdge =
+        diagram.addEdge(
+            new EdgeDescription(
+                new Ref<>(node2.getIdentity()),
+                new Ref<>(node1.getIdentity()),
+                null,
+                null,
+                null,
+                null,
+                null,
+                false));
+
+    ((DiagramEdges) diagram.edges())
+        .commitDraftEdges(
+            List.of(
+                new Project.Diagrams.DraftEdge(node1.getIdentity(), node2.getIdentity(), false),
+                new Project.Diagrams.DraftEdge(node2.getIdentity(), node1.getIdentity(), true),
+                new Project.Diagrams.DraftEdge(node1.getIdentity(), node2.getIdentity(), true)),
+            Map.of());
+
+    List<DiagramEdge> edgesAfterCommit = diagram.edges().findAll().stream().toList();
+    assertEquals(3, edgesAfterCommit.size());
+    assertTrue(
+        edgesAfterCommit.stream()
+            .anyMatch(
+                edge ->
+                    edge.getIdentity().equals(unchangedEdge.getIdentity())
+                        && !edge.getDescription().hidden()));
+    assertTrue(
+        edgesAfterCommit.stream()
+            .anyMatch(
+                edge ->
+                    edge.getIdentity().equals(hiddenEdge.getIdentity())
+                        && edge.getDescription().hidden()));
+  }
+
   @Test
   public void should_find_single_edge_of_diagram() {
     JsonBlob styleProps = edgeStyleProps("dashed", "#666666", "diamond", 1);
@@ -9,8 +9,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -325,6 +327,63 @@ public class DiagramNodesTest {
     assertTrue(diagram.nodes().findByIdentity(removedNode.getIdentity()).isEmpty());
   }
 
+  @Test
+  public void should_commit_nested_draft_nodes_under_existing_parent() {
+    DiagramNode existingGroup =
+        diagram.addNode(
+            new NodeDescription("group-node", null, null, 0.0, 0.0, 800, 600, null, null));
+    NodeDescription group =
+        new NodeDescription("group-node", null, null, 0.0, 0.0, 800, 600, null, null);
+    NodeDescription innerGroup =
+        new NodeDescription(
+            "group-node",
+            null,
+            new Ref<>(existingGroup.getIdentity()),
+            10.0,
+            10.0,
+            400,
+            300,
+            null,
+            null);
+    NodeDescription leaf =
+        new NodeDescription(
+            "class-node", null, new Ref<>("node-1"), 20.0, 20.0, 100, 80, null, null);
+
+    Map<String, String> createdNodeIdByRef =
+        ((DiagramNodes) diagram.nodes())
+            .commitDraftNodes(
+                List.of(
+                    new Project.Diagrams.DraftNode("node-2", leaf),
+                    new Project.Diagrams.DraftNode("node-1", innerGroup),
+                    new Project.Diagrams.DraftNode(existingGroup.getIdentity(), group)));
+
+    assertEquals(existingGroup.getIdentity(), createdNodeIdByRef.get(existingGroup.getIdentity()));
+    assertEquals(3, diagram.nodes().findAll().size());
+    DiagramNode innerNode =
+        diagram.nodes().findByIdentity(createdNodeIdByRef.get("node-1")).orElseThrow();
+    assertEquals(existingGroup.getIdentity(), innerNode.getDescription().parent().id());
+    DiagramNode leafNode =
+        diagram.nodes().findByIdentity(createdNodeIdByRef.get("node-2")).orElseThrow();
+    assertEquals(createdNodeIdByRef.get("node-1"), leafNode.getDescription().parent().id());
+  }
+
+  @Test
+  public void should_reject_existing_node_id_that_is_not_in_diagram() {
+    Project.Diagrams.InvalidDraftException error =
+        assertThrows(
+            Project.Diagrams.InvalidDraftException.class,
+            () ->
+                ((DiagramNodes) diagram.nodes())
+                    .commitDraftNodes(
+                        List.of(
+                            new Project.Diagrams.DraftNode(
+                                "999999",
+                                new NodeDescription(
+                                    "class-node", null, null, 0.0, 0.0, 100, 80, null, null)))));
+
+    assertEquals("Node not found: 999999", error.getMessage());
+  }
+
   @Test
   public void should_reject_non_numeric_existing_node_id_in_commit_draft_nodes() {
     Project.Diagrams.InvalidDraftException error =
@@ -787,6 +846,56 @@ public class DiagramNodesTest {
     assertTrue(promotedNode.getDescription().localData().json().contains("\"content\""));
   }
 
+  @Test
+  public void should_promote_each_node_to_its_own_logical_entity_in_one_publish() {
+    int projectId = Integer.parseInt(project.getIdentity());
+    int diagramId = Integer.parseInt(diagram.getIdentity());
+    List<String> names = List.of("Order", "Customer", "Invoice");
+    for (int i = 0; i < names.size(); i++) {
+      testData.insertDiagramNode(
+          920010 + i,
+          diagramId,
+          "fulfillment-node",
+          null,
+          null,
+          100.0 + i * 100,
+          200.0,
+          220,
+          120,
+          "{}",
+          "{\"name\":\"" + names.get(i) + "\",\"type\":\"PARTICIPANT\"}");
+    }
+    testData.insertDiagramNode(
+        920013,
+        diagramId,
+        "sticky-note",
+        null,
+        null,
+        500.0,
+        200.0,
+        220,
+        120,
+        "{}",
+        "{\"content\":\"待定\",\"type\":\"sticky-note\"}");
+
+    ((DiagramNodes) diagram.nodes()).promoteNodeLocalDataToLogicalEntitiesForPublish(projectId);
+
+    Set<String> logicalEntityIds = new HashSet<>();
+    for (int i = 0; i < names.size(); i++) {
+      DiagramNode promotedNode =
+          diagram.nodes().findByIdentity(String.valueOf(920010 + i)).orElseThrow();
+      assertNotNull(promotedNode.logicalEntity());
+      assertEquals(names.get(i), promotedNode.logicalEntity().getDescription().name());
+      assertEquals(names.get(i), promotedNode.logicalEntity().getDescription().label());
+      assertEquals("{}", promotedNode.getDescription().localData().json());
+      logicalEntityIds.add(promotedNode.logicalEntity().getIdentity());
+    }
+    assertEquals(names.size(), logicalEntityIds.size());
+    DiagramNode stickyNote = diagram.nodes().findByIdentity("920013").orElseThrow();
+    assertNull(stickyNote.logicalEntity());
+    assertTrue(stickyNote.getDescription().localData().json().contains("\"content\""));
+  }
+
   @Test
   public void should_preserve_eager_loaded_nodes_after_cache_hydration() throws Exception {
     // Add some nodes
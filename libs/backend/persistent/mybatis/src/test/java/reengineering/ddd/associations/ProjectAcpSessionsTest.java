@@ -2,10 +2,13 @@ package reengineering.ddd.associations;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import jakarta.inject.Inject;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +20,7 @@ import reengineering.ddd.TestCacheConfig;
 import reengineering.ddd.TestContainerConfig;
 import reengineering.ddd.TestDataSetup;
 import reengineering.ddd.archtype.Ref;
+import reengineering.ddd.archtype.SeekableMany;
 import reengineering.ddd.teamai.description.AcpSessionDescription;
 import reengineering.ddd.teamai.model.AcpSession;
 import reengineering.ddd.teamai.model.Project;
@@ -107,6 +111,48 @@ class ProjectAcpSessionsTest {
     assertNotNull(list.iterator().next().getDescription().provider());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void should_seek_sessions_page_by_page_in_list_order() {
+    for (int i = 0; i < 5; i++) {
+      project.startAcpSession(
+          new AcpSessionDescription(
+              new Ref<>(project.getIdentity()),
+              new Ref<>("1"),
+              "codex",
+              "default",
+              AcpSessionDescription.Status.PENDING,
+              Instant.parse("2026-03-03T13:00:00Z").plusSeconds(i),
+              Instant.parse("2026-03-03T13:00:00Z").plusSeconds(i),
+              null,
+              null,
+              null,
+              null));
+    }
+    SeekableMany<String, AcpSession> sessions =
+        (SeekableMany<String, AcpSession>) project.acpSessions().findAll();
+
+    List<String> seeked = new ArrayList<>();
+    String after = null;
+    while (true) {
+      List<String> page =
+          sessions.subCollectionAfter(after, 2).stream().map(AcpSession::getIdentity).toList();
+      if (page.isEmpty()) {
+        break;
+      }
+      seeked.addAll(page);
+      after = page.get(page.size() - 1);
+    }
+
+    assertTrue(seeked.size() >= 5);
+    assertEquals(
+        project.findAcpSessions(project.getIdentity(), 0, seeked.size()).stream()
+            .map(AcpSession::getIdentity)
+            .toList(),
+        seeked);
+    assertThrows(IllegalArgumentException.class, () -> sessions.subCollectionAfter("999999", 2));
+  }
+
   @Test
   void should_persist_parent_session_id_for_child_session() {
     AcpSession parent =
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import jakarta.inject.Inject;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import reengineering.ddd.TestCacheConfig;
 import reengineering.ddd.TestContainerConfig;
 import reengineering.ddd.TestDataSetup;
 import reengineering.ddd.archtype.Ref;
+import reengineering.ddd.archtype.SeekableMany;
 import reengineering.ddd.teamai.description.AgentDescription;
 import reengineering.ddd.teamai.description.AgentEventDescription;
 import reengineering.ddd.teamai.description.TaskDescription;
@@ -84,4 +86,61 @@ public class ProjectAgentEventsTest {
     assertEquals("Task assigned", loaded.getDescription().message());
     assertEquals(Instant.parse("2026-01-03T00:00:00Z"), loaded.getDescription().occurredAt());
   }
+
+  @Test
+  void should_seek_pages_in_the_same_order_as_offset_pages() {
+    Instant occurredAt = Instant.parse("2026-01-04T00:00:00Z");
+    for (int i = 0; i < 5; i++) {
+      project.appendEvent(
+          new AgentEventDescription(
+              AgentEventDescription.Type.TASK_ASSIGNED,
+              null,
+              null,
+              "Event " + i,
+              i % 2 == 0 ? occurredAt : occurredAt.plusSeconds(i)));
+    }
+    SeekableMany<String, AgentEvent> events =
+        (SeekableMany<String, AgentEvent>) project.events().findAll();
+
+    List<String> seeked = new ArrayList<>();
+    String after = null;
+    while (true) {
+      List<String> page =
+          events.subCollectionAfter(after, 2).stream().map(AgentEvent::getIdentity).toList();
+      if (page.isEmpty()) {
+        break;
+      }
+      seeked.addAll(page);
+      after = page.get(page.size() - 1);
+    }
+
+    assertEquals(events.stream().map(AgentEvent::getIdentity).toList(), seeked);
+  }
+
+  @Test
+  void should_tail_events_appended_after_a_high_water_mark() {
+    List<String> appended = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      appended.add(
+          project
+              .appendEvent(
+                  new AgentEventDescription(
+                      AgentEventDescription.Type.TASK_ASSIGNED,
+                      null,
+                      null,
+                      "Tail " + i,
+                      Instant.parse("2026-01-05T00:00:00Z").minusSeconds(i)))
+              .getIdentity());
+    }
+
+    List<String> tail =
+        project
+            .findEventsAppendedAfter(appended.get(0), 10)
+            .stream()
+            .map(AgentEvent::getIdentity)
+            .toList();
+
+    assertEquals(appended.subList(1, 3), tail);
+    assertEquals(appended.get(2), project.findLastAppendedEvent().orElseThrow().getIdentity());
+  }
 }
@@ -1,11 +1,15 @@
 package reengineering.ddd.associations;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import jakarta.inject.Inject;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,6 +43,7 @@ import reengineering.ddd.teamai.model.User;
 import reengineering.ddd.teamai.mybatis.associations.Users;
 import reengineering.ddd.teamai.mybatis.config.CacheConfig;
 import reengineering.ddd.teamai.mybatis.knowledgegraph.KnowledgeGraphPublishWorker;
+import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphMapper;
 
 @MybatisTest
 @Import({TestContainerConfig.class, FlywayConfig.class, TestCacheConfig.class, CacheConfig.class})
@@ -49,6 +54,7 @@ public class ProjectDiagramsTest {
   @Inject private Project.KnowledgeGraphPublisher knowledgeGraphPublisher;
   @Inject private KnowledgeGraphPublishWorker knowledgeGraphPublishWorker;
   @Inject private KnowledgeGraphReader knowledgeGraphReader;
+  @Inject private KnowledgeGraphMapper knowledgeGraphMapper;
   @Inject private TestDataMapper testDataMapper;
 
   private User user;
@@ -519,6 +525,373 @@ public class ProjectDiagramsTest {
                         && edge.relationType().equals("AUTHORIZES")));
   }
 
+  @Test
+  public void should_only_add_new_edges_when_diagram_is_republished() {
+    LogicalEntity contract =
+        project.addLogicalEntity(
+            new LogicalEntityDescription(
+                LogicalEntityDescription.Type.EVIDENCE,
+                EvidenceSubType.CONTRACT,
+                "OrderContract",
+                "订单合同",
+                new EntityDefinition("合同定义", null, null, null)));
+    LogicalEntity request =
+        project.addLogicalEntity(
+            new LogicalEntityDescription(
+                LogicalEntityDescription.Type.EVIDENCE,
+                EvidenceSubType.FULFILLMENT_REQUEST,
+                "CreatePayment",
+                "创建支付请求",
+                new EntityDefinition("履约请求", null, null, null)));
+
+    Diagram diagram =
+        project.addDiagram(new DiagramDescription("增量发布图", Type.CLASS, Viewport.defaultViewport()));
+    DiagramNode contractNode =
+        diagram.addNode(
+            new NodeDescription(
+                "fulfillment-node",
+                new Ref<>(contract.getIdentity()),
+                null,
+                100.0,
+                100.0,
+                220,
+                120,
+                null,
+                null));
+    DiagramNode requestNode =
+        diagram.addNode(
+            new NodeDescription(
+                "fulfillment-node",
+                new Ref<>(request.getIdentity()),
+                null,
+                300.0,
+                100.0,
+                220,
+                120,
+                null,
+                null));
+    diagram.addEdge(
+        new EdgeDescription(
+            new Ref<>(contractNode.getIdentity()),
+            new Ref<>(requestNode.getIdentity()),
+            null,
+            null,
+            "AUTHORIZES",
+            null,
+            null,
+            false));
+
+    project.publishDiagram(diagram.getIdentity(), knowledgeGraphPublisher);
+    knowledgeGraphPublishWorker.processPendingJobs();
+
+    diagram.addEdge(
+        new EdgeDescription(
+            new Ref<>(requestNode.getIdentity()),
+            new Ref<>(contractNode.getIdentity()),
+            null,
+            null,
+            "FULFILLS",
+            null,
+            null,
+            false));
+    project.publishDiagram(diagram.getIdentity(), knowledgeGraphPublisher);
+    knowledgeGraphPublishWorker.processPendingJobs();
+
+    KnowledgeGraph graph = knowledgeGraphReader.readProjectKnowledgeGraph(project.getIdentity());
+    List<KnowledgeGraph.Edge> diagramEdges =
+        graph.edges().stream()
+            .filter(edge -> edge.diagramId().equals(diagram.getIdentity()))
+            .toList();
+    assertEquals(2, diagramEdges.size());
+    assertTrue(diagramEdges.stream().anyMatch(edge -> edge.relationType().equals("AUTHORIZES")));
+    assertTrue(diagramEdges.stream().anyMatch(edge -> edge.relationType().equals("FULFILLS")));
+    assertEquals(
+        2,
+        graph.nodes().stream()
+            .filter(
+                node ->
+                    node.logicalEntityId().equals(contract.getIdentity())
+                        || node.logicalEntityId().equals(request.getIdentity()))
+            .count());
+  }
+
+  @Test
+  public void should_drop_nodes_of_entities_removed_from_the_diagram_on_republish() {
+    LogicalEntity kept =
+        project.addLogicalEntity(
+            new LogicalEntityDescription(
+                LogicalEntityDescription.Type.EVIDENCE,
+                EvidenceSubType.CONTRACT,
+                "KeptContract",
+                "保留合同",
+                new EntityDefinition("合同定义", null, null, null)));
+    LogicalEntity removed =
+        project.addLogicalEntity(
+            new LogicalEntityDescription(
+                LogicalEntityDescription.Type.EVIDENCE,
+                EvidenceSubType.FULFILLMENT_REQUEST,
+                "RemovedRequest",
+                "移除请求",
+                new EntityDefinition("履约请求", null, null, null)));
+
+    Diagram diagram =
+        project.addDiagram(new DiagramDescription("移除实体图", Type.CLASS, Viewport.defaultViewport()));
+    NodeDescription keptDescription =
+        new NodeDescription(
+            "fulfillment-node",
+            new Ref<>(kept.getIdentity()),
+            null,
+            100.0,
+            100.0,
+            220,
+            120,
+            null,
+            null);
+    DiagramNode keptNode = diagram.addNode(keptDescription);
+    diagram.addNode(
+        new NodeDescription(
+            "fulfillment-node",
+            new Ref<>(removed.getIdentity()),
+            null,
+            300.0,
+            100.0,
+            220,
+            120,
+            null,
+            null));
+    project.publishDiagram(diagram.getIdentity(), knowledgeGraphPublisher);
+    knowledgeGraphPublishWorker.processPendingJobs();
+    int projectId = Integer.parseInt(project.getIdentity());
+    int embeddings = knowledgeGraphMapper.countEmbeddings(projectId);
+
+    project.saveDiagram(
+        diagram.getIdentity(),
+        List.of(new Project.Diagrams.DraftNode(keptNode.getIdentity(), keptDescription)),
+        List.of());
+    project.publishDiagram(diagram.getIdentity(), knowledgeGraphPublisher);
+    knowledgeGraphPublishWorker.processPendingJobs();
+
+    List<String> nodes =
+        knowledgeGraphReader.readProjectKnowledgeGraph(project.getIdentity()).nodes().stream()
+            .map(KnowledgeGraph.Node::logicalEntityId)
+            .toList();
+    assertTrue(nodes.contains(kept.getIdentity()));
+    assertFalse(nodes.contains(removed.getIdentity()));
+    assertEquals(embeddings - 1, knowledgeGraphMapper.countEmbeddings(projectId));
+  }
+
+  @Test
+  public void should_find_similar_nodes_after_publish() {
+    LogicalEntity contract =
+        project.addLogicalEntity(
+            new LogicalEntityDescription(
+                LogicalEntityDescription.Type.EVIDENCE,
+                EvidenceSubType.CONTRACT,
+                "SimilarOrderContract",
+                "订单合同",
+                new EntityDefinition("合同定义", null, null, null)));
+    LogicalEntity request =
+        project.addLogicalEntity(
+            new LogicalEntityDescription(
+                LogicalEntityDescription.Type.EVIDENCE,
+                EvidenceSubType.FULFILLMENT_REQUEST,
+                "SimilarCreatePayment",
+                "创建支付请求",
+                new EntityDefinition("履约请求", null, null, null)));
+
+    Diagram diagram =
+        project.addDiagram(new DiagramDescription("相似实体图", Type.CLASS, Viewport.defaultViewport()));
+    for (LogicalEntity entity : List.of(contract, request)) {
+      diagram.addNode(
+          new NodeDescription(
+              "fulfillment-node",
+              new Ref<>(entity.getIdentity()),
+              null,
+              100.0,
+              100.0,
+              220,
+              120,
+              null,
+              null));
+    }
+    project.publishDiagram(diagram.getIdentity(), knowledgeGraphPublisher);
+    knowledgeGraphPublishWorker.processPendingJobs();
+
+    List<KnowledgeGraph.SimilarNode> similar =
+        knowledgeGraphReader.findSimilarNodes(project.getIdentity(), contract.getIdentity(), 10);
+    assertTrue(
+        similar.stream()
+            .anyMatch(node -> node.node().logicalEntityId().equals(request.getIdentity())));
+    assertTrue(
+        similar.stream()
+            .noneMatch(node -> node.node().logicalEntityId().equals(contract.getIdentity())));
+    for (int i = 1; i < similar.size(); i++) {
+      assertTrue(similar.get(i - 1).similarity() >= similar.get(i).similarity());
+    }
+    assertEquals(
+        1,
+        knowledgeGraphReader
+            .findSimilarNodes(project.getIdentity(), contract.getIdentity(), 1)
+            .size());
+    assertTrue(
+        knowledgeGraphMapper
+            .findSimilarByVector(
+                Integer.parseInt(project.getIdentity()),
+                Integer.parseInt(contract.getIdentity()),
+                10)
+            .stream()
+            .noneMatch(
+                row -> row.getLogicalEntityId() == Integer.parseInt(contract.getIdentity())));
+  }
+
+  @Test
+  public void should_traverse_knowledge_graph_after_publish() {
+    Diagram diagram =
+        project.addDiagram(new DiagramDescription("遍历图", Type.CLASS, Viewport.defaultViewport()));
+    DiagramNode contract = traversalNode(diagram, "TraversalContract", EvidenceSubType.CONTRACT);
+    DiagramNode request =
+        traversalNode(diagram, "TraversalRequest", EvidenceSubType.FULFILLMENT_REQUEST);
+    DiagramNode confirmation =
+        traversalNode(diagram, "TraversalConfirmation", EvidenceSubType.FULFILLMENT_CONFIRMATION);
+    traversalEdge(diagram, contract, request, "AUTHORIZES");
+    traversalEdge(diagram, request, confirmation, "FULFILLS");
+    project.publishDiagram(diagram.getIdentity(), knowledgeGraphPublisher);
+    knowledgeGraphPublishWorker.processPendingJobs();
+    String start = contract.getDescription().logicalEntity().id();
+    String middle = request.getDescription().logicalEntity().id();
+    String end = confirmation.getDescription().logicalEntity().id();
+
+    KnowledgeGraph.Neighborhood twoHops =
+        knowledgeGraphReader.findNeighborhood(
+            project.getIdentity(),
+            start,
+            new KnowledgeGraph.Traversal(2, KnowledgeGraph.Direction.OUTGOING, Set.of()),
+            null,
+            10);
+    assertEquals(
+        List.of(start, middle, end),
+        twoHops.nodes().stream().map(node -> node.node().logicalEntityId()).toList());
+    assertEquals(List.of(0, 1, 2), twoHops.nodes().stream().map(node -> node.depth()).toList());
+    assertEquals(2, twoHops.edges().size());
+    assertNull(twoHops.nextCursor());
+
+    KnowledgeGraph.Traversal both =
+        new KnowledgeGraph.Traversal(2, KnowledgeGraph.Direction.BOTH, Set.of());
+    KnowledgeGraph.Neighborhood firstPage =
+        knowledgeGraphReader.findNeighborhood(project.getIdentity(), start, both, null, 1);
+    assertEquals(start, firstPage.nodes().get(0).node().logicalEntityId());
+    assertTrue(firstPage.edges().isEmpty());
+    KnowledgeGraph.Neighborhood secondPage =
+        knowledgeGraphReader.findNeighborhood(
+            project.getIdentity(), start, both, firstPage.nextCursor(), 1);
+    assertEquals(middle, secondPage.nodes().get(0).node().logicalEntityId());
+    assertEquals(
+        List.of("AUTHORIZES"),
+        secondPage.edges().stream().map(KnowledgeGraph.Edge::relationType).toList());
+    KnowledgeGraph.Neighborhood lastPage =
+        knowledgeGraphReader.findNeighborhood(
+            project.getIdentity(), start, both, secondPage.nextCursor(), 1);
+    assertEquals(end, lastPage.nodes().get(0).node().logicalEntityId());
+    assertEquals(
+        List.of("FULFILLS"),
+        lastPage.edges().stream().map(KnowledgeGraph.Edge::relationType).toList());
+    assertNull(lastPage.nextCursor());
+
+    assertEquals(
+        1,
+        knowledgeGraphReader
+            .findNeighborhood(
+                project.getIdentity(),
+                start,
+                new KnowledgeGraph.Traversal(2, KnowledgeGraph.Direction.BOTH, Set.of("FULFILLS")),
+                null,
+                10)
+            .nodes()
+            .size());
+
+    KnowledgeGraph.Path path =
+        knowledgeGraphReader
+            .findShortestPath(
+                project.getIdentity(),
+                end,
+                start,
+                new KnowledgeGraph.Traversal(6, KnowledgeGraph.Direction.INCOMING, Set.of()))
+            .orElseThrow();
+    assertEquals(
+        List.of(end, middle, start),
+        path.nodes().stream().map(node -> node.logicalEntityId()).toList());
+    assertEquals(
+        List.of("FULFILLS", "AUTHORIZES"),
+        path.edges().stream().map(edge -> edge.relationType()).toList());
+    assertTrue(
+        knowledgeGraphReader
+            .findShortestPath(
+                project.getIdentity(),
+                end,
+                start,
+                new KnowledgeGraph.Traversal(6, KnowledgeGraph.Direction.OUTGOING, Set.of()))
+            .isEmpty());
+    assertTrue(
+        knowledgeGraphReader
+            .findShortestPath(
+                project.getIdentity(),
+                start,
+                end,
+                new KnowledgeGraph.Traversal(1, KnowledgeGraph.Direction.BOTH, Set.of()))
+            .isEmpty());
+  }
+
+  @Test
+  public void should_export_knowledge_graph_in_pages_and_as_stream() {
+    Diagram diagram =
+        project.addDiagram(new DiagramDescription("导出图", Type.CLASS, Viewport.defaultViewport()));
+    DiagramNode contract = traversalNode(diagram, "ExportContract", EvidenceSubType.CONTRACT);
+    DiagramNode request =
+        traversalNode(diagram, "ExportRequest", EvidenceSubType.FULFILLMENT_REQUEST);
+    DiagramNode confirmation =
+        traversalNode(diagram, "ExportConfirmation", EvidenceSubType.FULFILLMENT_CONFIRMATION);
+    traversalEdge(diagram, contract, request, "AUTHORIZES");
+    traversalEdge(diagram, request, confirmation, "FULFILLS");
+    project.publishDiagram(diagram.getIdentity(), knowledgeGraphPublisher);
+    knowledgeGraphPublishWorker.processPendingJobs();
+
+    List<KnowledgeGraph.Node> exportedNodes = new ArrayList<>();
+    List<KnowledgeGraph.Edge> exportedEdges = new ArrayList<>();
+    knowledgeGraphReader.exportProjectKnowledgeGraph(
+        project.getIdentity(),
+        new KnowledgeGraph.Sink() {
+          @Override
+          public void node(KnowledgeGraph.Node node) {
+            exportedNodes.add(node);
+          }
+
+          @Override
+          public void edge(KnowledgeGraph.Edge edge) {
+            exportedEdges.add(edge);
+          }
+        });
+    KnowledgeGraph graph = knowledgeGraphReader.readProjectKnowledgeGraph(project.getIdentity());
+    assertEquals(graph.nodes(), exportedNodes);
+    assertEquals(Set.copyOf(graph.edges()), Set.copyOf(exportedEdges));
+
+    List<KnowledgeGraph.Node> pagedNodes = new ArrayList<>();
+    List<KnowledgeGraph.Edge> pagedEdges = new ArrayList<>();
+    String cursor = null;
+    do {
+      KnowledgeGraph.Page page =
+          knowledgeGraphReader.readProjectKnowledgeGraphPage(project.getIdentity(), cursor, 2);
+      assertTrue(page.nodes().size() + page.edges().size() <= 2);
+      pagedNodes.addAll(page.nodes());
+      pagedEdges.addAll(page.edges());
+      cursor = page.nextCursor();
+    } while (cursor != null);
+    assertEquals(exportedNodes, pagedNodes);
+    assertEquals(exportedEdges, pagedEdges);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> knowledgeGraphReader.readProjectKnowledgeGraphPage(project.getIdentity(), "x", 2));
+  }
+
   @Test
   public void should_create_diagram_version_from_persisted_diagram() {
     Diagram diagram =
@@ -530,6 +903,42 @@ public class ProjectDiagramsTest {
     assertEquals(1, diagram.versions().findAll().size());
   }
 
+  private DiagramNode traversalNode(Diagram diagram, String name, EvidenceSubType subType) {
+    LogicalEntity entity =
+        project.addLogicalEntity(
+            new LogicalEntityDescription(
+                LogicalEntityDescription.Type.EVIDENCE,
+                subType,
+                name,
+                name,
+                new EntityDefinition(name, null, null, null)));
+    return diagram.addNode(
+        new NodeDescription(
+            "fulfillment-node",
+            new Ref<>(entity.getIdentity()),
+            null,
+            100.0,
+            100.0,
+            220,
+            120,
+            null,
+            null));
+  }
+
+  private static void traversalEdge(
+      Diagram diagram, DiagramNode source, DiagramNode target, String relationType) {
+    diagram.addEdge(
+        new EdgeDescription(
+            new Ref<>(source.getIdentity()),
+            new Ref<>(target.getIdentity()),
+            null,
+            null,
+            relationType,
+            null,
+            null,
+            false));
+  }
+
   private static NodeDescription minimalNodeDescription() {
     return new NodeDescription("class-node", null, null, 100.0, 200.0, 300, 200, null, null);
   }
@@ -1,6 +1,9 @@
 package reengineering.ddd.mappers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import jakarta.inject.Inject;
 import java.time.Instant;
@@ -10,6 +13,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
 import reengineering.ddd.TestContainerConfig;
 import reengineering.ddd.TestDataMapper;
 import reengineering.ddd.teamai.mybatis.mappers.ProjectAcpSessionEventRow;
@@ -49,11 +53,11 @@ class ProjectAcpSessionEventsMapperTest {
 
   @Test
   void should_insert_and_query_events_by_cursor_and_limit() {
-    eventsMapper.insertEvent(projectId, sessionId, row("evt-1", "status", "{}", null));
+    eventsMapper.insertEvent(projectId, sessionId, row("evt-1", 1, "status", "{}", null));
     eventsMapper.insertEvent(
-        projectId, sessionId, row("evt-2", "delta", "{\"content\":\"a\"}", null));
+        projectId, sessionId, row("evt-2", 2, "delta", "{\"content\":\"a\"}", null));
     eventsMapper.insertEvent(
-        projectId, sessionId, row("evt-3", "complete", "{\"reason\":\"done\"}", null));
+        projectId, sessionId, row("evt-3", 3, "complete", "{\"reason\":\"done\"}", null));
 
     List<ProjectAcpSessionEventRow> all =
         eventsMapper.findEventsBySession(projectId, sessionId, null, 10);
@@ -63,26 +67,69 @@ class ProjectAcpSessionEventsMapperTest {
     assertEquals("evt-3", all.get(2).getEventId());
 
     List<ProjectAcpSessionEventRow> afterFirst =
-        eventsMapper.findEventsBySession(projectId, sessionId, "evt-1", 10);
+        eventsMapper.findEventsBySession(projectId, sessionId, 1L, 10);
     assertEquals(2, afterFirst.size());
     assertEquals("evt-2", afterFirst.get(0).getEventId());
     assertEquals("evt-3", afterFirst.get(1).getEventId());
 
     List<ProjectAcpSessionEventRow> limited =
-        eventsMapper.findEventsBySession(projectId, sessionId, "evt-1", 1);
+        eventsMapper.findEventsBySession(projectId, sessionId, 1L, 1);
     assertEquals(1, limited.size());
     assertEquals("evt-2", limited.get(0).getEventId());
 
-    List<ProjectAcpSessionEventRow> missingCursor =
-        eventsMapper.findEventsBySession(projectId, sessionId, "evt-missing", 10);
-    assertEquals(3, missingCursor.size());
+    List<ProjectAcpSessionEventRow> afterLast =
+        eventsMapper.findEventsBySession(projectId, sessionId, 3L, 10);
+    assertTrue(afterLast.isEmpty());
+  }
+
+  @Test
+  void should_skip_events_whose_id_is_taken_and_reject_a_taken_sequence() {
+    assertEquals(
+        1, eventsMapper.insertEvent(projectId, sessionId, row("evt-1", 1, "status", "{}", null)));
+    assertEquals(
+        0, eventsMapper.insertEvent(projectId, sessionId, row("evt-1", 2, "status", "{}", null)));
+    assertEquals(1L, eventsMapper.findLastSeq(projectId, sessionId));
+
+    assertThrows(
+        DuplicateKeyException.class,
+        () ->
+            eventsMapper.insertEvent(projectId, sessionId, row("evt-2", 1, "delta", "{}", null)));
+  }
+
+  @Test
+  void should_allocate_consecutive_sequences_per_session() {
+    int otherSessionId = sessionId + 100000;
+    testData.insertProjectAcpSession(
+        otherSessionId,
+        projectId,
+        userId,
+        "codex",
+        "default",
+        "RUNNING",
+        Instant.parse("2026-03-03T10:00:00Z"),
+        Instant.parse("2026-03-03T10:01:00Z"),
+        null,
+        null,
+        "evt-bootstrap");
+
+    assertEquals(1L, eventsMapper.nextSeq(projectId, sessionId));
+    assertEquals(2L, eventsMapper.nextSeq(projectId, sessionId));
+    assertEquals(1L, eventsMapper.nextSeq(projectId, otherSessionId));
+    assertEquals(3L, eventsMapper.nextSeq(projectId, sessionId));
+  }
+
+  @Test
+  void should_find_the_project_of_a_session() {
+    assertEquals(projectId, eventsMapper.findSessionProjectId(sessionId));
+    assertNull(eventsMapper.findSessionProjectId(sessionId + 100000));
   }
 
   private ProjectAcpSessionEventRow row(
-      String eventId, String eventType, String dataJson, String errorJson) {
+      String eventId, long seq, String eventType, String dataJson, String errorJson) {
     ProjectAcpSessionEventRow row = new ProjectAcpSessionEventRow();
     row.setSessionId(sessionId);
     row.setEventId(eventId);
+    row.setSeq(seq);
     row.setEventType(eventType);
     row.setEmittedAt(Instant.parse("2026-03-03T10:00:00Z"));
     row.setDataJson(dataJson);
@@ -0,0 +1,187 @@
+package reengineering.ddd.mybatis.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import reengineering.ddd.archtype.Entity;
+import reengineering.ddd.mybatis.support.PrefetchExecutor;
+
+class EntityListTest {
+  private static final List<Item> ITEMS =
+      IntStream.range(0, 450).mapToObj(i -> new Item(String.valueOf(i))).toList();
+
+  @Test
+  void should_read_offset_batches_that_grow_up_to_the_max_batch_size() {
+    OffsetItems items = new OffsetItems();
+
+    assertEquals(ITEMS, items.stream().toList());
+    assertEquals(List.of("0-100", "100-300", "300-450"), items.queries);
+    assertEquals(1, items.counts);
+  }
+
+  @Test
+  void should_stop_after_a_batch_that_returns_the_whole_collection() {
+    OffsetItems items =
+        new OffsetItems() {
+          @Override
+          protected List<Item> findEntities(int from, int to) {
+            queries.add(from + "-" + to);
+            return ITEMS;
+          }
+        };
+
+    assertEquals(ITEMS, items.stream().toList());
+    assertEquals(List.of("0-100"), items.queries);
+  }
+
+  @Test
+  void should_seek_past_the_last_entity_without_counting() {
+    SeekableItems items = new SeekableItems();
+
+    assertEquals(ITEMS, items.stream().toList());
+    assertEquals(List.of("null+100", "99+200", "299+400"), items.queries);
+    assertEquals(0, items.counts);
+  }
+
+  @Test
+  void should_read_only_the_first_batch_when_the_caller_stops_early() {
+    SeekableItems items = new SeekableItems();
+
+    assertEquals(ITEMS.get(0), items.stream().findFirst().orElseThrow());
+    assertEquals(List.of("null+100"), items.queries);
+  }
+
+  @Test
+  void should_read_the_next_batch_ahead_on_the_prefetch_executor() {
+    PrefetchExecutor executor = new PrefetchExecutor(1, 4);
+    SeekableItems items = new SeekableItems();
+    items.setPrefetchExecutor(Optional.of(executor));
+    try {
+      assertEquals(ITEMS, items.stream().toList());
+    } finally {
+      executor.destroy();
+    }
+
+    assertEquals(List.of("null+100", "99+200", "299+400"), items.queries);
+    assertEquals(Thread.currentThread().getName(), items.threads.get(0));
+    assertTrue(
+        items.threads.subList(1, 3).stream()
+            .allMatch(name -> name.startsWith("entity-list-prefetch-")));
+  }
+
+  @Test
+  void should_not_ask_again_for_a_prefetch_the_executor_declined() {
+    AtomicInteger submits = new AtomicInteger();
+    PrefetchExecutor saturated =
+        new PrefetchExecutor(1, 0) {
+          @Override
+          public <T> Future<T> submit(Callable<T> task) {
+            submits.incrementAndGet();
+            return null;
+          }
+        };
+    SeekableItems items = new SeekableItems();
+    items.setPrefetchExecutor(Optional.of(saturated));
+    try {
+      assertEquals(ITEMS, items.stream().toList());
+    } finally {
+      saturated.destroy();
+    }
+
+    assertEquals(2, submits.get());
+    assertTrue(items.threads.stream().allMatch(Thread.currentThread().getName()::equals));
+  }
+
+  @Test
+  void should_reject_seeking_after_an_entity_that_does_not_exist() {
+    SeekableItems items = new SeekableItems();
+
+    assertEquals(List.of(ITEMS.get(449)), items.subCollectionAfter("448", 10).stream().toList());
+    assertEquals(List.of(), items.subCollectionAfter("449", 10).stream().toList());
+    assertThrows(IllegalArgumentException.class, () -> items.subCollectionAfter("450", 10));
+  }
+
+  record Item(String id) implements Entity<String, String> {
+    @Override
+    public String getIdentity() {
+      return id;
+    }
+
+    @Override
+    public String getDescription() {
+      return id;
+    }
+  }
+
+  static class OffsetItems extends EntityList<String, Item> {
+    final List<String> queries = new CopyOnWriteArrayList<>();
+    int counts;
+
+    @Override
+    protected List<Item> findEntities(int from, int to) {
+      queries.add(from + "-" + to);
+      return ITEMS.subList(from, to);
+    }
+
+    @Override
+    protected Item findEntity(String id) {
+      return ITEMS.get(Integer.parseInt(id));
+    }
+
+    @Override
+    public int size() {
+      counts++;
+      return ITEMS.size();
+    }
+
+    @Override
+    protected int maxBatchSize() {
+      return 200;
+    }
+  }
+
+  static class SeekableItems extends SeekableEntityList<String, Item> {
+    final List<String> queries = new CopyOnWriteArrayList<>();
+    final List<String> threads = new CopyOnWriteArrayList<>();
+    int counts;
+
+    @Override
+    protected List<Item> findEntitiesAfter(String id, int limit) {
+      queries.add(id + "+" + limit);
+      threads.add(Thread.currentThread().getName());
+      int from = id == null ? 0 : Integer.parseInt(id) + 1;
+      return ITEMS.subList(Math.min(ITEMS.size(), from), Math.min(ITEMS.size(), from + limit));
+    }
+
+    @Override
+    protected List<Item> findEntities(int from, int to) {
+      return ITEMS.subList(from, to);
+    }
+
+    @Override
+    protected Item findEntity(String id) {
+      int index = Integer.parseInt(id);
+      return index < ITEMS.size() ? ITEMS.get(index) : null;
+    }
+
+    @Override
+    public int size() {
+      counts++;
+      return ITEMS.size();
+    }
+
+    @Override
+    protected int maxBatchSize() {
+      return 400;
+    }
+  }
+}
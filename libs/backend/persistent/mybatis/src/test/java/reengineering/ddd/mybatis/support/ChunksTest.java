@@ -0,0 +1,53 @@
+package reengineering.ddd.mybatis.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static reengineering.ddd.mybatis.support.Chunks.forEachChunk;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ChunksTest {
+
+  @Test
+  void should_split_lists_into_chunks_in_order() {
+    List<Integer> items = IntStream.range(0, Chunks.SIZE * 2 + 1).boxed().toList();
+    List<List<Integer>> chunks = new ArrayList<>();
+
+    forEachChunk(items, chunks::add);
+
+    assertEquals(List.of(Chunks.SIZE, Chunks.SIZE, 1), chunks.stream().map(List::size).toList());
+    assertEquals(items, chunks.stream().flatMap(List::stream).toList());
+  }
+
+  @Test
+  void should_split_maps_into_chunks_in_iteration_order() {
+    Map<Integer, String> items = new LinkedHashMap<>();
+    for (int id = Chunks.SIZE; id > 0; id--) {
+      items.put(id, "item-" + id);
+    }
+    items.put(0, "item-0");
+    List<Map<Integer, String>> chunks = new ArrayList<>();
+
+    forEachChunk(items, chunks::add);
+
+    assertEquals(List.of(Chunks.SIZE, 1), chunks.stream().map(Map::size).toList());
+    assertEquals(
+        List.copyOf(items.keySet()),
+        chunks.stream().flatMap(chunk -> chunk.keySet().stream()).toList());
+    assertEquals(Map.of(0, "item-0"), chunks.get(1));
+  }
+
+  @Test
+  void should_not_call_the_action_for_empty_input() {
+    List<Object> chunks = new ArrayList<>();
+
+    forEachChunk(List.of(), chunks::add);
+    forEachChunk(Map.of(), chunks::add);
+
+    assertEquals(List.of(), chunks);
+  }
+}
@@ -0,0 +1,50 @@
+package reengineering.ddd.mybatis.support;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+class PrefetchExecutorTest {
+  private final PrefetchExecutor executor = new PrefetchExecutor(1, 1);
+
+  @AfterEach
+  void after() {
+    MDC.clear();
+    executor.destroy();
+  }
+
+  @Test
+  void should_run_tasks_with_the_diagnostic_context_of_the_caller() throws Exception {
+    MDC.put("traceId", "trace-1");
+    assertEquals("trace-1", executor.submit(() -> MDC.get("traceId")).get(5, SECONDS));
+
+    MDC.clear();
+    assertNull(executor.submit(() -> MDC.get("traceId")).get(5, SECONDS));
+  }
+
+  @Test
+  void should_not_run_tasks_when_every_thread_and_queue_slot_is_taken() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<Boolean> running =
+        executor.submit(
+            () -> {
+              started.countDown();
+              return release.await(5, SECONDS);
+            });
+    assertTrue(started.await(5, SECONDS));
+    Future<String> queued = executor.submit(() -> "queued");
+
+    assertNull(executor.submit(() -> "rejected"));
+    release.countDown();
+    assertTrue(running.get(5, SECONDS));
+    assertEquals("queued", queued.get(5, SECONDS));
+  }
+}
@@ -0,0 +1,161 @@
+package reengineering.ddd.teamai.mybatis.acp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reengineering.ddd.teamai.mybatis.mappers.ProjectAcpSessionEventRow;
+import reengineering.ddd.teamai.mybatis.mappers.ProjectAcpSessionEventsMapper;
+
+class AcpSessionEventWriteBehindTest {
+  private final List<List<ProjectAcpSessionEventRow>> batches = new CopyOnWriteArrayList<>();
+  private final ProjectAcpSessionEventsMapper mapper = recordingMapper();
+  private volatile BlockingAction blockFirstWrite;
+
+  @Test
+  void should_write_queued_events_in_batches_on_flush() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AcpSessionEventWriteBehind writeBehind =
+        new AcpSessionEventWriteBehind(mapper, 2, Duration.ofMillis(50), 100, meterRegistry);
+
+    for (int i = 1; i <= 5; i++) {
+      writeBehind.append(row("evt-" + i));
+    }
+    writeBehind.flush(1, 1);
+
+    assertEquals(
+        Set.of("evt-1", "evt-2", "evt-3", "evt-4", "evt-5"), Set.copyOf(writtenEventIds()));
+    assertTrue(batches.stream().allMatch(batch -> batch.size() <= 2));
+    assertEquals(0.0, meterRegistry.get("teamai.acp.events.write_behind.queue").gauge().value());
+    writeBehind.close();
+  }
+
+  @Test
+  void should_write_on_caller_thread_when_queue_is_full() throws InterruptedException {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    blockFirstWrite =
+        () -> {
+          writing.countDown();
+          release.await(5, TimeUnit.SECONDS);
+        };
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AcpSessionEventWriteBehind writeBehind =
+        new AcpSessionEventWriteBehind(mapper, 1, Duration.ZERO, 1, meterRegistry);
+
+    writeBehind.append(row("evt-1"));
+    assertTrue(writing.await(5, TimeUnit.SECONDS));
+    writeBehind.append(row("evt-2"));
+    writeBehind.append(row("evt-3"));
+
+    assertEquals(List.of("evt-3"), writtenEventIds());
+    assertEquals(
+        1.0, meterRegistry.get("teamai.acp.events.write_behind.overflow").counter().count());
+    release.countDown();
+    writeBehind.close();
+    assertEquals(Set.of("evt-1", "evt-2", "evt-3"), Set.copyOf(writtenEventIds()));
+  }
+
+  @Test
+  void should_drain_queue_on_close() {
+    AcpSessionEventWriteBehind writeBehind =
+        new AcpSessionEventWriteBehind(mapper, 100, Duration.ofMillis(50), 100, null);
+
+    writeBehind.append(row("evt-1"));
+    writeBehind.append(row("evt-2"));
+    writeBehind.close();
+    writeBehind.append(row("evt-3"));
+
+    assertEquals(List.of("evt-1", "evt-2", "evt-3"), writtenEventIds());
+  }
+
+  @Test
+  void should_report_events_that_still_fail_to_the_flush_of_their_session() {
+    Mockito.when(mapper.insertEvent(Mockito.anyInt(), Mockito.anyInt(), Mockito.any()))
+        .thenAnswer(
+            invocation -> {
+              ProjectAcpSessionEventRow row = invocation.getArgument(2);
+              if ("evt-bad".equals(row.getEventId())) {
+                throw new IllegalStateException("rejected");
+              }
+              batches.add(List.of(row));
+              return 1;
+            });
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AcpSessionEventWriteBehind writeBehind =
+        new AcpSessionEventWriteBehind(mapper, 10, Duration.ofMillis(50), 100, meterRegistry);
+
+    writeBehind.append(row("evt-1"));
+    writeBehind.append(row("evt-bad"));
+    writeBehind.append(row("evt-2", 2));
+
+    writeBehind.flush(1, 2);
+    writeBehind.await(1, 1);
+    assertEquals(Set.of("evt-1", "evt-2"), Set.copyOf(writtenEventIds()));
+    IllegalStateException error =
+        assertThrows(IllegalStateException.class, () -> writeBehind.flush(1, 1));
+    assertEquals("1 ACP session events could not be written", error.getMessage());
+    Mockito.verify(mapper, Mockito.times(3))
+        .insertEvent(
+            Mockito.eq(1), Mockito.eq(1), Mockito.argThat(AcpSessionEventWriteBehindTest::isBad));
+    assertEquals(1.0, meterRegistry.get("teamai.acp.events.write_behind.failed").counter().count());
+
+    writeBehind.flush(1, 1);
+    writeBehind.close();
+  }
+
+  private static boolean isBad(ProjectAcpSessionEventRow row) {
+    return "evt-bad".equals(row.getEventId());
+  }
+
+  private ProjectAcpSessionEventsMapper recordingMapper() {
+    ProjectAcpSessionEventsMapper mock = Mockito.mock(ProjectAcpSessionEventsMapper.class);
+    Mockito.when(mock.insertEvents(Mockito.anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<ProjectAcpSessionEventRow> rows = invocation.getArgument(0);
+              if (rows.stream().anyMatch(AcpSessionEventWriteBehindTest::isBad)) {
+                throw new IllegalStateException("batch rejected");
+              }
+              if (blockFirstWrite != null && "evt-1".equals(rows.get(0).getEventId())) {
+                blockFirstWrite.run();
+              }
+              batches.add(List.copyOf(rows));
+              return rows.size();
+            });
+    return mock;
+  }
+
+  private List<String> writtenEventIds() {
+    List<String> eventIds = new ArrayList<>();
+    batches.forEach(batch -> batch.forEach(row -> eventIds.add(row.getEventId())));
+    return eventIds;
+  }
+
+  private interface BlockingAction {
+    void run() throws InterruptedException;
+  }
+
+  private ProjectAcpSessionEventRow row(String eventId) {
+    return row(eventId, 1);
+  }
+
+  private ProjectAcpSessionEventRow row(String eventId, int sessionId) {
+    ProjectAcpSessionEventRow row = new ProjectAcpSessionEventRow();
+    row.setProjectId(1);
+    row.setSessionId(sessionId);
+    row.setEventId(eventId);
+    row.setEventType("status");
+    return row;
+  }
+}
@@ -3,6 +3,7 @@ package reengineering.ddd.teamai.mybatis.acp;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
@@ -107,7 +108,7 @@ class PostgresAcpSessionEventStoreTest {
   void should_ignore_duplicate_event_append_by_event_id() {
     AcpSessionEvent duplicate =
         event(
-            "evt-dup",
+            "evt-dup-1",
             "status",
             Map.of("state", "RUNNING"),
             null,
@@ -118,10 +119,47 @@ class PostgresAcpSessionEventStoreTest {
 
     List<AcpSessionEvent> all = store.findBySession(project(), session(), null, 10);
     assertEquals(1, all.size());
-    assertEquals("evt-dup", all.get(0).eventId());
+    assertEquals("evt-dup-1", all.get(0).eventId());
     assertNull(all.get(0).error());
   }
 
+  @Test
+  void should_resume_by_event_sequence_and_report_last_sequence() {
+    for (int seq = 1; seq <= 4; seq++) {
+      store.append(
+          project(),
+          event(
+              "acp-" + session() + "-delta-" + seq,
+              "delta",
+              Map.of("index", seq),
+              null,
+              Instant.parse("2026-03-03T10:00:01Z")));
+    }
+
+    List<AcpSessionEvent> afterSecond =
+        store.findBySession(project(), session(), "acp-" + session() + "-status-2", 10);
+    assertEquals(2, afterSecond.size());
+    assertEquals("acp-" + session() + "-delta-3", afterSecond.get(0).eventId());
+    assertEquals("acp-" + session() + "-delta-4", afterSecond.get(1).eventId());
+    assertEquals(4L, store.lastSequence(project(), session()));
+  }
+
+  @Test
+  void should_allocate_sequences_and_reject_event_ids_without_one() {
+    assertEquals(1L, store.nextSequence(project(), session()));
+    assertEquals(2L, store.nextSequence(project(), session()));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> store.append(project(), delta("acp-" + session() + "-delta", 1)));
+    assertEquals(0L, store.lastSequence(project(), session()));
+  }
+
+  private AcpSessionEvent delta(String eventId, int index) {
+    return event(
+        eventId, "delta", Map.of("index", index), null, Instant.parse("2026-03-03T10:00:01Z"));
+  }
+
   private AcpSessionEvent event(
       String eventId,
       String eventType,
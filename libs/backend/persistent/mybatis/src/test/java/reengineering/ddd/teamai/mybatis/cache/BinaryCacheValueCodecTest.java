@@ -0,0 +1,130 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import reengineering.ddd.archtype.JsonBlob;
+import reengineering.ddd.archtype.Ref;
+import reengineering.ddd.teamai.description.DiagramDescription;
+import reengineering.ddd.teamai.description.EdgeDescription;
+import reengineering.ddd.teamai.description.EntityAttribute;
+import reengineering.ddd.teamai.description.EntityBehavior;
+import reengineering.ddd.teamai.description.EntityDefinition;
+import reengineering.ddd.teamai.description.EvidenceSubType;
+import reengineering.ddd.teamai.description.LogicalEntityDescription;
+import reengineering.ddd.teamai.description.NodeDescription;
+import reengineering.ddd.teamai.description.Viewport;
+import reengineering.ddd.teamai.model.Diagram;
+import reengineering.ddd.teamai.model.DiagramEdge;
+import reengineering.ddd.teamai.model.DiagramNode;
+import reengineering.ddd.teamai.model.LogicalEntity;
+
+class BinaryCacheValueCodecTest {
+  private final BinaryCacheValueCodec codec = new BinaryCacheValueCodec();
+
+  @Test
+  void should_round_trip_node_and_edge_entries() {
+    CacheEntry<String, NodeDescription> node =
+        new CacheEntry<>(DiagramNode.class, "7", nodeDescription(7), 7, Map.of());
+    CacheEntry<String, EdgeDescription> edge =
+        new CacheEntry<>(
+            DiagramEdge.class,
+            "3",
+            new EdgeDescription(
+                new Ref<>("7"), new Ref<>("8"), "right", null, "ASSOCIATION", null, null, true),
+            3,
+            Map.of());
+    CacheEntry<String, DiagramDescription> diagram =
+        new CacheEntry<>(
+            Diagram.class,
+            "1",
+            new DiagramDescription("Diagram", Diagram.Type.CLASS, Viewport.defaultViewport()),
+            1,
+            Map.of("nodes", List.of(node), "edges", List.of(edge)));
+
+    assertEquals(diagram, codec.decode(codec.encode(diagram)));
+  }
+
+  @Test
+  void should_round_trip_logical_entity_with_nested_definition() {
+    LogicalEntityDescription description =
+        new LogicalEntityDescription(
+            LogicalEntityDescription.Type.EVIDENCE,
+            EvidenceSubType.CONTRACT,
+            "Order",
+            "订单",
+            new EntityDefinition(
+                "An order",
+                List.of("core"),
+                List.of(
+                    new EntityAttribute(
+                        "a1", "total", "Total", "Money", null, false, false, "public")),
+                List.of(new EntityBehavior("b1", "place", "Place", null, "void"))));
+    CacheEntry<String, LogicalEntityDescription> entry =
+        new CacheEntry<>(LogicalEntity.class, "9", description, 9, Map.of());
+
+    assertEquals(entry, codec.decode(codec.encode(entry)));
+  }
+
+  @Test
+  void should_round_trip_plain_values() {
+    List<Object> values =
+        List.of(42, 7L, 1.5, false, "text", Instant.ofEpochSecond(1_700_000_000L, 123));
+
+    assertEquals(values, codec.decode(codec.encode(values)));
+  }
+
+  @Test
+  void should_write_repeated_strings_once() {
+    List<CacheEntry<?, ?>> nodes = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      nodes.add(
+          new CacheEntry<>(DiagramNode.class, String.valueOf(i), nodeDescription(i), i, Map.of()));
+    }
+    byte[] compact = codec.encode(nodes);
+    byte[] json = new JsonCacheValueCodec(new ObjectMapper()).encode(nodes);
+
+    assertEquals(nodes, codec.decode(compact));
+    assertTrue(compact.length * 4 < json.length);
+  }
+
+  @Test
+  void should_delegate_unsupported_values_to_fallback() {
+    BinaryCacheValueCodec withFallback =
+        new BinaryCacheValueCodec(
+            DescriptionSchemas.defaults(), new JsonCacheValueCodec(new ObjectMapper()));
+    UUID id = UUID.randomUUID();
+
+    assertEquals(id, withFallback.decode(withFallback.encode(id)));
+    assertThrows(IllegalStateException.class, () -> codec.encode(id));
+  }
+
+  @Test
+  void should_reject_payloads_of_other_versions() {
+    byte[] bytes = codec.encode("value");
+    bytes[0] = (byte) (BinaryCacheValueCodec.VERSION + 1);
+
+    assertThrows(IllegalStateException.class, () -> codec.decode(bytes));
+  }
+
+  private static NodeDescription nodeDescription(int index) {
+    return new NodeDescription(
+        "class",
+        new Ref<>("entity-" + index % 10),
+        null,
+        index * 10.5,
+        -index,
+        index % 2 == 0 ? 120 : null,
+        80,
+        new JsonBlob("{\"color\":\"#fff\"}"),
+        new JsonBlob("{\"label\":\"Node " + index + "\"}"));
+  }
+}
@@ -0,0 +1,45 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CacheKeyIndexTest {
+  private final CacheKeyIndex index = new CacheKeyIndex();
+
+  @Test
+  void should_confirm_a_write_that_no_removal_overlapped() {
+    index.register("1:7");
+
+    assertTrue(index.register("1:size", () -> {}));
+    assertEquals(Set.of("1:7", "1:size"), index.removeParent("1"));
+  }
+
+  @Test
+  void should_reject_a_write_overlapped_by_the_removal_of_its_parent() {
+    assertFalse(
+        index.register(
+            "1:7",
+            () -> {
+              index.removeParent("1");
+              index.register("1:size");
+            }));
+  }
+
+  @Test
+  void should_reject_a_write_overlapped_by_the_removal_of_its_key() {
+    index.register("1:size");
+
+    assertFalse(index.register("1:7", () -> index.removeMatching("1:7")));
+    assertEquals(Set.of("1:size"), index.removeParent("1"));
+  }
+
+  @Test
+  void should_not_run_the_write_under_the_parent_lock() {
+    assertTrue(index.register("1:7", () -> index.register("1:size")));
+    assertEquals(2, index.size());
+  }
+}
@@ -0,0 +1,162 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reengineering.ddd.archtype.Entity;
+import reengineering.ddd.mybatis.support.InjectableObjectFactory;
+import reengineering.ddd.teamai.description.AccountDescription;
+import reengineering.ddd.teamai.description.ConversationDescription;
+import reengineering.ddd.teamai.description.DiagramDescription;
+import reengineering.ddd.teamai.description.LocalCredentialDescription;
+import reengineering.ddd.teamai.description.ProjectDescription;
+import reengineering.ddd.teamai.description.UserDescription;
+import reengineering.ddd.teamai.description.Viewport;
+import reengineering.ddd.teamai.model.Account;
+import reengineering.ddd.teamai.model.Conversation;
+import reengineering.ddd.teamai.model.Diagram;
+import reengineering.ddd.teamai.model.LocalCredential;
+import reengineering.ddd.teamai.model.Project;
+import reengineering.ddd.teamai.model.User;
+import reengineering.ddd.teamai.mybatis.associations.DiagramNodes;
+import reengineering.ddd.teamai.mybatis.associations.ProjectDiagrams;
+
+class GenericEntityHydratorTest {
+  private GenericEntityHydrator hydrator;
+
+  @BeforeEach
+  void before() {
+    hydrator = new GenericEntityHydrator(new InjectableObjectFactory());
+    hydrator.scanAssociations();
+  }
+
+  @Test
+  void should_round_trip_entities_with_lazy_associations() {
+    CacheEntry<String, ProjectDescription> project =
+        new CacheEntry<>(Project.class, "7", new ProjectDescription("TeamAI"), 7, Map.of());
+    CacheEntry<String, DiagramDescription> diagram =
+        new CacheEntry<>(
+            Diagram.class,
+            "3",
+            new DiagramDescription("Order", Diagram.Type.CLASS, Viewport.defaultViewport()),
+            3,
+            Map.of());
+    CacheEntry<String, ConversationDescription> conversation =
+        new CacheEntry<>(
+            Conversation.class, "5", new ConversationDescription("Kickoff"), 5, Map.of());
+
+    assertEquals(project, roundTrip(project));
+    assertEquals(diagram, roundTrip(diagram));
+    assertEquals(conversation, roundTrip(conversation));
+  }
+
+  @Test
+  void should_bind_lazy_associations_to_the_parent_id() throws ReflectiveOperationException {
+    Project project =
+        hydrator.hydrate(
+            new CacheEntry<>(Project.class, "7", new ProjectDescription("TeamAI"), 7, Map.of()));
+    Diagram diagram =
+        hydrator.hydrate(
+            new CacheEntry<>(
+                Diagram.class,
+                "3",
+                new DiagramDescription("Order", Diagram.Type.CLASS, Viewport.defaultViewport()),
+                3,
+                Map.of()));
+
+    assertEquals(
+        7, field(assertInstanceOf(ProjectDiagrams.class, project.diagrams()), "projectId"));
+    assertEquals(3, field(assertInstanceOf(DiagramNodes.class, diagram.nodes()), "diagramId"));
+  }
+
+  @Test
+  void should_round_trip_eager_and_has_one_associations() {
+    CacheEntry<String, AccountDescription> github =
+        new CacheEntry<>(
+            Account.class, "11", new AccountDescription("github", "octocat"), 11, Map.of());
+    CacheEntry<String, AccountDescription> google =
+        new CacheEntry<>(
+            Account.class, "12", new AccountDescription("google", "octocat"), 12, Map.of());
+    CacheEntry<String, LocalCredentialDescription> credential =
+        new CacheEntry<>(
+            LocalCredential.class,
+            "21",
+            new LocalCredentialDescription("octocat", "hash"),
+            21,
+            Map.of());
+    CacheEntry<String, UserDescription> user =
+        new CacheEntry<>(
+            User.class,
+            "1",
+            new UserDescription("Octo", "octo@example.com"),
+            1,
+            Map.of("accounts", List.of(github, google), "credential", List.of(credential)));
+
+    User hydrated = hydrator.hydrate(user);
+
+    assertEquals(
+        List.of("11", "12"),
+        hydrated.accounts().findAll().stream().map(Account::getIdentity).toList());
+    assertEquals("21", hydrated.credential().orElseThrow().getIdentity());
+    assertEquals(user, hydrator.extract(hydrated));
+  }
+
+  @Test
+  void should_round_trip_missing_has_one_and_empty_eager_associations() {
+    CacheEntry<String, UserDescription> user =
+        new CacheEntry<>(
+            User.class,
+            "2",
+            new UserDescription("Octo", "octo@example.com"),
+            2,
+            Map.of("accounts", List.of(), "credential", List.of()));
+
+    User hydrated = hydrator.hydrate(user);
+
+    assertTrue(hydrated.credential().isEmpty());
+    assertEquals(user, hydrator.extract(hydrated));
+  }
+
+  @Test
+  void should_keep_non_numeric_identities_as_internal_ids() {
+    CacheEntry<String, AccountDescription> account =
+        new CacheEntry<>(
+            Account.class, "gh-1", new AccountDescription("github", "octocat"), "gh-1", Map.of());
+
+    assertEquals(account, roundTrip(account));
+  }
+
+  @Test
+  void should_recognize_entities_and_cache_entries() {
+    CacheEntry<String, ProjectDescription> entry =
+        new CacheEntry<>(Project.class, "7", new ProjectDescription("TeamAI"), 7, Map.of());
+    Project project = hydrator.hydrate(entry);
+
+    assertTrue(hydrator.isEntity(project));
+    assertTrue(hydrator.isEntityList(List.of(project)));
+    assertTrue(hydrator.isCacheEntry(entry));
+    assertTrue(hydrator.isCacheEntryList(List.of(entry)));
+    assertFalse(hydrator.isEntity("7"));
+    assertFalse(hydrator.isEntityList(List.of()));
+    assertEquals(List.of(entry), hydrator.extractList(hydrator.hydrateList(List.of(entry))));
+  }
+
+  private <ID, D> CacheEntry<ID, D> roundTrip(CacheEntry<ID, D> entry) {
+    Entity<ID, D> entity = hydrator.hydrate(entry);
+    assertEquals(entry.entityType(), entity.getClass());
+    return hydrator.extract(entity);
+  }
+
+  private static Object field(Object target, String name) throws ReflectiveOperationException {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(target);
+  }
+}
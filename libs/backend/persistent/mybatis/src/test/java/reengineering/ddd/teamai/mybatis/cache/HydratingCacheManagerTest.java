@@ -0,0 +1,308 @@
+package reengineering.ddd.teamai.mybatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.util.unit.DataSize;
+import reengineering.ddd.archtype.JsonBlob;
+import reengineering.ddd.archtype.Ref;
+import reengineering.ddd.mybatis.support.InjectableObjectFactory;
+import reengineering.ddd.teamai.description.NodeDescription;
+import reengineering.ddd.teamai.model.DiagramNode;
+
+class HydratingCacheManagerTest {
+  private Cache cache;
+
+  @BeforeEach
+  void before() {
+    HydratingCacheManager cacheManager =
+        new HydratingCacheManager(new GenericEntityHydrator(new InjectableObjectFactory()));
+    cache = cacheManager.getCache("diagramNodes");
+  }
+
+  @Test
+  void should_evict_all_keys_of_parent() {
+    cache.put(1, "nodes of 1");
+    cache.put("1:7", "node 7");
+    cache.put("1:size", 2);
+    cache.put(2, "nodes of 2");
+    cache.put("2:size", 1);
+
+    cache.evict(CacheKeyIndex.allKeysOf(1));
+
+    assertNull(cache.get(1));
+    assertNull(cache.get("1:7"));
+    assertNull(cache.get("1:size"));
+    assertNotNull(cache.get(2));
+    assertEquals(1, cache.get("2:size", Integer.class));
+  }
+
+  @Test
+  void should_not_evict_parents_sharing_the_same_leading_digits() {
+    cache.put(1, "nodes of 1");
+    cache.put("12:size", 3);
+
+    cache.evict(CacheKeyIndex.allKeysOf(1));
+
+    assertNull(cache.get(1));
+    assertEquals(3, cache.get("12:size", Integer.class));
+  }
+
+  @Test
+  void should_index_keys_loaded_through_value_loader() {
+    cache.get("3:size", () -> 5);
+
+    assertTrue(cache.evictIfPresent(CacheKeyIndex.allKeysOf(3)));
+    assertNull(cache.get("3:size"));
+    assertFalse(cache.evictIfPresent(CacheKeyIndex.allKeysOf(3)));
+  }
+
+  @Test
+  void should_treat_keys_ending_with_an_asterisk_as_plain_keys() {
+    cache.put("8:*", "literal");
+    cache.put("8:size", 1);
+
+    cache.evict("8:*");
+
+    assertNull(cache.get("8:*"));
+    assertEquals(1, cache.get("8:size", Integer.class));
+  }
+
+  @Test
+  void should_not_index_keys_whose_load_failed() {
+    assertThrows(
+        Cache.ValueRetrievalException.class,
+        () ->
+            cache.get(
+                "9:size",
+                () -> {
+                  throw new IllegalStateException("boom");
+                }));
+    cache.put(10, "nodes of 10");
+
+    assertFalse(cache.evictIfPresent(CacheKeyIndex.allKeysOf(9)));
+    assertTrue(cache.evictIfPresent(CacheKeyIndex.allKeysOf(10)));
+  }
+
+  @Test
+  void should_keep_exact_key_eviction() {
+    cache.put("4:1", "node 1");
+    cache.put("4:2", "node 2");
+
+    cache.evict("4:1");
+
+    assertNull(cache.get("4:1"));
+    assertNotNull(cache.get("4:2"));
+  }
+
+  @Test
+  void should_merge_cache_policy_with_default_policy() {
+    HydratingCacheManager cacheManager =
+        new HydratingCacheManager(
+            new GenericEntityHydrator(new InjectableObjectFactory()),
+            CachePolicy.DEFAULT,
+            Map.of(
+                "diagramNodes",
+                new CachePolicy(null, Duration.ofMinutes(2), null, DataSize.ofMegabytes(64), null)),
+            null);
+
+    CachePolicy policy = cacheManager.policyFor("diagramNodes");
+
+    assertEquals(Duration.ofMinutes(10), policy.expireAfterWrite());
+    assertEquals(Duration.ofMinutes(2), policy.refreshAfterWrite());
+    assertNull(policy.maximumSize());
+    assertTrue(policy.weighted());
+    assertEquals(CachePolicy.DEFAULT, cacheManager.policyFor("users"));
+  }
+
+  @Test
+  void should_expire_entries_at_refresh_age_without_a_cache_loader() {
+    HydratingCacheManager cacheManager =
+        new HydratingCacheManager(
+            new GenericEntityHydrator(new InjectableObjectFactory()),
+            CachePolicy.DEFAULT,
+            Map.of("diagramNodes", new CachePolicy(null, Duration.ofMinutes(2), null, null, null)),
+            null);
+    com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+        (com.github.benmanes.caffeine.cache.Cache<?, ?>)
+            cacheManager.getCache("diagramNodes").getNativeCache();
+
+    assertTrue(nativeCache.policy().refreshAfterWrite().isEmpty());
+    assertEquals(
+        Duration.ofMinutes(2),
+        nativeCache.policy().expireAfterWrite().orElseThrow().getExpiresAfter());
+  }
+
+  @Test
+  void should_bound_weighted_cache_by_estimated_bytes() {
+    HydratingCacheManager cacheManager =
+        new HydratingCacheManager(
+            new GenericEntityHydrator(new InjectableObjectFactory()),
+            CachePolicy.DEFAULT,
+            Map.of(
+                "diagramNodes", new CachePolicy(null, null, null, DataSize.ofKilobytes(64), null)),
+            null);
+    Cache weightedCache = cacheManager.getCache("diagramNodes");
+    com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+        (com.github.benmanes.caffeine.cache.Cache<?, ?>) weightedCache.getNativeCache();
+
+    for (int diagramId = 0; diagramId < 100; diagramId++) {
+      weightedCache.put(diagramId, List.of(node(diagramId)));
+    }
+    nativeCache.cleanUp();
+
+    assertTrue(nativeCache.policy().eviction().orElseThrow().isWeighted());
+    assertTrue(nativeCache.estimatedSize() < 100);
+  }
+
+  @Test
+  void should_estimate_cache_entry_weight_from_description() {
+    CacheEntryWeigher weigher = new CacheEntryWeigher();
+    CacheEntry<String, NodeDescription> small =
+        new CacheEntry<>(DiagramNode.class, "1", description(""), 1, Map.of());
+    CacheEntry<String, NodeDescription> large =
+        new CacheEntry<>(DiagramNode.class, "1", description("x".repeat(4096)), 1, Map.of());
+
+    assertTrue(weigher.estimate(large) - weigher.estimate(small) >= 4096);
+  }
+
+  @Test
+  void should_export_cache_metrics_to_meter_registry() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    HydratingCacheManager cacheManager =
+        new HydratingCacheManager(
+            new GenericEntityHydrator(new InjectableObjectFactory()),
+            CachePolicy.DEFAULT,
+            Map.of(),
+            meterRegistry);
+    Cache metered = cacheManager.getCache("projectAgentEventsList");
+
+    metered.get("1:size");
+    metered.put("1:size", 1);
+    metered.get("1:size");
+
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "projectAgentEventsList")
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "projectAgentEventsList")
+            .tag("result", "miss")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void should_store_entity_entries_encoded_in_compact_cache() {
+    HydratingCacheManager cacheManager =
+        new HydratingCacheManager(
+            new GenericEntityHydrator(new InjectableObjectFactory()),
+            CachePolicy.DEFAULT,
+            Map.of("diagramNodes", new CachePolicy(null, null, null, null, true)),
+            null);
+    Cache compactCache = cacheManager.getCache("diagramNodes");
+    com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+        (com.github.benmanes.caffeine.cache.Cache<?, ?>) compactCache.getNativeCache();
+
+    compactCache.put(1, List.of(node(1)));
+    compactCache.put("1:size", 1);
+
+    assertTrue(nativeCache.getIfPresent(1) instanceof CompactCacheValue);
+    assertEquals(1, compactCache.get("1:size", Integer.class));
+  }
+
+  @Test
+  void should_keep_nodes_coherent_through_shared_tier() {
+    SharedCacheStore store = new InMemorySharedCacheStore();
+    CacheInvalidationBus invalidationBus = new InMemoryCacheInvalidationBus();
+    Cache nodeA = sharedCacheManager(store, invalidationBus).getCache("diagramNodes");
+    Cache nodeB = sharedCacheManager(store, invalidationBus).getCache("diagramNodes");
+
+    nodeA.put(5, "nodes of 5");
+    nodeA.put("5:size", 3);
+
+    assertEquals("nodes of 5", nodeB.get(5, String.class));
+    assertEquals(3, nodeB.get("5:size", Integer.class));
+
+    nodeA.evict(CacheKeyIndex.allKeysOf(5));
+
+    assertNull(nodeB.get(5));
+    assertNull(nodeB.get("5:size"));
+  }
+
+  @Test
+  void should_invalidate_exact_keys_on_other_nodes() {
+    SharedCacheStore store = new InMemorySharedCacheStore();
+    CacheInvalidationBus invalidationBus = new InMemoryCacheInvalidationBus();
+    Cache nodeA = sharedCacheManager(store, invalidationBus).getCache("diagramNodes");
+    Cache nodeB = sharedCacheManager(store, invalidationBus).getCache("diagramNodes");
+    nodeA.put(6, "nodes of 6");
+    nodeB.get(6);
+
+    nodeA.evict(6);
+
+    assertNull(nodeB.get(6));
+  }
+
+  @Test
+  void should_load_locally_when_shared_store_fails() {
+    SharedCacheStore failingStore =
+        new InMemorySharedCacheStore() {
+          @Override
+          public byte[] get(String cacheName, String key) {
+            throw new IllegalStateException("store down");
+          }
+
+          @Override
+          public void put(
+              String cacheName, String key, String parentKey, byte[] value, Instant expiresAt) {
+            throw new IllegalStateException("store down");
+          }
+        };
+    CacheInvalidationBus invalidationBus = new InMemoryCacheInvalidationBus();
+    Cache node = sharedCacheManager(failingStore, invalidationBus).getCache("diagramNodes");
+
+    assertEquals(3, node.get("7:size", () -> 3));
+    assertEquals(3, node.get("7:size", Integer.class));
+  }
+
+  private static HydratingCacheManager sharedCacheManager(
+      SharedCacheStore store, CacheInvalidationBus invalidationBus) {
+    return new HydratingCacheManager(
+        new GenericEntityHydrator(new InjectableObjectFactory()),
+        CachePolicy.DEFAULT,
+        Map.of(),
+        null,
+        new SharedCache(store, invalidationBus, new JsonCacheValueCodec(new ObjectMapper())));
+  }
+
+  private static Object node(int diagramId) {
+    return new CacheEntry<>(
+        DiagramNode.class, String.valueOf(diagramId), description("x".repeat(1024)), 1, Map.of());
+  }
+
+  private static NodeDescription description(String localData) {
+    return new NodeDescription(
+        "class", new Ref<>("1"), null, 0, 0, 100, 50, new JsonBlob("{}"), new JsonBlob(localData));
+  }
+}
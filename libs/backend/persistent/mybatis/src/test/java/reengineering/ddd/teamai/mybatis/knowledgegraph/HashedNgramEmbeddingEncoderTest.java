@@ -0,0 +1,61 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HashedNgramEmbeddingEncoderTest {
+  private final HashedNgramEmbeddingEncoder encoder = new HashedNgramEmbeddingEncoder(256);
+
+  @Test
+  void should_encode_same_text_to_same_unit_vector() {
+    float[] first = encode("Order line item");
+    float[] second = encode("order   LINE, item");
+
+    assertArrayEquals(first, second);
+    assertEquals(1.0, dot(first, first), 1e-5);
+  }
+
+  @Test
+  void should_overwrite_reused_target() {
+    float[] target = new float[256];
+    encoder.encode("Customer account", target);
+    encoder.encode("Order", target);
+
+    assertArrayEquals(encode("Order"), target);
+  }
+
+  @Test
+  void should_place_texts_sharing_words_and_characters_closer() {
+    float[] order = encode("PurchaseOrder 采购订单");
+    float[] related = encode("PurchaseOrderLine 采购订单明细");
+    float[] unrelated = encode("Invoice payment 发票");
+
+    assertTrue(dot(order, related) > dot(order, unrelated));
+  }
+
+  @Test
+  void should_return_zero_vector_for_text_without_words() {
+    float[] vector = encode(" -- ,. ");
+
+    assertEquals(0.0, dot(vector, vector));
+    assertNotEquals(encoder.id(), new HashedNgramEmbeddingEncoder(384).id());
+  }
+
+  private float[] encode(String text) {
+    float[] vector = new float[encoder.dimension()];
+    encoder.encode(text, vector);
+    return vector;
+  }
+
+  private static double dot(float[] left, float[] right) {
+    double sum = 0;
+    for (int i = 0; i < left.length; i++) {
+      sum += left[i] * right[i];
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,79 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class HnswIndexTest {
+  @Test
+  void should_find_most_of_the_exact_nearest_neighbours() {
+    SplittableRandom random = new SplittableRandom(7);
+    HnswIndex index = new HnswIndex(32, 16, 100, 1);
+    float[][] vectors = new float[3000][];
+    for (int key = 0; key < vectors.length; key++) {
+      vectors[key] = randomVector(random, 32);
+      index.put(key, vectors[key]);
+    }
+
+    int found = 0;
+    int expected = 0;
+    for (int query = 0; query < 100; query++) {
+      float[] vector = vectors[random.nextInt(vectors.length)];
+      Set<Integer> exact = keys(index.exactSearch(vector, 10));
+      found +=
+          (int) index.search(vector, 10, 64).stream().filter(n -> exact.contains(n.key())).count();
+      expected += exact.size();
+    }
+
+    assertTrue(found >= expected * 0.95, "recall was " + found + "/" + expected);
+  }
+
+  @Test
+  void should_rank_by_cosine_similarity() {
+    HnswIndex index = new HnswIndex(2, 4, 16, 1);
+    index.put(1, new float[] {1, 0});
+    index.put(2, new float[] {1, 1});
+    index.put(3, new float[] {0, 1});
+
+    List<HnswIndex.Neighbor> neighbors = index.search(new float[] {2, 0}, 3, 16);
+
+    assertEquals(List.of(1, 2, 3), neighbors.stream().map(HnswIndex.Neighbor::key).toList());
+    assertEquals(1.0f, neighbors.get(0).similarity(), 1e-6);
+    assertEquals(0.0f, neighbors.get(2).similarity(), 1e-6);
+  }
+
+  @Test
+  void should_not_return_replaced_or_removed_vectors() {
+    HnswIndex index = new HnswIndex(2, 4, 16, 1);
+    index.put(1, new float[] {1, 0});
+    index.put(2, new float[] {0, 1});
+    index.put(1, new float[] {0, 1});
+    index.remove(2);
+
+    assertEquals(1, index.size());
+    assertFalse(index.contains(2));
+    assertEquals(
+        List.of(1),
+        index.search(new float[] {1, 0}, 5, 16).stream().map(HnswIndex.Neighbor::key).toList());
+    assertTrue(index.needsCompaction());
+    assertEquals(1, index.compacted().size());
+  }
+
+  private static Set<Integer> keys(List<HnswIndex.Neighbor> neighbors) {
+    return neighbors.stream().map(HnswIndex.Neighbor::key).collect(Collectors.toSet());
+  }
+
+  private static float[] randomVector(SplittableRandom random, int dimension) {
+    float[] vector = new float[dimension];
+    for (int i = 0; i < dimension; i++) {
+      vector[i] = (float) random.nextGaussian();
+    }
+    return vector;
+  }
+}
@@ -0,0 +1,127 @@
+package reengineering.ddd.teamai.mybatis.knowledgegraph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphJobsMapper;
+import reengineering.ddd.teamai.mybatis.mappers.KnowledgeGraphMapper;
+import reengineering.ddd.teamai.mybatis.mappers.ProjectDiagramsMapper;
+import reengineering.ddd.teamai.mybatis.support.PostgresNotificationListener;
+
+class KnowledgeGraphPublishWorkerTest {
+  private final KnowledgeGraphJobsMapper jobsMapper = Mockito.mock(KnowledgeGraphJobsMapper.class);
+  private final KnowledgeGraphMapper graphMapper = Mockito.mock(KnowledgeGraphMapper.class);
+  private final ProjectDiagramsMapper diagramsMapper = Mockito.mock(ProjectDiagramsMapper.class);
+  private final PostgresNotificationListener notificationListener =
+      Mockito.mock(PostgresNotificationListener.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final List<Integer> processedDiagrams = new CopyOnWriteArrayList<>();
+  private final Map<Integer, String> threadByProject = new ConcurrentHashMap<>();
+  private KnowledgeGraphPublishWorker worker;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (worker != null) {
+      worker.destroy();
+    }
+  }
+
+  @Test
+  void should_claim_again_when_last_claim_was_full() {
+    worker = worker(4, 2);
+    Mockito.when(jobsMapper.claimPendingJobs(2, 600))
+        .thenReturn(List.of(job(1, 1, 11), job(2, 1, 12)), List.of(job(3, 1, 13)));
+
+    worker.processPendingJobs();
+
+    Mockito.verify(jobsMapper, Mockito.times(2)).claimPendingJobs(2, 600);
+    assertEquals(List.of(11, 12, 13), processedDiagrams);
+    assertEquals(
+        3,
+        meterRegistry
+            .get("teamai.kg.publish.job.duration")
+            .tag("outcome", "succeeded")
+            .timer()
+            .count());
+  }
+
+  @Test
+  void should_keep_jobs_of_one_project_on_one_thread_in_order() {
+    worker = worker(4, 10);
+    Mockito.when(jobsMapper.claimPendingJobs(10, 600))
+        .thenReturn(List.of(job(1, 1, 11), job(2, 2, 21), job(3, 1, 12), job(4, 2, 22)));
+    Mockito.when(jobsMapper.countPendingJobs()).thenReturn(7L);
+
+    worker.processPendingJobs();
+
+    assertEquals(List.of(11, 12), processedDiagrams.stream().filter(id -> id < 20).toList());
+    assertEquals(List.of(21, 22), processedDiagrams.stream().filter(id -> id > 20).toList());
+    assertNotEquals(threadByProject.get(1), threadByProject.get(2));
+    assertEquals(7.0, meterRegistry.get("teamai.kg.publish.backlog").gauge().value());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void should_process_jobs_when_publish_notification_arrives() {
+    worker = worker(1, 5);
+    ArgumentCaptor<Consumer<String>> subscriber = ArgumentCaptor.forClass(Consumer.class);
+    Mockito.verify(notificationListener)
+        .subscribe(Mockito.eq(PostgresKnowledgeGraphPublisher.CHANNEL), subscriber.capture());
+    Mockito.when(jobsMapper.claimPendingJobs(5, 600)).thenReturn(List.of(job(1, 1, 11)), List.of());
+
+    subscriber.getValue().accept("1:11");
+
+    Mockito.verify(jobsMapper, Mockito.timeout(5000)).markSucceeded(1L);
+    assertEquals(List.of(11), processedDiagrams);
+  }
+
+  @SuppressWarnings("unchecked")
+  private KnowledgeGraphPublishWorker worker(int concurrency, int batchSize) {
+    ObjectProvider<MeterRegistry> provider = Mockito.mock(ObjectProvider.class);
+    Mockito.when(provider.getIfAvailable()).thenReturn(meterRegistry);
+    Mockito.when(diagramsMapper.findDiagramByProjectAndId(Mockito.anyInt(), Mockito.anyInt()))
+        .thenAnswer(
+            invocation -> {
+              threadByProject.put(invocation.getArgument(0), Thread.currentThread().getName());
+              processedDiagrams.add(invocation.getArgument(1));
+              return null;
+            });
+    KnowledgeGraphPublishWorker worker =
+        new KnowledgeGraphPublishWorker(
+            jobsMapper,
+            graphMapper,
+            diagramsMapper,
+            Mockito.mock(SemanticRelationInferService.class),
+            Mockito.mock(KnowledgeGraphSimilaritySearch.class),
+            new HashedNgramEmbeddingEncoder(16),
+            notificationListener,
+            concurrency,
+            provider,
+            Mockito.mock(ObjectProvider.class));
+    ReflectionTestUtils.setField(worker, "batchSize", batchSize);
+    ReflectionTestUtils.setField(worker, "maxRetries", 3);
+    ReflectionTestUtils.setField(worker, "runningTimeoutSeconds", 600);
+    return worker;
+  }
+
+  private KnowledgeGraphJobRow job(long id, int projectId, int diagramId) {
+    KnowledgeGraphJobRow job = new KnowledgeGraphJobRow();
+    job.setId(id);
+    job.setProjectId(projectId);
+    job.setDiagramId(diagramId);
+    return job;
+  }
+}
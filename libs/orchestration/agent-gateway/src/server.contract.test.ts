@@ -510,6 +510,69 @@ describe('gateway contract', () => {
     }
   });
 
+  it('reads the events of many sessions in one batch', async () => {
+    const runtime = new MockProviderRuntime();
+    const gateway = await startGateway(runtime);
+    try {
+      const sessionIds: string[] = [];
+      for (const input of ['hello-batch-1', 'hello-batch-2']) {
+        const createResponse = await fetch(`${gateway.baseUrl}/sessions`, {
+          method: 'POST',
+          headers: { 'Content-Type': 'application/json' },
+          body: JSON.stringify({ provider: 'codex' }),
+        });
+        const created = (await createResponse.json()) as {
+          session: { sessionId: string };
+        };
+        sessionIds.push(created.session.sessionId);
+        await fetch(
+          `${gateway.baseUrl}/sessions/${created.session.sessionId}/prompt`,
+          {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ input, timeoutMs: 1000 }),
+          },
+        );
+      }
+      await sleep(30);
+
+      const firstPage = (await (
+        await fetch(`${gateway.baseUrl}/sessions/${sessionIds[0]}/events`)
+      ).json()) as { events: Array<{ cursor: string }> };
+      const cursor = firstPage.events[1]?.cursor;
+
+      const batchResponse = await fetch(`${gateway.baseUrl}/sessions/events`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({
+          sessions: [
+            { sessionId: sessionIds[0], cursor },
+            { sessionId: sessionIds[1] },
+            { sessionId: 'missing-session' },
+          ],
+        }),
+      });
+      expect(batchResponse.status).toBe(200);
+      const batch = (await batchResponse.json()) as {
+        sessions: Array<{
+          sessionId: string;
+          nextCursor: string | null;
+          events: Array<{ cursor: string; type: string }>;
+        }>;
+        missing: string[];
+      };
+      expect(batch.sessions.map((page) => page.sessionId)).toEqual(sessionIds);
+      expect(batch.sessions[0]?.events).toEqual(firstPage.events.slice(2));
+      expect(batch.sessions[1]?.events.at(-1)?.type).toBe('complete');
+      expect(batch.sessions[1]?.nextCursor).toBe(
+        batch.sessions[1]?.events.at(-1)?.cursor,
+      );
+      expect(batch.missing).toEqual(['missing-session']);
+    } finally {
+      await gateway.close();
+    }
+  });
+
   it('exposes provider catalog and install endpoints', async () => {
     const gateway = await startGateway(new MockProviderRuntime());
     try {
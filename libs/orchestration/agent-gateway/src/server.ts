@@ -183,6 +183,53 @@ export function createGatewayServer(
         return;
       }
 
+      if (method === 'POST' && url.pathname === '/sessions/events') {
+        const body = await readJsonBody(req);
+        if (!Array.isArray(body.sessions)) {
+          throw new BadRequestError('sessions must be an array');
+        }
+        const pages: Array<{
+          sessionId: string;
+          cursor?: string;
+          nextCursor: string | null;
+          events: GatewayEventEnvelope[];
+        }> = [];
+        const missing: string[] = [];
+        for (const entry of body.sessions) {
+          const request = asRecord(entry);
+          const sessionId = request
+            ? asOptionalString(request.sessionId)
+            : undefined;
+          if (!request || !sessionId) {
+            throw new BadRequestError('sessions[].sessionId must be a string');
+          }
+          const cursor = asOptionalString(request.cursor);
+          try {
+            const events = sessionStore.listEventsSince(sessionId, cursor);
+            const session = sessionStore.getSession(sessionId);
+            pages.push({
+              sessionId,
+              cursor,
+              nextCursor:
+                events.length > 0
+                  ? events[events.length - 1].cursor
+                  : session.lastCursor,
+              events,
+            });
+          } catch (error) {
+            if (!(error instanceof SessionNotFoundError)) {
+              throw error;
+            }
+            missing.push(sessionId);
+          }
+        }
+        writeJsonWithTrace(res, 200, traceIdFromHeader, {
+          sessions: pages,
+          missing,
+        });
+        return;
+      }
+
       const promptRoute = matchRoute(
         url.pathname,
         /^\/sessions\/([^/]+)\/prompt$/,